@@ -0,0 +1,113 @@
+#!/usr/bin/env pwsh
+
+# Benchmark the ticketing report extraction paths against each other:
+#   1. xlsx Job        - psycopg fetchall + pandas + openpyxl (the original path)
+#   2. csv Job         - psycopg COPY TO STDOUT straight to the PVC
+#   3. HTTP csv        - JDBC cursor, rows rendered by the orchestrator
+#   4. HTTP copy-csv   - PgJDBC CopyManager, bytes piped to the response
+#   5. storage copy    - PgJDBC CopyManager, bytes piped to the PVC
+#
+# Use -SeedCopies to multiply the seeded tickets into a multi-million-row range first, e.g.
+#   .\benchmark-report-formats.ps1 -SeedCopies 2000
+# Note: the orchestrator resets the database on restart, which also removes the seeded rows.
+
+param(
+    [string]$StartDate = (Get-Date).AddDays(-30).ToString("yyyy-MM-dd"),
+    [string]$EndDate = (Get-Date).ToString("yyyy-MM-dd"),
+    [int]$SeedCopies = 0,
+    [int]$JobTimeoutSeconds = 3600
+)
+
+$baseUrl = "http://localhost:8080"
+$namespace = "train-orchestrator"
+$results = @()
+
+Write-Host "========================================" -ForegroundColor Cyan
+Write-Host "Ticketing Report Extraction Benchmark" -ForegroundColor Cyan
+Write-Host "Range: $StartDate to $EndDate" -ForegroundColor Cyan
+Write-Host "========================================" -ForegroundColor Cyan
+Write-Host ""
+
+if ($SeedCopies -gt 0) {
+    Write-Host "Seeding $SeedCopies copies of every ticket..." -ForegroundColor Yellow
+    $seedSql = @"
+INSERT INTO tickets (booking_id, passenger_id, trip_id, fare_id, ticket_ref, price, currency, status, issued_at)
+SELECT t.booking_id, t.passenger_id, t.trip_id, t.fare_id, 'BENCH-' || s.n || '-' || t.ticket_ref,
+       t.price, t.currency, t.status, t.issued_at
+FROM (SELECT * FROM tickets WHERE ticket_ref NOT LIKE 'BENCH-%') t
+CROSS JOIN generate_series(1, $SeedCopies) AS s(n);
+ANALYZE tickets;
+"@
+    $postgresPod = kubectl get pods -n $namespace -l app=postgres -o jsonpath="{.items[0].metadata.name}"
+    $seedSql | kubectl exec -i -n $namespace $postgresPod -- psql -U postgres -d traindb -v ON_ERROR_STOP=1
+    Write-Host ""
+}
+
+function Wait-Job([string]$jobName) {
+    $deadline = (Get-Date).AddSeconds($JobTimeoutSeconds)
+    while ((Get-Date) -lt $deadline) {
+        $job = kubectl get job $jobName -n $namespace -o json | ConvertFrom-Json
+        if ($job.status.succeeded -ge 1) { return $true }
+        if ($job.status.failed -ge 3) { return $false }
+        Start-Sleep -Seconds 2
+    }
+    return $false
+}
+
+function Measure-ReportJob([string]$format) {
+    Write-Host "Running $format report job..." -ForegroundColor Yellow
+    $watch = [System.Diagnostics.Stopwatch]::StartNew()
+    $response = Invoke-RestMethod -Method Post -Uri "$baseUrl/api/k8s/jobs/ticketing-report?startDate=$StartDate&endDate=$EndDate&format=$format"
+    $ok = Wait-Job $response.jobName
+    $watch.Stop()
+    $logLine = kubectl logs -n $namespace "job/$($response.jobName)" --tail=1
+    Write-Host "  $logLine" -ForegroundColor White
+    return [pscustomobject]@{
+        Path = "$format job"
+        Seconds = [math]::Round($watch.Elapsed.TotalSeconds, 1)
+        Result = if ($ok) { $logLine } else { "FAILED or timed out" }
+    }
+}
+
+function Measure-HttpExport([string]$format) {
+    Write-Host "Streaming $format over HTTP..." -ForegroundColor Yellow
+    $target = Join-Path ([System.IO.Path]::GetTempPath()) "benchmark-$format.csv"
+    $watch = [System.Diagnostics.Stopwatch]::StartNew()
+    Invoke-WebRequest -Uri "$baseUrl/api/export/tickets?startDate=$StartDate&endDate=$EndDate&format=$format" -OutFile $target
+    $watch.Stop()
+    $size = (Get-Item $target).Length
+    Remove-Item $target
+    return [pscustomobject]@{
+        Path = "HTTP $format"
+        Seconds = [math]::Round($watch.Elapsed.TotalSeconds, 1)
+        Result = "{0:N1} MB" -f ($size / 1MB)
+    }
+}
+
+try {
+    Invoke-RestMethod -Uri "$baseUrl/actuator/health" -ErrorAction Stop | Out-Null
+} catch {
+    Write-Host "✗ Orchestrator is not responding. Please start it first." -ForegroundColor Red
+    exit 1
+}
+
+$results += Measure-ReportJob "xlsx"
+$results += Measure-ReportJob "csv"
+$results += Measure-HttpExport "csv"
+$results += Measure-HttpExport "copy-csv"
+
+Write-Host "Copying CSV to report storage..." -ForegroundColor Yellow
+$watch = [System.Diagnostics.Stopwatch]::StartNew()
+$stored = Invoke-RestMethod -Method Post -Uri "$baseUrl/api/export/tickets/storage?startDate=$StartDate&endDate=$EndDate"
+$watch.Stop()
+$results += [pscustomobject]@{
+    Path = "storage copy-csv"
+    Seconds = [math]::Round($watch.Elapsed.TotalSeconds, 1)
+    Result = "$($stored.rows) rows, {0:N1} MB" -f ($stored.sizeBytes / 1MB)
+}
+
+Write-Host ""
+Write-Host "========================================" -ForegroundColor Cyan
+Write-Host "Results" -ForegroundColor Cyan
+Write-Host "========================================" -ForegroundColor Cyan
+$results | Format-Table -AutoSize
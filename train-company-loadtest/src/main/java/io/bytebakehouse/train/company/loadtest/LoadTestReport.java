@@ -0,0 +1,70 @@
+package io.bytebakehouse.train.company.loadtest;
+
+import io.bytebakehouse.train.company.loadtest.driver.StompSubscriberLoad;
+import io.bytebakehouse.train.company.loadtest.metrics.ActuatorMetricsSampler.JvmReport;
+import io.bytebakehouse.train.company.loadtest.metrics.ActuatorMetricsSampler.OrchestratorJvm;
+import io.bytebakehouse.train.company.loadtest.metrics.LatencyRecorder.OperationStats;
+import io.bytebakehouse.train.company.loadtest.mock.ClusterState;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * Results of one run over the measured window; written as JSON and summarised in the log
+ */
+public record LoadTestReport(
+        OffsetDateTime startedAt,
+        double windowSeconds,
+        Map<String, OperationStats> operations,
+        StompSubscriberLoad.Stats stomp,
+        ClusterState.Stats cluster,
+        Map<String, Long> kubernetesApiRequests,
+        JvmReport jvm) {
+
+    private static final double MIB = 1024.0 * 1024.0;
+
+    /**
+     * Failed calls over all calls, across every operation
+     */
+    public double errorRatio() {
+        long calls = 0;
+        long errors = 0;
+        for (OperationStats stats : operations.values()) {
+            calls += stats.count() + stats.errors();
+            errors += stats.errors();
+        }
+        return calls > 0 ? (double) errors / calls : 0;
+    }
+
+    public String summary() {
+        StringBuilder out = new StringBuilder("\n");
+        out.append(String.format("Load test results over %.0f s%n", windowSeconds));
+        out.append(String.format("%-22s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        operations.forEach((operation, s) -> out.append(String.format(
+                "%-22s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                operation, s.count(), s.errors(), s.perSecond(), s.p50Ms(), s.p90Ms(), s.p99Ms(), s.p999Ms(), s.maxMs())));
+
+        out.append(String.format("STOMP: %d/%d connected (max %d), %d connect failures, %d transport errors, "
+                        + "%d messages (%.0f/s)%n",
+                stomp.connected(), stomp.subscribers(), stomp.maxConnected(), stomp.connectFailures(),
+                stomp.transportErrors(), stomp.messages(), stomp.messagesPerSecond()));
+        out.append(String.format("Mock cluster: %d pods, %d jobs, %d open watches, %d jobs created (%d failed), "
+                        + "%d pod events%n",
+                cluster.pods(), cluster.jobs(), cluster.openWatches(), cluster.jobsCreated(), cluster.jobsFailed(),
+                cluster.podEvents()));
+        out.append("Kubernetes API requests: ").append(kubernetesApiRequests).append('\n');
+
+        OrchestratorJvm jvmStats = jvm.orchestrator();
+        out.append(String.format("Orchestrator JVM: heap max used %.0f MiB (end %.0f / %.0f MiB), "
+                        + "%d GC pauses totalling %.2f s (recent max %.1f ms), %.0f MiB allocated, "
+                        + "CPU %.0f%%, up to %d threads%n",
+                jvmStats.heapUsedMaxBytes() / MIB, jvmStats.heapUsedEndBytes() / MIB, jvmStats.heapMaxBytes() / MIB,
+                jvmStats.gcPauses(), jvmStats.gcPauseSeconds(), jvmStats.gcPauseMaxMs(),
+                jvmStats.allocatedBytes() / MIB, jvmStats.cpuUsageAvg() * 100, jvmStats.liveThreadsMax()));
+        out.append(String.format("Harness JVM: %d GCs (%d ms), heap %.0f / %.0f MiB",
+                jvm.harness().gcCount(), jvm.harness().gcMillis(),
+                jvm.harness().heapUsedBytes() / MIB, jvm.harness().heapMaxBytes() / MIB));
+        return out.toString();
+    }
+}
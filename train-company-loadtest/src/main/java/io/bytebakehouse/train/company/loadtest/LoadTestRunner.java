@@ -0,0 +1,162 @@
+package io.bytebakehouse.train.company.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.bytebakehouse.train.company.loadtest.driver.BookingBenchmark;
+import io.bytebakehouse.train.company.loadtest.driver.DashboardUserLoad;
+import io.bytebakehouse.train.company.loadtest.driver.ReportJobLoad;
+import io.bytebakehouse.train.company.loadtest.driver.StompSubscriberLoad;
+import io.bytebakehouse.train.company.loadtest.metrics.ActuatorMetricsSampler;
+import io.bytebakehouse.train.company.loadtest.metrics.ActuatorMetricsSampler.JvmReport;
+import io.bytebakehouse.train.company.loadtest.metrics.LatencyRecorder;
+import io.bytebakehouse.train.company.loadtest.metrics.LatencyRecorder.OperationStats;
+import io.bytebakehouse.train.company.loadtest.mock.ClusterState;
+import io.bytebakehouse.train.company.loadtest.mock.MockKubernetesApiServer;
+import io.bytebakehouse.train.company.loadtest.mock.ReportWorkerSimulator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * One load-test run: mock API up, orchestrator up, subscribers/jobs/users started,
+ * warm-up discarded, measured window, report. With loadtest.scenario=booking the booking
+ * benchmark runs instead of the mixed load. The exit code is 1 when the error ratio
+ * over the measured window exceeds loadtest.max-error-ratio.
+ */
+@Slf4j
+@Component
+public class LoadTestRunner implements CommandLineRunner, ExitCodeGenerator {
+
+    private final MockKubernetesApiServer mockApi;
+    private final ClusterState clusterState;
+    private final ReportWorkerSimulator workerSimulator;
+    private final OrchestratorLauncher orchestrator;
+    private final StompSubscriberLoad stompLoad;
+    private final ReportJobLoad jobLoad;
+    private final DashboardUserLoad dashboardLoad;
+    private final BookingBenchmark bookingBenchmark;
+    private final LatencyRecorder latencyRecorder;
+    private final ActuatorMetricsSampler metricsSampler;
+    private final ObjectMapper objectMapper;
+    private final Path workDir;
+    private final String scenario;
+    private final long warmupSeconds;
+    private final long durationSeconds;
+    private final double maxErrorRatio;
+
+    private int exitCode;
+
+    public LoadTestRunner(
+            MockKubernetesApiServer mockApi,
+            ClusterState clusterState,
+            ReportWorkerSimulator workerSimulator,
+            OrchestratorLauncher orchestrator,
+            StompSubscriberLoad stompLoad,
+            ReportJobLoad jobLoad,
+            DashboardUserLoad dashboardLoad,
+            BookingBenchmark bookingBenchmark,
+            LatencyRecorder latencyRecorder,
+            ActuatorMetricsSampler metricsSampler,
+            ObjectMapper objectMapper,
+            @Value("${loadtest.work-dir:target/loadtest}") String workDir,
+            @Value("${loadtest.scenario:mixed}") String scenario,
+            @Value("${loadtest.warmup-seconds:30}") long warmupSeconds,
+            @Value("${loadtest.duration-seconds:120}") long durationSeconds,
+            @Value("${loadtest.max-error-ratio:0.01}") double maxErrorRatio) {
+        this.mockApi = mockApi;
+        this.clusterState = clusterState;
+        this.workerSimulator = workerSimulator;
+        this.orchestrator = orchestrator;
+        this.stompLoad = stompLoad;
+        this.jobLoad = jobLoad;
+        this.dashboardLoad = dashboardLoad;
+        this.bookingBenchmark = bookingBenchmark;
+        this.latencyRecorder = latencyRecorder;
+        this.metricsSampler = metricsSampler;
+        this.objectMapper = objectMapper;
+        this.workDir = Path.of(workDir);
+        this.scenario = scenario;
+        this.warmupSeconds = warmupSeconds;
+        this.durationSeconds = durationSeconds;
+        this.maxErrorRatio = maxErrorRatio;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        Files.createDirectories(workDir);
+        try {
+            mockApi.start();
+            Path kubeconfig = mockApi.writeKubeconfig(workDir.resolve("kubeconfig"));
+            String baseUrl = orchestrator.start(kubeconfig, workDir);
+            if ("booking".equals(scenario)) {
+                runBookingBenchmark(baseUrl);
+                return;
+            }
+
+            stompLoad.start(baseUrl);
+            jobLoad.start(baseUrl);
+            dashboardLoad.start(baseUrl);
+
+            log.info("Warming up for {} s", warmupSeconds);
+            Thread.sleep(warmupSeconds * 1000);
+            latencyRecorder.reset();
+            stompLoad.resetWindow();
+            metricsSampler.start(baseUrl);
+            OffsetDateTime startedAt = OffsetDateTime.now();
+
+            log.info("Measuring for {} s", durationSeconds);
+            Thread.sleep(durationSeconds * 1000);
+
+            double windowSeconds = latencyRecorder.windowSeconds();
+            Map<String, OperationStats> operations = latencyRecorder.snapshot();
+            StompSubscriberLoad.Stats stomp = stompLoad.stats(windowSeconds);
+            JvmReport jvm = metricsSampler.stop();
+            LoadTestReport report = new LoadTestReport(startedAt, windowSeconds, operations, stomp,
+                    clusterState.stats(), mockApi.requestCounts(), jvm);
+
+            Path reportFile = workDir.resolve("loadtest-report.json");
+            objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile.toFile(), report);
+            log.info("{}", report.summary());
+            log.info("Full report: {}", reportFile.toAbsolutePath());
+
+            double errorRatio = report.errorRatio();
+            if (errorRatio > maxErrorRatio) {
+                log.error("Error ratio {} exceeds the allowed {}", String.format("%.4f", errorRatio), maxErrorRatio);
+                exitCode = 1;
+            }
+        } finally {
+            dashboardLoad.stop();
+            jobLoad.stop();
+            stompLoad.stop();
+            workerSimulator.stop();
+            orchestrator.stop();
+            mockApi.stop();
+        }
+    }
+
+    private void runBookingBenchmark(String baseUrl) throws Exception {
+        BookingBenchmark.Report report = bookingBenchmark.run(baseUrl);
+        Path reportFile = workDir.resolve("booking-benchmark.json");
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile.toFile(), report);
+        log.info("{}", report.summary());
+        log.info("Full report: {}", reportFile.toAbsolutePath());
+
+        double errorRatio = report.errorRatio();
+        if (errorRatio > maxErrorRatio) {
+            log.error("Error ratio {} exceeds the allowed {}", String.format("%.4f", errorRatio), maxErrorRatio);
+            exitCode = 1;
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
@@ -0,0 +1,140 @@
+package io.bytebakehouse.train.company.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boots the orchestrator jar as a child process wired to the mock Kubernetes API
+ * (KUBECONFIG), or, without a jar, uses an orchestrator that is already running
+ */
+@Slf4j
+@Component
+public class OrchestratorLauncher {
+
+    private final HttpClient httpClient;
+    private final String jar;
+    private final int port;
+    private final String jvmArgs;
+    private final String extraArgs;
+    private final String targetUrl;
+    private final long startupTimeoutSeconds;
+
+    private Process process;
+
+    public OrchestratorLauncher(
+            HttpClient httpClient,
+            @Value("${loadtest.orchestrator.jar:}") String jar,
+            @Value("${loadtest.orchestrator.port:18080}") int port,
+            @Value("${loadtest.orchestrator.jvm-args:-Xms512m -Xmx512m}") String jvmArgs,
+            @Value("${loadtest.orchestrator.args:}") String extraArgs,
+            @Value("${loadtest.target-url:http://localhost:8080}") String targetUrl,
+            @Value("${loadtest.orchestrator.startup-timeout-seconds:180}") long startupTimeoutSeconds) {
+        this.httpClient = httpClient;
+        this.jar = jar;
+        this.port = port;
+        this.jvmArgs = jvmArgs;
+        this.extraArgs = extraArgs;
+        this.targetUrl = targetUrl;
+        this.startupTimeoutSeconds = startupTimeoutSeconds;
+    }
+
+    /**
+     * Start (or find) the orchestrator and wait until it reports healthy
+     *
+     * @return its base URL
+     */
+    public String start(Path kubeconfig, Path workDir) throws Exception {
+        if (jar.isBlank()) {
+            log.info("No orchestrator jar configured, using the instance at {}", targetUrl);
+            awaitHealthy(targetUrl);
+            return targetUrl;
+        }
+
+        String baseUrl = "http://127.0.0.1:" + port;
+        Path reportsDir = Files.createDirectories(workDir.resolve("reports"));
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(split(jvmArgs));
+        command.add("-jar");
+        command.add(jar);
+        command.add("--server.port=" + port);
+        command.add("--management.endpoints.web.exposure.include=health,metrics");
+        // The mock workers post progress back to this instance
+        command.add("--job-status.progress-callback-base-url=" + baseUrl);
+        command.add("--reports.path=" + reportsDir.toAbsolutePath());
+        command.add("--spring.jpa.show-sql=false");
+        command.addAll(split(extraArgs));
+
+        Path logFile = workDir.resolve("orchestrator.log");
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile());
+        builder.environment().put("KUBECONFIG", kubeconfig.toAbsolutePath().toString());
+        // Keep Config.defaultClient() from preferring an in-cluster service account
+        builder.environment().remove("KUBERNETES_SERVICE_HOST");
+        log.info("Starting orchestrator: {} (log: {})", String.join(" ", command), logFile);
+        process = builder.start();
+        awaitHealthy(baseUrl);
+        return baseUrl;
+    }
+
+    public void stop() throws InterruptedException {
+        if (process == null) {
+            return;
+        }
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+        process = null;
+    }
+
+    private void awaitHealthy(String baseUrl) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(startupTimeoutSeconds);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        while (System.nanoTime() < deadline) {
+            if (process != null && !process.isAlive()) {
+                throw new IllegalStateException("Orchestrator exited with code " + process.exitValue()
+                        + " during startup, see orchestrator.log");
+            }
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200 && response.body().contains("\"UP\"")) {
+                    log.info("Orchestrator at {} is up", baseUrl);
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("Orchestrator at " + baseUrl + " not healthy after "
+                + startupTimeoutSeconds + " s");
+    }
+
+    private static List<String> split(String args) {
+        List<String> parts = new ArrayList<>();
+        for (String part : args.trim().split("\\s+")) {
+            if (!part.isEmpty()) {
+                parts.add(part);
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,14 @@
+package io.bytebakehouse.train.company.loadtest;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class TrainCompanyLoadTestApplication {
+
+	public static void main(String[] args) {
+		// The run's verdict (error ratio) is the exit code, see LoadTestRunner
+		System.exit(SpringApplication.exit(SpringApplication.run(TrainCompanyLoadTestApplication.class, args)));
+	}
+
+}
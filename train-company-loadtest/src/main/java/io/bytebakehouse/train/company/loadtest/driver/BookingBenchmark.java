@@ -0,0 +1,260 @@
+package io.bytebakehouse.train.company.loadtest.driver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.bytebakehouse.train.company.loadtest.metrics.LatencyRecorder;
+import io.bytebakehouse.train.company.loadtest.metrics.LatencyRecorder.OperationStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking creation throughput at fixed numbers of concurrent bookers (closed model, no think
+ * time). Every booker loops: POST /api/bookings for new passengers on a random trip and fare,
+ * then refunds the tickets so seats go back to the pool and the trips never sell out.
+ * Only the booking call is timed as create-booking; 409 answers (seats raced away) are
+ * counted as conflicts, not errors.
+ */
+@Slf4j
+@Component
+public class BookingBenchmark {
+
+    private static final String CREATE = "create-booking";
+    private static final String RELEASE = "release-booking";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final LatencyRecorder latencyRecorder;
+    private final int[] concurrencyLevels;
+    private final long warmupSeconds;
+    private final long secondsPerLevel;
+    private final int passengersPerBooking;
+    private final int searchDays;
+    private final long requestTimeoutMs;
+
+    private final AtomicLong conflicts = new AtomicLong();
+    private volatile boolean running;
+
+    public BookingBenchmark(
+            HttpClient httpClient,
+            ObjectMapper objectMapper,
+            LatencyRecorder latencyRecorder,
+            @Value("${loadtest.bookings.concurrency-levels:1,10,100}") int[] concurrencyLevels,
+            @Value("${loadtest.bookings.warmup-seconds:10}") long warmupSeconds,
+            @Value("${loadtest.bookings.seconds-per-level:30}") long secondsPerLevel,
+            @Value("${loadtest.bookings.passengers-per-booking:2}") int passengersPerBooking,
+            @Value("${loadtest.bookings.search-days:30}") int searchDays,
+            @Value("${loadtest.http.request-timeout-ms:30000}") long requestTimeoutMs) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.latencyRecorder = latencyRecorder;
+        this.concurrencyLevels = concurrencyLevels;
+        this.warmupSeconds = warmupSeconds;
+        this.secondsPerLevel = secondsPerLevel;
+        this.passengersPerBooking = passengersPerBooking;
+        this.searchDays = searchDays;
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+
+    public Report run(String baseUrl) throws Exception {
+        List<Target> targets = findTargets(baseUrl);
+        if (targets.isEmpty()) {
+            throw new IllegalStateException("No bookable trip and fare within " + searchDays
+                    + " days, seed the database first");
+        }
+        log.info("Benchmarking bookings on {} trip/fare pairs at concurrency {}",
+                targets.size(), Arrays.toString(concurrencyLevels));
+
+        List<LevelResult> levels = new ArrayList<>();
+        for (int concurrency : concurrencyLevels) {
+            levels.add(runLevel(baseUrl, targets, concurrency));
+        }
+        return new Report(passengersPerBooking, levels);
+    }
+
+    private LevelResult runLevel(String baseUrl, List<Target> targets, int concurrency) throws InterruptedException {
+        running = true;
+        List<Thread> bookers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            bookers.add(Thread.ofVirtual().name("booker-" + i).start(() -> bookLoop(baseUrl, targets)));
+        }
+        try {
+            Thread.sleep(warmupSeconds * 1000);
+            latencyRecorder.reset();
+            conflicts.set(0);
+
+            log.info("Measuring {} concurrent bookers for {} s", concurrency, secondsPerLevel);
+            Thread.sleep(secondsPerLevel * 1000);
+            double windowSeconds = latencyRecorder.windowSeconds();
+            Map<String, OperationStats> stats = latencyRecorder.snapshot();
+            long conflictCount = conflicts.get();
+            return new LevelResult(concurrency, windowSeconds, stats.get(CREATE), stats.get(RELEASE), conflictCount);
+        } finally {
+            running = false;
+            for (Thread booker : bookers) {
+                booker.join(requestTimeoutMs * 2);
+            }
+        }
+    }
+
+    private void bookLoop(String baseUrl, List<Target> targets) {
+        while (running) {
+            Target target = targets.get(ThreadLocalRandom.current().nextInt(targets.size()));
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = post(baseUrl + "/api/bookings", bookingRequest(target));
+                if (response.statusCode() == 201) {
+                    latencyRecorder.record(CREATE, System.nanoTime() - start);
+                    release(baseUrl, objectMapper.readTree(response.body()).path("tickets"));
+                } else if (response.statusCode() == 409) {
+                    conflicts.incrementAndGet();
+                } else {
+                    latencyRecorder.error(CREATE);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                latencyRecorder.error(CREATE);
+            }
+        }
+    }
+
+    private void release(String baseUrl, JsonNode tickets) throws InterruptedException {
+        ObjectNode body = objectMapper.createObjectNode();
+        ArrayNode ticketIds = body.putArray("ticketIds");
+        tickets.forEach(ticket -> ticketIds.add(ticket.path("ticketId").asText()));
+        body.put("reason", "load test");
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = post(baseUrl + "/api/refunds/tickets", body.toString());
+            if (response.statusCode() < 400) {
+                latencyRecorder.record(RELEASE, System.nanoTime() - start);
+            } else {
+                latencyRecorder.error(RELEASE);
+            }
+        } catch (IOException e) {
+            latencyRecorder.error(RELEASE);
+        }
+    }
+
+    private String bookingRequest(Target target) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("tripId", target.tripId());
+        body.put("fareId", target.fareId());
+        ArrayNode passengers = body.putArray("passengers");
+        long id = ThreadLocalRandom.current().nextLong(1_000_000_000L);
+        for (int i = 0; i < passengersPerBooking; i++) {
+            passengers.addObject()
+                    .put("firstName", "Load" + i)
+                    .put("lastName", "Tester" + id);
+        }
+        return body.toString();
+    }
+
+    /**
+     * Trips with free seats (availability search) and the fares the pricing engine sells on them
+     */
+    private List<Target> findTargets(String baseUrl) throws IOException, InterruptedException {
+        LocalDate today = LocalDate.now();
+        JsonNode availability = get(baseUrl + "/api/trips/availability?startDate=" + today
+                + "&endDate=" + today.plusDays(searchDays - 1) + "&minSeats=" + passengersPerBooking);
+        List<String> tripIds = new ArrayList<>();
+        for (JsonNode row : availability) {
+            String tripId = row.path("tripId").asText();
+            if (!tripIds.contains(tripId)) {
+                tripIds.add(tripId);
+            }
+        }
+
+        List<Target> targets = new ArrayList<>();
+        for (String tripId : tripIds) {
+            try {
+                for (JsonNode quote : get(baseUrl + "/api/pricing/trips/" + tripId)) {
+                    targets.add(new Target(tripId, quote.path("fareId").asText()));
+                }
+            } catch (IOException e) {
+                // departed or not priced yet
+                log.debug("Skipping trip {}: {}", tripId, e.getMessage());
+            }
+        }
+        return targets;
+    }
+
+    private JsonNode get(String url) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofMillis(requestTimeoutMs)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET " + url + " answered " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private HttpResponse<String> post(String url, String json) throws IOException, InterruptedException {
+        return httpClient.send(
+                HttpRequest.newBuilder(URI.create(url))
+                        .timeout(Duration.ofMillis(requestTimeoutMs))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private record Target(String tripId, String fareId) {
+    }
+
+    /**
+     * create and release are null when nothing succeeded at that level
+     */
+    public record LevelResult(int concurrency, double windowSeconds, OperationStats create,
+                              OperationStats release, long conflicts) {
+    }
+
+    public record Report(int passengersPerBooking, List<LevelResult> levels) {
+
+        public String summary() {
+            StringBuilder out = new StringBuilder("\n");
+            out.append(String.format("Booking benchmark, %d passengers per booking%n", passengersPerBooking));
+            out.append(String.format("%-9s %9s %9s %9s %9s %9s %9s %9s %9s%n",
+                    "bookers", "bookings", "errors", "conflicts", "per s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+            for (LevelResult level : levels) {
+                OperationStats s = level.create() != null
+                        ? level.create()
+                        : new OperationStats(0, 0, 0, 0, 0, 0, 0, 0);
+                out.append(String.format("%-9d %9d %9d %9d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                        level.concurrency(), s.count(), s.errors(), level.conflicts(), s.perSecond(),
+                        s.p50Ms(), s.p99Ms(), s.p999Ms(), s.maxMs()));
+            }
+            return out.toString();
+        }
+
+        public double errorRatio() {
+            long calls = 0;
+            long errors = 0;
+            for (LevelResult level : levels) {
+                if (level.create() != null) {
+                    calls += level.create().count() + level.create().errors();
+                    errors += level.create().errors();
+                }
+            }
+            return calls > 0 ? (double) errors / calls : 0;
+        }
+    }
+}
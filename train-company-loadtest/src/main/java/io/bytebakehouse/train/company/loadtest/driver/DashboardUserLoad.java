@@ -0,0 +1,157 @@
+package io.bytebakehouse.train.company.loadtest.driver;
+
+import io.bytebakehouse.train.company.loadtest.metrics.LatencyRecorder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simulated dashboard users: each loads the page (job list and reports), then keeps
+ * calling a weighted mix of dashboard endpoints with a jittered think time in between
+ */
+@Slf4j
+@Component
+public class DashboardUserLoad {
+
+    // Operation name -> path; the plan call needs a date range so it is built per request
+    private static final Map<String, String> ENDPOINTS = Map.of(
+            "jobs-all", "/api/k8s/jobs/all",
+            "reports", "/api/k8s/reports",
+            "reports-usage", "/api/k8s/reports/usage",
+            "pods", "/api/k8s/pods",
+            "pods-raw", "/api/k8s/pods/raw",
+            "report-plan", "/api/k8s/jobs/ticketing-report/plan");
+
+    private final HttpClient httpClient;
+    private final LatencyRecorder latencyRecorder;
+    private final int users;
+    private final long rampUpMs;
+    private final long thinkTimeMs;
+    private final long requestTimeoutMs;
+    private final List<String> weightedMix;
+
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    public DashboardUserLoad(
+            HttpClient httpClient,
+            LatencyRecorder latencyRecorder,
+            @Value("${loadtest.dashboard.users:500}") int users,
+            @Value("${loadtest.dashboard.ramp-up-ms:20000}") long rampUpMs,
+            @Value("${loadtest.dashboard.think-time-ms:2000}") long thinkTimeMs,
+            @Value("${loadtest.http.request-timeout-ms:30000}") long requestTimeoutMs,
+            @Value("${loadtest.dashboard.mix:jobs-all:4,reports:4,reports-usage:1,pods:1}") String mix) {
+        this.httpClient = httpClient;
+        this.latencyRecorder = latencyRecorder;
+        this.users = users;
+        this.rampUpMs = rampUpMs;
+        this.thinkTimeMs = thinkTimeMs;
+        this.requestTimeoutMs = requestTimeoutMs;
+        this.weightedMix = parseMix(mix);
+    }
+
+    public void start(String baseUrl) {
+        running = true;
+        for (int i = 0; i < users; i++) {
+            long startDelay = users > 1 ? rampUpMs * i / (users - 1) : 0;
+            threads.add(Thread.ofVirtual().name("dashboard-user-" + i).start(() -> runUser(baseUrl, startDelay)));
+        }
+        log.info("Started {} dashboard users (ramp-up {} ms, think time {} ms)", users, rampUpMs, thinkTimeMs);
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+        threads.clear();
+    }
+
+    private void runUser(String baseUrl, long startDelay) {
+        try {
+            Thread.sleep(startDelay);
+            // Page load, as dashboard.html does on open
+            call(baseUrl, "jobs-all");
+            call(baseUrl, "reports");
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (running) {
+                Thread.sleep((long) (thinkTimeMs * (0.5 + random.nextDouble())));
+                call(baseUrl, weightedMix.get(random.nextInt(weightedMix.size())));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void call(String baseUrl, String operation) throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path(operation)))
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() < 400) {
+                latencyRecorder.record(operation, System.nanoTime() - start);
+            } else {
+                latencyRecorder.error(operation);
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            latencyRecorder.error(operation);
+        }
+    }
+
+    private static String path(String operation) {
+        String path = ENDPOINTS.get(operation);
+        if (!"report-plan".equals(operation)) {
+            return path;
+        }
+        LocalDate month = LocalDate.now().withDayOfMonth(1).minusMonths(ThreadLocalRandom.current().nextInt(1, 13));
+        return path + "?startDate=" + month + "&endDate=" + month.plusMonths(1).minusDays(1) + "&format=xlsx";
+    }
+
+    /**
+     * "name:weight,name:weight" into a list with each name repeated weight times
+     */
+    static List<String> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (!ENDPOINTS.containsKey(parts[0])) {
+                throw new IllegalArgumentException("Unknown dashboard operation '" + parts[0]
+                        + "', expected one of " + ENDPOINTS.keySet());
+            }
+            weights.put(parts[0], parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+        }
+        List<String> weighted = new ArrayList<>();
+        weights.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("Dashboard mix has no operations: " + mix);
+        }
+        return weighted;
+    }
+}
@@ -0,0 +1,121 @@
+package io.bytebakehouse.train.company.loadtest.driver;
+
+import io.bytebakehouse.train.company.loadtest.metrics.LatencyRecorder;
+import io.bytebakehouse.train.company.loadtest.mock.ClusterState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a target number of report Jobs in flight by submitting one-month reports through
+ * the orchestrator whenever the mock cluster has fewer unfinished report Jobs than that
+ */
+@Slf4j
+@Component
+public class ReportJobLoad {
+
+    private static final String OPERATION = "submit-report";
+
+    private final HttpClient httpClient;
+    private final LatencyRecorder latencyRecorder;
+    private final ClusterState clusterState;
+    private final int inFlight;
+    private final double maxSubmitsPerSecond;
+    private final String format;
+    private final long requestTimeoutMs;
+
+    private final AtomicInteger submitting = new AtomicInteger();
+    private volatile boolean running;
+    private Thread loop;
+
+    public ReportJobLoad(
+            HttpClient httpClient,
+            LatencyRecorder latencyRecorder,
+            ClusterState clusterState,
+            @Value("${loadtest.jobs.in-flight:100}") int inFlight,
+            @Value("${loadtest.jobs.max-submits-per-second:20}") double maxSubmitsPerSecond,
+            @Value("${loadtest.jobs.format:xlsx}") String format,
+            @Value("${loadtest.http.request-timeout-ms:30000}") long requestTimeoutMs) {
+        this.httpClient = httpClient;
+        this.latencyRecorder = latencyRecorder;
+        this.clusterState = clusterState;
+        this.inFlight = inFlight;
+        this.maxSubmitsPerSecond = maxSubmitsPerSecond;
+        this.format = format;
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+
+    public void start(String baseUrl) {
+        if (inFlight <= 0) {
+            return;
+        }
+        running = true;
+        loop = Thread.ofVirtual().name("report-job-load").start(() -> run(baseUrl));
+        log.info("Keeping {} report jobs in flight (at most {} submissions/s)", inFlight, maxSubmitsPerSecond);
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        if (loop != null) {
+            loop.interrupt();
+            loop.join(5000);
+        }
+    }
+
+    private void run(String baseUrl) {
+        long intervalNanos = (long) (1_000_000_000L / maxSubmitsPerSecond);
+        long nextSubmit = System.nanoTime();
+        try {
+            while (running) {
+                // Jobs being submitted are not in the cluster yet, so count them too
+                if (clusterState.activeReportJobs() + submitting.get() >= inFlight) {
+                    Thread.sleep(50);
+                    continue;
+                }
+                long wait = nextSubmit - System.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                }
+                nextSubmit = Math.max(nextSubmit + intervalNanos, System.nanoTime());
+                submitting.incrementAndGet();
+                Thread.ofVirtual().start(() -> submit(baseUrl));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(String baseUrl) {
+        LocalDate month = LocalDate.now().withDayOfMonth(1).minusMonths(ThreadLocalRandom.current().nextInt(1, 13));
+        String url = baseUrl + "/api/k8s/jobs/ticketing-report?startDate=" + month
+                + "&endDate=" + month.plusMonths(1).minusDays(1) + "&format=" + format;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() < 400) {
+                latencyRecorder.record(OPERATION, System.nanoTime() - start);
+            } else {
+                latencyRecorder.error(OPERATION);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            latencyRecorder.error(OPERATION);
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+}
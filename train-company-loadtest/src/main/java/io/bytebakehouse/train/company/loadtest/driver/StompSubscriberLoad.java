@@ -0,0 +1,241 @@
+package io.bytebakehouse.train.company.loadtest.driver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.bytebakehouse.train.company.loadtest.metrics.LatencyRecorder;
+import io.bytebakehouse.train.company.loadtest.mock.ClusterState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulated dashboard tabs: SockJS (WebSocket transport) + STOMP sessions subscribed to
+ * /topic/job-status, with the same 10 s heartbeats stomp.js negotiates. Besides message
+ * counts it measures completion lag: from the mock marking a Job finished to each
+ * subscriber receiving that Job's final status.
+ */
+@Slf4j
+@Component
+public class StompSubscriberLoad {
+
+    private static final String TOPIC = "/topic/job-status";
+
+    private final LatencyRecorder latencyRecorder;
+    private final ClusterState clusterState;
+    private final ObjectMapper objectMapper;
+    private final int subscribers;
+    private final double connectsPerSecond;
+
+    private final List<StompSession> sessions = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicInteger maxConnected = new AtomicInteger();
+    private final LongAdder connectFailures = new LongAdder();
+    private final LongAdder transportErrors = new LongAdder();
+    private final LongAdder messages = new LongAdder();
+    private volatile long messagesAtWindowStart;
+    private volatile boolean running;
+    private ThreadPoolTaskScheduler scheduler;
+    private WebSocketStompClient stompClient;
+    private Thread connector;
+
+    public StompSubscriberLoad(
+            LatencyRecorder latencyRecorder,
+            ClusterState clusterState,
+            ObjectMapper objectMapper,
+            @Value("${loadtest.stomp.subscribers:2000}") int subscribers,
+            @Value("${loadtest.stomp.connects-per-second:200}") double connectsPerSecond) {
+        this.latencyRecorder = latencyRecorder;
+        this.clusterState = clusterState;
+        this.objectMapper = objectMapper;
+        this.subscribers = subscribers;
+        this.connectsPerSecond = connectsPerSecond;
+    }
+
+    public void start(String baseUrl) {
+        if (subscribers <= 0) {
+            return;
+        }
+        running = true;
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(4);
+        scheduler.setThreadNamePrefix("stomp-heartbeat-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+
+        SockJsClient sockJsClient = new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient())));
+        sockJsClient.setConnectTimeoutScheduler(scheduler);
+        stompClient = new WebSocketStompClient(sockJsClient);
+        stompClient.setMessageConverter(new StringMessageConverter());
+        stompClient.setTaskScheduler(scheduler);
+        stompClient.setDefaultHeartbeat(new long[]{10000, 10000});
+
+        String url = baseUrl + "/ws-job-status";
+        connector = Thread.ofVirtual().name("stomp-connector").start(() -> connectAll(url));
+        log.info("Connecting {} STOMP subscribers at {}/s", subscribers, connectsPerSecond);
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        if (connector != null) {
+            connector.interrupt();
+            connector.join(5000);
+        }
+        for (StompSession session : sessions) {
+            try {
+                session.disconnect();
+            } catch (Exception ignored) {
+                // already gone
+            }
+        }
+        sessions.clear();
+        if (stompClient != null) {
+            stompClient.stop();
+        }
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Start of the measured window for the message rate
+     */
+    public void resetWindow() {
+        messagesAtWindowStart = messages.sum();
+    }
+
+    public Stats stats(double windowSeconds) {
+        long windowMessages = messages.sum() - messagesAtWindowStart;
+        return new Stats(subscribers, connected.get(), maxConnected.get(), connectFailures.sum(),
+                transportErrors.sum(), windowMessages, windowSeconds > 0 ? windowMessages / windowSeconds : 0);
+    }
+
+    private void connectAll(String url) {
+        long intervalNanos = (long) (1_000_000_000L / connectsPerSecond);
+        long next = System.nanoTime();
+        try {
+            for (int i = 0; i < subscribers && running; i++) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                }
+                next += intervalNanos;
+                connect(url);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void connect(String url) {
+        long start = System.nanoTime();
+        stompClient.connectAsync(url, new Subscriber(start)).whenComplete((session, error) -> {
+            if (error != null) {
+                connectFailures.increment();
+                latencyRecorder.error("stomp-connect");
+            }
+        });
+    }
+
+    /**
+     * One dashboard tab; remembers which jobs it has already seen finish
+     */
+    private final class Subscriber extends StompSessionHandlerAdapter {
+
+        private final long connectStartNanos;
+        private final Set<String> seenFinished = ConcurrentHashMap.newKeySet();
+        private volatile boolean counted;
+
+        Subscriber(long connectStartNanos) {
+            this.connectStartNanos = connectStartNanos;
+        }
+
+        @Override
+        public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+            latencyRecorder.record("stomp-connect", System.nanoTime() - connectStartNanos);
+            sessions.add(session);
+            counted = true;
+            maxConnected.accumulateAndGet(connected.incrementAndGet(), Math::max);
+            session.subscribe(TOPIC, this);
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return String.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            messages.increment();
+            String body = (String) payload;
+            // Cheap pre-filter: only final statuses are parsed
+            if (!body.contains("\"Succeeded\"") && !body.contains("\"Failed\"")) {
+                return;
+            }
+            try {
+                JsonNode status = objectMapper.readTree(body);
+                String jobName = status.path("jobName").asText(null);
+                String state = status.path("status").asText("");
+                if (jobName == null || !("Succeeded".equals(state) || "Failed".equals(state))) {
+                    return;
+                }
+                Long finishedAt = clusterState.finishedAtNanos(jobName);
+                if (finishedAt != null && seenFinished.add(jobName)) {
+                    latencyRecorder.record("stomp-completion-lag", System.nanoTime() - finishedAt);
+                    if (seenFinished.size() > 10_000) {
+                        seenFinished.clear();
+                    }
+                }
+            } catch (Exception e) {
+                log.debug("Unparseable job status message: {}", e.getMessage());
+            }
+        }
+
+        @Override
+        public void handleException(StompSession session, StompCommand command, StompHeaders headers,
+                                    byte[] payload, Throwable exception) {
+            transportErrors.increment();
+        }
+
+        @Override
+        public void handleTransportError(StompSession session, Throwable exception) {
+            // Failed connects are counted in connectFailures
+            if (!counted) {
+                return;
+            }
+            transportErrors.increment();
+            if (!session.isConnected()) {
+                counted = false;
+                connected.decrementAndGet();
+                sessions.remove(session);
+            }
+        }
+    }
+
+    public record Stats(
+            int subscribers,
+            int connected,
+            int maxConnected,
+            long connectFailures,
+            long transportErrors,
+            long messages,
+            double messagesPerSecond) {
+    }
+}
@@ -0,0 +1,202 @@
+package io.bytebakehouse.train.company.loadtest.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Heap, GC, CPU and thread figures for the orchestrator under test, read from its
+ * /actuator/metrics endpoint. Heap and threads are sampled on an interval to catch peaks;
+ * GC and allocation counters are diffed between the start and end of the measured window.
+ */
+@Slf4j
+@Component
+public class ActuatorMetricsSampler {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final long sampleIntervalMs;
+
+    private volatile boolean running;
+    private Thread sampler;
+    private String baseUrl;
+    private Counters windowStart;
+    private long heapUsedMax;
+    private int liveThreadsMax;
+    private double cpuUsageSum;
+    private int cpuSamples;
+    private long harnessGcCountAtStart;
+    private long harnessGcMillisAtStart;
+
+    public ActuatorMetricsSampler(
+            HttpClient httpClient,
+            ObjectMapper objectMapper,
+            @Value("${loadtest.metrics.sample-interval-ms:1000}") long sampleIntervalMs) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.sampleIntervalMs = sampleIntervalMs;
+    }
+
+    /**
+     * Start of the measured window: snapshot the counters and start sampling
+     */
+    public synchronized void start(String baseUrl) {
+        this.baseUrl = baseUrl;
+        windowStart = counters();
+        heapUsedMax = 0;
+        liveThreadsMax = 0;
+        cpuUsageSum = 0;
+        cpuSamples = 0;
+        harnessGcCountAtStart = harnessGcCount();
+        harnessGcMillisAtStart = harnessGcMillis();
+        running = true;
+        sampler = Thread.ofVirtual().name("actuator-sampler").start(this::sampleLoop);
+    }
+
+    /**
+     * End of the measured window
+     */
+    public JvmReport stop() throws InterruptedException {
+        running = false;
+        if (sampler != null) {
+            sampler.interrupt();
+            sampler.join(5000);
+        }
+        sample();
+        Counters end = counters();
+        synchronized (this) {
+            Runtime harness = Runtime.getRuntime();
+            return new JvmReport(
+                    new OrchestratorJvm(
+                            end.gcPauses - windowStart.gcPauses,
+                            end.gcPauseSeconds - windowStart.gcPauseSeconds,
+                            end.gcPauseMaxMs,
+                            end.allocatedBytes - windowStart.allocatedBytes,
+                            heapUsedMax,
+                            (long) metric("jvm.memory.used", "area:heap", "VALUE"),
+                            (long) metric("jvm.memory.max", "area:heap", "VALUE"),
+                            cpuSamples > 0 ? cpuUsageSum / cpuSamples : 0,
+                            liveThreadsMax),
+                    new HarnessJvm(
+                            harnessGcCount() - harnessGcCountAtStart,
+                            harnessGcMillis() - harnessGcMillisAtStart,
+                            harness.totalMemory() - harness.freeMemory(),
+                            harness.maxMemory()));
+        }
+    }
+
+    private void sampleLoop() {
+        try {
+            while (running) {
+                sample();
+                Thread.sleep(sampleIntervalMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sample() {
+        double heapUsed = metric("jvm.memory.used", "area:heap", "VALUE");
+        double threads = metric("jvm.threads.live", null, "VALUE");
+        double cpu = metric("process.cpu.usage", null, "VALUE");
+        synchronized (this) {
+            heapUsedMax = Math.max(heapUsedMax, (long) heapUsed);
+            liveThreadsMax = Math.max(liveThreadsMax, (int) threads);
+            if (cpu >= 0) {
+                cpuUsageSum += cpu;
+                cpuSamples++;
+            }
+        }
+    }
+
+    private Counters counters() {
+        return new Counters(
+                (long) metric("jvm.gc.pause", null, "COUNT"),
+                metric("jvm.gc.pause", null, "TOTAL_TIME"),
+                metric("jvm.gc.pause", null, "MAX") * 1000,
+                (long) metric("jvm.gc.memory.allocated", null, "COUNT"));
+    }
+
+    /**
+     * One statistic of an actuator metric; 0 when the metric does not exist yet (no GC so far)
+     */
+    private double metric(String name, String tag, String statistic) {
+        String url = baseUrl + "/actuator/metrics/" + name + (tag != null ? "?tag=" + tag : "");
+        try {
+            HttpResponse<String> response = httpClient.send(
+                    HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(5)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return 0;
+            }
+            for (JsonNode measurement : objectMapper.readTree(response.body()).path("measurements")) {
+                if (statistic.equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asDouble();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.debug("Could not read metric {}: {}", name, e.getMessage());
+        }
+        return 0;
+    }
+
+    private static long harnessGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long harnessGcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private record Counters(long gcPauses, double gcPauseSeconds, double gcPauseMaxMs, long allocatedBytes) {
+    }
+
+    public record JvmReport(OrchestratorJvm orchestrator, HarnessJvm harness) {
+    }
+
+    /**
+     * Over the measured window; gcPauseMaxMs is Micrometer's decaying max (recent pauses)
+     */
+    public record OrchestratorJvm(
+            long gcPauses,
+            double gcPauseSeconds,
+            double gcPauseMaxMs,
+            long allocatedBytes,
+            long heapUsedMaxBytes,
+            long heapUsedEndBytes,
+            long heapMaxBytes,
+            double cpuUsageAvg,
+            int liveThreadsMax) {
+    }
+
+    /**
+     * The load generator itself, to tell whether it was the bottleneck
+     */
+    public record HarnessJvm(
+            long gcCount,
+            long gcMillis,
+            long heapUsedBytes,
+            long heapMaxBytes) {
+    }
+}
@@ -0,0 +1,92 @@
+package io.bytebakehouse.train.company.loadtest.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms (microsecond resolution) and error counts, shared by
+ * every load driver. {@link #reset()} marks the start of the measured window.
+ */
+@Component
+public class LatencyRecorder {
+
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private volatile long windowStartNanos = System.nanoTime();
+
+    public void record(String operation, long nanos) {
+        recorders.computeIfAbsent(operation, key -> new Recorder(3))
+                .recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    public void error(String operation) {
+        errors.computeIfAbsent(operation, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Drop everything recorded so far (warm-up) and start the measured window
+     */
+    public void reset() {
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+        windowStartNanos = System.nanoTime();
+    }
+
+    public double windowSeconds() {
+        return (System.nanoTime() - windowStartNanos) / 1e9;
+    }
+
+    /**
+     * Stats for the measured window; recorders are drained, so call this once at the end
+     */
+    public Map<String, OperationStats> snapshot() {
+        double seconds = windowSeconds();
+        Map<String, OperationStats> stats = new TreeMap<>();
+        for (String operation : recorders.keySet()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            LongAdder failed = errors.get(operation);
+            stats.put(operation, OperationStats.of(histogram, failed != null ? failed.sum() : 0, seconds));
+        }
+        errors.forEach((operation, failed) -> stats.computeIfAbsent(operation,
+                key -> new OperationStats(0, failed.sum(), 0, 0, 0, 0, 0, 0)));
+        return stats;
+    }
+
+    /**
+     * Latencies in milliseconds; count covers successful calls only
+     */
+    public record OperationStats(
+            long count,
+            long errors,
+            double perSecond,
+            double p50Ms,
+            double p90Ms,
+            double p99Ms,
+            double p999Ms,
+            double maxMs) {
+
+        static OperationStats of(Histogram histogram, long errors, double seconds) {
+            long count = histogram.getTotalCount();
+            return new OperationStats(
+                    count,
+                    errors,
+                    seconds > 0 ? count / seconds : 0,
+                    millis(histogram, 50.0),
+                    millis(histogram, 90.0),
+                    millis(histogram, 99.0),
+                    millis(histogram, 99.9),
+                    count > 0 ? histogram.getMaxValue() / 1000.0 : 0);
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getTotalCount() > 0 ? histogram.getValueAtPercentile(percentile) / 1000.0 : 0;
+        }
+    }
+}
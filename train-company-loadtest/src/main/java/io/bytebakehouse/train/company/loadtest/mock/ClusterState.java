@@ -0,0 +1,672 @@
+package io.bytebakehouse.train.company.loadtest.mock;
+
+import io.kubernetes.client.custom.Quantity;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1Container;
+import io.kubernetes.client.openapi.models.V1ContainerState;
+import io.kubernetes.client.openapi.models.V1ContainerStateRunning;
+import io.kubernetes.client.openapi.models.V1ContainerStateTerminated;
+import io.kubernetes.client.openapi.models.V1ContainerStateWaiting;
+import io.kubernetes.client.openapi.models.V1ContainerStatus;
+import io.kubernetes.client.openapi.models.V1EnvVar;
+import io.kubernetes.client.openapi.models.V1Job;
+import io.kubernetes.client.openapi.models.V1JobCondition;
+import io.kubernetes.client.openapi.models.V1JobStatus;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodCondition;
+import io.kubernetes.client.openapi.models.V1PodSpec;
+import io.kubernetes.client.openapi.models.V1PodStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory Jobs and Pods behind the mock Kubernetes API. Every change gets the next
+ * resource version and is fanned out to matching pod watches; a Job created through the
+ * API gets a Pod that goes Pending -> Running -> Succeeded (or Failed, optionally
+ * OOMKilled) on a timer and is deleted again after its TTL.
+ */
+@Slf4j
+@Component
+public class ClusterState {
+
+    private static final String REPORT_APP = "ticketing-report";
+    private static final String NODE_NAME = "loadtest-node";
+    private static final String POD_SUFFIX_CHARS = "bcdfghjklmnpqrstvwxz2456789";
+
+    private final ReportWorkerSimulator workerSimulator;
+    private final long podStartDelayMs;
+    private final long jobDurationMs;
+    private final double jobDurationJitter;
+    private final double jobFailureRate;
+    private final double oomKillFraction;
+    private final long finishedJobTtlSeconds;
+    private final int watchHistorySize;
+    private final int backgroundPods;
+    private final int backgroundNamespaces;
+    private final double podChurnPerSecond;
+    private final long defaultReportRows;
+
+    // Guarded by this: objects with their serialized form, keyed namespace/name
+    private final Map<String, Stored<V1Pod>> pods = new HashMap<>();
+    private final Map<String, Stored<V1Job>> jobs = new HashMap<>();
+    private final ArrayDeque<PodEvent> history = new ArrayDeque<>();
+    private final List<PodWatch> watches = new ArrayList<>();
+    private final List<String> backgroundPodKeys = new ArrayList<>();
+    private long resourceVersion = 1000;
+    // Events up to this version have left the history; older watches get 410 Gone
+    private long compactedThrough = 0;
+    private int backgroundSequence = 0;
+
+    private final Map<String, Long> finishedAtNanos = new ConcurrentHashMap<>();
+    private final LongAdder podEvents = new LongAdder();
+    private final LongAdder jobsCreated = new LongAdder();
+    private final LongAdder jobsFailed = new LongAdder();
+    private final ScheduledExecutorService timers = Executors.newScheduledThreadPool(2,
+            Thread.ofPlatform().name("mock-k8s-timer-", 0).daemon().factory());
+
+    public ClusterState(
+            ReportWorkerSimulator workerSimulator,
+            @Value("${loadtest.mock.pod-start-delay-ms:2000}") long podStartDelayMs,
+            @Value("${loadtest.mock.job-duration-ms:30000}") long jobDurationMs,
+            @Value("${loadtest.mock.job-duration-jitter:0.5}") double jobDurationJitter,
+            @Value("${loadtest.mock.job-failure-rate:0.02}") double jobFailureRate,
+            @Value("${loadtest.mock.oom-kill-fraction:0.5}") double oomKillFraction,
+            @Value("${loadtest.mock.finished-job-ttl-seconds:120}") long finishedJobTtlSeconds,
+            @Value("${loadtest.mock.watch-history-size:1000}") int watchHistorySize,
+            @Value("${loadtest.mock.background-pods:300}") int backgroundPods,
+            @Value("${loadtest.mock.background-namespaces:5}") int backgroundNamespaces,
+            @Value("${loadtest.mock.pod-churn-per-second:2}") double podChurnPerSecond,
+            @Value("${loadtest.mock.default-report-rows:100000}") long defaultReportRows) {
+        this.workerSimulator = workerSimulator;
+        this.podStartDelayMs = podStartDelayMs;
+        this.jobDurationMs = jobDurationMs;
+        this.jobDurationJitter = jobDurationJitter;
+        this.jobFailureRate = jobFailureRate;
+        this.oomKillFraction = oomKillFraction;
+        this.finishedJobTtlSeconds = finishedJobTtlSeconds;
+        this.watchHistorySize = watchHistorySize;
+        this.backgroundPods = backgroundPods;
+        this.backgroundNamespaces = Math.max(1, backgroundNamespaces);
+        this.podChurnPerSecond = podChurnPerSecond;
+        this.defaultReportRows = defaultReportRows;
+    }
+
+    /**
+     * Create the background pods and start churning them
+     */
+    public void start() {
+        synchronized (this) {
+            for (int i = 0; i < backgroundPods; i++) {
+                addBackgroundPod();
+            }
+        }
+        if (podChurnPerSecond > 0 && backgroundPods > 0) {
+            long periodMicros = (long) (1_000_000 / podChurnPerSecond);
+            timers.scheduleAtFixedRate(this::churnBackgroundPod, periodMicros, periodMicros, TimeUnit.MICROSECONDS);
+        }
+        log.info("Mock cluster started with {} background pods in {} namespaces",
+                backgroundPods, backgroundNamespaces);
+    }
+
+    public void stop() {
+        timers.shutdownNow();
+        synchronized (this) {
+            watches.forEach(PodWatch::close);
+            watches.clear();
+        }
+    }
+
+    // ---- reads ----
+
+    public synchronized String listPods(String namespace, LabelSelector selector) {
+        return list("PodList", pods, namespace, selector);
+    }
+
+    public synchronized String listJobs(String namespace, LabelSelector selector) {
+        return list("JobList", jobs, namespace, selector);
+    }
+
+    public synchronized Optional<String> getPod(String namespace, String name) {
+        Stored<V1Pod> pod = pods.get(key(namespace, name));
+        return pod != null ? Optional.of(pod.json) : Optional.empty();
+    }
+
+    public synchronized Optional<String> getJob(String namespace, String name) {
+        Stored<V1Job> job = jobs.get(key(namespace, name));
+        return job != null ? Optional.of(job.json) : Optional.empty();
+    }
+
+    /**
+     * Phase of a pod, empty if it does not exist
+     */
+    public synchronized Optional<String> podPhase(String namespace, String name) {
+        Stored<V1Pod> pod = pods.get(key(namespace, name));
+        return pod != null ? Optional.of(pod.object.getStatus().getPhase()) : Optional.empty();
+    }
+
+    /**
+     * Report Jobs that have not finished yet
+     */
+    public synchronized int activeReportJobs() {
+        int active = 0;
+        for (Stored<V1Job> job : jobs.values()) {
+            V1JobStatus status = job.object.getStatus();
+            boolean finished = status.getSucceeded() != null || status.getFailed() != null;
+            if (!finished && REPORT_APP.equals(job.object.getMetadata().getLabels().get("app"))) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * When the mock marked a Job finished, for end-to-end notification latency
+     */
+    public Long finishedAtNanos(String jobName) {
+        return finishedAtNanos.get(jobName);
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(pods.size(), jobs.size(), watches.size(), resourceVersion,
+                podEvents.sum(), jobsCreated.sum(), jobsFailed.sum());
+    }
+
+    // ---- writes ----
+
+    /**
+     * Store a Job and start its pod's lifecycle; empty if the name is taken
+     */
+    public Optional<String> createJob(String namespace, V1Job job) {
+        String name = job.getMetadata().getName();
+        String json;
+        synchronized (this) {
+            if (jobs.containsKey(key(namespace, name))) {
+                return Optional.empty();
+            }
+            OffsetDateTime now = now();
+            job.getMetadata()
+                    .namespace(namespace)
+                    .uid(UUID.randomUUID().toString())
+                    .creationTimestamp(now)
+                    .generation(1L);
+            if (job.getMetadata().getLabels() == null) {
+                job.getMetadata().setLabels(new HashMap<>());
+            }
+            job.status(new V1JobStatus());
+            Stored<V1Job> stored = new Stored<>(job);
+            jobs.put(key(namespace, name), stored);
+            touch(stored);
+            json = stored.json;
+
+            V1Pod pod = podFor(job);
+            pods.put(key(namespace, pod.getMetadata().getName()), new Stored<>(pod));
+            publish("ADDED", pods.get(key(namespace, pod.getMetadata().getName())));
+            schedulePodLifecycle(namespace, name, pod.getMetadata().getName());
+        }
+        jobsCreated.increment();
+        return Optional.of(json);
+    }
+
+    public synchronized boolean deleteJob(String namespace, String name) {
+        Stored<V1Job> job = jobs.remove(key(namespace, name));
+        if (job == null) {
+            return false;
+        }
+        Iterator<Map.Entry<String, Stored<V1Pod>>> it = pods.entrySet().iterator();
+        List<Stored<V1Pod>> deleted = new ArrayList<>();
+        while (it.hasNext()) {
+            Stored<V1Pod> pod = it.next().getValue();
+            V1ObjectMeta meta = pod.object.getMetadata();
+            if (namespace.equals(meta.getNamespace()) && name.equals(meta.getLabels().get("job-name"))) {
+                it.remove();
+                deleted.add(pod);
+            }
+        }
+        deleted.forEach(pod -> publish("DELETED", pod));
+        finishedAtNanos.remove(name);
+        return true;
+    }
+
+    /**
+     * Open a pod watch from a resource version: none or "0" replays current state as
+     * ADDED events, a version still in the history replays what came after it, anything
+     * older gets a 410 Gone error event (the client must relist)
+     */
+    public synchronized PodWatch watchPods(String namespace, LabelSelector selector, String fromVersion) {
+        PodWatch watch = new PodWatch(namespace, selector);
+        if (fromVersion == null || fromVersion.isEmpty() || "0".equals(fromVersion)) {
+            for (Stored<V1Pod> pod : pods.values()) {
+                if (watch.matches(pod.object)) {
+                    watch.offer(eventLine("ADDED", pod.json));
+                }
+            }
+        } else {
+            long from;
+            try {
+                from = Long.parseLong(fromVersion);
+            } catch (NumberFormatException e) {
+                from = -1;
+            }
+            if (from < compactedThrough) {
+                watch.offer(eventLine("ERROR", status(410, "Expired",
+                        "too old resource version: " + fromVersion + " (" + compactedThrough + ")")));
+                watch.close();
+                return watch;
+            }
+            for (PodEvent event : history) {
+                if (event.resourceVersion > from && watch.matches(event.namespace, event.labels)) {
+                    watch.offer(event.line);
+                }
+            }
+        }
+        watches.add(watch);
+        return watch;
+    }
+
+    public synchronized void closeWatch(PodWatch watch) {
+        watches.remove(watch);
+        watch.close();
+    }
+
+    /**
+     * Queue a bookmark behind the events already queued for the watch
+     */
+    public synchronized void bookmark(PodWatch watch) {
+        watch.offer(eventLine("BOOKMARK",
+                "{\"kind\":\"Pod\",\"apiVersion\":\"v1\",\"metadata\":{\"resourceVersion\":\"" + resourceVersion + "\"}}"));
+    }
+
+    // ---- lifecycle ----
+
+    private void schedulePodLifecycle(String namespace, String jobName, String podName) {
+        long startDelay = jittered(podStartDelayMs);
+        long runTime = jittered(jobDurationMs);
+        timers.schedule(() -> markRunning(namespace, jobName, podName, runTime), startDelay, TimeUnit.MILLISECONDS);
+        timers.schedule(() -> finish(namespace, jobName, podName), startDelay + runTime, TimeUnit.MILLISECONDS);
+    }
+
+    private void markRunning(String namespace, String jobName, String podName, long runTime) {
+        String progressUrl;
+        long rows;
+        long memoryLimit;
+        synchronized (this) {
+            Stored<V1Job> job = jobs.get(key(namespace, jobName));
+            Stored<V1Pod> pod = pods.get(key(namespace, podName));
+            if (job == null || pod == null) {
+                return;
+            }
+            OffsetDateTime now = now();
+            V1Container container = pod.object.getSpec().getContainers().get(0);
+            pod.object.getStatus()
+                    .phase("Running")
+                    .startTime(now)
+                    .hostIP("10.0.0.1")
+                    .podIP(podIp())
+                    .conditions(List.of(new V1PodCondition().type("Ready").status("True").lastTransitionTime(now)))
+                    .containerStatuses(List.of(containerStatus(container, true,
+                            new V1ContainerState().running(new V1ContainerStateRunning().startedAt(now)))));
+            publish("MODIFIED", pod);
+            job.object.getStatus().active(1).ready(1).startTime(now);
+            touch(job);
+
+            progressUrl = env(container, "PROGRESS_URL");
+            rows = estimatedRows(job.object);
+            memoryLimit = memoryLimit(container);
+        }
+        workerSimulator.start(jobName, progressUrl, rows, memoryLimit, runTime);
+    }
+
+    private void finish(String namespace, String jobName, String podName) {
+        boolean succeeded;
+        synchronized (this) {
+            Stored<V1Job> job = jobs.get(key(namespace, jobName));
+            Stored<V1Pod> pod = pods.get(key(namespace, podName));
+            if (job == null || pod == null) {
+                return;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            succeeded = random.nextDouble() >= jobFailureRate;
+            boolean oomKilled = !succeeded && random.nextDouble() < oomKillFraction;
+            OffsetDateTime now = now();
+
+            V1ContainerStateTerminated terminated = new V1ContainerStateTerminated()
+                    .exitCode(succeeded ? 0 : oomKilled ? 137 : 1)
+                    .reason(succeeded ? "Completed" : oomKilled ? "OOMKilled" : "Error")
+                    .startedAt(pod.object.getStatus().getStartTime())
+                    .finishedAt(now);
+            pod.object.getStatus()
+                    .phase(succeeded ? "Succeeded" : "Failed")
+                    .conditions(List.of(new V1PodCondition().type("Ready").status("False").lastTransitionTime(now)))
+                    .containerStatuses(List.of(containerStatus(pod.object.getSpec().getContainers().get(0), false,
+                            new V1ContainerState().terminated(terminated))));
+            publish("MODIFIED", pod);
+
+            V1JobStatus status = job.object.getStatus().active(null).ready(0);
+            if (succeeded) {
+                status.succeeded(1).completionTime(now)
+                        .conditions(List.of(new V1JobCondition().type("Complete").status("True")
+                                .lastProbeTime(now).lastTransitionTime(now)));
+            } else {
+                status.failed(1)
+                        .conditions(List.of(new V1JobCondition().type("Failed").status("True")
+                                .reason("BackoffLimitExceeded").lastProbeTime(now).lastTransitionTime(now)));
+                jobsFailed.increment();
+            }
+            touch(job);
+            finishedAtNanos.put(jobName, System.nanoTime());
+
+            Integer ttl = job.object.getSpec() != null ? job.object.getSpec().getTtlSecondsAfterFinished() : null;
+            long ttlSeconds = ttl != null ? Math.min(ttl, finishedJobTtlSeconds) : finishedJobTtlSeconds;
+            timers.schedule(() -> deleteJob(namespace, jobName), ttlSeconds, TimeUnit.SECONDS);
+        }
+        workerSimulator.finish(jobName, succeeded);
+    }
+
+    private void churnBackgroundPod() {
+        synchronized (this) {
+            if (backgroundPodKeys.isEmpty()) {
+                return;
+            }
+            String victim = backgroundPodKeys.remove(ThreadLocalRandom.current().nextInt(backgroundPodKeys.size()));
+            Stored<V1Pod> pod = pods.remove(victim);
+            if (pod != null) {
+                publish("DELETED", pod);
+            }
+            addBackgroundPod();
+        }
+    }
+
+    private void addBackgroundPod() {
+        int n = backgroundSequence++;
+        String namespace = "loadtest-ns-" + (n % backgroundNamespaces);
+        String name = "background-" + n;
+        OffsetDateTime now = now();
+        V1Container container = new V1Container().name("app").image("registry.local/background:1.0");
+        V1Pod pod = new V1Pod()
+                .apiVersion("v1")
+                .kind("Pod")
+                .metadata(new V1ObjectMeta()
+                        .name(name)
+                        .namespace(namespace)
+                        .uid(UUID.randomUUID().toString())
+                        .creationTimestamp(now)
+                        .labels(Map.of("app", "background-" + (n % 10))))
+                .spec(new V1PodSpec().containers(List.of(container)).nodeName(NODE_NAME))
+                .status(new V1PodStatus()
+                        .phase("Running")
+                        .startTime(now)
+                        .hostIP("10.0.0.1")
+                        .podIP(podIp())
+                        .containerStatuses(List.of(containerStatus(container, true,
+                                new V1ContainerState().running(new V1ContainerStateRunning().startedAt(now))))));
+        Stored<V1Pod> stored = new Stored<>(pod);
+        pods.put(key(namespace, name), stored);
+        backgroundPodKeys.add(key(namespace, name));
+        publish("ADDED", stored);
+    }
+
+    // ---- helpers (callers hold the lock) ----
+
+    private void publish(String type, Stored<V1Pod> pod) {
+        touch(pod);
+        V1ObjectMeta meta = pod.object.getMetadata();
+        PodEvent event = new PodEvent(resourceVersion, meta.getNamespace(), meta.getLabels(), eventLine(type, pod.json));
+        history.addLast(event);
+        while (history.size() > watchHistorySize) {
+            compactedThrough = history.removeFirst().resourceVersion;
+        }
+        for (PodWatch watch : watches) {
+            if (watch.matches(event.namespace, event.labels)) {
+                watch.offer(event.line);
+            }
+        }
+        podEvents.increment();
+    }
+
+    /**
+     * Next resource version, then re-serialize
+     */
+    private <T> void touch(Stored<T> stored) {
+        resourceVersion++;
+        if (stored.object instanceof V1Pod pod) {
+            pod.getMetadata().setResourceVersion(String.valueOf(resourceVersion));
+        } else if (stored.object instanceof V1Job job) {
+            job.getMetadata().setResourceVersion(String.valueOf(resourceVersion));
+        }
+        stored.json = JSON.serialize(stored.object);
+    }
+
+    private <T> String list(String kind, Map<String, Stored<T>> objects, String namespace, LabelSelector selector) {
+        StringBuilder json = new StringBuilder(4096)
+                .append("{\"apiVersion\":\"").append("PodList".equals(kind) ? "v1" : "batch/v1")
+                .append("\",\"kind\":\"").append(kind)
+                .append("\",\"metadata\":{\"resourceVersion\":\"").append(resourceVersion)
+                .append("\"},\"items\":[");
+        boolean first = true;
+        for (Stored<T> stored : objects.values()) {
+            V1ObjectMeta meta = stored.object instanceof V1Pod pod
+                    ? pod.getMetadata() : ((V1Job) stored.object).getMetadata();
+            if ((namespace == null || namespace.equals(meta.getNamespace())) && selector.matches(meta.getLabels())) {
+                if (!first) {
+                    json.append(',');
+                }
+                json.append(stored.json);
+                first = false;
+            }
+        }
+        return json.append("]}").toString();
+    }
+
+    private V1Pod podFor(V1Job job) {
+        V1ObjectMeta jobMeta = job.getMetadata();
+        String name = jobMeta.getName() + "-" + randomSuffix();
+        Map<String, String> labels = new HashMap<>();
+        if (job.getSpec() != null && job.getSpec().getTemplate().getMetadata() != null
+                && job.getSpec().getTemplate().getMetadata().getLabels() != null) {
+            labels.putAll(job.getSpec().getTemplate().getMetadata().getLabels());
+        }
+        labels.put("job-name", jobMeta.getName());
+        labels.put("batch.kubernetes.io/job-name", jobMeta.getName());
+        labels.put("controller-uid", jobMeta.getUid());
+        labels.put("batch.kubernetes.io/controller-uid", jobMeta.getUid());
+
+        V1PodSpec spec = job.getSpec() != null && job.getSpec().getTemplate().getSpec() != null
+                ? job.getSpec().getTemplate().getSpec()
+                : new V1PodSpec().containers(List.of(new V1Container().name("main").image("busybox")));
+        spec.setNodeName(NODE_NAME);
+        V1Container container = spec.getContainers().get(0);
+        return new V1Pod()
+                .apiVersion("v1")
+                .kind("Pod")
+                .metadata(new V1ObjectMeta()
+                        .name(name)
+                        .namespace(jobMeta.getNamespace())
+                        .uid(UUID.randomUUID().toString())
+                        .creationTimestamp(now())
+                        .labels(labels)
+                        .ownerReferences(List.of(new V1OwnerReference()
+                                .apiVersion("batch/v1")
+                                .kind("Job")
+                                .name(jobMeta.getName())
+                                .uid(jobMeta.getUid())
+                                .controller(true)
+                                .blockOwnerDeletion(true))))
+                .spec(spec)
+                .status(new V1PodStatus()
+                        .phase("Pending")
+                        .hostIP("10.0.0.1")
+                        .containerStatuses(List.of(containerStatus(container, false,
+                                new V1ContainerState().waiting(new V1ContainerStateWaiting().reason("ContainerCreating"))))));
+    }
+
+    private static V1ContainerStatus containerStatus(V1Container container, boolean ready, V1ContainerState state) {
+        return new V1ContainerStatus()
+                .name(container.getName())
+                .image(container.getImage() != null ? container.getImage() : "unknown")
+                .imageID("")
+                .ready(ready)
+                .started(state.getRunning() != null)
+                .restartCount(0)
+                .state(state);
+    }
+
+    private long estimatedRows(V1Job job) {
+        Map<String, String> annotations = job.getMetadata().getAnnotations();
+        if (annotations != null && annotations.get("report-estimated-rows") != null) {
+            try {
+                return Long.parseLong(annotations.get("report-estimated-rows"));
+            } catch (NumberFormatException ignored) {
+                // fall through to the default
+            }
+        }
+        return defaultReportRows;
+    }
+
+    private static long memoryLimit(V1Container container) {
+        if (container.getResources() == null || container.getResources().getLimits() == null) {
+            return 0;
+        }
+        Quantity limit = container.getResources().getLimits().get("memory");
+        return limit != null ? limit.getNumber().longValue() : 0;
+    }
+
+    private static String env(V1Container container, String name) {
+        if (container.getEnv() == null) {
+            return null;
+        }
+        for (V1EnvVar var : container.getEnv()) {
+            if (name.equals(var.getName())) {
+                return var.getValue();
+            }
+        }
+        return null;
+    }
+
+    private long jittered(long millis) {
+        if (jobDurationJitter <= 0) {
+            return millis;
+        }
+        double factor = 1 + (ThreadLocalRandom.current().nextDouble() * 2 - 1) * jobDurationJitter;
+        return Math.max(0, (long) (millis * factor));
+    }
+
+    static String eventLine(String type, String objectJson) {
+        return "{\"type\":\"" + type + "\",\"object\":" + objectJson + "}";
+    }
+
+    static String status(int code, String reason, String message) {
+        return "{\"kind\":\"Status\",\"apiVersion\":\"v1\",\"metadata\":{},\"status\":\"Failure\",\"message\":\""
+                + message.replace("\\", "\\\\").replace("\"", "\\\"")
+                + "\",\"reason\":\"" + reason + "\",\"code\":" + code + "}";
+    }
+
+    private static String key(String namespace, String name) {
+        return namespace + "/" + name;
+    }
+
+    private static OffsetDateTime now() {
+        return OffsetDateTime.now(ZoneOffset.UTC).withNano(0);
+    }
+
+    private static String podIp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "10.244." + random.nextInt(256) + "." + (1 + random.nextInt(254));
+    }
+
+    private static String randomSuffix() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder suffix = new StringBuilder(5);
+        for (int i = 0; i < 5; i++) {
+            suffix.append(POD_SUFFIX_CHARS.charAt(random.nextInt(POD_SUFFIX_CHARS.length())));
+        }
+        return suffix.toString();
+    }
+
+    private static final class Stored<T> {
+        final T object;
+        String json;
+
+        Stored(T object) {
+            this.object = object;
+        }
+    }
+
+    private record PodEvent(long resourceVersion, String namespace, Map<String, String> labels, String line) {
+    }
+
+    /**
+     * Event lines queued for one open watch request
+     */
+    public static final class PodWatch {
+
+        private static final String END = "";
+
+        private final String namespace;
+        private final LabelSelector selector;
+        private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+
+        PodWatch(String namespace, LabelSelector selector) {
+            this.namespace = namespace;
+            this.selector = selector;
+        }
+
+        /**
+         * Next event line, null on timeout, empty once the watch is closed
+         */
+        public String poll(long timeoutMs) throws InterruptedException {
+            return lines.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        public static boolean isEnd(String line) {
+            return line != null && line.isEmpty();
+        }
+
+        boolean matches(V1Pod pod) {
+            return matches(pod.getMetadata().getNamespace(), pod.getMetadata().getLabels());
+        }
+
+        boolean matches(String podNamespace, Map<String, String> labels) {
+            return (namespace == null || namespace.equals(podNamespace)) && selector.matches(labels);
+        }
+
+        void offer(String line) {
+            lines.offer(line);
+        }
+
+        void close() {
+            lines.offer(END);
+        }
+    }
+
+    public record Stats(
+            int pods,
+            int jobs,
+            int openWatches,
+            long resourceVersion,
+            long podEvents,
+            long jobsCreated,
+            long jobsFailed) {
+    }
+}
@@ -0,0 +1,119 @@
+package io.bytebakehouse.train.company.loadtest.mock;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Kubernetes label selector: comma-separated requirements of the forms
+ * {@code k=v}, {@code k==v}, {@code k!=v}, {@code k in (a,b)}, {@code k notin (a,b)},
+ * {@code k} and {@code !k}
+ */
+public final class LabelSelector {
+
+    private static final LabelSelector EVERYTHING = new LabelSelector(List.of());
+
+    private final List<Requirement> requirements;
+
+    private LabelSelector(List<Requirement> requirements) {
+        this.requirements = requirements;
+    }
+
+    public static LabelSelector parse(String selector) {
+        if (selector == null || selector.isBlank()) {
+            return EVERYTHING;
+        }
+        List<Requirement> requirements = new ArrayList<>();
+        for (String term : splitTerms(selector)) {
+            requirements.add(Requirement.parse(term.trim()));
+        }
+        return new LabelSelector(requirements);
+    }
+
+    public boolean matches(Map<String, String> labels) {
+        Map<String, String> actual = labels != null ? labels : Map.of();
+        for (Requirement requirement : requirements) {
+            if (!requirement.matches(actual)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Split on commas outside of parentheses
+     */
+    private static List<String> splitTerms(String selector) {
+        List<String> terms = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < selector.length(); i++) {
+            char c = selector.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                terms.add(selector.substring(start, i));
+                start = i + 1;
+            }
+        }
+        terms.add(selector.substring(start));
+        return terms;
+    }
+
+    private record Requirement(String key, String operator, Set<String> values) {
+
+        static Requirement parse(String term) {
+            if (term.startsWith("!")) {
+                return new Requirement(term.substring(1).trim(), "!", Set.of());
+            }
+            int notIn = term.indexOf(" notin ");
+            if (notIn > 0) {
+                return new Requirement(term.substring(0, notIn).trim(), "notin", valueSet(term.substring(notIn + 7)));
+            }
+            int in = term.indexOf(" in ");
+            if (in > 0) {
+                return new Requirement(term.substring(0, in).trim(), "in", valueSet(term.substring(in + 4)));
+            }
+            int notEquals = term.indexOf("!=");
+            if (notEquals > 0) {
+                return new Requirement(term.substring(0, notEquals).trim(), "notin",
+                        Set.of(term.substring(notEquals + 2).trim()));
+            }
+            int equals = term.indexOf('=');
+            if (equals > 0) {
+                String value = term.substring(term.startsWith("=", equals + 1) ? equals + 2 : equals + 1).trim();
+                return new Requirement(term.substring(0, equals).trim(), "in", Set.of(value));
+            }
+            if (term.isEmpty()) {
+                throw new IllegalArgumentException("Empty label selector requirement");
+            }
+            return new Requirement(term, "exists", Set.of());
+        }
+
+        private static Set<String> valueSet(String list) {
+            String trimmed = list.trim();
+            if (!trimmed.startsWith("(") || !trimmed.endsWith(")")) {
+                throw new IllegalArgumentException("Expected a parenthesised value list: " + list);
+            }
+            Set<String> values = new HashSet<>();
+            for (String value : trimmed.substring(1, trimmed.length() - 1).split(",")) {
+                values.add(value.trim());
+            }
+            return values;
+        }
+
+        boolean matches(Map<String, String> labels) {
+            String value = labels.get(key);
+            return switch (operator) {
+                case "in" -> value != null && values.contains(value);
+                case "notin" -> value == null || !values.contains(value);
+                case "exists" -> value != null;
+                default -> value == null;
+            };
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package io.bytebakehouse.train.company.loadtest.mock;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.bytebakehouse.train.company.loadtest.mock.ClusterState.PodWatch;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1Job;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the Kubernetes API server, covering the calls the orchestrator makes:
+ * pod list/get/watch/log (core/v1) and Job list/get/create/delete (batch/v1). Backed by
+ * {@link ClusterState}; can add per-request latency and answer 429 above a QPS limit so the
+ * orchestrator's client governor gets exercised too.
+ */
+@Slf4j
+@Component
+public class MockKubernetesApiServer {
+
+    private static final Pattern PODS = Pattern.compile("^/api/v1(?:/namespaces/([^/]+))?/pods$");
+    private static final Pattern POD = Pattern.compile("^/api/v1/namespaces/([^/]+)/pods/([^/]+)(/log)?$");
+    private static final Pattern JOBS = Pattern.compile("^/apis/batch/v1(?:/namespaces/([^/]+))?/jobs$");
+    private static final Pattern JOB = Pattern.compile("^/apis/batch/v1/namespaces/([^/]+)/jobs/([^/]+)(/status)?$");
+
+    private final ClusterState clusterState;
+    private final int port;
+    private final long apiLatencyMs;
+    private final double throttleQps;
+    private final long bookmarkIntervalMs;
+    private final int defaultWatchTimeoutSeconds;
+
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final LongAdder throttled = new LongAdder();
+    private final Object throttleLock = new Object();
+    private double throttleTokens;
+    private long throttleRefilledAt = System.nanoTime();
+    private volatile boolean running;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MockKubernetesApiServer(
+            ClusterState clusterState,
+            @Value("${loadtest.mock.port:0}") int port,
+            @Value("${loadtest.mock.api-latency-ms:2}") long apiLatencyMs,
+            @Value("${loadtest.mock.throttle-qps:0}") double throttleQps,
+            @Value("${loadtest.mock.bookmark-interval-ms:10000}") long bookmarkIntervalMs,
+            @Value("${loadtest.mock.default-watch-timeout-seconds:300}") int defaultWatchTimeoutSeconds) {
+        this.clusterState = clusterState;
+        this.port = port;
+        this.apiLatencyMs = apiLatencyMs;
+        this.throttleQps = throttleQps;
+        this.bookmarkIntervalMs = bookmarkIntervalMs;
+        this.defaultWatchTimeoutSeconds = defaultWatchTimeoutSeconds;
+        this.throttleTokens = throttleQps;
+    }
+
+    /**
+     * Start serving on 127.0.0.1 (port 0 picks a free one) and return the base URL
+     */
+    public String start() throws IOException {
+        clusterState.start();
+        // Watches and followed logs block their handler, so every request gets a virtual thread
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        running = true;
+        server.start();
+        String url = baseUrl();
+        log.info("Mock Kubernetes API listening on {}", url);
+        return url;
+    }
+
+    public void stop() {
+        running = false;
+        clusterState.stop();
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Kubeconfig pointing at this server, for the orchestrator's Config.defaultClient()
+     */
+    public Path writeKubeconfig(Path file) throws IOException {
+        String kubeconfig = """
+                apiVersion: v1
+                kind: Config
+                clusters:
+                - name: loadtest
+                  cluster:
+                    server: %s
+                contexts:
+                - name: loadtest
+                  context:
+                    cluster: loadtest
+                    user: loadtest
+                    namespace: train-orchestrator
+                current-context: loadtest
+                users:
+                - name: loadtest
+                  user:
+                    token: loadtest
+                """.formatted(baseUrl());
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, kubeconfig);
+    }
+
+    /**
+     * Requests served per operation, plus 429s sent
+     */
+    public Map<String, Long> requestCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        requestCounts.forEach((operation, count) -> counts.put(operation, count.sum()));
+        counts.put("throttled", throttled.sum());
+        return counts;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+
+            if (!acquireToken()) {
+                throttled.increment();
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                send(exchange, 429, ClusterState.status(429, "TooManyRequests", "mock API rate limit"));
+                return;
+            }
+            if (apiLatencyMs > 0) {
+                Thread.sleep(apiLatencyMs);
+            }
+
+            Matcher m;
+            if ((m = PODS.matcher(path)).matches() && "GET".equals(method)) {
+                LabelSelector selector = LabelSelector.parse(query.get("labelSelector"));
+                if ("true".equals(query.get("watch"))) {
+                    count("watch pods");
+                    watch(exchange, m.group(1), selector, query);
+                } else {
+                    count("list pods");
+                    send(exchange, 200, clusterState.listPods(m.group(1), selector));
+                }
+            } else if ((m = POD.matcher(path)).matches() && "GET".equals(method)) {
+                if (m.group(3) != null) {
+                    count("log pod");
+                    streamLog(exchange, m.group(1), m.group(2), "true".equals(query.get("follow")));
+                } else {
+                    count("get pod");
+                    sendOrNotFound(exchange, clusterState.getPod(m.group(1), m.group(2)), "pods", m.group(2));
+                }
+            } else if ((m = JOBS.matcher(path)).matches() && "GET".equals(method)) {
+                count("list jobs");
+                send(exchange, 200, clusterState.listJobs(m.group(1), LabelSelector.parse(query.get("labelSelector"))));
+            } else if ((m = JOBS.matcher(path)).matches() && "POST".equals(method) && m.group(1) != null) {
+                count("create job");
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                V1Job job = JSON.deserialize(body, V1Job.class);
+                Optional<String> created = clusterState.createJob(m.group(1), job);
+                if (created.isPresent()) {
+                    send(exchange, 201, created.get());
+                } else {
+                    send(exchange, 409, ClusterState.status(409, "AlreadyExists",
+                            "jobs.batch \"" + job.getMetadata().getName() + "\" already exists"));
+                }
+            } else if ((m = JOB.matcher(path)).matches() && "GET".equals(method)) {
+                count("get job");
+                sendOrNotFound(exchange, clusterState.getJob(m.group(1), m.group(2)), "jobs.batch", m.group(2));
+            } else if ((m = JOB.matcher(path)).matches() && "DELETE".equals(method) && m.group(3) == null) {
+                count("delete job");
+                if (clusterState.deleteJob(m.group(1), m.group(2))) {
+                    send(exchange, 200, "{\"kind\":\"Status\",\"apiVersion\":\"v1\",\"metadata\":{},\"status\":\"Success\"}");
+                } else {
+                    send(exchange, 404, ClusterState.status(404, "NotFound", "jobs.batch \"" + m.group(2) + "\" not found"));
+                }
+            } else {
+                count("unsupported");
+                log.debug("Unsupported mock API call: {} {}", method, path);
+                send(exchange, 404, ClusterState.status(404, "NotFound", "the server could not find the requested resource"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Client went away mid-response (watch closed, log stream cancelled)
+            log.trace("Mock API connection closed: {}", e.getMessage());
+        } catch (Exception e) {
+            log.warn("Mock API request failed: {}", e.getMessage());
+            try {
+                send(exchange, 500, ClusterState.status(500, "InternalError", String.valueOf(e.getMessage())));
+            } catch (IOException ignored) {
+                // response already started
+            }
+        }
+    }
+
+    /**
+     * Stream watch events, with periodic bookmarks if asked for, until the requested
+     * timeout, a 410 or shutdown
+     */
+    private void watch(HttpExchange exchange, String namespace, LabelSelector selector,
+                       Map<String, String> query) throws IOException, InterruptedException {
+        PodWatch watch = clusterState.watchPods(namespace, selector, query.get("resourceVersion"));
+        boolean bookmarks = "true".equals(query.get("allowWatchBookmarks"));
+        int timeoutSeconds = query.containsKey("timeoutSeconds")
+                ? Integer.parseInt(query.get("timeoutSeconds")) : defaultWatchTimeoutSeconds;
+        long deadline = System.nanoTime() + timeoutSeconds * 1_000_000_000L;
+        long nextBookmark = System.nanoTime() + bookmarkIntervalMs * 1_000_000L;
+
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        try {
+            while (running && System.nanoTime() < deadline) {
+                String line = watch.poll(Math.min(1000, bookmarkIntervalMs));
+                if (PodWatch.isEnd(line)) {
+                    // Closed after a 410 or because the cluster is stopping
+                    break;
+                }
+                if (line != null) {
+                    out.write(line.getBytes(StandardCharsets.UTF_8));
+                    out.write('\n');
+                    // Write whatever else is already queued before flushing
+                    String next;
+                    while ((next = watch.poll(0)) != null && !PodWatch.isEnd(next)) {
+                        out.write(next.getBytes(StandardCharsets.UTF_8));
+                        out.write('\n');
+                    }
+                    out.flush();
+                    if (PodWatch.isEnd(next)) {
+                        break;
+                    }
+                }
+                if (bookmarks && System.nanoTime() >= nextBookmark) {
+                    clusterState.bookmark(watch);
+                    nextBookmark = System.nanoTime() + bookmarkIntervalMs * 1_000_000L;
+                }
+            }
+        } finally {
+            clusterState.closeWatch(watch);
+        }
+    }
+
+    /**
+     * A few lines per pod; when following, one line a second until the pod finishes
+     */
+    private void streamLog(HttpExchange exchange, String namespace, String podName, boolean follow)
+            throws IOException, InterruptedException {
+        Optional<String> phase = clusterState.podPhase(namespace, podName);
+        if (phase.isEmpty()) {
+            send(exchange, 404, ClusterState.status(404, "NotFound", "pods \"" + podName + "\" not found"));
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        int line = 0;
+        for (; line < 5; line++) {
+            out.write(logLine(podName, line));
+        }
+        out.flush();
+        while (follow && running) {
+            Optional<String> current = clusterState.podPhase(namespace, podName);
+            if (current.isEmpty() || !"Running".equals(current.get()) && !"Pending".equals(current.get())) {
+                break;
+            }
+            Thread.sleep(1000);
+            out.write(logLine(podName, line++));
+            out.flush();
+        }
+    }
+
+    private static byte[] logLine(String podName, int line) {
+        return ("INFO " + podName + " simulated report progress line " + line + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Token bucket over all requests; always true when throttling is off
+     */
+    private boolean acquireToken() {
+        if (throttleQps <= 0) {
+            return true;
+        }
+        synchronized (throttleLock) {
+            long now = System.nanoTime();
+            throttleTokens = Math.min(throttleQps, throttleTokens + (now - throttleRefilledAt) / 1e9 * throttleQps);
+            throttleRefilledAt = now;
+            if (throttleTokens < 1) {
+                return false;
+            }
+            throttleTokens--;
+            return true;
+        }
+    }
+
+    private void count(String operation) {
+        requestCounts.computeIfAbsent(operation, key -> new LongAdder()).increment();
+    }
+
+    private static void sendOrNotFound(HttpExchange exchange, Optional<String> json, String resource, String name)
+            throws IOException {
+        if (json.isPresent()) {
+            send(exchange, 200, json.get());
+        } else {
+            send(exchange, 404, ClusterState.status(404, "NotFound", resource + " \"" + name + "\" not found"));
+        }
+    }
+
+    private static void send(HttpExchange exchange, int code, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
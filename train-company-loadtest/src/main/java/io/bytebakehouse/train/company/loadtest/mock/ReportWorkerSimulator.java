@@ -0,0 +1,159 @@
+package io.bytebakehouse.train.company.loadtest.mock;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.bytebakehouse.train.company.loadtest.metrics.LatencyRecorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stands in for the report container of a running mock pod: posts progress to the
+ * Job's PROGRESS_URL the way the Python reporter does (querying, fetching, writing, done)
+ */
+@Component
+public class ReportWorkerSimulator {
+
+    private static final String OPERATION = "worker-progress";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final LatencyRecorder latencyRecorder;
+    private final long progressIntervalMs;
+
+    private final Map<String, Run> runs = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2,
+            Thread.ofPlatform().name("mock-worker-", 0).daemon().factory());
+
+    public ReportWorkerSimulator(
+            HttpClient httpClient,
+            ObjectMapper objectMapper,
+            LatencyRecorder latencyRecorder,
+            @Value("${loadtest.mock.progress-interval-ms:1000}") long progressIntervalMs) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.latencyRecorder = latencyRecorder;
+        this.progressIntervalMs = progressIntervalMs;
+    }
+
+    public void start(String jobName, String progressUrl, long rowsTotal, long memoryLimitBytes, long durationMs) {
+        if (progressUrl == null || progressIntervalMs <= 0) {
+            return;
+        }
+        Run run = new Run(progressUrl, rowsTotal, memoryLimitBytes, Math.max(1, durationMs), System.nanoTime());
+        runs.put(jobName, run);
+        post(run, new Progress("querying", rowsTotal, null, null, null, null));
+        run.future = scheduler.scheduleAtFixedRate(() -> tick(run),
+                progressIntervalMs, progressIntervalMs, TimeUnit.MILLISECONDS);
+        // The job may have finished while this was being scheduled
+        if (run.finished) {
+            run.future.cancel(false);
+        }
+    }
+
+    public void finish(String jobName, boolean succeeded) {
+        Run run = runs.remove(jobName);
+        if (run == null) {
+            return;
+        }
+        run.finished = true;
+        if (run.future != null) {
+            run.future.cancel(false);
+        }
+        if (succeeded) {
+            post(run, new Progress("done", run.rowsTotal, run.rowsTotal, run.rowsTotal,
+                    bytesFor(run.rowsTotal), peakMemory(run, 1.0)));
+        }
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+        runs.clear();
+    }
+
+    /**
+     * Rows move linearly with elapsed time: fetched over the first 60%, written after
+     */
+    private void tick(Run run) {
+        double elapsed = Math.min(1.0, (System.nanoTime() - run.startNanos) / 1e6 / run.durationMs);
+        if (elapsed < 0.6) {
+            long fetched = (long) (run.rowsTotal * elapsed / 0.6);
+            post(run, new Progress("fetching", null, fetched, null, null, peakMemory(run, elapsed)));
+        } else {
+            long written = (long) (run.rowsTotal * (elapsed - 0.6) / 0.4);
+            post(run, new Progress("writing", null, run.rowsTotal, written, bytesFor(written), peakMemory(run, elapsed)));
+        }
+    }
+
+    private void post(Run run, Progress progress) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(progress);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(run.progressUrl))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        long start = System.nanoTime();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error == null && response.statusCode() < 400) {
+                        latencyRecorder.record(OPERATION, System.nanoTime() - start);
+                    } else {
+                        latencyRecorder.error(OPERATION);
+                    }
+                });
+    }
+
+    private static long bytesFor(long rows) {
+        return rows * 120;
+    }
+
+    private static Long peakMemory(Run run, double elapsed) {
+        return run.memoryLimitBytes > 0 ? (long) (run.memoryLimitBytes * (0.3 + 0.5 * elapsed)) : null;
+    }
+
+    private static final class Run {
+        final String progressUrl;
+        final long rowsTotal;
+        final long memoryLimitBytes;
+        final long durationMs;
+        final long startNanos;
+        volatile ScheduledFuture<?> future;
+        volatile boolean finished;
+
+        Run(String progressUrl, long rowsTotal, long memoryLimitBytes, long durationMs, long startNanos) {
+            this.progressUrl = progressUrl;
+            this.rowsTotal = rowsTotal;
+            this.memoryLimitBytes = memoryLimitBytes;
+            this.durationMs = durationMs;
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * Same shape as the orchestrator's JobProgress
+     */
+    record Progress(
+            String phase,
+            Long rowsTotal,
+            Long rowsFetched,
+            Long rowsWritten,
+            Long bytesWritten,
+            Long peakMemoryBytes) {
+    }
+}
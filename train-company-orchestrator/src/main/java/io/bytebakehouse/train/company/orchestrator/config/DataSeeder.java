@@ -3,6 +3,7 @@ package io.bytebakehouse.train.company.orchestrator.config;
 import io.bytebakehouse.train.company.orchestrator.entity.*;
 import io.bytebakehouse.train.company.orchestrator.entity.enums.*;
 import io.bytebakehouse.train.company.orchestrator.repository.*;
+import io.bytebakehouse.train.company.orchestrator.service.TripAvailabilityService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -37,7 +38,8 @@ public class DataSeeder {
             BookingRepository bookingRepository,
             TicketRepository ticketRepository,
             PaymentRepository paymentRepository,
-            SeatReservationRepository seatReservationRepository
+            SeatReservationRepository seatReservationRepository,
+            TripAvailabilityService tripAvailabilityService
     ) {
         Logger log = LoggerFactory.getLogger(DataSeeder.class);
         return args -> {
@@ -231,6 +233,9 @@ public class DataSeeder {
                 reservations.get(i).setTicket(tickets.get(i));
             }
             seatReservationRepository.saveAll(reservations);
+
+            // Availability counters for the seeded trips
+            tripAvailabilityService.recount(today, today.plusDays(trips.size()));
             log.info("✅ Database seeded with sample data:");
             log.info("   - {} users", users.size());
             log.info("   - {} passengers", passengers.size());
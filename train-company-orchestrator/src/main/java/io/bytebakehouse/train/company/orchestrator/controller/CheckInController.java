@@ -0,0 +1,70 @@
+package io.bytebakehouse.train.company.orchestrator.controller;
+
+import io.bytebakehouse.train.company.orchestrator.service.BatchCheckInService;
+import io.bytebakehouse.train.company.orchestrator.service.CheckInService;
+import io.bytebakehouse.train.company.orchestrator.service.CheckInService.CheckInResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/checkin")
+public class CheckInController {
+
+    private final CheckInService checkInService;
+    private final BatchCheckInService batchCheckInService;
+
+    public CheckInController(CheckInService checkInService,
+                             BatchCheckInService batchCheckInService) {
+        this.checkInService = checkInService;
+        this.batchCheckInService = batchCheckInService;
+    }
+
+    @PostMapping("/{ticketRef}")
+    public ResponseEntity<?> checkIn(@PathVariable String ticketRef,
+                                     @RequestParam(required = false) UUID tripId,
+                                     @RequestParam(required = false) String gate) {
+        try {
+            CheckInResponse response = checkInService.checkIn(ticketRef, tripId, gate);
+            HttpStatus status = switch (response.result()) {
+                case CHECKED_IN -> HttpStatus.OK;
+                case ALREADY_CHECKED_IN -> HttpStatus.CONFLICT;
+                case UNKNOWN_TICKET -> HttpStatus.NOT_FOUND;
+                case WRONG_TRIP, NOT_VALID -> HttpStatus.UNPROCESSABLE_ENTITY;
+            };
+            return ResponseEntity.status(status).body(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> ingestNdjsonBatch(InputStream body) {
+        try {
+            return ResponseEntity.ok(batchCheckInService.ingestNdjson(body));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Invalid NDJSON batch: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> ingestBinaryBatch(InputStream body) {
+        try {
+            return ResponseEntity.ok(batchCheckInService.ingestBinary(body));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Invalid binary batch: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package io.bytebakehouse.train.company.orchestrator.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.bytebakehouse.train.company.orchestrator.service.TicketExportService;
+import io.bytebakehouse.train.company.orchestrator.service.TicketExportService.ExportFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private static final String EXPORT_SLOT_INTERCEPTOR = ExportController.class.getName() + ".exportSlot";
+
+    private final TicketExportService ticketExportService;
+    private final ObjectMapper objectMapper;
+
+    public ExportController(TicketExportService ticketExportService, ObjectMapper objectMapper) {
+        this.ticketExportService = ticketExportService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Stream the ticketing report rows for an issue date range as NDJSON or CSV.
+     * copy-csv has Postgres render the CSV through COPY TO STDOUT, the fastest path.
+     * The body is gzip-compressed when the client accepts it and is sent chunked.
+     * Declared with a StreamingResponseBody body, otherwise Spring MVC does not stream it,
+     * so the error bodies are written the same way.
+     */
+    @GetMapping("/tickets")
+    public ResponseEntity<StreamingResponseBody> exportTickets(
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            NativeWebRequest webRequest) {
+        LocalDate start;
+        LocalDate end;
+        ExportFormat exportFormat;
+        try {
+            start = LocalDate.parse(startDate);
+            end = LocalDate.parse(endDate);
+            exportFormat = ExportFormat.valueOf(format.toUpperCase().replace('-', '_'));
+        } catch (DateTimeParseException e) {
+            return error(ResponseEntity.badRequest(), "Invalid date format. Use YYYY-MM-DD format.");
+        } catch (IllegalArgumentException e) {
+            return error(ResponseEntity.badRequest(), "Invalid format. Use ndjson, csv or copy-csv.");
+        }
+        if (end.isBefore(start)) {
+            return error(ResponseEntity.badRequest(), "endDate must not be before startDate");
+        }
+
+        if (!ticketExportService.tryAcquireSlot()) {
+            return error(ResponseEntity.status(429).header(HttpHeaders.RETRY_AFTER, "30"),
+                    "Too many exports running, retry later");
+        }
+        // The body may never run (async timeout, rejected task, client gone), so the slot is
+        // also given back when the async request completes, whichever comes first
+        AtomicBoolean slotHeld = new AtomicBoolean(true);
+        Runnable releaseSlot = () -> {
+            if (slotHeld.compareAndSet(true, false)) {
+                ticketExportService.releaseSlot();
+            }
+        };
+        WebAsyncUtils.getAsyncManager(webRequest).registerCallableInterceptor(EXPORT_SLOT_INTERCEPTOR,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                        releaseSlot.run();
+                    }
+                });
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        boolean csv = exportFormat != ExportFormat.NDJSON;
+        String extension = csv ? "csv" : "ndjson";
+        StreamingResponseBody body = out -> {
+            try {
+                if (gzip) {
+                    // Sync flush so every flushed batch reaches the client instead of waiting in the deflater
+                    try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024, true)) {
+                        ticketExportService.export(start, end, exportFormat, gzipOut);
+                    }
+                } else {
+                    ticketExportService.export(start, end, exportFormat, out);
+                }
+            } finally {
+                releaseSlot.run();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"tickets-" + start + "-to-" + end + "." + extension + "\"")
+                .contentType(csv
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> error(ResponseEntity.BodyBuilder response, String message) {
+        Map<String, String> error = Map.of("error", message);
+        return response.contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, error));
+    }
+
+    /**
+     * Write the report for a range to the reports volume as CSV using COPY TO STDOUT.
+     * The file shows up in /api/k8s/reports next to the xlsx reports.
+     */
+    @PostMapping("/tickets/storage")
+    public ResponseEntity<?> exportTicketsToStorage(
+            @RequestParam String startDate,
+            @RequestParam String endDate) {
+        try {
+            LocalDate start = LocalDate.parse(startDate);
+            LocalDate end = LocalDate.parse(endDate);
+            if (end.isBefore(start)) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "endDate must not be before startDate"));
+            }
+            return ResponseEntity.ok(ticketExportService.copyCsvToStorage(start, end));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Invalid date format. Use YYYY-MM-DD format."));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
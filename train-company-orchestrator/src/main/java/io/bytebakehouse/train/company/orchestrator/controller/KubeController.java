@@ -3,9 +3,14 @@ package io.bytebakehouse.train.company.orchestrator.controller;
 import io.bytebakehouse.train.company.orchestrator.service.PodListService;
 import io.bytebakehouse.train.company.orchestrator.service.PodRecordService;
 import io.bytebakehouse.train.company.orchestrator.service.TicketingReportJobService;
+import io.bytebakehouse.train.company.orchestrator.service.ReportBatchService;
+import io.bytebakehouse.train.company.orchestrator.service.ReportBatchService.ReportBatchRequest;
+import io.bytebakehouse.train.company.orchestrator.service.ReportPreviewService;
 import io.bytebakehouse.train.company.orchestrator.service.ReportStorageService;
 import io.bytebakehouse.train.company.orchestrator.service.JobService;
 import io.bytebakehouse.train.company.orchestrator.service.JobStatusService;
+import io.bytebakehouse.train.company.orchestrator.service.JobStatusService.JobProgress;
+import io.bytebakehouse.train.company.orchestrator.service.PodLogStreamService;
 import io.kubernetes.client.openapi.models.V1PodList;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
@@ -17,7 +22,9 @@ import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
@@ -31,21 +38,30 @@ public class KubeController {
     private final JobService jobService;
     private final PodRecordService podRecordService;
     private final TicketingReportJobService ticketingReportJobService;
+    private final ReportBatchService reportBatchService;
     private final ReportStorageService reportStorageService;
+    private final ReportPreviewService reportPreviewService;
     private final JobStatusService jobStatusService;
+    private final PodLogStreamService podLogStreamService;
 
     public KubeController(PodListService podListService, 
                           JobService jobService, 
                           PodRecordService podRecordService,
                           TicketingReportJobService ticketingReportJobService,
+                          ReportBatchService reportBatchService,
                           ReportStorageService reportStorageService,
-                          JobStatusService jobStatusService) {
+                          ReportPreviewService reportPreviewService,
+                          JobStatusService jobStatusService,
+                          PodLogStreamService podLogStreamService) {
         this.podListService = podListService;
         this.jobService = jobService;
         this.podRecordService = podRecordService;
         this.ticketingReportJobService = ticketingReportJobService;
+        this.reportBatchService = reportBatchService;
         this.reportStorageService = reportStorageService;
+        this.reportPreviewService = reportPreviewService;
         this.jobStatusService = jobStatusService;
+        this.podLogStreamService = podLogStreamService;
     }
 
     @GetMapping("/pods")
@@ -91,23 +107,29 @@ public class KubeController {
     @PostMapping("/jobs/ticketing-report")
     public ResponseEntity<?> createTicketingReport(
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
+            @RequestParam(required = false) String endDate,
+            @RequestParam(defaultValue = "xlsx") String format) {
         try {
-            var job = (startDate != null && endDate != null)
-                    ? ticketingReportJobService.createTicketingReportJob(
+            var report = (startDate != null && endDate != null)
+                    ? ticketingReportJobService.submitReport(
                             LocalDate.parse(startDate),
-                            LocalDate.parse(endDate))
-                    : ticketingReportJobService.createTicketingReportJobForCurrentMonth();
+                            LocalDate.parse(endDate),
+                            format)
+                    : ticketingReportJobService.submitReportForCurrentMonth();
             
             return ResponseEntity.ok(Map.of(
                     "status", "created",
-                    "jobName", job.getMetadata().getName(),
-                    "namespace", job.getMetadata().getNamespace(),
-                    "creationTimestamp", job.getMetadata().getCreationTimestamp()
+                    "jobName", report.jobName(),
+                    "namespace", report.namespace(),
+                    "executor", report.executor(),
+                    "creationTimestamp", report.creationTimestamp()
             ));
         } catch (DateTimeParseException e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", "Invalid date format. Use YYYY-MM-DD format."));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(500)
                     .body(Map.of("error", e.getMessage()));
@@ -117,12 +139,13 @@ public class KubeController {
     @PostMapping("/jobs/ticketing-report/current-month")
     public ResponseEntity<?> createTicketingReportForCurrentMonth() {
         try {
-            var job = ticketingReportJobService.createTicketingReportJobForCurrentMonth();
+            var report = ticketingReportJobService.submitReportForCurrentMonth();
             return ResponseEntity.ok(Map.of(
                     "status", "created",
-                    "jobName", job.getMetadata().getName(),
-                    "namespace", job.getMetadata().getNamespace(),
-                    "creationTimestamp", job.getMetadata().getCreationTimestamp(),
+                    "jobName", report.jobName(),
+                    "namespace", report.namespace(),
+                    "executor", report.executor(),
+                    "creationTimestamp", report.creationTimestamp(),
                     "period", "current-month"
             ));
         } catch (Exception e) {
@@ -134,12 +157,13 @@ public class KubeController {
     @PostMapping("/jobs/ticketing-report/previous-month")
     public ResponseEntity<?> createTicketingReportForPreviousMonth() {
         try {
-            var job = ticketingReportJobService.createTicketingReportJobForPreviousMonth();
+            var report = ticketingReportJobService.submitReportForPreviousMonth();
             return ResponseEntity.ok(Map.of(
                     "status", "created",
-                    "jobName", job.getMetadata().getName(),
-                    "namespace", job.getMetadata().getNamespace(),
-                    "creationTimestamp", job.getMetadata().getCreationTimestamp(),
+                    "jobName", report.jobName(),
+                    "namespace", report.namespace(),
+                    "executor", report.executor(),
+                    "creationTimestamp", report.creationTimestamp(),
                     "period", "previous-month"
             ));
         } catch (Exception e) {
@@ -148,6 +172,56 @@ public class KubeController {
         }
     }
 
+    /**
+     * Dry run: the estimated rows, memory, duration and execution mode (inline, single job
+     * or sharded) a report would get, without submitting it
+     */
+    @GetMapping("/jobs/ticketing-report/plan")
+    public ResponseEntity<?> planTicketingReport(
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "xlsx") String format) {
+        try {
+            return ResponseEntity.ok(ticketingReportJobService.planReport(
+                    LocalDate.parse(startDate), LocalDate.parse(endDate), format));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Invalid date format. Use YYYY-MM-DD format."));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Submit several periods at once, e.g. {"year": 2025} for one report per month.
+     * Returns immediately; the batch's aggregate status is broadcast under its batch id.
+     */
+    @PostMapping("/jobs/ticketing-report/batch")
+    public ResponseEntity<?> createTicketingReportBatch(@RequestBody ReportBatchRequest request) {
+        try {
+            var batch = reportBatchService.submit(request);
+            return ResponseEntity.accepted().body(batch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/jobs/ticketing-report/batch/{batchId}")
+    public ResponseEntity<?> getTicketingReportBatch(@PathVariable String batchId) {
+        return reportBatchService.getBatch(batchId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(404)
+                        .body(Map.of("error", "Batch not found")));
+    }
+
     @GetMapping("/reports")
     public ResponseEntity<?> listReports() {
         try {
@@ -162,6 +236,19 @@ public class KubeController {
         }
     }
 
+    @GetMapping("/reports/usage")
+    public ResponseEntity<?> getReportStorageUsage() {
+        try {
+            return ResponseEntity.ok(reportStorageService.getStorageUsage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/reports/{filename}")
     public ResponseEntity<Resource> downloadReport(@PathVariable String filename) {
         try {
@@ -178,6 +265,56 @@ public class KubeController {
         }
     }
 
+    /**
+     * Header and first rows of a report, read without transferring the whole file
+     */
+    @GetMapping("/reports/{filename}/preview")
+    public ResponseEntity<?> previewReport(
+            @PathVariable String filename,
+            @RequestParam(defaultValue = "20") int rows) {
+        try {
+            var preview = reportPreviewService.preview(filename, rows);
+            if (preview == null) {
+                return ResponseEntity.status(404)
+                        .body(Map.of("error", "Report not found"));
+            }
+            return ResponseEntity.ok(preview);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Row count and per-column totals, ranges and value counts of a report
+     */
+    @GetMapping("/reports/{filename}/summary")
+    public ResponseEntity<?> summarizeReport(@PathVariable String filename) {
+        try {
+            var summary = reportPreviewService.summarize(filename);
+            if (summary == null) {
+                return ResponseEntity.status(404)
+                        .body(Map.of("error", "Report not found"));
+            }
+            return ResponseEntity.ok(summary);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/reports/{filename}")
     public ResponseEntity<?> deleteReport(@PathVariable String filename) {
         try {
@@ -200,6 +337,38 @@ public class KubeController {
         }
     }
 
+    /**
+     * Follow the log of a ticketing report job's pod as Server-Sent Events
+     */
+    @GetMapping(value = "/jobs/{jobName}/logs", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJobLogs(@PathVariable String jobName) {
+        // Job names are DNS labels; anything else could alter the pod label selector
+        if (!jobName.matches("[a-z0-9]([-a-z0-9]*[a-z0-9])?")) {
+            return ResponseEntity.badRequest().build();
+        }
+        SseEmitter emitter = podLogStreamService.subscribe(jobName);
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
+    /**
+     * Progress callback for report workers (rows fetched/written, bytes, phase)
+     */
+    @PostMapping("/jobs/{jobName}/progress")
+    public ResponseEntity<?> reportJobProgress(@PathVariable String jobName, @RequestBody JobProgress progress) {
+        try {
+            jobStatusService.reportProgress(jobName, progress);
+            return ResponseEntity.accepted().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/jobs/all")
     public ResponseEntity<?> getAllJobs() {
         try {
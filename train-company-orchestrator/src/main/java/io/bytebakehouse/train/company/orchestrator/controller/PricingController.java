@@ -0,0 +1,57 @@
+package io.bytebakehouse.train.company.orchestrator.controller;
+
+import io.bytebakehouse.train.company.orchestrator.service.FarePricingService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/pricing")
+public class PricingController {
+
+    private final FarePricingService farePricingService;
+
+    public PricingController(FarePricingService farePricingService) {
+        this.farePricingService = farePricingService;
+    }
+
+    /**
+     * Live price of a fare on a trip, with a signed token that holds the price until it expires
+     */
+    @GetMapping("/trips/{tripId}/fares/{fareId}")
+    public ResponseEntity<?> quote(@PathVariable UUID tripId, @PathVariable UUID fareId) {
+        try {
+            return ResponseEntity.ok(farePricingService.quote(tripId, fareId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Live prices of every fare that can still be sold on a trip, cheapest first
+     */
+    @GetMapping("/trips/{tripId}")
+    public ResponseEntity<?> quotesForTrip(@PathVariable UUID tripId) {
+        try {
+            return ResponseEntity.ok(farePricingService.quotesForTrip(tripId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
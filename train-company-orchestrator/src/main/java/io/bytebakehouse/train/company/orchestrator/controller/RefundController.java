@@ -0,0 +1,60 @@
+package io.bytebakehouse.train.company.orchestrator.controller;
+
+import io.bytebakehouse.train.company.orchestrator.service.RefundService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/refunds")
+public class RefundController {
+
+    private final RefundService refundService;
+
+    public RefundController(RefundService refundService) {
+        this.refundService = refundService;
+    }
+
+    /**
+     * Cancel a trip and refund every open ticket on it
+     */
+    @PostMapping("/trips/{tripId}")
+    public ResponseEntity<?> refundTrip(@PathVariable UUID tripId,
+                                        @RequestParam(defaultValue = "trip cancelled") String reason) {
+        try {
+            return ResponseEntity.ok(refundService.refundTrip(tripId, reason));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/tickets")
+    public ResponseEntity<?> refundTickets(@RequestBody RefundTicketsRequest request) {
+        if (request.ticketIds() == null || request.ticketIds().isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "ticketIds must not be empty"));
+        }
+        try {
+            String reason = request.reason() != null ? request.reason() : "refund requested";
+            return ResponseEntity.ok(refundService.refundTickets(request.ticketIds(), reason));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    public record RefundTicketsRequest(List<UUID> ticketIds, String reason) {
+    }
+}
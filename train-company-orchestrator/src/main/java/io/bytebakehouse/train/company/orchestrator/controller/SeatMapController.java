@@ -0,0 +1,68 @@
+package io.bytebakehouse.train.company.orchestrator.controller;
+
+import io.bytebakehouse.train.company.orchestrator.service.SeatMapService;
+import io.bytebakehouse.train.company.orchestrator.service.SeatMapService.Payload;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Seat maps: the layout of a train, and the occupancy overlay of a trip. Responses carry a
+ * strong ETag; a matching If-None-Match is answered with 304 and no body.
+ */
+@RestController
+@RequestMapping("/api/seat-map")
+public class SeatMapController {
+
+    private final SeatMapService seatMapService;
+
+    public SeatMapController(SeatMapService seatMapService) {
+        this.seatMapService = seatMapService;
+    }
+
+    @GetMapping("/trains/{trainId}")
+    public ResponseEntity<?> layout(@PathVariable UUID trainId, WebRequest request) {
+        try {
+            return conditional(seatMapService.layout(trainId), request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/trips/{tripId}/occupancy")
+    public ResponseEntity<?> occupancy(@PathVariable UUID tripId, WebRequest request) {
+        try {
+            return conditional(seatMapService.occupancy(tripId), request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static ResponseEntity<?> conditional(Payload payload, WebRequest request) {
+        if (request.checkNotModified(payload.etag())) {
+            // 304 and ETag already written
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(payload.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(payload.body());
+    }
+}
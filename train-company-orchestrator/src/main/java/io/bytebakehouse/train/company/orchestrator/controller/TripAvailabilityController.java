@@ -0,0 +1,60 @@
+package io.bytebakehouse.train.company.orchestrator.controller;
+
+import io.bytebakehouse.train.company.orchestrator.entity.enums.SeatClass;
+import io.bytebakehouse.train.company.orchestrator.service.TripAvailabilityService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/trips")
+public class TripAvailabilityController {
+
+    private final TripAvailabilityService tripAvailabilityService;
+
+    public TripAvailabilityController(TripAvailabilityService tripAvailabilityService) {
+        this.tripAvailabilityService = tripAvailabilityService;
+    }
+
+    /**
+     * Seats left per trip and seat class for trips in a service date range, read from the
+     * maintained availability counters
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<?> availability(
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(required = false) String seatClass,
+            @RequestParam(defaultValue = "1") int minSeats) {
+        LocalDate start;
+        LocalDate end;
+        SeatClass seatClassFilter;
+        try {
+            start = LocalDate.parse(startDate);
+            end = LocalDate.parse(endDate);
+            seatClassFilter = seatClass != null ? SeatClass.valueOf(seatClass.toLowerCase()) : null;
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Invalid date format. Use YYYY-MM-DD format."));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Invalid seat class. Use economy, standard, first or business."));
+        }
+
+        try {
+            return ResponseEntity.ok(tripAvailabilityService.search(start, end, seatClassFilter, minSeats));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -77,6 +77,9 @@ public class Ticket {
     @Column(name = "checked_in_at")
     private OffsetDateTime checkedInAt;
 
+    @Column(name = "checked_in_gate")
+    private String checkedInGate;
+
     private String notes;
 
     @PrePersist
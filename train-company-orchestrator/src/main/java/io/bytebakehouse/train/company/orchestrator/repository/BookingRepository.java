@@ -2,15 +2,51 @@ package io.bytebakehouse.train.company.orchestrator.repository;
 
 import io.bytebakehouse.train.company.orchestrator.entity.Booking;
 import io.bytebakehouse.train.company.orchestrator.entity.enums.BookingStatus;
+import io.bytebakehouse.train.company.orchestrator.repository.projection.BookingSummary;
+import io.bytebakehouse.train.company.orchestrator.repository.projection.KeysetPage;
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, UUID> {
+    String SUMMARY_SELECT = "select new io.bytebakehouse.train.company.orchestrator.repository.projection.BookingSummary("
+            + "b.id, b.bookingRef, b.status, b.totalAmount, b.currency, b.createdAt, b.expiresAt) from Booking b ";
+
     Optional<Booking> findByBookingRef(String bookingRef);
 
+    /**
+     * Unbounded; prefer {@link #findPageByStatus} or {@link #streamSummariesByStatus}.
+     */
     List<Booking> findByStatus(BookingStatus status);
+
+    // Keyset pagination: each page is a range scan on idx_bookings_status_id
+
+    @Query(SUMMARY_SELECT + "where b.status = :status and b.id > :afterId order by b.id")
+    List<BookingSummary> findSummariesByStatusAfter(@Param("status") BookingStatus status,
+                                                    @Param("afterId") UUID afterId,
+                                                    Limit limit);
+
+    default KeysetPage<BookingSummary> findPageByStatus(BookingStatus status, UUID cursor, int size) {
+        var items = findSummariesByStatusAfter(status, KeysetPage.startAt(cursor), Limit.of(size));
+        return KeysetPage.of(items, size, BookingSummary::id);
+    }
+
+    // Streaming variant for batch consumers: call inside a read-only transaction and close the stream
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SUMMARY_SELECT + "where b.status = :status order by b.id")
+    Stream<BookingSummary> streamSummariesByStatus(@Param("status") BookingStatus status);
 }
@@ -1,15 +1,51 @@
 package io.bytebakehouse.train.company.orchestrator.repository;
 
 import io.bytebakehouse.train.company.orchestrator.entity.SeatReservation;
+import io.bytebakehouse.train.company.orchestrator.repository.projection.KeysetPage;
+import io.bytebakehouse.train.company.orchestrator.repository.projection.SeatReservationSummary;
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface SeatReservationRepository extends JpaRepository<SeatReservation, UUID> {
+    String SUMMARY_SELECT = "select new io.bytebakehouse.train.company.orchestrator.repository.projection.SeatReservationSummary("
+            + "r.id, r.seat.id, r.ticket.id, r.reservedByBooking.id, r.status, r.reservedUntil) from SeatReservation r ";
+
     Optional<SeatReservation> findByTripIdAndSeatId(UUID tripId, UUID seatId);
 
+    /**
+     * Unbounded; prefer {@link #findPageByTripId} or {@link #streamSummariesByTripId}.
+     */
     List<SeatReservation> findByTripId(UUID tripId);
+
+    // Keyset pagination: each page is a range scan on idx_seat_res_trip_id
+
+    @Query(SUMMARY_SELECT + "where r.trip.id = :tripId and r.id > :afterId order by r.id")
+    List<SeatReservationSummary> findSummariesByTripIdAfter(@Param("tripId") UUID tripId,
+                                                            @Param("afterId") UUID afterId,
+                                                            Limit limit);
+
+    default KeysetPage<SeatReservationSummary> findPageByTripId(UUID tripId, UUID cursor, int size) {
+        var items = findSummariesByTripIdAfter(tripId, KeysetPage.startAt(cursor), Limit.of(size));
+        return KeysetPage.of(items, size, SeatReservationSummary::id);
+    }
+
+    // Streaming variant for batch consumers: call inside a read-only transaction and close the stream
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SUMMARY_SELECT + "where r.trip.id = :tripId order by r.id")
+    Stream<SeatReservationSummary> streamSummariesByTripId(@Param("tripId") UUID tripId);
 }
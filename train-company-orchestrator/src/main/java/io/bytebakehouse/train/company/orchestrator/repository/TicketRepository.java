@@ -2,17 +2,73 @@ package io.bytebakehouse.train.company.orchestrator.repository;
 
 import io.bytebakehouse.train.company.orchestrator.entity.Ticket;
 import io.bytebakehouse.train.company.orchestrator.entity.enums.TicketStatus;
+import io.bytebakehouse.train.company.orchestrator.repository.projection.KeysetPage;
+import io.bytebakehouse.train.company.orchestrator.repository.projection.TicketSummary;
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, UUID> {
+    String SUMMARY_SELECT = "select new io.bytebakehouse.train.company.orchestrator.repository.projection.TicketSummary("
+            + "t.id, t.ticketRef, t.trip.id, t.seat.id, t.status, t.price, t.currency, t.issuedAt) from Ticket t ";
+
     Optional<Ticket> findByTicketRef(String ticketRef);
 
+    /**
+     * Unbounded; prefer {@link #findPageByTripId} or {@link #streamSummariesByTripId} for large trips.
+     */
     List<Ticket> findByTripId(UUID tripId);
 
+    /**
+     * Unbounded; prefer {@link #findPageByStatus} or {@link #streamSummariesByStatus}.
+     */
     List<Ticket> findByStatus(TicketStatus status);
+
+    // Keyset pagination: each page is a range scan on idx_tickets_status_id / idx_tickets_trip_id
+
+    @Query(SUMMARY_SELECT + "where t.status = :status and t.id > :afterId order by t.id")
+    List<TicketSummary> findSummariesByStatusAfter(@Param("status") TicketStatus status,
+                                                   @Param("afterId") UUID afterId,
+                                                   Limit limit);
+
+    @Query(SUMMARY_SELECT + "where t.trip.id = :tripId and t.id > :afterId order by t.id")
+    List<TicketSummary> findSummariesByTripIdAfter(@Param("tripId") UUID tripId,
+                                                   @Param("afterId") UUID afterId,
+                                                   Limit limit);
+
+    default KeysetPage<TicketSummary> findPageByStatus(TicketStatus status, UUID cursor, int size) {
+        var items = findSummariesByStatusAfter(status, KeysetPage.startAt(cursor), Limit.of(size));
+        return KeysetPage.of(items, size, TicketSummary::id);
+    }
+
+    default KeysetPage<TicketSummary> findPageByTripId(UUID tripId, UUID cursor, int size) {
+        var items = findSummariesByTripIdAfter(tripId, KeysetPage.startAt(cursor), Limit.of(size));
+        return KeysetPage.of(items, size, TicketSummary::id);
+    }
+
+    // Streaming variants for batch consumers: call inside a read-only transaction and close the stream
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SUMMARY_SELECT + "where t.status = :status order by t.id")
+    Stream<TicketSummary> streamSummariesByStatus(@Param("status") TicketStatus status);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SUMMARY_SELECT + "where t.trip.id = :tripId order by t.id")
+    Stream<TicketSummary> streamSummariesByTripId(@Param("tripId") UUID tripId);
 }
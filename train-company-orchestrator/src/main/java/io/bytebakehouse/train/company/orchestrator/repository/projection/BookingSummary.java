@@ -0,0 +1,19 @@
+package io.bytebakehouse.train.company.orchestrator.repository.projection;
+
+import io.bytebakehouse.train.company.orchestrator.entity.enums.BookingStatus;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Flat read-only view of a booking without its associations
+ */
+public record BookingSummary(
+        UUID id,
+        String bookingRef,
+        BookingStatus status,
+        BigDecimal totalAmount,
+        String currency,
+        OffsetDateTime createdAt,
+        OffsetDateTime expiresAt) {
+}
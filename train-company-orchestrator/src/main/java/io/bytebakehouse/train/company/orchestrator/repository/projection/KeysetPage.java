@@ -0,0 +1,28 @@
+package io.bytebakehouse.train.company.orchestrator.repository.projection;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset (cursor) paginated query. Pass {@code nextCursor} back to fetch
+ * the following page; it is null once the last page has been reached.
+ */
+public record KeysetPage<T>(List<T> items, UUID nextCursor) {
+
+    /**
+     * Smallest UUID in PostgreSQL ordering, used as the cursor for the first page
+     */
+    public static final UUID FIRST = new UUID(0L, 0L);
+
+    public static <T> KeysetPage<T> of(List<T> items, int size, Function<T, UUID> idExtractor) {
+        UUID next = items.size() == size && !items.isEmpty()
+                ? idExtractor.apply(items.get(items.size() - 1))
+                : null;
+        return new KeysetPage<>(items, next);
+    }
+
+    public static UUID startAt(UUID cursor) {
+        return cursor != null ? cursor : FIRST;
+    }
+}
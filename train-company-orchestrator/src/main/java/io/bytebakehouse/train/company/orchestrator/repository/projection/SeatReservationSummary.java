@@ -0,0 +1,16 @@
+package io.bytebakehouse.train.company.orchestrator.repository.projection;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Flat read-only view of a seat reservation without its associations
+ */
+public record SeatReservationSummary(
+        UUID id,
+        UUID seatId,
+        UUID ticketId,
+        UUID bookingId,
+        String status,
+        OffsetDateTime reservedUntil) {
+}
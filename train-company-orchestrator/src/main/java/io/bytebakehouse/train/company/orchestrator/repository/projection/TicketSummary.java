@@ -0,0 +1,20 @@
+package io.bytebakehouse.train.company.orchestrator.repository.projection;
+
+import io.bytebakehouse.train.company.orchestrator.entity.enums.TicketStatus;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Flat read-only view of a ticket without its associations
+ */
+public record TicketSummary(
+        UUID id,
+        String ticketRef,
+        UUID tripId,
+        UUID seatId,
+        TicketStatus status,
+        BigDecimal price,
+        String currency,
+        OffsetDateTime issuedAt) {
+}
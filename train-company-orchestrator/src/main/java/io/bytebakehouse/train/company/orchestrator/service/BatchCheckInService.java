@@ -0,0 +1,235 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk ingestion of gate scans uploaded by scanners that were offline.
+ *
+ * Scans are de-duplicated in memory (earliest scan per ticket wins), then each chunk is
+ * resolved and applied with one set-based statement: an UPDATE ... FROM unnest(...) in a
+ * CTE, joined back against the pre-update snapshot to classify every scan.
+ */
+@Service
+@Slf4j
+public class BatchCheckInService {
+
+    private static final String APPLY_SQL = """
+            WITH scans AS (
+                SELECT * FROM unnest(?::text[], ?::timestamptz[], ?::text[]) AS s(ticket_ref, scanned_at, gate)
+            ), updated AS (
+                UPDATE tickets t
+                   SET status = 'checked_in', checked_in_at = s.scanned_at, checked_in_gate = s.gate
+                  FROM scans s
+                 WHERE t.ticket_ref = s.ticket_ref AND t.status = 'issued'
+                RETURNING t.ticket_ref
+            )
+            SELECT s.ticket_ref, t.status::text AS previous_status, u.ticket_ref IS NOT NULL AS applied
+              FROM scans s
+              LEFT JOIN updated u ON u.ticket_ref = s.ticket_ref
+              LEFT JOIN tickets t ON t.ticket_ref = s.ticket_ref
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final CheckInService checkInService;
+    private final int chunkSize;
+
+    public BatchCheckInService(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            CheckInService checkInService,
+            @Value("${checkin.batch-chunk-size:5000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.checkInService = checkInService;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Read newline-delimited JSON scans: {"ticket_ref": "...", "timestamp": "ISO-8601", "gate": "..."}
+     */
+    public BatchCheckInResponse ingestNdjson(InputStream body) throws IOException {
+        List<GateScan> scans = new ArrayList<>();
+        try (MappingIterator<GateScan> iterator = objectMapper.readerFor(GateScan.class).readValues(body)) {
+            while (iterator.hasNextValue()) {
+                scans.add(iterator.nextValue());
+            }
+        }
+        return ingest(scans);
+    }
+
+    /**
+     * Read binary scans, big-endian, repeated until end of stream:
+     * u16 ref length, ref UTF-8 bytes, i64 epoch millis, u16 gate length, gate UTF-8 bytes
+     */
+    public BatchCheckInResponse ingestBinary(InputStream body) throws IOException {
+        List<GateScan> scans = new ArrayList<>();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(body, 64 * 1024));
+        while (true) {
+            int refLength;
+            try {
+                refLength = in.readUnsignedShort();
+            } catch (EOFException e) {
+                break;
+            }
+            String ref = readUtf8(in, refLength);
+            long epochMillis = in.readLong();
+            String gate = readUtf8(in, in.readUnsignedShort());
+            scans.add(new GateScan(ref,
+                    OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC),
+                    gate.isEmpty() ? null : gate));
+        }
+        return ingest(scans);
+    }
+
+    private static String readUtf8(DataInputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public BatchCheckInResponse ingest(List<GateScan> scans) {
+        long start = System.currentTimeMillis();
+        ScanResult[] results = new ScanResult[scans.size()];
+
+        // Earliest scan per ticket is applied; later scans of the same ticket are duplicates
+        Map<String, Integer> primaryIndex = new HashMap<>();
+        for (int i = 0; i < scans.size(); i++) {
+            GateScan scan = scans.get(i);
+            if (scan == null || scan.ticketRef() == null || scan.ticketRef().isBlank() || scan.timestamp() == null) {
+                results[i] = ScanResult.INVALID_RECORD;
+                continue;
+            }
+            Integer existing = primaryIndex.get(scan.ticketRef());
+            if (existing == null) {
+                primaryIndex.put(scan.ticketRef(), i);
+            } else if (scan.timestamp().isBefore(scans.get(existing).timestamp())) {
+                results[existing] = ScanResult.DUPLICATE_IN_BATCH;
+                primaryIndex.put(scan.ticketRef(), i);
+            } else {
+                results[i] = ScanResult.DUPLICATE_IN_BATCH;
+            }
+        }
+
+        List<Integer> primaries = new ArrayList<>(primaryIndex.values());
+        primaries.sort(Integer::compare);
+        for (int from = 0; from < primaries.size(); from += chunkSize) {
+            List<Integer> chunk = primaries.subList(from, Math.min(from + chunkSize, primaries.size()));
+            try {
+                applyChunk(scans, chunk, results);
+            } catch (Exception e) {
+                log.error("Failed to apply check-in chunk of {} scans: {}", chunk.size(), e.getMessage());
+                chunk.forEach(i -> results[i] = ScanResult.FAILED);
+            }
+        }
+
+        List<ItemResult> items = new ArrayList<>(scans.size());
+        Map<ScanResult, Long> counts = new EnumMap<>(ScanResult.class);
+        for (int i = 0; i < scans.size(); i++) {
+            GateScan scan = scans.get(i);
+            items.add(new ItemResult(i, scan != null ? scan.ticketRef() : null, results[i]));
+            counts.merge(results[i], 1L, Long::sum);
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        log.info("Ingested {} gate scans in {} ms: {}", scans.size(), duration, counts);
+        return new BatchCheckInResponse(scans.size(), counts, items, duration);
+    }
+
+    private void applyChunk(List<GateScan> scans, List<Integer> chunk, ScanResult[] results) {
+        String[] refs = new String[chunk.size()];
+        Timestamp[] times = new Timestamp[chunk.size()];
+        String[] gates = new String[chunk.size()];
+        Map<String, Integer> indexByRef = new HashMap<>(chunk.size() * 2);
+        for (int i = 0; i < chunk.size(); i++) {
+            GateScan scan = scans.get(chunk.get(i));
+            refs[i] = scan.ticketRef();
+            times[i] = Timestamp.from(scan.timestamp().toInstant());
+            gates[i] = scan.gate();
+            indexByRef.put(scan.ticketRef(), chunk.get(i));
+        }
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(APPLY_SQL);
+            Array refArray = con.createArrayOf("text", refs);
+            Array timeArray = con.createArrayOf("timestamptz", times);
+            Array gateArray = con.createArrayOf("text", gates);
+            ps.setArray(1, refArray);
+            ps.setArray(2, timeArray);
+            ps.setArray(3, gateArray);
+            return ps;
+        }, rs -> {
+            String ref = rs.getString("ticket_ref");
+            String previousStatus = rs.getString("previous_status");
+            ScanResult result;
+            if (rs.getBoolean("applied")) {
+                result = ScanResult.CHECKED_IN;
+                checkInService.invalidate(ref);
+            } else if (previousStatus == null) {
+                result = ScanResult.UNKNOWN_TICKET;
+            } else if ("checked_in".equals(previousStatus)) {
+                result = ScanResult.ALREADY_CHECKED_IN;
+            } else {
+                result = ScanResult.NOT_VALID;
+            }
+            results[indexByRef.get(ref)] = result;
+        });
+    }
+
+    public enum ScanResult {
+        CHECKED_IN,
+        ALREADY_CHECKED_IN,
+        DUPLICATE_IN_BATCH,
+        UNKNOWN_TICKET,
+        NOT_VALID,
+        INVALID_RECORD,
+        FAILED
+    }
+
+    /**
+     * One scan as uploaded by a gate scanner
+     */
+    public record GateScan(
+            @JsonProperty("ticket_ref") @JsonAlias("ticketRef") String ticketRef,
+            OffsetDateTime timestamp,
+            String gate) {
+    }
+
+    public record ItemResult(int index, String ticketRef, ScanResult result) {
+    }
+
+    /**
+     * DTO for batch ingestion results, one item per uploaded scan in upload order
+     */
+    public record BatchCheckInResponse(
+            int received,
+            Map<ScanResult, Long> counts,
+            List<ItemResult> results,
+            long durationMs) {
+    }
+}
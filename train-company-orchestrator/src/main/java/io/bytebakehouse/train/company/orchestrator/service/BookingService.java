@@ -0,0 +1,419 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import io.bytebakehouse.train.company.orchestrator.entity.Booking;
+import io.bytebakehouse.train.company.orchestrator.entity.Passenger;
+import io.bytebakehouse.train.company.orchestrator.entity.Payment;
+import io.bytebakehouse.train.company.orchestrator.entity.SeatReservation;
+import io.bytebakehouse.train.company.orchestrator.entity.Ticket;
+import io.bytebakehouse.train.company.orchestrator.entity.enums.BookingStatus;
+import io.bytebakehouse.train.company.orchestrator.entity.enums.DocumentType;
+import io.bytebakehouse.train.company.orchestrator.entity.enums.PaymentStatus;
+import io.bytebakehouse.train.company.orchestrator.entity.enums.TicketStatus;
+import io.bytebakehouse.train.company.orchestrator.repository.BookingRepository;
+import io.bytebakehouse.train.company.orchestrator.repository.FareRepository;
+import io.bytebakehouse.train.company.orchestrator.repository.PassengerRepository;
+import io.bytebakehouse.train.company.orchestrator.repository.PaymentRepository;
+import io.bytebakehouse.train.company.orchestrator.repository.SeatRepository;
+import io.bytebakehouse.train.company.orchestrator.repository.SeatReservationRepository;
+import io.bytebakehouse.train.company.orchestrator.repository.TicketRepository;
+import io.bytebakehouse.train.company.orchestrator.repository.TripRepository;
+import io.bytebakehouse.train.company.orchestrator.repository.UserAccountRepository;
+import io.bytebakehouse.train.company.orchestrator.service.FarePricingService.Quote;
+import io.bytebakehouse.train.company.orchestrator.service.TripAvailabilityService.SeatCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates a multi-passenger booking: booking, new passengers, tickets, payment and seat
+ * reservations in one transaction.
+ *
+ * The entity graph is persisted with Hibernate JDBC batching and ordered inserts
+ * (hibernate.jdbc.batch_size, order_inserts) so each table gets one batch, which the
+ * driver rewrites into multi-row INSERTs (reWriteBatchedInserts). Requested seats are
+ * locked, unassigned passengers get free seats locked with SKIP LOCKED so concurrent
+ * bookers do not wait on each other. The trip availability counter is taken last, right
+ * before commit, to keep its row lock short. Tickets are priced by the pricing engine;
+ * a valid quote token charges the quoted price.
+ */
+@Service
+@Slf4j
+public class BookingService {
+
+    // A seat is free when no live reservation holds it and no ticket still carries it
+    // (ux_trip_seat; cancelled, refunded and expired tickets give their seat up)
+    private static final String LOCK_REQUESTED_SEATS_SQL = """
+            SELECT s.id
+              FROM seats s
+              JOIN carriages c ON c.id = s.carriage_id
+             WHERE s.id = ANY(?) AND c.train_id = ? AND s.seat_class = ?::seat_class
+               AND NOT EXISTS (SELECT 1 FROM seat_reservations sr
+                                WHERE sr.trip_id = ? AND sr.seat_id = s.id
+                                  AND sr.status NOT IN ('released', 'cancelled', 'expired'))
+               AND NOT EXISTS (SELECT 1 FROM tickets tk WHERE tk.trip_id = ? AND tk.seat_id = s.id)
+               FOR UPDATE OF s
+            """;
+
+    private static final String LOCK_FREE_SEATS_SQL = """
+            SELECT s.id
+              FROM seats s
+              JOIN carriages c ON c.id = s.carriage_id
+             WHERE c.train_id = ? AND s.seat_class = ?::seat_class AND s.id <> ALL(?)
+               AND NOT EXISTS (SELECT 1 FROM seat_reservations sr
+                                WHERE sr.trip_id = ? AND sr.seat_id = s.id
+                                  AND sr.status NOT IN ('released', 'cancelled', 'expired'))
+               AND NOT EXISTS (SELECT 1 FROM tickets tk WHERE tk.trip_id = ? AND tk.seat_id = s.id)
+             ORDER BY c.carriage_number, length(s.seat_number), s.seat_number
+             LIMIT ?
+               FOR UPDATE OF s SKIP LOCKED
+            """;
+
+    // (trip_id, seat_id) is unique, so rows that no longer hold the seat make way for the new reservation
+    private static final String CLEAR_RELEASED_SQL = """
+            DELETE FROM seat_reservations
+             WHERE trip_id = ? AND seat_id = ANY(?) AND status IN ('released', 'cancelled', 'expired')
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate bookingTransaction;
+    private final FarePricingService farePricingService;
+    private final TripAvailabilityService tripAvailabilityService;
+    private final BookingRepository bookingRepository;
+    private final PassengerRepository passengerRepository;
+    private final TicketRepository ticketRepository;
+    private final PaymentRepository paymentRepository;
+    private final SeatReservationRepository seatReservationRepository;
+    private final TripRepository tripRepository;
+    private final FareRepository fareRepository;
+    private final SeatRepository seatRepository;
+    private final UserAccountRepository userAccountRepository;
+    private final Timer bookingTimer;
+    private final int maxPassengers;
+    private final long holdMinutes;
+
+    public BookingService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            FarePricingService farePricingService,
+            TripAvailabilityService tripAvailabilityService,
+            BookingRepository bookingRepository,
+            PassengerRepository passengerRepository,
+            TicketRepository ticketRepository,
+            PaymentRepository paymentRepository,
+            SeatReservationRepository seatReservationRepository,
+            TripRepository tripRepository,
+            FareRepository fareRepository,
+            SeatRepository seatRepository,
+            UserAccountRepository userAccountRepository,
+            MeterRegistry meterRegistry,
+            @Value("${booking.max-passengers:9}") int maxPassengers,
+            @Value("${booking.hold-minutes:15}") long holdMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookingTransaction = new TransactionTemplate(transactionManager);
+        this.farePricingService = farePricingService;
+        this.tripAvailabilityService = tripAvailabilityService;
+        this.bookingRepository = bookingRepository;
+        this.passengerRepository = passengerRepository;
+        this.ticketRepository = ticketRepository;
+        this.paymentRepository = paymentRepository;
+        this.seatReservationRepository = seatReservationRepository;
+        this.tripRepository = tripRepository;
+        this.fareRepository = fareRepository;
+        this.seatRepository = seatRepository;
+        this.userAccountRepository = userAccountRepository;
+        this.bookingTimer = Timer.builder("booking.create.latency")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        this.maxPassengers = maxPassengers;
+        this.holdMinutes = holdMinutes;
+    }
+
+    /**
+     * Create a pending booking with its tickets held until {@code booking.hold-minutes} from now
+     *
+     * @throws IllegalArgumentException if the request is invalid, or a quote token is forged or for another fare
+     * @throws IllegalStateException if the trip cannot be sold, the seats are no longer available, or the
+     *                               quote has expired (re-quote required)
+     */
+    public BookingResult createBooking(BookingRequest request) {
+        long start = System.nanoTime();
+        try {
+            return doCreateBooking(request);
+        } finally {
+            bookingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private BookingResult doCreateBooking(BookingRequest request) {
+        validate(request);
+        int seatsWanted = request.passengers().size();
+
+        // Live price, unless a quote token fixes the price the customer was shown. A quote
+        // that is no longer honoured is refused rather than charged at a different price.
+        Quote quote = farePricingService.quote(request.tripId(), request.fareId());
+        BigDecimal price = quote.price();
+        if (request.quoteToken() != null && !request.quoteToken().isBlank()) {
+            price = farePricingService.verify(request.quoteToken(), request.tripId(), request.fareId()).price();
+        }
+        final BigDecimal ticketPrice = price;
+
+        List<UUID> trainIds = jdbcTemplate.queryForList(
+                "SELECT train_id FROM trips WHERE id = ?", UUID.class, request.tripId());
+        if (trainIds.isEmpty() || trainIds.getFirst() == null) {
+            throw new IllegalArgumentException("Trip not found or has no train: " + request.tripId());
+        }
+        UUID trainId = trainIds.getFirst();
+
+        SeatCounter[] counter = new SeatCounter[1];
+        BookingResult result;
+        try {
+            result = bookingTransaction.execute(tx -> {
+                List<UUID> seatIds = lockSeats(request, trainId, quote);
+                BookingResult created = persistGraph(request, quote, ticketPrice, seatIds);
+                // Send the batched inserts now, so the counter row is locked only for the commit
+                seatReservationRepository.flush();
+                counter[0] = tripAvailabilityService.reserve(request.tripId(), quote.seatClass(), seatsWanted)
+                        .orElseThrow(() -> new IllegalStateException(
+                                "Not enough " + quote.seatClass() + " seats left on trip " + request.tripId()));
+                return created;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("Booking conflicts with existing data: "
+                    + e.getMostSpecificCause().getMessage());
+        }
+
+        farePricingService.applyAvailability(request.tripId(), quote.seatClass(),
+                counter[0].totalSeats(), counter[0].availableSeats());
+        return result;
+    }
+
+    private void validate(BookingRequest request) {
+        if (request.tripId() == null || request.fareId() == null) {
+            throw new IllegalArgumentException("tripId and fareId are required");
+        }
+        if (request.passengers() == null || request.passengers().isEmpty()) {
+            throw new IllegalArgumentException("At least one passenger is required");
+        }
+        if (request.passengers().size() > maxPassengers) {
+            throw new IllegalArgumentException("At most " + maxPassengers + " passengers per booking");
+        }
+        Set<UUID> seatIds = new HashSet<>();
+        for (PassengerSeat passenger : request.passengers()) {
+            if (passenger.passengerId() == null && (isBlank(passenger.firstName()) || isBlank(passenger.lastName()))) {
+                throw new IllegalArgumentException("Each passenger needs a passengerId or a first and last name");
+            }
+            if (passenger.seatId() != null && !seatIds.add(passenger.seatId())) {
+                throw new IllegalArgumentException("Seat requested twice: " + passenger.seatId());
+            }
+        }
+    }
+
+    /**
+     * Lock the requested seats and enough free ones for the other passengers, in passenger order
+     */
+    private List<UUID> lockSeats(BookingRequest request, UUID trainId, Quote quote) {
+        UUID[] requested = request.passengers().stream()
+                .map(PassengerSeat::seatId)
+                .filter(Objects::nonNull)
+                .toArray(UUID[]::new);
+        String seatClass = quote.seatClass().name();
+
+        if (requested.length > 0) {
+            List<UUID> locked = jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(LOCK_REQUESTED_SEATS_SQL);
+                ps.setArray(1, con.createArrayOf("uuid", requested));
+                ps.setObject(2, trainId);
+                ps.setString(3, seatClass);
+                ps.setObject(4, request.tripId());
+                ps.setObject(5, request.tripId());
+                return ps;
+            }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+            if (locked.size() != requested.length) {
+                throw new IllegalStateException("Some requested seats are taken or not " + seatClass
+                        + " seats of this trip's train");
+            }
+        }
+
+        int unassigned = request.passengers().size() - requested.length;
+        List<UUID> free = List.of();
+        if (unassigned > 0) {
+            free = jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(LOCK_FREE_SEATS_SQL);
+                ps.setObject(1, trainId);
+                ps.setString(2, seatClass);
+                ps.setArray(3, con.createArrayOf("uuid", requested));
+                ps.setObject(4, request.tripId());
+                ps.setObject(5, request.tripId());
+                ps.setInt(6, unassigned);
+                return ps;
+            }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+            if (free.size() < unassigned) {
+                throw new IllegalStateException("Not enough free " + seatClass + " seats on trip " + request.tripId());
+            }
+        }
+
+        List<UUID> seatIds = new ArrayList<>(request.passengers().size());
+        int nextFree = 0;
+        for (PassengerSeat passenger : request.passengers()) {
+            seatIds.add(passenger.seatId() != null ? passenger.seatId() : free.get(nextFree++));
+        }
+
+        UUID[] chosen = seatIds.toArray(UUID[]::new);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(CLEAR_RELEASED_SQL);
+            ps.setObject(1, request.tripId());
+            ps.setArray(2, con.createArrayOf("uuid", chosen));
+            return ps;
+        });
+        return seatIds;
+    }
+
+    /**
+     * Build the booking graph with references instead of loaded rows; nothing is written until flush
+     */
+    private BookingResult persistGraph(BookingRequest request, Quote quote, BigDecimal ticketPrice, List<UUID> seatIds) {
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime holdUntil = now.plusMinutes(holdMinutes);
+        int count = request.passengers().size();
+
+        Booking booking = new Booking();
+        if (request.userId() != null) {
+            booking.setUser(userAccountRepository.getReferenceById(request.userId()));
+        }
+        booking.setBookingRef("BKG-" + shortRef());
+        booking.setStatus(BookingStatus.pending);
+        booking.setTotalAmount(ticketPrice.multiply(BigDecimal.valueOf(count)));
+        booking.setCurrency(quote.currency());
+        booking.setExpiresAt(holdUntil);
+        bookingRepository.save(booking);
+
+        List<Passenger> newPassengers = new ArrayList<>();
+        List<Passenger> passengers = new ArrayList<>(count);
+        for (PassengerSeat seat : request.passengers()) {
+            if (seat.passengerId() != null) {
+                passengers.add(passengerRepository.getReferenceById(seat.passengerId()));
+                continue;
+            }
+            Passenger passenger = new Passenger();
+            if (request.userId() != null) {
+                passenger.setUser(booking.getUser());
+            }
+            passenger.setFirstName(seat.firstName());
+            passenger.setLastName(seat.lastName());
+            passenger.setDateOfBirth(seat.dateOfBirth());
+            passenger.setDocumentType(seat.documentType());
+            passenger.setDocumentNumber(seat.documentNumber());
+            newPassengers.add(passenger);
+            passengers.add(passenger);
+        }
+        passengerRepository.saveAll(newPassengers);
+
+        List<Ticket> tickets = new ArrayList<>(count);
+        List<SeatReservation> reservations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Ticket ticket = new Ticket();
+            ticket.setBooking(booking);
+            ticket.setPassenger(passengers.get(i));
+            ticket.setTrip(tripRepository.getReferenceById(request.tripId()));
+            ticket.setFare(fareRepository.getReferenceById(request.fareId()));
+            ticket.setSeat(seatRepository.getReferenceById(seatIds.get(i)));
+            ticket.setTicketRef("TKT-" + shortRef());
+            ticket.setPrice(ticketPrice);
+            ticket.setCurrency(quote.currency());
+            ticket.setStatus(TicketStatus.reserved);
+            tickets.add(ticket);
+
+            SeatReservation reservation = new SeatReservation();
+            reservation.setTrip(ticket.getTrip());
+            reservation.setSeat(ticket.getSeat());
+            reservation.setTicket(ticket);
+            reservation.setReservedByBooking(booking);
+            reservation.setReservedAt(now);
+            reservation.setReservedUntil(holdUntil);
+            reservations.add(reservation);
+        }
+        ticketRepository.saveAll(tickets);
+        seatReservationRepository.saveAll(reservations);
+
+        Payment payment = new Payment();
+        payment.setBooking(booking);
+        payment.setAmount(booking.getTotalAmount());
+        payment.setCurrency(quote.currency());
+        payment.setMethod(request.paymentMethod() != null ? request.paymentMethod() : "card");
+        payment.setStatus(PaymentStatus.pending);
+        paymentRepository.save(payment);
+
+        List<BookedTicket> booked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Ticket ticket = tickets.get(i);
+            booked.add(new BookedTicket(ticket.getId(), ticket.getTicketRef(), passengers.get(i).getId(),
+                    seatIds.get(i), ticketPrice));
+        }
+        return new BookingResult(booking.getId(), booking.getBookingRef(), booking.getStatus(),
+                booking.getTotalAmount(), booking.getCurrency(), holdUntil, booked);
+    }
+
+    private static String shortRef() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 10).toUpperCase();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * quoteToken is optional; without it the live price is charged, with it exactly the quoted price
+     */
+    public record BookingRequest(
+            UUID userId,
+            UUID tripId,
+            UUID fareId,
+            String quoteToken,
+            String paymentMethod,
+            List<PassengerSeat> passengers) {
+    }
+
+    /**
+     * An existing passenger (passengerId) or a new one (names and document); seatId null to get a free seat
+     */
+    public record PassengerSeat(
+            UUID passengerId,
+            String firstName,
+            String lastName,
+            LocalDate dateOfBirth,
+            DocumentType documentType,
+            String documentNumber,
+            UUID seatId) {
+    }
+
+    public record BookingResult(
+            UUID bookingId,
+            String bookingRef,
+            BookingStatus status,
+            BigDecimal totalAmount,
+            String currency,
+            OffsetDateTime holdUntil,
+            List<BookedTicket> tickets) {
+    }
+
+    public record BookedTicket(UUID ticketId, String ticketRef, UUID passengerId, UUID seatId, BigDecimal price) {
+    }
+}
@@ -0,0 +1,429 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGProperty;
+import org.postgresql.replication.LogSequenceNumber;
+import org.postgresql.replication.PGReplicationStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Row changes on the ticketing tables, read from Postgres logical replication (pgoutput),
+ * so in-process caches stay coherent with writes made by other replicas, the report
+ * workers or an operator.
+ *
+ * By default every connection streams from a TEMPORARY slot, which Postgres drops when
+ * the connection ends, so a replica that goes away (or is rescheduled under a new pod
+ * name) never leaves a slot behind that retains WAL. Changes made while disconnected are
+ * not replayed; instead every subscriber resyncs (reloads or drops its cache) each time
+ * the feed connects, after the slot exists, so nothing committed in the gap is missed.
+ *
+ * Setting {@code change-feed.slot-name} switches to a persistent slot with that name,
+ * created on first start. The stream then resumes from the last confirmed transaction
+ * after a reconnect or restart; the slot must be dropped by hand when it is retired.
+ *
+ * Changes are handed to subscribers in commit order, in chunks of at most
+ * {@code change-feed.max-chunk-changes} per transaction, and the slot position is
+ * confirmed only after a whole transaction was delivered, so delivery is at-least-once:
+ * subscribers must tolerate seeing a change twice. A subscriber that throws makes the
+ * feed reconnect.
+ *
+ * Needs wal_level=logical and a user with the REPLICATION attribute. Off by default.
+ */
+@Service
+@Slf4j
+public class ChangeFeedService {
+
+    private static final List<String> TABLES = List.of("tickets", "seat_reservations", "fares", "trip_availability");
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final long RECONNECT_DELAY_MS = 5000;
+    private static final long IDLE_POLL_MS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final String publication;
+    private final String slotName;
+    private final boolean temporarySlot;
+    private final int maxChunkChanges;
+    private final long statusIntervalMs;
+    private final String datasourceUrl;
+    private final String datasourceUsername;
+    private final String datasourcePassword;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+    private volatile boolean connected;
+    private Thread streamThread;
+
+    public ChangeFeedService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${change-feed.enabled:false}") boolean enabled,
+            @Value("${change-feed.publication:ticketing_changes}") String publication,
+            @Value("${change-feed.slot-name:}") String slotName,
+            @Value("${HOSTNAME:local}") String hostname,
+            @Value("${change-feed.max-chunk-changes:1000}") int maxChunkChanges,
+            @Value("${change-feed.status-interval-ms:10000}") long statusIntervalMs,
+            @Value("${spring.datasource.url}") String datasourceUrl,
+            @Value("${spring.datasource.username}") String datasourceUsername,
+            @Value("${spring.datasource.password}") String datasourcePassword) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.publication = identifier(publication);
+        this.temporarySlot = slotName.isBlank();
+        // Temporary slots only need to be unique among live connections; the suffix keeps a
+        // reconnect from colliding with a slot whose old session the server has not reaped yet
+        String name = temporarySlot
+                ? "cache_feed_" + hostname + "_" + UUID.randomUUID().toString().substring(0, 8)
+                : slotName;
+        // Pod names carry dashes and upper case is folded, neither is allowed in a slot name
+        name = name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_]", "_");
+        this.slotName = identifier(temporarySlot && name.length() > 63 ? name.substring(name.length() - 63) : name);
+        this.maxChunkChanges = maxChunkChanges;
+        this.statusIntervalMs = statusIntervalMs;
+        this.datasourceUrl = datasourceUrl;
+        this.datasourceUsername = datasourceUsername;
+        this.datasourcePassword = datasourcePassword;
+    }
+
+    /**
+     * Receive committed changes on the given tables. Nothing is delivered while the feed is disabled.
+     *
+     * @param resync called on the feed thread each time the feed connects, before any change
+     *               is delivered; must bring the subscriber's cache up to date with the database
+     */
+    public void subscribe(Set<String> tables, Consumer<List<RowChange>> subscriber, Runnable resync) {
+        if (!TABLES.containsAll(tables)) {
+            throw new IllegalArgumentException("Change feed only covers " + TABLES + ", got " + tables);
+        }
+        subscriptions.add(new Subscription(Set.copyOf(tables), subscriber, resync));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether changes are being streamed right now, so subscribers have seen every commit
+     * up to the feed's (small) replication lag
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            createPublication();
+            if (!temporarySlot) {
+                createPersistentSlot();
+            }
+        } catch (Exception e) {
+            log.error("Change feed disabled, cannot set up publication {} and slot {}: {}",
+                    publication, slotName, e.getMessage());
+            return;
+        }
+        running = true;
+        streamThread = new Thread(this::streamLoop, "change-feed");
+        streamThread.setDaemon(true);
+        streamThread.start();
+        log.info("Streaming changes of {} from {} slot {}", TABLES, temporarySlot ? "temporary" : "persistent", slotName);
+    }
+
+    /**
+     * The table list is set every start: the schema is rebuilt by Flyway on boot, which
+     * leaves an existing publication without its tables
+     */
+    private void createPublication() {
+        String tableList = String.join(", ", TABLES);
+        Integer publications = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_publication WHERE pubname = ?", Integer.class, publication);
+        if (publications != null && publications > 0) {
+            jdbcTemplate.execute("ALTER PUBLICATION " + publication + " SET TABLE " + tableList);
+        } else {
+            jdbcTemplate.execute("CREATE PUBLICATION " + publication + " FOR TABLE " + tableList);
+        }
+    }
+
+    private void createPersistentSlot() {
+        Integer slots = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_replication_slots WHERE slot_name = ?", Integer.class, slotName);
+        if (slots == null || slots == 0) {
+            jdbcTemplate.queryForObject("SELECT lsn::text FROM pg_create_logical_replication_slot(?, 'pgoutput')",
+                    String.class, slotName);
+            log.info("Created replication slot {}; drop it when this replica is retired, it retains WAL", slotName);
+        }
+    }
+
+    /**
+     * Hold one replication connection (outside the pool) and reconnect on failure
+     */
+    private void streamLoop() {
+        Properties properties = new Properties();
+        PGProperty.USER.set(properties, datasourceUsername);
+        PGProperty.PASSWORD.set(properties, datasourcePassword);
+        PGProperty.ASSUME_MIN_SERVER_VERSION.set(properties, "10");
+        PGProperty.REPLICATION.set(properties, "database");
+        PGProperty.PREFER_QUERY_MODE.set(properties, "simple");
+
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(datasourceUrl, properties)) {
+                PGConnection replication = connection.unwrap(PGConnection.class);
+                if (temporarySlot) {
+                    // Lives as long as this connection; streaming starts at its creation point
+                    replication.getReplicationAPI()
+                            .createReplicationSlot()
+                            .logical()
+                            .withSlotName(slotName)
+                            .withOutputPlugin("pgoutput")
+                            .withTemporaryOption()
+                            .make();
+                }
+                resync();
+                PGReplicationStream stream = replication
+                        .getReplicationAPI()
+                        .replicationStream()
+                        .logical()
+                        .withSlotName(slotName)
+                        .withSlotOption("proto_version", "1")
+                        .withSlotOption("publication_names", publication)
+                        .withStatusInterval((int) statusIntervalMs, TimeUnit.MILLISECONDS)
+                        .start();
+                connected = true;
+                // Relations are announced once per connection, before their first change
+                consume(stream, new HashMap<>());
+            } catch (Exception e) {
+                connected = false;
+                if (!running) {
+                    return;
+                }
+                log.error("Change feed connection failed, reconnecting in {} ms: {}",
+                        RECONNECT_DELAY_MS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void consume(PGReplicationStream stream, Map<Integer, Relation> relations) throws Exception {
+        List<RowChange> pending = new ArrayList<>();
+        LogSequenceNumber transactionLsn = LogSequenceNumber.INVALID_LSN;
+
+        while (running) {
+            ByteBuffer message = stream.readPending();
+            if (message == null) {
+                Thread.sleep(IDLE_POLL_MS);
+                continue;
+            }
+
+            switch ((char) message.get()) {
+                case 'B' -> {
+                    transactionLsn = LogSequenceNumber.valueOf(message.getLong());
+                    pending.clear();
+                }
+                case 'R' -> {
+                    Relation relation = readRelation(message);
+                    relations.put(relation.id(), relation);
+                }
+                case 'I', 'U', 'D' -> {
+                    message.position(message.position() - 1);
+                    RowChange change = readChange(message, relations, transactionLsn);
+                    if (change != null) {
+                        pending.add(change);
+                        if (pending.size() >= maxChunkChanges) {
+                            deliver(pending);
+                            pending.clear();
+                        }
+                    }
+                }
+                case 'C' -> {
+                    message.get();
+                    message.getLong();
+                    LogSequenceNumber endLsn = LogSequenceNumber.valueOf(message.getLong());
+                    deliver(pending);
+                    pending.clear();
+                    // Confirmed only now: a crash before this point replays the whole transaction
+                    stream.setAppliedLSN(endLsn);
+                    stream.setFlushedLSN(endLsn);
+                }
+                default -> {
+                    // type, origin, truncate and logical messages carry nothing the caches use
+                }
+            }
+        }
+    }
+
+    private void resync() {
+        for (Subscription subscription : subscriptions) {
+            subscription.resync().run();
+        }
+        log.info("Change feed connected, {} subscriber caches resynced", subscriptions.size());
+    }
+
+    private void deliver(List<RowChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            List<RowChange> matching = changes.stream()
+                    .filter(change -> subscription.tables().contains(change.table()))
+                    .toList();
+            if (!matching.isEmpty()) {
+                subscription.subscriber().accept(matching);
+            }
+        }
+    }
+
+    private static Relation readRelation(ByteBuffer message) {
+        int id = message.getInt();
+        readString(message);
+        String name = readString(message);
+        message.get();
+        int columnCount = message.getShort();
+        String[] columns = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            message.get();
+            columns[i] = readString(message);
+            message.getInt();
+            message.getInt();
+        }
+        return new Relation(id, name, columns);
+    }
+
+    /**
+     * Insert carries the new row; update the new row and, when the key changed, the old key;
+     * delete the old key (the primary key with the default replica identity)
+     */
+    private static RowChange readChange(ByteBuffer message, Map<Integer, Relation> relations, LogSequenceNumber lsn) {
+        char kind = (char) message.get();
+        Relation relation = relations.get(message.getInt());
+        if (relation == null) {
+            throw new IllegalStateException("Change for a relation that was never announced");
+        }
+
+        Map<String, String> oldKey = Map.of();
+        Map<String, String> values = Map.of();
+        char tuple = (char) message.get();
+        if (tuple == 'K' || tuple == 'O') {
+            oldKey = readTuple(message, relation);
+            if (kind == 'U') {
+                message.get();
+                values = readTuple(message, relation);
+            }
+        } else {
+            values = readTuple(message, relation);
+        }
+
+        Operation operation = switch (kind) {
+            case 'I' -> Operation.INSERT;
+            case 'U' -> Operation.UPDATE;
+            default -> Operation.DELETE;
+        };
+        return new RowChange(relation.name(), operation, values, oldKey, lsn);
+    }
+
+    /**
+     * Column values in text format; nulls and unchanged TOASTed values are left out
+     */
+    private static Map<String, String> readTuple(ByteBuffer message, Relation relation) {
+        int columnCount = message.getShort();
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < columnCount; i++) {
+            char kind = (char) message.get();
+            if (kind == 't' || kind == 'b') {
+                byte[] bytes = new byte[message.getInt()];
+                message.get(bytes);
+                if (kind == 't') {
+                    values.put(relation.columns()[i], new String(bytes, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    private static String readString(ByteBuffer message) {
+        int start = message.position();
+        while (message.get() != 0) {
+            // scan to the terminating zero byte
+        }
+        return new String(message.array(), message.arrayOffset() + start,
+                message.position() - start - 1, StandardCharsets.UTF_8);
+    }
+
+    private static String identifier(String name) {
+        if (!IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Not a valid Postgres identifier: " + name);
+        }
+        return name;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        connected = false;
+        if (streamThread != null) {
+            streamThread.interrupt();
+        }
+    }
+
+    public enum Operation {
+        INSERT, UPDATE, DELETE
+    }
+
+    /**
+     * One changed row. values holds the new row (empty for deletes), oldKey the old primary
+     * key for deletes and for updates that changed it.
+     */
+    public record RowChange(String table, Operation operation, Map<String, String> values,
+                            Map<String, String> oldKey, LogSequenceNumber lsn) {
+
+        /**
+         * Column of the new row, or of the old key when the row was deleted
+         */
+        public String value(String column) {
+            String value = values.get(column);
+            return value != null ? value : oldKey.get(column);
+        }
+
+        public UUID uuid(String column) {
+            String value = value(column);
+            return value != null ? UUID.fromString(value) : null;
+        }
+    }
+
+    private record Relation(int id, String name, String[] columns) {
+    }
+
+    private record Subscription(Set<String> tables, Consumer<List<RowChange>> subscriber, Runnable resync) {
+    }
+}
@@ -0,0 +1,481 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import io.bytebakehouse.train.company.orchestrator.entity.enums.TicketStatus;
+import io.bytebakehouse.train.company.orchestrator.service.ChangeFeedService.RowChange;
+import io.bytebakehouse.train.company.orchestrator.util.BloomFilter;
+import io.bytebakehouse.train.company.orchestrator.util.BoundedLruCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gate check-in path built for thousands of scans per second.
+ *
+ * While the change feed is connected, unknown ticket refs are rejected by a Bloom filter
+ * without touching the database: the feed adds every newly issued ref to the filter.
+ * Without the feed, tickets are issued by paths this service never hears of, so a filter
+ * miss is checked against the database like any other ref.
+ * Known tickets are validated against a bounded cache of (trip, seat, status), and the
+ * issued -> checked_in transition happens atomically in that cache so concurrent scans on
+ * this replica queue at most one write per ticket. Writes are group-committed by a single
+ * writer thread: a scan waits until the batch holding its write has committed, and the
+ * batch UPDATE only applies to tickets still issued, so the database decides which scan
+ * wins when several replicas see the same ticket.
+ */
+@Service
+@Slf4j
+public class CheckInService {
+
+    private static final String UPDATE_SQL = """
+            UPDATE tickets t
+               SET status = 'checked_in', checked_in_at = s.checked_in_at, checked_in_gate = s.gate
+              FROM unnest(?::uuid[], ?::timestamptz[], ?::text[]) AS s(id, checked_in_at, gate)
+             WHERE t.id = s.id AND t.status = 'issued'
+            RETURNING t.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ChangeFeedService changeFeed;
+    private final Timer latencyTimer;
+    private final double bloomFalsePositiveRate;
+    private final int maxBatchSize;
+    private final long commitTimeoutMs;
+
+    private final BoundedLruCache<String, CachedTicket> cache;
+    // Check-ins accepted but not yet committed; consulted before the database so an
+    // evicted cache entry can never let a second scan through
+    private final Map<String, PendingCheckIn> inFlight = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingCheckIn> pendingWrites;
+    private final Set<String> registeredDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private volatile BloomFilter validRefs;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile boolean rebuilding;
+    private volatile boolean running = true;
+    private final Thread writerThread;
+
+    public CheckInService(
+            JdbcTemplate jdbcTemplate,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            ChangeFeedService changeFeed,
+            @Value("${checkin.cache-size:200000}") int cacheSize,
+            @Value("${checkin.bloom-false-positive-rate:0.01}") double bloomFalsePositiveRate,
+            @Value("${checkin.write-queue-capacity:50000}") int writeQueueCapacity,
+            @Value("${checkin.write-batch-size:1000}") int maxBatchSize,
+            @Value("${checkin.commit-timeout-ms:5000}") long commitTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeFeed = changeFeed;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(10_000);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.latencyTimer = Timer.builder("ticket.checkin.latency")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+        this.maxBatchSize = maxBatchSize;
+        this.commitTimeoutMs = commitTimeoutMs;
+        this.cache = new BoundedLruCache<>(cacheSize);
+        this.pendingWrites = new ArrayBlockingQueue<>(writeQueueCapacity);
+
+        this.writerThread = new Thread(this::writeLoop, "checkin-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        changeFeed.subscribe(Set.of("tickets"), this::onChanges, this::resync);
+    }
+
+    /**
+     * Validate a ticket at the gate and check it in; returns once the check-in is committed
+     *
+     * @param expectedTripId trip served by the gate, or null to accept any trip
+     * @param gate gate identifier recorded with the check-in, may be null
+     * @throws IllegalStateException if the check-in could not be committed
+     */
+    public CheckInResponse checkIn(String ticketRef, UUID expectedTripId, String gate) {
+        long start = System.nanoTime();
+        try {
+            return doCheckIn(ticketRef, expectedTripId, gate);
+        } finally {
+            latencyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private CheckInResponse doCheckIn(String ticketRef, UUID expectedTripId, String gate) {
+        BloomFilter filter = validRefs;
+        if (filter != null && changeFeed.isConnected() && !filter.mightContain(ticketRef)) {
+            return CheckInResponse.of(ticketRef, CheckInResult.UNKNOWN_TICKET, null);
+        }
+
+        CachedTicket ticket = cache.get(ticketRef);
+        if (ticket == null) {
+            PendingCheckIn pending = inFlight.get(ticketRef);
+            ticket = pending != null ? pending.ticket() : null;
+        }
+        if (ticket == null) {
+            ticket = loadTicket(ticketRef);
+            if (ticket == null) {
+                return CheckInResponse.of(ticketRef, CheckInResult.UNKNOWN_TICKET, null);
+            }
+            CachedTicket raced = cache.putIfAbsent(ticketRef, ticket);
+            if (raced != null) {
+                ticket = raced;
+            }
+        }
+
+        if (expectedTripId != null && !expectedTripId.equals(ticket.tripId())) {
+            return CheckInResponse.of(ticketRef, CheckInResult.WRONG_TRIP, ticket);
+        }
+
+        // Atomic issued -> checked_in transition; exactly one concurrent scan wins
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        CachedTicket[] outcome = new CachedTicket[2];
+        final CachedTicket loaded = ticket;
+        cache.compute(ticketRef, (ref, current) -> {
+            CachedTicket base = current != null ? current : loaded;
+            outcome[0] = base;
+            if (base.status() == TicketStatus.issued) {
+                outcome[1] = base.checkedIn(now);
+                return outcome[1];
+            }
+            return base;
+        });
+
+        if (outcome[1] == null) {
+            if (outcome[0].status() != TicketStatus.checked_in) {
+                return CheckInResponse.of(ticketRef, CheckInResult.NOT_VALID, outcome[0]);
+            }
+            // Checked in by a scan whose write may still be queued: answer once it is settled
+            PendingCheckIn earlier = inFlight.get(ticketRef);
+            if (earlier != null && !awaitCommit(earlier)) {
+                return resolveRejected(ticketRef);
+            }
+            return CheckInResponse.of(ticketRef, CheckInResult.ALREADY_CHECKED_IN, outcome[0]);
+        }
+
+        if (!awaitCommit(enqueueWrite(ticketRef, outcome[1], gate))) {
+            return resolveRejected(ticketRef);
+        }
+        return CheckInResponse.of(ticketRef, CheckInResult.CHECKED_IN, outcome[1]);
+    }
+
+    /**
+     * Wait for the batch holding a check-in to commit
+     *
+     * @return whether the UPDATE applied, false when the ticket was no longer issued in the database
+     */
+    private boolean awaitCommit(PendingCheckIn pending) {
+        try {
+            return pending.committed().get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while committing check-in of " + pending.ticketRef(), e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Check-in of " + pending.ticketRef() + " failed: "
+                    + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Check-in of " + pending.ticketRef() + " not committed within "
+                    + commitTimeoutMs + " ms");
+        }
+    }
+
+    /**
+     * The database refused the check-in (another replica or an operator changed the ticket
+     * first): report the ticket as it is now
+     */
+    private CheckInResponse resolveRejected(String ticketRef) {
+        CachedTicket current = loadTicket(ticketRef);
+        if (current == null) {
+            return CheckInResponse.of(ticketRef, CheckInResult.UNKNOWN_TICKET, null);
+        }
+        CheckInResult result = current.status() == TicketStatus.checked_in
+                ? CheckInResult.ALREADY_CHECKED_IN
+                : CheckInResult.NOT_VALID;
+        return CheckInResponse.of(ticketRef, result, current);
+    }
+
+    /**
+     * Make a newly issued ticket known to the Bloom filter; the change feed calls this for
+     * every ticket that becomes issued. Filter misses are only trusted while the feed runs.
+     */
+    public void registerTicketRef(String ticketRef) {
+        // Flag before filter: a rebuild publishes its filter before it clears the flag, so a
+        // ref is either parked for the rebuild to drain or added to the filter it published
+        if (rebuilding) {
+            registeredDuringRebuild.add(ticketRef);
+        }
+        BloomFilter filter = validRefs;
+        if (filter != null) {
+            filter.add(ticketRef);
+        }
+    }
+
+    /**
+     * Drop a cached ticket after its row was changed elsewhere
+     */
+    public void invalidate(String ticketRef) {
+        cache.remove(ticketRef);
+    }
+
+    /**
+     * Change feed: forget tickets changed by anyone (this replica's own check-ins included,
+     * the row then reloads as checked in) and let newly issued refs through the Bloom filter
+     */
+    private void onChanges(List<RowChange> changes) {
+        for (RowChange change : changes) {
+            String ticketRef = change.value("ticket_ref");
+            if (ticketRef == null) {
+                continue;
+            }
+            invalidate(ticketRef);
+            if (TicketStatus.issued.name().equals(change.value("status"))) {
+                registerTicketRef(ticketRef);
+            }
+        }
+    }
+
+    /**
+     * Change feed (re)connected: changes made while it was down were not seen
+     */
+    private void resync() {
+        cache.clear();
+        rebuildBloomFilter();
+    }
+
+    private CachedTicket loadTicket(String ticketRef) {
+        List<CachedTicket> rows = jdbcTemplate.query(
+                "SELECT id, trip_id, seat_id, status::text AS status, checked_in_at FROM tickets WHERE ticket_ref = ?",
+                (rs, rowNum) -> new CachedTicket(
+                        rs.getObject("id", UUID.class),
+                        rs.getObject("trip_id", UUID.class),
+                        rs.getObject("seat_id", UUID.class),
+                        TicketStatus.valueOf(rs.getString("status")),
+                        rs.getObject("checked_in_at", OffsetDateTime.class)),
+                ticketRef);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Rebuild the Bloom filter from all tickets that can still be presented at a gate.
+     * Called on startup, on schedule and on every change feed connect; one rebuild runs at
+     * a time and the others wait for it, so each caller gets a filter built after its call.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${checkin.bloom-rebuild-interval-ms:300000}",
+            fixedDelayString = "${checkin.bloom-rebuild-interval-ms:300000}")
+    public void rebuildBloomFilter() {
+        rebuildLock.lock();
+        try {
+            doRebuildBloomFilter();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void doRebuildBloomFilter() {
+        rebuilding = true;
+        BloomFilter published = null;
+        try {
+            Long estimate = jdbcTemplate.queryForObject(
+                    "SELECT reltuples::bigint FROM pg_class WHERE relname = 'tickets'", Long.class);
+            long expected = Math.max(100_000L, (long) (Objects.requireNonNullElse(estimate, 0L) * 1.5));
+            BloomFilter filter = new BloomFilter(expected, bloomFalsePositiveRate);
+
+            long[] count = {0};
+            readOnlyTransaction.executeWithoutResult(tx -> streamingJdbcTemplate.query(
+                    "SELECT ticket_ref FROM tickets WHERE status IN ('issued', 'checked_in')",
+                    rs -> {
+                        filter.add(rs.getString(1));
+                        count[0]++;
+                    }));
+
+            validRefs = filter;
+            published = filter;
+            log.info("Check-in Bloom filter rebuilt with {} ticket refs ({} bits)", count[0], filter.bitSize());
+        } catch (Exception e) {
+            log.error("Failed to rebuild check-in Bloom filter: {}", e.getMessage());
+        } finally {
+            rebuilding = false;
+            // Refs registered while the rows were streamed may be missing from the new filter.
+            // Removed one by one: a late registration lands in the published filter anyway.
+            for (String ticketRef : registeredDuringRebuild) {
+                if (published != null) {
+                    published.add(ticketRef);
+                }
+                registeredDuringRebuild.remove(ticketRef);
+            }
+        }
+    }
+
+    private PendingCheckIn enqueueWrite(String ticketRef, CachedTicket ticket, String gate) {
+        PendingCheckIn pending = new PendingCheckIn(ticketRef, ticket, gate, new CompletableFuture<>());
+        inFlight.put(ticketRef, pending);
+        if (!pendingWrites.offer(pending)) {
+            // Queue full: apply backpressure by writing on the caller's thread
+            flush(List.of(pending));
+        }
+        return pending;
+    }
+
+    /**
+     * Group commit: block for the first pending write, then take everything that queued up
+     * while the previous batch was being committed and write it in one statement.
+     */
+    private void writeLoop() {
+        List<PendingCheckIn> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingCheckIn first = pendingWrites.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pendingWrites.drainTo(batch, maxBatchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Check-in writer failed: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingCheckIn> batch) {
+        UUID[] ids = new UUID[batch.size()];
+        Timestamp[] times = new Timestamp[batch.size()];
+        String[] gates = new String[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            ids[i] = batch.get(i).ticket().id();
+            times[i] = Timestamp.from(batch.get(i).ticket().checkedInAt().toInstant());
+            gates[i] = batch.get(i).gate();
+        }
+
+        Set<UUID> updated = new HashSet<>();
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(UPDATE_SQL);
+                Array idArray = con.createArrayOf("uuid", ids);
+                Array timeArray = con.createArrayOf("timestamptz", times);
+                Array gateArray = con.createArrayOf("text", gates);
+                ps.setArray(1, idArray);
+                ps.setArray(2, timeArray);
+                ps.setArray(3, gateArray);
+                return ps;
+            }, rs -> {
+                updated.add(rs.getObject(1, UUID.class));
+            });
+        } catch (Exception e) {
+            log.error("Failed to commit {} check-ins: {}", batch.size(), e.getMessage());
+            // Forget the optimistic cache state so the next scan re-reads the database
+            batch.forEach(p -> {
+                inFlight.remove(p.ticketRef());
+                cache.remove(p.ticketRef());
+                p.committed().completeExceptionally(e);
+            });
+            return;
+        }
+
+        for (PendingCheckIn pending : batch) {
+            boolean applied = updated.contains(pending.ticket().id());
+            if (!applied) {
+                // Another replica (or an operator) changed the ticket first
+                log.debug("Check-in of {} was not applied: ticket no longer issued", pending.ticketRef());
+                cache.remove(pending.ticketRef());
+            }
+            inFlight.remove(pending.ticketRef());
+            pending.committed().complete(applied);
+        }
+        log.debug("Committed {} check-ins", updated.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writerThread.interrupt();
+        List<PendingCheckIn> remaining = new ArrayList<>();
+        pendingWrites.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    public enum CheckInResult {
+        CHECKED_IN,
+        ALREADY_CHECKED_IN,
+        UNKNOWN_TICKET,
+        WRONG_TRIP,
+        NOT_VALID
+    }
+
+    /**
+     * Cached gate-relevant view of a ticket
+     */
+    public record CachedTicket(UUID id, UUID tripId, UUID seatId, TicketStatus status, OffsetDateTime checkedInAt) {
+        CachedTicket checkedIn(OffsetDateTime at) {
+            return new CachedTicket(id, tripId, seatId, TicketStatus.checked_in, at);
+        }
+    }
+
+    /**
+     * A check-in waiting for the writer; committed completes with whether the UPDATE applied
+     */
+    private record PendingCheckIn(String ticketRef, CachedTicket ticket, String gate,
+                                  CompletableFuture<Boolean> committed) {
+    }
+
+    /**
+     * DTO for check-in results
+     */
+    public record CheckInResponse(
+            String ticketRef,
+            CheckInResult result,
+            UUID tripId,
+            UUID seatId,
+            TicketStatus status,
+            OffsetDateTime checkedInAt) {
+
+        static CheckInResponse of(String ticketRef, CheckInResult result, CachedTicket ticket) {
+            return ticket == null
+                    ? new CheckInResponse(ticketRef, result, null, null, null, null)
+                    : new CheckInResponse(ticketRef, result, ticket.tripId(), ticket.seatId(),
+                            ticket.status(), ticket.checkedInAt());
+        }
+    }
+}
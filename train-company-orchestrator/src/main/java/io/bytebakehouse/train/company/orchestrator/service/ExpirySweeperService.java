@@ -0,0 +1,232 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Expires pending bookings and seat holds whose time has run out.
+ *
+ * Each batch claims up to {@code expiry.batch-size} due rows with FOR UPDATE SKIP LOCKED
+ * and settles them set-wise in one statement and one transaction, so several worker
+ * threads, and every replica, sweep side by side without waiting on each other or on
+ * bookings being written. The due rows are found through partial indexes (V9) that only
+ * contain rows that can still expire, so a sweep costs time in proportion to what it expires.
+ *
+ * An expired booking is cancelled with its reserved tickets, its pending payment fails,
+ * and its held seats go back to the trip availability counters. An expired seat hold is
+ * released the same way and its unpaid ticket cancelled, unless the ticket was issued or
+ * the booking confirmed: such a hold is marked confirmed and leaves the sweep index.
+ * Cancelled tickets give up their seat_id so the seat can be sold again (ux_trip_seat).
+ *
+ * Bookings are swept before holds, each phase by all workers, so the two sweeps never
+ * compete for the same reservation rows.
+ */
+@Service
+@Slf4j
+public class ExpirySweeperService {
+
+    private static final String EXPIRE_BOOKINGS_SQL = """
+            WITH due AS (
+                SELECT id
+                  FROM bookings
+                 WHERE status = 'pending' AND expires_at < now()
+                 ORDER BY expires_at
+                 LIMIT ?
+                   FOR UPDATE SKIP LOCKED
+            ), cancelled AS (
+                UPDATE bookings b
+                   SET status = 'cancelled'
+                  FROM due
+                 WHERE b.id = due.id
+                RETURNING b.id
+            ), tickets_cancelled AS (
+                UPDATE tickets t
+                   SET status = 'cancelled', cancelled_at = now(), seat_id = NULL
+                  FROM cancelled c
+                 WHERE t.booking_id = c.id AND t.status = 'reserved'
+            ), payments_failed AS (
+                UPDATE payments p
+                   SET status = 'failed'
+                  FROM cancelled c
+                 WHERE p.booking_id = c.id AND p.status = 'pending'
+            ), released AS (
+                UPDATE seat_reservations sr
+                   SET status = 'expired'
+                  FROM cancelled c
+                 WHERE sr.reserved_by_booking = c.id AND sr.status = 'reserved'
+                RETURNING sr.trip_id, sr.seat_id
+            ), counters AS (
+                UPDATE trip_availability a
+                   SET available_seats = LEAST(a.total_seats, a.available_seats + r.seats), updated_at = now()
+                  FROM (SELECT rel.trip_id, s.seat_class, count(*) AS seats
+                          FROM released rel
+                          JOIN seats s ON s.id = rel.seat_id
+                         GROUP BY rel.trip_id, s.seat_class) r
+                 WHERE a.trip_id = r.trip_id AND a.seat_class = r.seat_class
+            )
+            SELECT count(*) FROM cancelled
+            """;
+
+    private static final String EXPIRE_HOLDS_SQL = """
+            WITH due AS (
+                SELECT sr.id, sr.ticket_id,
+                       coalesce(tk.status IN ('issued', 'checked_in'), false)
+                           OR coalesce(b.status = 'confirmed', false) AS kept
+                  FROM seat_reservations sr
+                  LEFT JOIN tickets tk ON tk.id = sr.ticket_id
+                  LEFT JOIN bookings b ON b.id = sr.reserved_by_booking
+                 WHERE sr.status = 'reserved' AND sr.reserved_until < now()
+                 ORDER BY sr.reserved_until
+                 LIMIT ?
+                   FOR UPDATE OF sr SKIP LOCKED
+            ), settled AS (
+                UPDATE seat_reservations sr
+                   SET status = CASE WHEN due.kept THEN 'confirmed' ELSE 'expired' END
+                  FROM due
+                 WHERE sr.id = due.id
+                RETURNING sr.trip_id, sr.seat_id, sr.ticket_id, due.kept
+            ), tickets_cancelled AS (
+                UPDATE tickets t
+                   SET status = 'cancelled', cancelled_at = now(), seat_id = NULL
+                  FROM settled rel
+                 WHERE t.id = rel.ticket_id AND NOT rel.kept AND t.status = 'reserved'
+            ), counters AS (
+                UPDATE trip_availability a
+                   SET available_seats = LEAST(a.total_seats, a.available_seats + r.seats), updated_at = now()
+                  FROM (SELECT rel.trip_id, s.seat_class, count(*) AS seats
+                          FROM settled rel
+                          JOIN seats s ON s.id = rel.seat_id
+                         WHERE NOT rel.kept
+                         GROUP BY rel.trip_id, s.seat_class) r
+                 WHERE a.trip_id = r.trip_id AND a.seat_class = r.seat_class
+            )
+            SELECT count(*) FILTER (WHERE NOT kept) AS expired, count(*) AS claimed FROM settled
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final ExecutorService workers;
+    private final boolean enabled;
+    private final int workerCount;
+    private final int batchSize;
+    private final int maxBatchesPerWorker;
+
+    public ExpirySweeperService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${expiry.enabled:true}") boolean enabled,
+            @Value("${expiry.workers:4}") int workerCount,
+            @Value("${expiry.batch-size:500}") int batchSize,
+            @Value("${expiry.max-batches-per-worker:100}") int maxBatchesPerWorker) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.maxBatchesPerWorker = maxBatchesPerWorker;
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "expiry-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * One sweep: all workers drain expired bookings, then all workers drain expired holds
+     */
+    @Scheduled(initialDelayString = "${expiry.interval-ms:15000}", fixedDelayString = "${expiry.interval-ms:15000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int bookings = runOnAllWorkers(this::drainBookings);
+        int[] holds = new int[2];
+        for (int[] settled : runOnAllWorkers(this::drainHolds, new int[2])) {
+            holds[0] += settled[0];
+            holds[1] += settled[1];
+        }
+        if (bookings + holds[0] + holds[1] > 0) {
+            log.info("Expiry sweep in {} ms: {} bookings cancelled, {} seat holds released, {} holds confirmed",
+                    System.currentTimeMillis() - start, bookings, holds[0], holds[1]);
+        }
+    }
+
+    private int runOnAllWorkers(Supplier<Integer> drain) {
+        int total = 0;
+        for (Integer count : runOnAllWorkers(drain, 0)) {
+            total += count;
+        }
+        return total;
+    }
+
+    private <T> List<T> runOnAllWorkers(Supplier<T> drain, T onFailure) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            futures.add(CompletableFuture.supplyAsync(drain, workers));
+        }
+        List<T> results = new ArrayList<>(workerCount);
+        for (CompletableFuture<T> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (Exception e) {
+                log.error("Expiry sweep batch failed: {}", e.getMessage());
+                results.add(onFailure);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Claim batches of expired bookings until one comes back short or the batch budget is spent
+     */
+    private Integer drainBookings() {
+        int cancelled = 0;
+        for (int batch = 0; batch < maxBatchesPerWorker; batch++) {
+            int claimed = Objects.requireNonNullElse(batchTransaction.execute(tx ->
+                    jdbcTemplate.queryForObject(EXPIRE_BOOKINGS_SQL, Integer.class, batchSize)), 0);
+            cancelled += claimed;
+            if (claimed < batchSize) {
+                break;
+            }
+        }
+        return cancelled;
+    }
+
+    /**
+     * Same for expired holds; returns {released, confirmed}
+     */
+    private int[] drainHolds() {
+        int[] count = new int[2];
+        for (int batch = 0; batch < maxBatchesPerWorker; batch++) {
+            int[] settled = Objects.requireNonNull(batchTransaction.execute(tx ->
+                    jdbcTemplate.queryForObject(EXPIRE_HOLDS_SQL,
+                            (rs, rowNum) -> new int[]{rs.getInt("expired"), rs.getInt("claimed")}, batchSize)));
+            count[0] += settled[0];
+            count[1] += settled[1] - settled[0];
+            if (settled[1] < batchSize) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
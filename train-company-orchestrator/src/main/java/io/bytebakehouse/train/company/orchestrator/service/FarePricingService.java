@@ -0,0 +1,445 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import io.bytebakehouse.train.company.orchestrator.entity.enums.SeatClass;
+import io.bytebakehouse.train.company.orchestrator.service.ChangeFeedService.Operation;
+import io.bytebakehouse.train.company.orchestrator.service.ChangeFeedService.RowChange;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live fare prices per (trip, fare) from the trip's load factor in the fare's seat class
+ * and the time left to departure.
+ *
+ * Each fare's prices are precomputed into a table of time-to-departure buckets by
+ * load-factor buckets, so a quote is two array lookups. Occupancy comes from the
+ * trip_availability counters: rows changed since the last refresh are read every
+ * {@code pricing.refresh-interval-ms} and replace the in-memory entries, which quotes read
+ * without locking and without a database round trip. Fares and the whole occupancy map
+ * are reloaded every {@code pricing.full-reload-interval-ms}. With the change feed on,
+ * fare edits and counter updates are also applied as soon as they commit.
+ *
+ * A quote carries an HMAC-signed token with the price and an expiry. Booking within the
+ * validity charges exactly the quoted price ({@link #verify}); a booking with an expired
+ * quote is refused so the customer re-quotes, and one without a quote is priced at that
+ * moment. Replicas must share {@code pricing.quote-secret}: startup fails without it when
+ * leader election (several replicas) is on.
+ */
+@Service
+@Slf4j
+public class FarePricingService {
+
+    private static final String FARES_SQL = """
+            SELECT id, code, price, currency, seat_class::text AS seat_class, valid_from, valid_until
+              FROM fares
+             WHERE seat_class IS NOT NULL
+            """;
+
+    // trip_availability holds a handful of rows per upcoming trip, the updated_at filter scans it cheaply
+    private static final String OCCUPANCY_SQL = """
+            SELECT a.trip_id, a.seat_class::text AS seat_class, a.total_seats, a.available_seats, a.updated_at,
+                   t.service_date, t.departure_time, t.status
+              FROM trip_availability a
+              JOIN trips t ON t.id = a.trip_id
+             WHERE a.service_date BETWEEN ? AND ?
+               AND a.updated_at > ?
+            """;
+
+    // Re-read window behind the watermark: now() is the transaction start, so a counter can commit with an older updated_at
+    private static final long WATERMARK_OVERLAP_MS = 10_000;
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder TOKEN_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder TOKEN_DECODER = Base64.getUrlDecoder();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer quoteTimer;
+    private final double[] loadMultipliers;
+    private final long[] timeBucketHours;
+    private final double[] timeMultipliers;
+    private final Duration quoteTtl;
+    private final int horizonDays;
+    private final ZoneId zone;
+    private final SecretKeySpec quoteKey;
+
+    // Replaced as a whole on fare reload; occupancy entries are replaced one by one
+    private volatile Map<UUID, FarePrices> fares = Map.of();
+    private final Map<TripClass, TripLoad> occupancy = new ConcurrentHashMap<>();
+    // Random key of a single instance without pricing.quote-secret
+    private final boolean ephemeralKey;
+    private volatile Timestamp occupancyWatermark = new Timestamp(0);
+
+    public FarePricingService(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            ChangeFeedService changeFeed,
+            @Value("${pricing.load-multipliers:0.8,0.85,0.9,0.95,1.0,1.05,1.15,1.3,1.5,1.8}") double[] loadMultipliers,
+            @Value("${pricing.time-bucket-hours:720,168,72,24}") long[] timeBucketHours,
+            @Value("${pricing.time-multipliers:0.9,1.0,1.1,1.25,1.4}") double[] timeMultipliers,
+            @Value("${pricing.quote-ttl-seconds:900}") long quoteTtlSeconds,
+            @Value("${pricing.horizon-days:180}") int horizonDays,
+            @Value("${pricing.time-zone:Europe/Rome}") String timeZone,
+            @Value("${pricing.quote-secret:}") String quoteSecret,
+            @Value("${kubernetes.leader-election.enabled:false}") boolean multiReplica) {
+        if (loadMultipliers.length == 0) {
+            throw new IllegalArgumentException("pricing.load-multipliers must not be empty");
+        }
+        if (timeMultipliers.length != timeBucketHours.length + 1) {
+            throw new IllegalArgumentException("pricing.time-multipliers needs one entry more than pricing.time-bucket-hours");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.quoteTimer = Timer.builder("fare.quote.latency")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        this.loadMultipliers = loadMultipliers;
+        this.timeBucketHours = timeBucketHours;
+        this.timeMultipliers = timeMultipliers;
+        this.quoteTtl = Duration.ofSeconds(quoteTtlSeconds);
+        this.horizonDays = horizonDays;
+        this.zone = ZoneId.of(timeZone);
+
+        byte[] secret;
+        this.ephemeralKey = quoteSecret.isBlank();
+        if (ephemeralKey) {
+            // Replicas would each sign with their own key and reject every other replica's quotes
+            if (multiReplica) {
+                throw new IllegalStateException("pricing.quote-secret (PRICING_QUOTE_SECRET) must be set when "
+                        + "kubernetes.leader-election.enabled is true: all replicas must sign quotes with the same key");
+            }
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            log.warn("pricing.quote-secret is not set, using a random key: quotes do not survive a restart");
+        } else {
+            secret = quoteSecret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.quoteKey = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        changeFeed.subscribe(Set.of("fares", "trip_availability"), this::onChanges, this::reload);
+    }
+
+    /**
+     * Price of a fare on a trip right now
+     *
+     * @throws IllegalArgumentException if the fare is unknown, or the trip has no seats of the fare's class
+     * @throws IllegalStateException if the trip is cancelled, departed or sold out in that class
+     */
+    public Quote quote(UUID tripId, UUID fareId) {
+        long start = System.nanoTime();
+        try {
+            FarePrices fare = fares.get(fareId);
+            if (fare == null) {
+                throw new IllegalArgumentException("Fare not found: " + fareId);
+            }
+            return quote(tripId, fare, Instant.now());
+        } finally {
+            quoteTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Current price of every fare that can be sold on a trip
+     */
+    public List<Quote> quotesForTrip(UUID tripId) {
+        Instant now = Instant.now();
+        List<Quote> quotes = new ArrayList<>();
+        for (FarePrices fare : fares.values()) {
+            TripLoad load = occupancy.get(new TripClass(tripId, fare.seatClass()));
+            if (load != null && load.availableSeats() > 0 && fare.validAt(now) && !load.closed(now)) {
+                quotes.add(quote(tripId, fare, now));
+            }
+        }
+        if (quotes.isEmpty() && occupancy.keySet().stream().noneMatch(key -> key.tripId().equals(tripId))) {
+            throw new IllegalArgumentException("No availability known for trip " + tripId);
+        }
+        quotes.sort((a, b) -> a.price().compareTo(b.price()));
+        return quotes;
+    }
+
+    /**
+     * Check a quote token presented at booking time
+     *
+     * @return the quoted price, to be charged as is
+     * @throws IllegalArgumentException if the token is malformed, forged or for another trip/fare
+     * @throws IllegalStateException if the quote has expired, or was signed with a random key
+     *                               this instance no longer has; the customer must re-quote
+     */
+    public QuotedPrice verify(String token, UUID tripId, UUID fareId) {
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            throw new IllegalArgumentException("Malformed quote token");
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = TOKEN_DECODER.decode(token.substring(0, dot));
+            signature = TOKEN_DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed quote token");
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            if (ephemeralKey) {
+                // Most likely signed before a restart rotated the random key
+                throw new IllegalStateException("Quote cannot be verified, re-quote required");
+            }
+            throw new IllegalArgumentException("Invalid quote token");
+        }
+
+        String[] fields = new String(payload, StandardCharsets.UTF_8).split("\\|");
+        if (fields.length != 5
+                || !fields[0].equals(tripId.toString())
+                || !fields[1].equals(fareId.toString())) {
+            throw new IllegalArgumentException("Quote token does not match trip " + tripId + " and fare " + fareId);
+        }
+        Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(fields[4]));
+        if (Instant.now().isAfter(expiresAt)) {
+            throw new IllegalStateException("Quote expired at " + expiresAt + ", re-quote required");
+        }
+        return new QuotedPrice(new BigDecimal(fields[2]), fields[3], expiresAt);
+    }
+
+    /**
+     * Apply a counter change right away instead of waiting for the next refresh
+     */
+    public void applyAvailability(UUID tripId, SeatClass seatClass, int totalSeats, int availableSeats) {
+        occupancy.computeIfPresent(new TripClass(tripId, seatClass),
+                (key, load) -> new TripLoad(load.departure(), load.cancelled(), totalSeats, availableSeats));
+    }
+
+    /**
+     * Reload fares and every occupancy counter within the horizon, dropping departed trips
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${pricing.full-reload-interval-ms:300000}",
+            fixedDelayString = "${pricing.full-reload-interval-ms:300000}")
+    public void reload() {
+        try {
+            int fareCount = reloadFares();
+            Instant now = Instant.now();
+            int trips = refreshOccupancy(new Timestamp(0));
+            occupancy.values().removeIf(load -> load.departure().isBefore(now));
+            log.info("Pricing reloaded: {} fares, {} occupancy counters", fareCount, trips);
+        } catch (Exception e) {
+            log.error("Failed to reload pricing data: {}", e.getMessage());
+        }
+    }
+
+    private int reloadFares() {
+        Map<UUID, FarePrices> loaded = new HashMap<>();
+        jdbcTemplate.query(FARES_SQL, rs -> {
+            FarePrices fare = precompute(
+                    rs.getObject("id", UUID.class),
+                    rs.getString("code"),
+                    SeatClass.valueOf(rs.getString("seat_class")),
+                    rs.getBigDecimal("price"),
+                    rs.getString("currency"),
+                    toInstant(rs.getObject("valid_from", OffsetDateTime.class)),
+                    toInstant(rs.getObject("valid_until", OffsetDateTime.class)));
+            loaded.put(fare.fareId(), fare);
+        });
+        fares = Map.copyOf(loaded);
+        return loaded.size();
+    }
+
+    /**
+     * Change feed: fare edits reload the fare table, counter updates are applied as they commit
+     */
+    private void onChanges(List<RowChange> changes) {
+        boolean faresChanged = false;
+        for (RowChange change : changes) {
+            if ("fares".equals(change.table())) {
+                faresChanged = true;
+            } else if (change.operation() != Operation.DELETE) {
+                applyAvailability(change.uuid("trip_id"), SeatClass.valueOf(change.value("seat_class")),
+                        Integer.parseInt(change.value("total_seats")), Integer.parseInt(change.value("available_seats")));
+            }
+        }
+        if (faresChanged) {
+            int fareCount = reloadFares();
+            log.debug("Fares changed, reloaded {} fares", fareCount);
+        }
+    }
+
+    /**
+     * Pick up counters changed since the last refresh
+     */
+    @Scheduled(initialDelayString = "${pricing.refresh-interval-ms:1000}",
+            fixedDelayString = "${pricing.refresh-interval-ms:1000}")
+    public void refresh() {
+        try {
+            Timestamp watermark = occupancyWatermark;
+            refreshOccupancy(new Timestamp(Math.max(0, watermark.getTime() - WATERMARK_OVERLAP_MS)));
+        } catch (Exception e) {
+            log.warn("Failed to refresh pricing occupancy: {}", e.getMessage());
+        }
+    }
+
+    private int refreshOccupancy(Timestamp since) {
+        LocalDate today = LocalDate.now(zone);
+        Timestamp[] watermark = {since};
+        int[] rows = {0};
+        jdbcTemplate.query(OCCUPANCY_SQL, rs -> {
+            LocalDate serviceDate = rs.getObject("service_date", LocalDate.class);
+            LocalTime departureTime = rs.getObject("departure_time", LocalTime.class);
+            occupancy.put(
+                    new TripClass(rs.getObject("trip_id", UUID.class), SeatClass.valueOf(rs.getString("seat_class"))),
+                    new TripLoad(
+                            serviceDate.atTime(departureTime).atZone(zone).toInstant(),
+                            "cancelled".equals(rs.getString("status")),
+                            rs.getInt("total_seats"),
+                            rs.getInt("available_seats")));
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            if (updatedAt.after(watermark[0])) {
+                watermark[0] = updatedAt;
+            }
+            rows[0]++;
+        }, today.minusDays(1), today.plusDays(horizonDays), since);
+        if (watermark[0].after(occupancyWatermark)) {
+            occupancyWatermark = watermark[0];
+        }
+        return rows[0];
+    }
+
+    private Quote quote(UUID tripId, FarePrices fare, Instant now) {
+        if (!fare.validAt(now)) {
+            throw new IllegalArgumentException("Fare " + fare.code() + " is not valid now");
+        }
+        TripLoad load = occupancy.get(new TripClass(tripId, fare.seatClass()));
+        if (load == null) {
+            throw new IllegalArgumentException("No " + fare.seatClass() + " seats known for trip " + tripId);
+        }
+        if (load.cancelled()) {
+            throw new IllegalStateException("Trip " + tripId + " is cancelled");
+        }
+        if (!load.departure().isAfter(now)) {
+            throw new IllegalStateException("Trip " + tripId + " has departed");
+        }
+        if (load.availableSeats() <= 0) {
+            throw new IllegalStateException("Trip " + tripId + " is sold out in " + fare.seatClass());
+        }
+
+        double loadFactor = load.loadFactor();
+        int loadBucket = Math.min(loadMultipliers.length - 1, (int) (loadFactor * loadMultipliers.length));
+        int timeBucket = timeBucket(Duration.between(now, load.departure()).toHours());
+        BigDecimal price = fare.prices()[timeBucket][loadBucket];
+
+        Instant expiresAt = now.plus(quoteTtl);
+        String payload = String.join("|", tripId.toString(), fare.fareId().toString(), price.toPlainString(),
+                fare.currency(), Long.toString(expiresAt.getEpochSecond()));
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        String token = TOKEN_ENCODER.encodeToString(payloadBytes) + "." + TOKEN_ENCODER.encodeToString(sign(payloadBytes));
+
+        return new Quote(tripId, fare.fareId(), fare.code(), fare.seatClass(), price, fare.currency(),
+                fare.basePrice(), Math.round(loadFactor * 1000) / 1000.0, load.availableSeats(), expiresAt, token);
+    }
+
+    /**
+     * 0 for the earliest bookings, one more for every threshold already passed
+     */
+    private int timeBucket(long hoursToDeparture) {
+        int bucket = 0;
+        while (bucket < timeBucketHours.length && hoursToDeparture < timeBucketHours[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private FarePrices precompute(UUID fareId, String code, SeatClass seatClass, BigDecimal basePrice,
+                                  String currency, Instant validFrom, Instant validUntil) {
+        BigDecimal[][] prices = new BigDecimal[timeMultipliers.length][loadMultipliers.length];
+        for (int t = 0; t < timeMultipliers.length; t++) {
+            for (int l = 0; l < loadMultipliers.length; l++) {
+                prices[t][l] = basePrice
+                        .multiply(BigDecimal.valueOf(timeMultipliers[t] * loadMultipliers[l]))
+                        .setScale(2, RoundingMode.HALF_EVEN);
+            }
+        }
+        return new FarePrices(fareId, code, seatClass, basePrice, currency != null ? currency : "EUR",
+                validFrom, validUntil, prices);
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(quoteKey);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign quote", e);
+        }
+    }
+
+    private static Instant toInstant(OffsetDateTime value) {
+        return value != null ? value.toInstant() : null;
+    }
+
+    private record TripClass(UUID tripId, SeatClass seatClass) {
+    }
+
+    private record TripLoad(Instant departure, boolean cancelled, int totalSeats, int availableSeats) {
+
+        double loadFactor() {
+            return totalSeats > 0 ? (double) (totalSeats - availableSeats) / totalSeats : 1.0;
+        }
+
+        boolean closed(Instant now) {
+            return cancelled || !departure.isAfter(now);
+        }
+    }
+
+    private record FarePrices(UUID fareId, String code, SeatClass seatClass, BigDecimal basePrice, String currency,
+                              Instant validFrom, Instant validUntil, BigDecimal[][] prices) {
+
+        boolean validAt(Instant now) {
+            return (validFrom == null || !now.isBefore(validFrom)) && (validUntil == null || now.isBefore(validUntil));
+        }
+    }
+
+    /**
+     * token is presented at booking time to be charged price
+     */
+    public record Quote(
+            UUID tripId,
+            UUID fareId,
+            String fareCode,
+            SeatClass seatClass,
+            BigDecimal price,
+            String currency,
+            BigDecimal basePrice,
+            double loadFactor,
+            int availableSeats,
+            Instant expiresAt,
+            String token) {
+    }
+
+    public record QuotedPrice(BigDecimal price, String currency, Instant expiresAt) {
+    }
+}
@@ -1,7 +1,5 @@
 package io.bytebakehouse.train.company.orchestrator.service;
 
-import io.kubernetes.client.openapi.ApiClient;
-import io.kubernetes.client.openapi.Configuration;
 import io.kubernetes.client.openapi.apis.BatchV1Api;
 import io.kubernetes.client.openapi.models.V1Container;
 import io.kubernetes.client.openapi.models.V1Job;
@@ -11,7 +9,6 @@ import io.kubernetes.client.openapi.models.V1PodSpec;
 import io.kubernetes.client.openapi.models.V1PodTemplateSpec;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
 import java.util.Arrays;
 
 @Service
@@ -20,17 +17,12 @@ public class JobService {
     private final BatchV1Api batchV1Api;
     private final String namespace = "train-orchestrator";
 
-    public JobService() throws IOException {
-        ApiClient client = Configuration.getDefaultApiClient();
-        if (client == null) {
-            client = io.kubernetes.client.util.Config.defaultClient();
-            Configuration.setDefaultApiClient(client);
-        }
-        this.batchV1Api = new BatchV1Api();
+    public JobService(KubernetesApiGovernor kubernetesApiGovernor) {
+        this.batchV1Api = new BatchV1Api(kubernetesApiGovernor.getApiClient());
     }
 
     public V1Job triggerSleepJob(int seconds) throws Exception {
-        String name = "sleep-job-" + System.currentTimeMillis() % 100000;
+        String name = "sleep-job-" + TicketingReportJobService.newReportId();
 
         V1Container container = new V1Container()
                 .name("sleep")
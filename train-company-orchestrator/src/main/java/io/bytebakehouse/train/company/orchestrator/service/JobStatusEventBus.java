@@ -0,0 +1,173 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.bytebakehouse.train.company.orchestrator.service.JobStatusService.JobStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Fans job status events out to every orchestrator replica.
+ *
+ * In "local" mode events are delivered in-process only. In "postgres" mode events are
+ * published with pg_notify and every replica (including the publisher) receives them
+ * through LISTEN, so each replica's STOMP broker can serve any subscriber while only
+ * the leader talks to the Kubernetes API.
+ */
+@Service
+@Slf4j
+public class JobStatusEventBus {
+
+    private static final String CHANNEL = "job_status_events";
+    // NOTIFY payloads are limited to 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean postgresFanout;
+    private final String datasourceUrl;
+    private final String datasourceUsername;
+    private final String datasourcePassword;
+
+    private final List<Consumer<JobStatus>> subscribers = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public JobStatusEventBus(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${job-status.fanout:local}") String fanout,
+            @Value("${spring.datasource.url}") String datasourceUrl,
+            @Value("${spring.datasource.username}") String datasourceUsername,
+            @Value("${spring.datasource.password}") String datasourcePassword) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.postgresFanout = "postgres".equalsIgnoreCase(fanout);
+        this.datasourceUrl = datasourceUrl;
+        this.datasourceUsername = datasourceUsername;
+        this.datasourcePassword = datasourcePassword;
+    }
+
+    public void subscribe(Consumer<JobStatus> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Publish a status event to all replicas
+     */
+    public void publish(JobStatus status) {
+        if (!postgresFanout) {
+            deliver(status);
+            return;
+        }
+
+        try {
+            String payload = objectMapper.writeValueAsString(new FanoutEvent(status, status.getProgressUpdatedAtMillis()));
+            if (payload.length() > MAX_PAYLOAD_BYTES) {
+                log.warn("Job status payload for {} too large for NOTIFY, delivering locally", status.getJobName());
+                deliver(status);
+                return;
+            }
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class, CHANNEL, payload);
+        } catch (Exception e) {
+            log.error("Failed to publish job status for {}, delivering locally: {}", status.getJobName(), e.getMessage());
+            deliver(status);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        if (!postgresFanout) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "job-status-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        log.info("Listening for job status events on channel {}", CHANNEL);
+    }
+
+    /**
+     * Hold one dedicated connection (outside the pool) for LISTEN and reconnect on failure
+     */
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(datasourceUrl, datasourceUsername, datasourcePassword)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handleNotification(notification.getParameter());
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Job status listener connection failed, retrying in {} ms: {}", RECONNECT_DELAY_MS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void handleNotification(String payload) {
+        try {
+            FanoutEvent event = objectMapper.readValue(payload, FanoutEvent.class);
+            event.status().setProgressUpdatedAtMillis(event.progressUpdatedAtMillis());
+            deliver(event.status());
+        } catch (Exception e) {
+            log.error("Discarding malformed job status event: {}", e.getMessage());
+        }
+    }
+
+    private void deliver(JobStatus status) {
+        for (Consumer<JobStatus> subscriber : subscribers) {
+            try {
+                subscriber.accept(status);
+            } catch (Exception e) {
+                log.error("Job status subscriber failed for {}: {}", status.getJobName(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stopListening() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    /**
+     * NOTIFY payload: the status plus the progress timestamp that is not serialized to
+     * clients but decides which replica's progress is newer
+     */
+    private record FanoutEvent(JobStatus status, Long progressUpdatedAtMillis) {
+    }
+}
@@ -1,12 +1,15 @@
 package io.bytebakehouse.train.company.orchestrator.service;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
-import io.kubernetes.client.openapi.ApiClient;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.apis.BatchV1Api;
 import io.kubernetes.client.openapi.models.V1Job;
 import io.kubernetes.client.openapi.models.V1JobList;
-import io.kubernetes.client.util.Config;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,6 +20,9 @@ import org.springframework.stereotype.Service;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service to monitor Kubernetes job status and push updates via WebSocket
@@ -26,56 +32,337 @@ import java.util.concurrent.ConcurrentHashMap;
 public class JobStatusService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final JobStatusEventBus eventBus;
+    private final LeaderElectionService leaderElectionService;
     private final BatchV1Api batchV1Api;
     private final String namespace;
+    private final long progressBroadcastIntervalMs;
+    private final long completedRetentionMs;
+    private final int maxMonitoredJobs;
+    private final long staleAfterMs;
+    private final long maxPollBackoffMs;
     
-    // Track jobs we're monitoring
+    // Track jobs we're monitoring. Every replica mirrors this map through the event bus,
+    // but only the leader polls Kubernetes for it.
     private final Map<String, JobStatus> monitoredJobs = new ConcurrentHashMap<>();
+    // Last time each tracked job was polled successfully or received an event
+    private final Map<String, Long> lastActivity = new ConcurrentHashMap<>();
+
+    // One thread runs all delayed status work: grace-period removals and stale sweeps
+    private final ScheduledThreadPoolExecutor statusScheduler;
+    private final Map<String, ScheduledFuture<?>> pendingRemovals = new ConcurrentHashMap<>();
+    // Jobs whose status reads failed, polled again only after an exponential backoff
+    private final Map<String, PollBackoff> pollBackoffs = new ConcurrentHashMap<>();
+    private final Counter evictions;
 
     public JobStatusService(
             SimpMessagingTemplate messagingTemplate,
-            @Value("${kubernetes.namespace:train-orchestrator}") String namespace) throws Exception {
+            JobStatusEventBus eventBus,
+            LeaderElectionService leaderElectionService,
+            @Value("${kubernetes.namespace:train-orchestrator}") String namespace,
+            @Value("${job-status.progress-broadcast-interval-ms:1000}") long progressBroadcastIntervalMs,
+            @Value("${job-status.completed-retention-ms:30000}") long completedRetentionMs,
+            @Value("${job-status.max-monitored-jobs:1000}") int maxMonitoredJobs,
+            @Value("${job-status.stale-after-ms:3600000}") long staleAfterMs,
+            @Value("${job-status.stale-sweep-interval-ms:60000}") long staleSweepIntervalMs,
+            @Value("${job-status.max-poll-backoff-ms:60000}") long maxPollBackoffMs,
+            MeterRegistry meterRegistry,
+            KubernetesApiGovernor kubernetesApiGovernor) {
         this.messagingTemplate = messagingTemplate;
+        this.eventBus = eventBus;
+        this.leaderElectionService = leaderElectionService;
         this.namespace = namespace;
+        this.progressBroadcastIntervalMs = progressBroadcastIntervalMs;
+        this.completedRetentionMs = completedRetentionMs;
+        this.maxMonitoredJobs = maxMonitoredJobs;
+        this.staleAfterMs = staleAfterMs;
+        this.maxPollBackoffMs = maxPollBackoffMs;
         
-        // Initialize Kubernetes client
-        ApiClient client = Config.defaultClient();
-        this.batchV1Api = new BatchV1Api(client);
+        this.batchV1Api = new BatchV1Api(kubernetesApiGovernor.getApiClient());
+
+        this.statusScheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "job-status-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Replaced and cancelled removals must not linger in the queue
+        this.statusScheduler.setRemoveOnCancelPolicy(true);
+        this.statusScheduler.scheduleWithFixedDelay(this::sweepStaleJobs,
+                staleSweepIntervalMs, staleSweepIntervalMs, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("job.status.monitored", monitoredJobs, Map::size)
+                .description("Jobs tracked by the job status service")
+                .register(meterRegistry);
+        Gauge.builder("job.status.pending.timers", statusScheduler, executor -> executor.getQueue().size())
+                .description("Delayed status tasks waiting to run")
+                .register(meterRegistry);
+        Gauge.builder("job.status.poll.backoffs", pollBackoffs, Map::size)
+                .description("Jobs whose status polling is backing off after errors")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("job.status.evictions")
+                .description("Tracked jobs dropped by the size bound or the stale sweep")
+                .register(meterRegistry);
+
+        eventBus.subscribe(this::applyStatusEvent);
+        leaderElectionService.onStartedLeading(this::resyncActiveJobs);
     }
 
     /**
      * Start monitoring a job
      */
     public void startMonitoring(String jobName) {
+        startMonitoring(jobName, null);
+    }
+
+    /**
+     * Start monitoring a job that belongs to a report batch (null batchId for none)
+     */
+    public void startMonitoring(String jobName, String batchId) {
         log.info("Starting to monitor job: {}", jobName);
         JobStatus status = new JobStatus();
         status.setJobName(jobName);
         status.setNamespace(namespace);
+        status.setBatchId(batchId);
         status.setStatus("Active");
         status.setMonitoring(true);
-        monitoredJobs.put(jobName, status);
+        track(jobName, status);
         
-        // Send initial status
+        // Send initial status (also registers the job with the leader if it lives on another replica)
+        broadcastJobStatus(status);
+    }
+
+    /**
+     * Start monitoring a report that runs on the warm worker pool instead of as a Job.
+     * Its state comes from the work queue through updateExternalJob, not from Job polling.
+     */
+    public void startMonitoringExternal(String jobName, String startDate, String endDate, String batchId) {
+        log.info("Starting to monitor warm pool report: {}", jobName);
+        JobStatus status = new JobStatus();
+        status.setJobName(jobName);
+        status.setNamespace(namespace);
+        status.setBatchId(batchId);
+        status.setExecutor(ReportWorkPoolService.EXECUTOR);
+        status.setStatus("Pending");
+        status.setCreationTimestamp(OffsetDateTime.now());
+        status.setStartDate(startDate);
+        status.setEndDate(endDate);
+        status.setMonitoring(true);
+        track(jobName, status);
+        broadcastJobStatus(status);
+    }
+
+    /**
+     * Apply the work queue state of a warm pool report (leader only)
+     */
+    public void updateExternalJob(String jobName, String taskStatus, OffsetDateTime startedAt, OffsetDateTime finishedAt) {
+        JobStatus current = monitoredJobs.get(jobName);
+        if (current == null || !current.isMonitoring()) {
+            return;
+        }
+        touch(jobName);
+        String status = switch (taskStatus) {
+            case "running" -> "Running";
+            case "succeeded" -> "Succeeded";
+            case "failed" -> "Failed";
+            default -> "Pending";
+        };
+        if (status.equals(current.getStatus()) && Objects.equals(startedAt, current.getStartTime())) {
+            return;
+        }
+
+        current.setStatus(status);
+        current.setStartTime(startedAt);
+        current.setCompletionTime(finishedAt);
+        current.setActive("Running".equals(status) ? 1 : 0);
+        current.setSucceeded("Succeeded".equals(status) ? 1 : 0);
+        current.setFailed("Failed".equals(status) ? 1 : 0);
+        log.info("Warm pool report {} status changed: {}", jobName, status);
+
+        if ("Succeeded".equals(status) || "Failed".equals(status)) {
+            current.setMonitoring(false);
+            broadcastJobStatus(current);
+            scheduleRemoval(jobName);
+        } else {
+            broadcastJobStatus(current);
+        }
+    }
+
+    /**
+     * Announce a report the orchestrator ran itself, which has already finished. It is
+     * kept for the retention period like a completed Job.
+     */
+    public void publishCompleted(String jobName, String executor, String startDate, String endDate,
+                                 String batchId, long rows, OffsetDateTime startedAt) {
+        JobStatus status = finishedStatus(jobName, executor, startDate, endDate, batchId, startedAt, true);
+        status.setPhase("done");
+        status.setRowsTotal(rows);
+        status.setRowsWritten(rows);
+        status.setProgressPercent(100.0);
+        track(jobName, status);
+        scheduleRemoval(jobName);
+        broadcastJobStatus(status);
+    }
+
+    /**
+     * Announce a report the orchestrator ran itself that failed, kept for the retention
+     * period like a failed Job
+     */
+    public void publishFailed(String jobName, String executor, String startDate, String endDate,
+                              String batchId, OffsetDateTime startedAt) {
+        JobStatus status = finishedStatus(jobName, executor, startDate, endDate, batchId, startedAt, false);
+        track(jobName, status);
+        scheduleRemoval(jobName);
         broadcastJobStatus(status);
     }
 
+    private JobStatus finishedStatus(String jobName, String executor, String startDate, String endDate,
+                                     String batchId, OffsetDateTime startedAt, boolean succeeded) {
+        JobStatus status = new JobStatus();
+        status.setJobName(jobName);
+        status.setNamespace(namespace);
+        status.setExecutor(executor);
+        status.setBatchId(batchId);
+        status.setStatus(succeeded ? "Succeeded" : "Failed");
+        status.setActive(0);
+        status.setSucceeded(succeeded ? 1 : 0);
+        status.setFailed(succeeded ? 0 : 1);
+        status.setCreationTimestamp(startedAt);
+        status.setStartTime(startedAt);
+        status.setCompletionTime(OffsetDateTime.now());
+        status.setStartDate(startDate);
+        status.setEndDate(endDate);
+        return status;
+    }
+
+    /**
+     * Warm pool reports that are still being monitored
+     */
+    public List<String> getExternalJobNames() {
+        return monitoredJobs.values().stream()
+                .filter(status -> status.isMonitoring() && isExternal(status))
+                .map(JobStatus::getJobName)
+                .toList();
+    }
+
+    // Reports that do not run as a Job: warm pool tasks and reports run inline
+    private static boolean isExternal(JobStatus status) {
+        return ReportWorkPoolService.EXECUTOR.equals(status.getExecutor())
+                || TicketingReportJobService.INLINE_EXECUTOR.equals(status.getExecutor());
+    }
+
+    /**
+     * Merge a progress report sent by a report worker. Throughput is smoothed over
+     * successive reports and the ETA derived from the worker's row estimate. Reports
+     * arrive as often as the worker likes; broadcasts are limited to one per interval
+     * per job, except when the phase changes.
+     *
+     * @throws IllegalArgumentException if the job is not monitored by this replica
+     */
+    public JobStatus reportProgress(String jobName, JobProgress progress) {
+        long now = System.currentTimeMillis();
+        JobStatus status;
+        boolean broadcast;
+        while (true) {
+            // Only jobs this replica already tracks; an arbitrary name must not create an entry
+            status = monitoredJobs.get(jobName);
+            if (status == null) {
+                throw new IllegalArgumentException("Unknown job: " + jobName);
+            }
+            synchronized (status) {
+                // A poll swaps the entry under this lock; progress goes to the entry that stays
+                if (monitoredJobs.get(jobName) != status) {
+                    continue;
+                }
+                boolean phaseChanged = progress.phase() != null && !progress.phase().equals(status.getPhase());
+                applyProgress(status, progress, now);
+                Long lastBroadcast = status.getProgressBroadcastAtMillis();
+                broadcast = phaseChanged || lastBroadcast == null || now - lastBroadcast >= progressBroadcastIntervalMs;
+                if (broadcast) {
+                    status.setProgressBroadcastAtMillis(now);
+                }
+            }
+            break;
+        }
+        touch(jobName);
+        if (broadcast) {
+            broadcastJobStatus(status);
+        }
+        return status;
+    }
+
+    private static void applyProgress(JobStatus status, JobProgress progress, long now) {
+        Long previousRows = status.getRowsProcessed();
+        Long previousAt = status.getProgressUpdatedAtMillis();
+
+        if (progress.phase() != null) {
+            status.setPhase(progress.phase());
+        }
+        if (progress.rowsTotal() != null) {
+            status.setRowsTotal(progress.rowsTotal());
+        }
+        if (progress.rowsFetched() != null) {
+            status.setRowsFetched(progress.rowsFetched());
+        }
+        if (progress.rowsWritten() != null) {
+            status.setRowsWritten(progress.rowsWritten());
+        }
+        if (progress.bytesWritten() != null) {
+            status.setBytesWritten(progress.bytesWritten());
+        }
+        if (progress.peakMemoryBytes() != null) {
+            status.setPeakMemoryBytes(progress.peakMemoryBytes());
+        }
+        status.setProgressUpdatedAtMillis(now);
+
+        // Exponentially weighted rate over the rows the current phase is advancing
+        Long rows = status.getRowsProcessed();
+        if (rows != null && previousRows != null && previousAt != null && now > previousAt && rows >= previousRows) {
+            double instant = (rows - previousRows) * 1000.0 / (now - previousAt);
+            Double current = status.getRowsPerSecond();
+            status.setRowsPerSecond(current == null ? instant : 0.3 * instant + 0.7 * current);
+        }
+
+        Long total = status.getRowsTotal();
+        Double rate = status.getRowsPerSecond();
+        if ("done".equals(status.getPhase())) {
+            status.setProgressPercent(100.0);
+            status.setEtaSeconds(0L);
+        } else if (total != null && total > 0 && rows != null) {
+            // Row totals are planner estimates, so never claim completion before the worker does
+            status.setProgressPercent(Math.min(99.0, rows * 100.0 / total));
+            status.setEtaSeconds(rate != null && rate > 0 ? (long) Math.ceil(Math.max(0, total - rows) / rate) : null);
+        }
+    }
+
     /**
-     * Poll Kubernetes for job status updates every 2 seconds
+     * Poll Kubernetes for job status updates every 2 seconds (leader only)
      */
     @Scheduled(fixedRate = 2000)
     public void pollJobStatus() {
-        if (monitoredJobs.isEmpty()) {
+        if (monitoredJobs.isEmpty() || !leaderElectionService.isLeader()) {
             return;
         }
 
         List<String> completedJobs = new ArrayList<>();
         
+        long now = System.currentTimeMillis();
         for (Map.Entry<String, JobStatus> entry : monitoredJobs.entrySet()) {
             String jobName = entry.getKey();
             JobStatus currentStatus = entry.getValue();
+            if (isExternal(currentStatus)) {
+                // Warm pool and inline reports have no Job; ReportWorkPoolService feeds the former
+                continue;
+            }
+
+            PollBackoff backoff = pollBackoffs.get(jobName);
+            if (backoff != null && now < backoff.nextAttemptAtMillis()) {
+                continue;
+            }
             
             try {
                 V1Job job = batchV1Api.readNamespacedJobStatus(jobName, namespace).execute();
+                pollBackoffs.remove(jobName);
+                touch(jobName);
                 JobStatus newStatus = mapJobStatus(job);
                 
                 // Always update and broadcast to ensure latest state
@@ -90,17 +377,24 @@ public class JobStatusService {
                         jobName, newStatus.getStatus(), newStatus.getActive(), 
                         newStatus.getSucceeded(), newStatus.getFailed());
                     
-                    // Update stored status
-                    monitoredJobs.put(jobName, newStatus);
+                    // Update stored status under the old entry's lock, so progress reported
+                    // meanwhile is either copied over or applied to the new entry
+                    boolean replaced;
+                    synchronized (currentStatus) {
+                        newStatus.copyProgressFrom(currentStatus);
+                        replaced = monitoredJobs.replace(jobName, currentStatus, newStatus);
+                    }
                     
                     // Broadcast immediately
-                    broadcastJobStatus(newStatus);
+                    if (replaced) {
+                        broadcastJobStatus(newStatus);
+                    }
                 }
                 
                 // Check if job completed and mark for delayed removal
                 if (("Succeeded".equals(newStatus.getStatus()) || "Failed".equals(newStatus.getStatus())) 
                     && currentStatus.isMonitoring()) {
-                    // Mark as no longer actively monitoring but keep in map for 30s
+                    // Mark as no longer actively monitoring but keep in map for the retention period
                     completedJobs.add(jobName);
                 }
                 
@@ -109,35 +403,178 @@ public class JobStatusService {
                     log.warn("Job {} not found, removing from monitoring", jobName);
                     completedJobs.add(jobName);
                 } else {
-                    log.error("Error polling job status for {}: {}", jobName, e.getMessage());
+                    PollBackoff next = PollBackoff.after(backoff, now, maxPollBackoffMs);
+                    pollBackoffs.put(jobName, next);
+                    log.error("Error polling job status for {} (attempt {}, next try in {} ms): {}",
+                            jobName, next.failures(), next.nextAttemptAtMillis() - now, e.getMessage());
                 }
             }
         }
         
-        // Handle completed jobs - stop active monitoring but keep broadcasting for 30s
+        // Handle completed jobs - stop active monitoring but keep broadcasting for the retention period
         for (String jobName : completedJobs) {
             JobStatus status = monitoredJobs.get(jobName);
             if (status != null && status.isMonitoring()) {
                 status.setMonitoring(false);
-                log.info("Job {} completed with status: {}. Will continue broadcasting for 30s.", 
-                    jobName, status.getStatus());
+                log.info("Job {} completed with status: {}. Will continue broadcasting for {} ms.", 
+                    jobName, status.getStatus(), completedRetentionMs);
                 
                 // Broadcast the completion status
                 broadcastJobStatus(status);
                 
-                // Schedule removal after 30 seconds
-                final JobStatus finalStatus = status;
-                new Timer().schedule(new TimerTask() {
-                    @Override
-                    public void run() {
-                        monitoredJobs.remove(jobName);
-                        log.info("Stopped monitoring job: {} (final status: {})", jobName, finalStatus.getStatus());
+                scheduleRemoval(jobName);
+            }
+        }
+    }
+
+    /**
+     * Pick up jobs that are still running when this replica becomes leader, so monitoring
+     * survives leader failover even if the job was created on another replica.
+     */
+    public void resyncActiveJobs() {
+        try {
+            V1JobList jobList = batchV1Api.listNamespacedJob(namespace)
+                    .labelSelector("app=ticketing-report")
+                    .execute();
+            int resumed = 0;
+            for (V1Job job : jobList.getItems()) {
+                JobStatus status = mapJobStatus(job);
+                if ("Running".equals(status.getStatus()) || "Pending".equals(status.getStatus())) {
+                    status.setMonitoring(true);
+                    if (monitoredJobs.putIfAbsent(status.getJobName(), status) == null) {
+                        touch(status.getJobName());
+                        resumed++;
                     }
-                }, 30000);
+                }
+            }
+            enforceBound();
+            log.info("Leader resync: monitoring {} jobs ({} newly discovered)", monitoredJobs.size(), resumed);
+        } catch (ApiException e) {
+            log.error("Error resyncing active jobs: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Apply a status event published by any replica (including this one) and forward it
+     * to this replica's WebSocket subscribers.
+     */
+    private void applyStatusEvent(JobStatus status) {
+        String jobName = status.getJobName();
+        if (ReportBatchService.EXECUTOR.equals(status.getExecutor())) {
+            // Batch aggregates are computed by ReportBatchService and only forwarded here
+        } else if (status.isMonitoring()) {
+            if (leaderElectionService.isLeader()) {
+                // A job started on another replica: register it so the leader starts polling it.
+                // Progress may have been reported to another replica, so take it if newer.
+                JobStatus existing = monitoredJobs.putIfAbsent(jobName, status);
+                if (existing != null && existing != status) {
+                    existing.copyProgressFrom(status);
+                }
+                touch(jobName);
+                enforceBound();
+            } else {
+                track(jobName, status);
+            }
+        } else if (!leaderElectionService.isLeader() && monitoredJobs.containsKey(jobName)) {
+            // The leader schedules its own removal; followers mirror the final state
+            track(jobName, status);
+            scheduleRemoval(jobName);
+        }
+
+        try {
+            messagingTemplate.convertAndSend("/topic/job-status", status);
+            log.debug("Broadcast job status: {} - {}", status.getJobName(), status.getStatus());
+        } catch (Exception e) {
+            log.error("Error broadcasting job status for {}: {}", status.getJobName(), e.getMessage());
+        }
+    }
+
+    private void track(String jobName, JobStatus status) {
+        monitoredJobs.put(jobName, status);
+        touch(jobName);
+        enforceBound();
+    }
+
+    private void touch(String jobName) {
+        lastActivity.put(jobName, System.currentTimeMillis());
+    }
+
+    private void forget(String jobName) {
+        monitoredJobs.remove(jobName);
+        lastActivity.remove(jobName);
+        pollBackoffs.remove(jobName);
+        ScheduledFuture<?> pending = pendingRemovals.remove(jobName);
+        if (pending != null) {
+            pending.cancel(false);
+        }
+    }
+
+    /**
+     * Keep a finished job in the map for the retention period so late subscribers still see it.
+     * Rescheduling a job replaces its pending removal instead of adding another timer.
+     */
+    private void scheduleRemoval(String jobName) {
+        ScheduledFuture<?> removal = statusScheduler.schedule(() -> {
+            pendingRemovals.remove(jobName);
+            JobStatus removed = monitoredJobs.computeIfPresent(jobName,
+                    (name, status) -> status.isMonitoring() ? status : null);
+            if (removed == null) {
+                lastActivity.remove(jobName);
+                pollBackoffs.remove(jobName);
+                log.info("Stopped monitoring job: {}", jobName);
+            }
+        }, completedRetentionMs, TimeUnit.MILLISECONDS);
+
+        ScheduledFuture<?> previous = pendingRemovals.put(jobName, removal);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    /**
+     * Drop the least recently active jobs once the map exceeds its bound, finished jobs first
+     */
+    private void enforceBound() {
+        int excess = monitoredJobs.size() - maxMonitoredJobs;
+        if (excess <= 0) {
+            return;
+        }
+        List<String> victims = monitoredJobs.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<String, JobStatus>, Boolean>comparing(entry -> entry.getValue().isMonitoring())
+                        .thenComparing(entry -> lastActivity.getOrDefault(entry.getKey(), 0L)))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList();
+        victims.forEach(this::forget);
+        evictions.increment(victims.size());
+        log.warn("Monitored job limit {} reached, evicted {} jobs", maxMonitoredJobs, victims.size());
+    }
+
+    /**
+     * Remove jobs nothing has been heard about for a long time, e.g. ones whose
+     * status reads keep failing or whose final event never reached this replica
+     */
+    private void sweepStaleJobs() {
+        try {
+            long cutoff = System.currentTimeMillis() - staleAfterMs;
+            List<String> stale = monitoredJobs.keySet().stream()
+                    .filter(jobName -> lastActivity.getOrDefault(jobName, 0L) < cutoff)
+                    .toList();
+            if (!stale.isEmpty()) {
+                stale.forEach(this::forget);
+                evictions.increment(stale.size());
+                log.warn("Removed {} stale jobs from monitoring: {}", stale.size(), stale);
             }
+        } catch (Exception e) {
+            log.error("Stale job sweep failed: {}", e.getMessage());
         }
     }
 
+    @PreDestroy
+    public void shutdown() {
+        statusScheduler.shutdownNow();
+    }
+
     /**
      * Get all jobs in the namespace
      */
@@ -150,12 +587,20 @@ public class JobStatusService {
                 if (job.getMetadata() != null && 
                     job.getMetadata().getName() != null &&
                     job.getMetadata().getName().startsWith("ticketing-report")) {
-                    jobs.add(mapJobStatus(job));
+                    JobStatus status = mapJobStatus(job);
+                    JobStatus tracked = monitoredJobs.get(status.getJobName());
+                    if (tracked != null) {
+                        status.copyProgressFrom(tracked);
+                    }
+                    jobs.add(status);
                 }
             }
         } catch (ApiException e) {
             log.error("Error listing jobs: {}", e.getMessage());
         }
+        monitoredJobs.values().stream()
+                .filter(JobStatusService::isExternal)
+                .forEach(jobs::add);
         return jobs;
     }
 
@@ -166,6 +611,7 @@ public class JobStatusService {
         JobStatus status = new JobStatus();
         status.setJobName(job.getMetadata().getName());
         status.setNamespace(job.getMetadata().getNamespace());
+        status.setExecutor("job");
         status.setCreationTimestamp(job.getMetadata().getCreationTimestamp());
         
         if (job.getStatus() != null) {
@@ -191,6 +637,7 @@ public class JobStatusService {
         if (job.getMetadata().getLabels() != null) {
             status.setStartDate(job.getMetadata().getLabels().get("start-date"));
             status.setEndDate(job.getMetadata().getLabels().get("end-date"));
+            status.setBatchId(job.getMetadata().getLabels().get("report-batch"));
         }
         
         status.setMonitoring(monitoredJobs.containsKey(status.getJobName()));
@@ -198,15 +645,10 @@ public class JobStatusService {
     }
 
     /**
-     * Broadcast job status to WebSocket subscribers
+     * Broadcast job status to WebSocket subscribers on every replica
      */
     private void broadcastJobStatus(JobStatus status) {
-        try {
-            messagingTemplate.convertAndSend("/topic/job-status", status);
-            log.debug("Broadcast job status: {} - {}", status.getJobName(), status.getStatus());
-        } catch (Exception e) {
-            log.error("Error broadcasting job status for {}: {}", status.getJobName(), e.getMessage());
-        }
+        eventBus.publish(status);
     }
 
     /**
@@ -216,23 +658,74 @@ public class JobStatusService {
     public static class JobStatus {
         private String jobName;
         private String namespace;
+        // "job" for a one-off Kubernetes Job, "warm-pool" for a report run by a pool worker,
+        // "inline" for a small CSV written by the orchestrator itself,
+        // "batch" for the aggregate of a report batch (jobName is then the batch id)
+        private String executor;
+        // Report batch this job belongs to, if any
+        private String batchId;
         private String status;
         private Integer active;
         private Integer succeeded;
         private Integer failed;
         
-        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ssX", timezone = "UTC")
         private OffsetDateTime creationTimestamp;
         
-        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ssX", timezone = "UTC")
         private OffsetDateTime startTime;
         
-        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ssX", timezone = "UTC")
         private OffsetDateTime completionTime;
         
         private String startDate;
         private String endDate;
         private boolean monitoring;
+
+        // Progress reported by the report worker
+        private String phase;
+        private Long rowsTotal;
+        private Long rowsFetched;
+        private Long rowsWritten;
+        private Long bytesWritten;
+        private Long peakMemoryBytes;
+        private Double rowsPerSecond;
+        private Double progressPercent;
+        private Long etaSeconds;
+        // Bookkeeping only: the event bus carries progressUpdatedAtMillis between replicas itself
+        @JsonIgnore
+        private Long progressUpdatedAtMillis;
+        @JsonIgnore
+        private Long progressBroadcastAtMillis;
+
+        /**
+         * Rows the current phase is advancing: written once writing has started, fetched before
+         */
+        @JsonIgnore
+        public Long getRowsProcessed() {
+            return rowsWritten != null && rowsWritten > 0 ? rowsWritten : rowsFetched;
+        }
+
+        /**
+         * Take the other status' progress if it is more recent than ours
+         */
+        public synchronized void copyProgressFrom(JobStatus other) {
+            if (other.progressUpdatedAtMillis == null
+                    || (progressUpdatedAtMillis != null && progressUpdatedAtMillis >= other.progressUpdatedAtMillis)) {
+                return;
+            }
+            phase = other.phase;
+            rowsTotal = other.rowsTotal;
+            rowsFetched = other.rowsFetched;
+            rowsWritten = other.rowsWritten;
+            bytesWritten = other.bytesWritten;
+            peakMemoryBytes = other.peakMemoryBytes;
+            rowsPerSecond = other.rowsPerSecond;
+            progressPercent = other.progressPercent;
+            etaSeconds = other.etaSeconds;
+            progressUpdatedAtMillis = other.progressUpdatedAtMillis;
+            progressBroadcastAtMillis = other.progressBroadcastAtMillis;
+        }
         
         // Calculated fields
         public long getDurationSeconds() {
@@ -241,4 +734,30 @@ public class JobStatusService {
             return java.time.Duration.between(startTime, endTime).getSeconds();
         }
     }
+
+    /**
+     * Consecutive status read failures for a job and when to try it again
+     */
+    private record PollBackoff(int failures, long nextAttemptAtMillis) {
+
+        private static final long BASE_DELAY_MS = 2000;
+
+        static PollBackoff after(PollBackoff previous, long now, long maxDelayMs) {
+            int failures = previous == null ? 1 : previous.failures() + 1;
+            long delay = Math.min(maxDelayMs, BASE_DELAY_MS << Math.min(failures - 1, 20));
+            return new PollBackoff(failures, now + delay);
+        }
+    }
+
+    /**
+     * Progress report posted by a report worker; null fields are left unchanged
+     */
+    public record JobProgress(
+            String phase,
+            Long rowsTotal,
+            Long rowsFetched,
+            Long rowsWritten,
+            Long bytesWritten,
+            Long peakMemoryBytes) {
+    }
 }
@@ -0,0 +1,462 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.Configuration;
+import io.kubernetes.client.util.Config;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Governs every call the orchestrator makes to the Kubernetes API server.
+ *
+ * All ApiClients are built here and carry this OkHttp interceptor, which
+ * <ul>
+ *   <li>limits request rate with a token bucket per verb and resource (e.g. "list pods",
+ *       "create jobs"); a bucket halves its rate when the server answers 429 and
+ *       creeps back to the configured rate as calls succeed,</li>
+ *   <li>retries 429 responses (never executed by API Priority and Fairness, so safe for
+ *       any verb) and, for reads only, 5xx responses and connection failures, waiting for
+ *       Retry-After when the server sends one and exponential backoff with full jitter
+ *       otherwise,</li>
+ *   <li>opens a circuit breaker after consecutive server failures so a degraded API
+ *       server gets a rest instead of a retry storm, letting one probe through after the
+ *       cool-down,</li>
+ *   <li>records requests, retries, throttling and rate-limit waits as metrics.</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class KubernetesApiGovernor implements Interceptor {
+
+    private static final Set<String> READ_VERBS = Set.of("get", "list", "watch");
+
+    private final double readQps;
+    private final double writeQps;
+    private final int burst;
+    private final long maxRateLimitWaitMs;
+    private final int maxRetries;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Timer rateLimitWait;
+
+    private final Map<String, AdaptiveTokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ApiClient defaultClient;
+
+    public KubernetesApiGovernor(
+            MeterRegistry meterRegistry,
+            @Value("${kubernetes.client.read-qps:20}") double readQps,
+            @Value("${kubernetes.client.write-qps:5}") double writeQps,
+            @Value("${kubernetes.client.burst:10}") int burst,
+            @Value("${kubernetes.client.max-rate-limit-wait-ms:10000}") long maxRateLimitWaitMs,
+            @Value("${kubernetes.client.max-retries:4}") int maxRetries,
+            @Value("${kubernetes.client.base-backoff-ms:200}") long baseBackoffMs,
+            @Value("${kubernetes.client.max-backoff-ms:10000}") long maxBackoffMs,
+            @Value("${kubernetes.client.circuit-failure-threshold:5}") int circuitFailureThreshold,
+            @Value("${kubernetes.client.circuit-open-ms:30000}") long circuitOpenMs) throws IOException {
+        this.meterRegistry = meterRegistry;
+        this.readQps = readQps;
+        this.writeQps = writeQps;
+        this.burst = burst;
+        this.maxRateLimitWaitMs = maxRateLimitWaitMs;
+        this.maxRetries = maxRetries;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.circuitBreaker = new CircuitBreaker(circuitFailureThreshold, circuitOpenMs);
+
+        this.rateLimitWait = Timer.builder("kubernetes.client.ratelimit.wait")
+                .description("Time calls waited for a client-side rate limit token")
+                .register(meterRegistry);
+        Gauge.builder("kubernetes.client.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("Kubernetes API circuit breaker: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+
+        // Copy and Exec helpers, and APIs built without a client, use the default client
+        this.defaultClient = newApiClient();
+        Configuration.setDefaultApiClient(defaultClient);
+    }
+
+    /**
+     * The shared governed client
+     */
+    public ApiClient getApiClient() {
+        return defaultClient;
+    }
+
+    /**
+     * A separate governed client, for callers that need their own timeouts
+     */
+    public ApiClient newApiClient() throws IOException {
+        ApiClient client = Config.defaultClient();
+        client.setHttpClient(client.getHttpClient().newBuilder().addInterceptor(this).build());
+        return client;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String verb = verb(request);
+        String resource = resource(request.url());
+        boolean read = READ_VERBS.contains(verb);
+        // Exec, attach and port-forward upgrade to a WebSocket: one attempt, no retries
+        boolean upgrade = request.header("Upgrade") != null;
+        AdaptiveTokenBucket bucket = buckets.computeIfAbsent(verb + " " + resource,
+                key -> new AdaptiveTokenBucket(read ? readQps : writeQps, burst));
+
+        for (int attempt = 0; ; attempt++) {
+            // Token first: once tryAcquire lets a half-open probe through, the call must reach
+            // onSuccess, onFailure or release, or the breaker never leaves HALF_OPEN
+            acquireToken(bucket, verb, resource);
+            if (!circuitBreaker.tryAcquire()) {
+                count(verb, resource, "circuit_open");
+                throw new IOException("Kubernetes API circuit breaker is open after repeated server failures");
+            }
+
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                circuitBreaker.onFailure();
+                if (!read || upgrade || attempt >= maxRetries || interrupted(e)) {
+                    count(verb, resource, "io_error");
+                    throw e;
+                }
+                retry(verb, resource, "io_error", attempt, backoffMs(attempt));
+                continue;
+            } catch (RuntimeException e) {
+                circuitBreaker.release();
+                throw e;
+            }
+
+            int code = response.code();
+            if (code == 429) {
+                // The server is healthy, just busy: slow this bucket down rather than tripping the breaker
+                circuitBreaker.onSuccess();
+                bucket.onThrottled();
+                meterRegistry.counter("kubernetes.client.throttled", "verb", verb, "resource", resource, "source", "server")
+                        .increment();
+                if (upgrade || attempt >= maxRetries) {
+                    count(verb, resource, "throttled");
+                    return response;
+                }
+                long delay = retryAfterMs(response, attempt);
+                response.close();
+                retry(verb, resource, "throttled", attempt, delay);
+                continue;
+            }
+            if (code >= 500 && code != 501) {
+                circuitBreaker.onFailure();
+                if (read && !upgrade && attempt < maxRetries) {
+                    long delay = retryAfterMs(response, attempt);
+                    response.close();
+                    retry(verb, resource, "server_error", attempt, delay);
+                    continue;
+                }
+                count(verb, resource, "server_error");
+                return response;
+            }
+
+            circuitBreaker.onSuccess();
+            bucket.onSuccess();
+            count(verb, resource, code >= 400 ? "client_error" : "success");
+            return response;
+        }
+    }
+
+    /**
+     * The caller gave up (thread interrupt or call cancelled). A SocketTimeoutException is
+     * also an InterruptedIOException but means the server was slow, so it is retried.
+     */
+    private static boolean interrupted(IOException e) {
+        return e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException);
+    }
+
+    private void acquireToken(AdaptiveTokenBucket bucket, String verb, String resource) throws IOException {
+        long waitNanos = bucket.reserve(TimeUnit.MILLISECONDS.toNanos(maxRateLimitWaitMs));
+        if (waitNanos < 0) {
+            count(verb, resource, "rate_limited");
+            throw new IOException("Client-side rate limit for " + verb + " " + resource
+                    + " would delay the call by more than " + maxRateLimitWaitMs + " ms");
+        }
+        if (waitNanos > 0) {
+            meterRegistry.counter("kubernetes.client.throttled", "verb", verb, "resource", resource, "source", "client")
+                    .increment();
+            rateLimitWait.record(waitNanos, TimeUnit.NANOSECONDS);
+            sleep(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+    }
+
+    private void retry(String verb, String resource, String reason, int attempt, long delayMs) throws IOException {
+        meterRegistry.counter("kubernetes.client.retries", "verb", verb, "resource", resource, "reason", reason)
+                .increment();
+        log.warn("Kubernetes {} {} failed ({}), retry {}/{} in {} ms",
+                verb, resource, reason, attempt + 1, maxRetries, delayMs);
+        sleep(delayMs);
+    }
+
+    private void count(String verb, String resource, String outcome) {
+        meterRegistry.counter("kubernetes.client.requests", "verb", verb, "resource", resource, "outcome", outcome)
+                .increment();
+    }
+
+    /**
+     * Full-jitter exponential backoff: uniform in [0, min(max, base * 2^attempt)]
+     */
+    private long backoffMs(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Honour Retry-After (delta seconds or HTTP date) when present, with a little jitter so
+     * throttled callers do not all return at the same instant
+     */
+    private long retryAfterMs(Response response, int attempt) {
+        String retryAfter = response.header("Retry-After");
+        if (retryAfter != null) {
+            long delay = -1;
+            try {
+                delay = TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException e) {
+                try {
+                    ZonedDateTime at = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                    delay = Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis();
+                } catch (Exception ignored) {
+                    // Unparseable header: fall back to backoff
+                }
+            }
+            if (delay >= 0) {
+                return Math.min(maxBackoffMs, delay) + ThreadLocalRandom.current().nextLong(baseBackoffMs + 1);
+            }
+        }
+        return backoffMs(attempt);
+    }
+
+    private static void sleep(long millis) throws IOException {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to call the Kubernetes API");
+        }
+    }
+
+    /**
+     * Kubernetes verb of a request; GETs are "watch" with watch=true, "list" on a collection
+     */
+    static String verb(Request request) {
+        return switch (request.method()) {
+            case "POST" -> "create";
+            case "PUT" -> "update";
+            case "PATCH" -> "patch";
+            case "DELETE" -> "delete";
+            default -> {
+                if ("true".equals(request.url().queryParameter("watch"))) {
+                    yield "watch";
+                }
+                yield isCollection(request.url()) ? "list" : "get";
+            }
+        };
+    }
+
+    /**
+     * Resource (and subresource) of an API path, e.g. /apis/batch/v1/namespaces/ns/jobs/x/status -> jobs/status
+     */
+    static String resource(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        int start = resourceIndex(segments);
+        if (start < 0 || start >= segments.size()) {
+            return "other";
+        }
+        String resource = segments.get(start);
+        if (start + 2 < segments.size()) {
+            resource += "/" + segments.get(start + 2);
+        }
+        return resource;
+    }
+
+    private static boolean isCollection(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        int start = resourceIndex(segments);
+        return start >= 0 && start == segments.size() - 1;
+    }
+
+    /**
+     * Index of the resource segment: after /api/{version} or /apis/{group}/{version},
+     * and after namespaces/{name} for namespaced resources
+     */
+    private static int resourceIndex(List<String> segments) {
+        int index;
+        if (!segments.isEmpty() && "api".equals(segments.get(0))) {
+            index = 2;
+        } else if (!segments.isEmpty() && "apis".equals(segments.get(0))) {
+            index = 3;
+        } else {
+            return -1;
+        }
+        if (segments.size() > index + 2 && "namespaces".equals(segments.get(index))) {
+            index += 2;
+        }
+        return index;
+    }
+
+    /**
+     * Token bucket whose refill rate adapts to server throttling (multiplicative decrease on
+     * 429, additive increase on success, never above the configured rate)
+     */
+    static class AdaptiveTokenBucket {
+
+        private static final double MIN_RATE = 0.5;
+
+        private final double maxRate;
+        private final double capacity;
+        private double rate;
+        private double tokens;
+        private long lastRefillNanos;
+
+        AdaptiveTokenBucket(double ratePerSecond, int burst) {
+            this.maxRate = ratePerSecond;
+            this.rate = ratePerSecond;
+            this.capacity = Math.max(1, burst);
+            this.tokens = capacity;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        /**
+         * Take a token, possibly ahead of time
+         *
+         * @return nanoseconds to wait before using it, or -1 if that would exceed maxWaitNanos
+         */
+        synchronized long reserve(long maxWaitNanos) {
+            refill();
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            long wait = (long) ((1 - tokens) / rate * 1_000_000_000L);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            tokens -= 1;
+            return wait;
+        }
+
+        synchronized void onThrottled() {
+            refill();
+            rate = Math.max(MIN_RATE, rate / 2);
+        }
+
+        synchronized void onSuccess() {
+            if (rate < maxRate) {
+                refill();
+                rate = Math.min(maxRate, rate + maxRate / 20);
+            }
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * rate);
+            lastRefillNanos = now;
+        }
+    }
+
+    enum CircuitState {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    /**
+     * Consecutive-failure circuit breaker with a single half-open probe
+     */
+    static class CircuitBreaker {
+
+        private final int failureThreshold;
+        private final long openMillis;
+        private CircuitState state = CircuitState.CLOSED;
+        private int consecutiveFailures;
+        private long openedAtMillis;
+        private boolean probeInFlight;
+
+        CircuitBreaker(int failureThreshold, long openMillis) {
+            this.failureThreshold = failureThreshold;
+            this.openMillis = openMillis;
+        }
+
+        synchronized boolean tryAcquire() {
+            if (state == CircuitState.OPEN) {
+                if (System.currentTimeMillis() - openedAtMillis < openMillis) {
+                    return false;
+                }
+                state = CircuitState.HALF_OPEN;
+                probeInFlight = false;
+            }
+            if (state == CircuitState.HALF_OPEN) {
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+            }
+            return true;
+        }
+
+        synchronized void onSuccess() {
+            if (state != CircuitState.CLOSED) {
+                log.info("Kubernetes API circuit breaker closed");
+            }
+            state = CircuitState.CLOSED;
+            consecutiveFailures = 0;
+            probeInFlight = false;
+        }
+
+        synchronized void onFailure() {
+            consecutiveFailures++;
+            if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                if (state != CircuitState.OPEN) {
+                    log.error("Kubernetes API circuit breaker opened after {} consecutive failures", consecutiveFailures);
+                }
+                state = CircuitState.OPEN;
+                openedAtMillis = System.currentTimeMillis();
+                probeInFlight = false;
+            }
+        }
+
+        /**
+         * The call ended without a verdict on the server (e.g. a client-side error): let
+         * the next caller probe instead
+         */
+        synchronized void release() {
+            probeInFlight = false;
+        }
+
+        synchronized CircuitState state() {
+            return state;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoordinationV1Api;
+import io.kubernetes.client.openapi.models.V1Lease;
+import io.kubernetes.client.openapi.models.V1LeaseSpec;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Elects a single orchestrator replica as leader using a coordination.k8s.io Lease.
+ * Only the leader runs cluster-wide scheduled work such as job status polling.
+ * When leader election is disabled (single replica / local run) this replica is always the leader.
+ */
+@Service
+@Slf4j
+public class LeaderElectionService {
+
+    private final CoordinationV1Api coordinationV1Api;
+    private final String namespace;
+    private final String leaseName;
+    private final String identity;
+    private final boolean enabled;
+    private final int leaseDurationSeconds;
+
+    private final List<Runnable> startedLeadingCallbacks = new CopyOnWriteArrayList<>();
+    private volatile boolean leader;
+    private volatile OffsetDateTime lastRenewTime;
+
+    public LeaderElectionService(
+            @Value("${kubernetes.namespace:train-orchestrator}") String namespace,
+            @Value("${kubernetes.leader-election.enabled:false}") boolean enabled,
+            @Value("${kubernetes.leader-election.lease-name:train-orchestrator-leader}") String leaseName,
+            @Value("${kubernetes.leader-election.lease-duration-seconds:15}") int leaseDurationSeconds,
+            @Value("${HOSTNAME:}") String hostname,
+            KubernetesApiGovernor kubernetesApiGovernor) {
+        this.namespace = namespace;
+        this.enabled = enabled;
+        this.leaseName = leaseName;
+        this.leaseDurationSeconds = leaseDurationSeconds;
+        this.identity = hostname.isBlank() ? "orchestrator-" + UUID.randomUUID() : hostname;
+
+        this.coordinationV1Api = new CoordinationV1Api(kubernetesApiGovernor.getApiClient());
+
+        if (!enabled) {
+            log.info("Leader election disabled, replica {} acts as leader", identity);
+        }
+    }
+
+    /**
+     * Whether this replica should run leader-only work
+     */
+    public boolean isLeader() {
+        return !enabled || leader;
+    }
+
+    public String getIdentity() {
+        return identity;
+    }
+
+    /**
+     * Register a callback invoked each time this replica acquires leadership
+     */
+    public void onStartedLeading(Runnable callback) {
+        startedLeadingCallbacks.add(callback);
+    }
+
+    /**
+     * Acquire or renew the lease. Runs more often than the lease duration so the
+     * leader renews well before followers consider the lease expired.
+     */
+    @Scheduled(fixedRateString = "${kubernetes.leader-election.renew-interval-ms:5000}")
+    public void tryAcquireOrRenew() {
+        if (!enabled) {
+            return;
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        boolean acquired;
+        try {
+            acquired = acquireOrRenew(now);
+        } catch (Exception e) {
+            log.warn("Leader election round failed for {}: {}", identity, e.getMessage());
+            // Keep leading only while our last successful renewal is still within the lease
+            acquired = leader && lastRenewTime != null
+                    && lastRenewTime.plusSeconds(leaseDurationSeconds).isAfter(now);
+        }
+
+        if (acquired && !leader) {
+            log.info("Replica {} acquired leadership of lease {}", identity, leaseName);
+            leader = true;
+            startedLeadingCallbacks.forEach(this::runCallback);
+        } else if (!acquired && leader) {
+            log.warn("Replica {} lost leadership of lease {}", identity, leaseName);
+            leader = false;
+        }
+    }
+
+    private boolean acquireOrRenew(OffsetDateTime now) throws ApiException {
+        V1Lease lease;
+        try {
+            lease = coordinationV1Api.readNamespacedLease(leaseName, namespace).execute();
+        } catch (ApiException e) {
+            if (e.getCode() != 404) {
+                throw e;
+            }
+            return createLease(now);
+        }
+
+        V1LeaseSpec spec = lease.getSpec() != null ? lease.getSpec() : new V1LeaseSpec();
+        boolean heldByUs = identity.equals(spec.getHolderIdentity());
+
+        if (!heldByUs && !isExpired(spec, now)) {
+            return false;
+        }
+
+        if (!heldByUs) {
+            int transitions = spec.getLeaseTransitions() != null ? spec.getLeaseTransitions() : 0;
+            spec.holderIdentity(identity)
+                    .acquireTime(now)
+                    .leaseTransitions(transitions + 1);
+        }
+        spec.renewTime(now).leaseDurationSeconds(leaseDurationSeconds);
+        lease.spec(spec);
+
+        // Replace carries the resourceVersion we read, so a concurrent writer makes this fail with 409
+        try {
+            coordinationV1Api.replaceNamespacedLease(leaseName, namespace, lease).execute();
+            lastRenewTime = now;
+            return true;
+        } catch (ApiException e) {
+            if (e.getCode() == 409) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private boolean createLease(OffsetDateTime now) throws ApiException {
+        V1Lease lease = new V1Lease()
+                .metadata(new V1ObjectMeta().name(leaseName).namespace(namespace))
+                .spec(new V1LeaseSpec()
+                        .holderIdentity(identity)
+                        .leaseDurationSeconds(leaseDurationSeconds)
+                        .acquireTime(now)
+                        .renewTime(now)
+                        .leaseTransitions(0));
+        try {
+            coordinationV1Api.createNamespacedLease(namespace, lease).execute();
+            lastRenewTime = now;
+            return true;
+        } catch (ApiException e) {
+            if (e.getCode() == 409) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private boolean isExpired(V1LeaseSpec spec, OffsetDateTime now) {
+        if (spec.getHolderIdentity() == null || spec.getRenewTime() == null) {
+            return true;
+        }
+        int duration = Objects.requireNonNullElse(spec.getLeaseDurationSeconds(), leaseDurationSeconds);
+        return spec.getRenewTime().plusSeconds(duration).isBefore(now);
+    }
+
+    private void runCallback(Runnable callback) {
+        try {
+            callback.run();
+        } catch (Exception e) {
+            log.error("Leader callback failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Release the lease on shutdown so another replica can take over immediately
+     */
+    @PreDestroy
+    public void releaseLease() {
+        if (!enabled || !leader) {
+            return;
+        }
+        leader = false;
+        try {
+            V1Lease lease = coordinationV1Api.readNamespacedLease(leaseName, namespace).execute();
+            if (lease.getSpec() != null && identity.equals(lease.getSpec().getHolderIdentity())) {
+                lease.getSpec().holderIdentity(null).renewTime(null);
+                coordinationV1Api.replaceNamespacedLease(leaseName, namespace, lease).execute();
+                log.info("Replica {} released lease {}", identity, leaseName);
+            }
+        } catch (ApiException e) {
+            log.warn("Failed to release lease {}: {}", leaseName, e.getMessage());
+        }
+    }
+}
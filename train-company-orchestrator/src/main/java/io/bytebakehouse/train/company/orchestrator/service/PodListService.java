@@ -1,10 +1,8 @@
 package io.bytebakehouse.train.company.orchestrator.service;
 
 import io.kubernetes.client.openapi.ApiClient;
-import io.kubernetes.client.openapi.Configuration;
 import io.kubernetes.client.openapi.apis.CoreV1Api;
 import io.kubernetes.client.openapi.models.V1PodList;
-import io.kubernetes.client.util.Config;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -18,10 +16,11 @@ public class PodListService {
 
     private final CoreV1Api coreV1Api;
 
-    public PodListService() throws IOException {
-        ApiClient client = Config.defaultClient();
-        Configuration.setDefaultApiClient(client);
-        this.coreV1Api = new CoreV1Api();
+    private final ApiClient client;
+
+    public PodListService(KubernetesApiGovernor kubernetesApiGovernor) {
+        this.client = kubernetesApiGovernor.getApiClient();
+        this.coreV1Api = new CoreV1Api(client);
     }
 
     public V1PodList listAllPods() throws Exception {
@@ -29,7 +28,6 @@ public class PodListService {
     }
 
     public String listAllPodsRaw() throws IOException {
-        ApiClient client = Configuration.getDefaultApiClient();
         String url = client.getBasePath() + "/api/v1/pods";
         Request request = new Request.Builder().url(url).get().build();
         Call call = client.getHttpClient().newCall(request);
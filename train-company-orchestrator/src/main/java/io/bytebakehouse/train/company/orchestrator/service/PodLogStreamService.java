@@ -0,0 +1,356 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import io.bytebakehouse.train.company.orchestrator.service.ReportPodCache.CachedPod;
+import io.kubernetes.client.PodLogs;
+import io.kubernetes.client.openapi.ApiClient;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Follows the log of a ticketing report job's pod and fans it out to SSE subscribers.
+ *
+ * One upstream log stream is opened per job no matter how many browsers watch it, and
+ * closed when the last viewer leaves. The upstream reader never writes to a client: it
+ * appends each line to every subscriber's bounded ring buffer (dropping the oldest line
+ * when full) and a per-subscriber drain task does the blocking SSE writes. A slow browser
+ * therefore only loses lines and never grows heap or stalls the other viewers.
+ *
+ * At most {@code pod-logs.max-streams} upstream streams are followed at once; a viewer of
+ * another job beyond that gets an "error" event straight away instead of waiting in a queue.
+ */
+@Service
+@Slf4j
+public class PodLogStreamService {
+
+    private static final String APP = "ticketing-report";
+    private static final int MAX_LINE_CHARS = 4096;
+    private static final long POD_START_TIMEOUT_MS = 60_000;
+    // Checks hit the local pod cache, not the API
+    private static final long POD_START_POLL_MS = 500;
+
+    private final ReportPodCache reportPodCache;
+    private final PodLogs podLogs;
+    private final String namespace;
+    private final int subscriberBufferLines;
+    private final int historyLines;
+    private final int tailLines;
+    private final ExecutorService upstreamExecutor;
+    private final ExecutorService drainExecutor;
+
+    private final Map<String, LogStream> streams = new ConcurrentHashMap<>();
+
+    public PodLogStreamService(
+            @Value("${kubernetes.namespace:train-orchestrator}") String namespace,
+            @Value("${pod-logs.subscriber-buffer-lines:500}") int subscriberBufferLines,
+            @Value("${pod-logs.history-lines:200}") int historyLines,
+            @Value("${pod-logs.tail-lines:200}") int tailLines,
+            @Value("${pod-logs.max-streams:8}") int maxStreams,
+            KubernetesApiGovernor kubernetesApiGovernor,
+            ReportPodCache reportPodCache) throws IOException {
+        this.namespace = namespace;
+        this.subscriberBufferLines = subscriberBufferLines;
+        this.historyLines = historyLines;
+        this.tailLines = tailLines;
+
+        // Followed logs can be silent for a long time, so this client must not time out reads
+        ApiClient client = kubernetesApiGovernor.newApiClient();
+        client.setReadTimeout(0);
+        this.reportPodCache = reportPodCache;
+        this.podLogs = new PodLogs(client);
+
+        // No queue: a stream either gets a thread now or is refused
+        this.upstreamExecutor = new ThreadPoolExecutor(maxStreams, maxStreams, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "pod-log-upstream");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.drainExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Subscribe to the live log of a job's pod. Events: "log" (one line), "dropped"
+     * (lines skipped because this client fell behind), "end" (log finished) and "error".
+     */
+    public SseEmitter subscribe(String jobName) {
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, subscriberBufferLines);
+
+        LogStream stream = streams.compute(jobName, (name, existing) -> {
+            LogStream target = existing != null && !existing.closed ? existing : new LogStream(name);
+            target.attach(subscriber);
+            return target;
+        });
+        if (stream.started.compareAndSet(false, true)) {
+            try {
+                upstreamExecutor.execute(stream::follow);
+            } catch (RejectedExecutionException e) {
+                log.warn("Refusing log stream for job {}: pod-logs.max-streams reached", jobName);
+                streams.remove(jobName, stream);
+                stream.broadcastTerminal("error", "Too many log streams open, try again later");
+                stream.close();
+            }
+        }
+
+        Runnable detach = () -> stream.detach(subscriber);
+        emitter.onCompletion(detach);
+        emitter.onTimeout(detach);
+        emitter.onError(error -> detach.run());
+        return emitter;
+    }
+
+    public int getActiveStreamCount() {
+        return streams.size();
+    }
+
+    /**
+     * Find the newest pod created by the job in the watch-backed pod cache
+     */
+    private CachedPod findJobPod(String jobName) {
+        return reportPodCache.findByLabel("job-name", jobName).stream()
+                .filter(pod -> APP.equals(pod.labels().get("app")))
+                .max(Comparator.comparing(
+                        pod -> Objects.requireNonNullElse(pod.creationTimestamp(), OffsetDateTime.MIN)))
+                .orElse(null);
+    }
+
+    private static boolean canStreamLogs(CachedPod pod) {
+        String phase = pod.phase();
+        return phase != null && !"Pending".equals(phase) && !"Unknown".equals(phase);
+    }
+
+    /**
+     * One upstream log stream for a job, shared by all of its subscribers
+     */
+    private class LogStream {
+        final String jobName;
+        final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        final ArrayDeque<String> history = new ArrayDeque<>();
+        final AtomicBoolean started = new AtomicBoolean();
+        volatile boolean closed;
+        volatile InputStream upstream;
+
+        LogStream(String jobName) {
+            this.jobName = jobName;
+        }
+
+        void attach(Subscriber subscriber) {
+            // Replay recent lines so a viewer joining late sees context, not an empty pane
+            synchronized (history) {
+                history.forEach(subscriber::offer);
+            }
+            subscribers.add(subscriber);
+            if (closed) {
+                // Joined while the stream was ending, after the terminal event went out
+                subscriber.finish("end", "Log stream finished");
+            }
+            subscriber.scheduleDrain();
+        }
+
+        void detach(Subscriber subscriber) {
+            subscribers.remove(subscriber);
+            // Close the upstream once nobody is watching; compute keeps this atomic with attach
+            streams.computeIfPresent(jobName, (name, stream) -> {
+                if (stream == this && subscribers.isEmpty()) {
+                    close();
+                    return null;
+                }
+                return stream;
+            });
+        }
+
+        void follow() {
+            try {
+                CachedPod pod = waitForPod();
+                if (pod == null) {
+                    broadcastTerminal("error", "No running pod found for job " + jobName);
+                    return;
+                }
+
+                String podName = pod.name();
+                log.info("Following log of pod {} for {} viewer(s)", podName, subscribers.size());
+                upstream = podLogs.streamNamespacedPodLog(namespace, podName, null, null, tailLines, false);
+                if (closed) {
+                    return;
+                }
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(upstream, StandardCharsets.UTF_8))) {
+                    String line;
+                    while (!closed && (line = reader.readLine()) != null) {
+                        publish(line.length() > MAX_LINE_CHARS ? line.substring(0, MAX_LINE_CHARS) + "…" : line);
+                    }
+                }
+                broadcastTerminal("end", "Log stream finished");
+            } catch (Exception e) {
+                if (!closed) {
+                    log.warn("Log stream for job {} failed: {}", jobName, e.getMessage());
+                    broadcastTerminal("error", e.getMessage());
+                }
+            } finally {
+                streams.remove(jobName, this);
+                close();
+            }
+        }
+
+        private CachedPod waitForPod() throws Exception {
+            long deadline = System.currentTimeMillis() + POD_START_TIMEOUT_MS;
+            while (!closed) {
+                CachedPod pod = findJobPod(jobName);
+                if (pod != null && canStreamLogs(pod)) {
+                    return pod;
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    return null;
+                }
+                Thread.sleep(POD_START_POLL_MS);
+            }
+            return null;
+        }
+
+        private void publish(String line) {
+            synchronized (history) {
+                if (history.size() >= historyLines) {
+                    history.pollFirst();
+                }
+                history.addLast(line);
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(line);
+                subscriber.scheduleDrain();
+            }
+        }
+
+        private void broadcastTerminal(String event, String message) {
+            closed = true;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.finish(event, message);
+                subscriber.scheduleDrain();
+            }
+        }
+
+        void close() {
+            closed = true;
+            InputStream stream = upstream;
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    log.debug("Error closing log stream for {}: {}", jobName, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * A viewer with its own bounded ring buffer of pending lines
+     */
+    private class Subscriber {
+        final SseEmitter emitter;
+        final int capacity;
+        final ArrayDeque<String> pending;
+        final AtomicBoolean draining = new AtomicBoolean();
+        long dropped;
+        String terminalEvent;
+        String terminalMessage;
+        volatile boolean done;
+
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.capacity = capacity;
+            this.pending = new ArrayDeque<>(Math.min(capacity, 64));
+        }
+
+        synchronized void offer(String line) {
+            if (pending.size() >= capacity) {
+                pending.pollFirst();
+                dropped++;
+            }
+            pending.addLast(line);
+        }
+
+        synchronized void finish(String event, String message) {
+            terminalEvent = event;
+            terminalMessage = message;
+        }
+
+        void scheduleDrain() {
+            if (!done && draining.compareAndSet(false, true)) {
+                drainExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!done) {
+                    String line;
+                    long skipped;
+                    String event;
+                    String message;
+                    synchronized (this) {
+                        skipped = dropped;
+                        dropped = 0;
+                        line = pending.pollFirst();
+                        event = line == null ? terminalEvent : null;
+                        message = terminalMessage;
+                    }
+                    if (skipped > 0) {
+                        emitter.send(SseEmitter.event().name("dropped").data(skipped));
+                    }
+                    if (line != null) {
+                        emitter.send(SseEmitter.event().name("log").data(line));
+                    } else if (event != null) {
+                        emitter.send(SseEmitter.event().name(event).data(message));
+                        done = true;
+                        emitter.complete();
+                    } else {
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                // Client disconnected; the emitter callbacks detach it
+                done = true;
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            // A line may have arrived between the last poll and releasing the flag
+            boolean more;
+            synchronized (this) {
+                more = !pending.isEmpty() || terminalEvent != null;
+            }
+            if (more) {
+                scheduleDrain();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streams.values().forEach(LogStream::close);
+        upstreamExecutor.shutdownNow();
+        drainExecutor.shutdownNow();
+    }
+}
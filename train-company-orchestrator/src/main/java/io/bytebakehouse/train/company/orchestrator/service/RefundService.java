@@ -0,0 +1,393 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import io.bytebakehouse.train.company.orchestrator.entity.enums.FareRefundPolicy;
+import io.bytebakehouse.train.company.orchestrator.service.TripAvailabilityService.SeatRelease;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Refunds every ticket of a cancelled trip, or an explicit set of tickets.
+ *
+ * Tickets are grouped by booking and split into chunks; each chunk runs in its own
+ * transaction on a bounded worker pool. A failing chunk is rolled back and reported
+ * without affecting the others. Per ticket, the fare decides the refunded amount:
+ * fully refundable fares refund the ticket price, partially refundable fares refund
+ * {@code refunds.partial-ratio} of it, and non-refundable fares cancel without a refund.
+ * Either way the seat reservations are released and the tickets give up their seat in the
+ * chunk transaction. The trip availability counters get the seats of all committed chunks
+ * back in one statement after the run: chunks of one trip share its counter rows, and
+ * updating them per chunk would serialize the chunks or deadlock them. A crash in between
+ * leaves the counters low until the next recount.
+ */
+@Service
+@Slf4j
+public class RefundService {
+
+    private static final String LOCK_TICKETS_SQL = """
+            SELECT t.id, t.ticket_ref, t.booking_id, t.price, t.currency,
+                   f.refundable, f.refund_policy::text AS refund_policy
+              FROM tickets t
+              LEFT JOIN fares f ON f.id = t.fare_id
+             WHERE t.id = ANY(?) AND t.status IN ('reserved', 'issued', 'checked_in')
+               FOR UPDATE OF t
+            """;
+
+    // The seat is cleared so ux_trip_seat lets the freed seat be sold again
+    private static final String UPDATE_TICKETS_SQL = """
+            UPDATE tickets t
+               SET status = s.status::ticket_status, cancelled_at = now(), seat_id = NULL
+              FROM unnest(?::uuid[], ?::text[]) AS s(id, status)
+             WHERE t.id = s.id
+            """;
+
+    // A booking is settled once none of its tickets can still be travelled on
+    private static final String REFUND_PAYMENTS_SQL = """
+            UPDATE payments p
+               SET status = 'refunded'
+             WHERE p.booking_id = ANY(?) AND p.status = 'completed'
+               AND EXISTS (SELECT 1 FROM tickets t WHERE t.booking_id = p.booking_id AND t.status = 'refunded')
+               AND NOT EXISTS (SELECT 1 FROM tickets t WHERE t.booking_id = p.booking_id
+                                AND t.status NOT IN ('refunded', 'cancelled'))
+            """;
+
+    private static final String CANCEL_BOOKINGS_SQL = """
+            UPDATE bookings b
+               SET status = 'cancelled'
+             WHERE b.id = ANY(?) AND b.status <> 'cancelled'
+               AND NOT EXISTS (SELECT 1 FROM tickets t WHERE t.booking_id = b.id
+                                AND t.status NOT IN ('refunded', 'cancelled'))
+            """;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final CheckInService checkInService;
+    private final TripAvailabilityService tripAvailabilityService;
+    private final ExecutorService executor;
+    private final int chunkSize;
+    private final BigDecimal partialRatio;
+
+    public RefundService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            CheckInService checkInService,
+            TripAvailabilityService tripAvailabilityService,
+            @Value("${refunds.parallelism:4}") int parallelism,
+            @Value("${refunds.chunk-size:100}") int chunkSize,
+            @Value("${refunds.partial-ratio:0.5}") BigDecimal partialRatio) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.checkInService = checkInService;
+        this.tripAvailabilityService = tripAvailabilityService;
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "refund-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.chunkSize = chunkSize;
+        this.partialRatio = partialRatio;
+    }
+
+    /**
+     * Cancel a trip and refund all of its open tickets
+     */
+    public RefundRun refundTrip(UUID tripId, String reason) {
+        int updated = jdbcTemplate.update("UPDATE trips SET status = 'cancelled' WHERE id = ?", tripId);
+        if (updated == 0) {
+            throw new IllegalArgumentException("Trip not found: " + tripId);
+        }
+
+        List<TicketRef> tickets = jdbcTemplate.query("""
+                        SELECT id, booking_id FROM tickets
+                         WHERE trip_id = ? AND status IN ('reserved', 'issued', 'checked_in')
+                         ORDER BY booking_id, id
+                        """,
+                (rs, rowNum) -> new TicketRef(rs.getObject("id", UUID.class), rs.getObject("booking_id", UUID.class)),
+                tripId);
+        return run(tripId, tickets, tickets.size(), reason);
+    }
+
+    /**
+     * Refund an explicit set of tickets
+     */
+    public RefundRun refundTickets(Collection<UUID> ticketIds, String reason) {
+        Set<UUID> requested = new HashSet<>(ticketIds);
+        List<TicketRef> tickets = jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            "SELECT id, booking_id FROM tickets WHERE id = ANY(?) ORDER BY booking_id, id");
+                    ps.setArray(1, con.createArrayOf("uuid", requested.toArray()));
+                    return ps;
+                },
+                (rs, rowNum) -> new TicketRef(rs.getObject("id", UUID.class), rs.getObject("booking_id", UUID.class)));
+        return run(null, tickets, requested.size(), reason);
+    }
+
+    private RefundRun run(UUID tripId, List<TicketRef> tickets, int requested, String reason) {
+        long start = System.currentTimeMillis();
+        List<List<TicketRef>> chunks = chunkByBooking(tickets);
+
+        List<CompletableFuture<ChunkResult>> futures = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            final int chunkIndex = i;
+            final List<TicketRef> chunk = chunks.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> processChunkWithRetry(chunkIndex, chunk, reason), executor));
+        }
+
+        RefundRun result = new RefundRun();
+        result.setTripId(tripId);
+        result.setRequested(requested);
+        result.setChunks(chunks.size());
+        List<SeatRelease> releases = new ArrayList<>();
+        for (CompletableFuture<ChunkResult> future : futures) {
+            ChunkResult chunk = future.join();
+            result.add(chunk);
+            releases.addAll(chunk.releases);
+        }
+        try {
+            tripAvailabilityService.returnSeats(releases);
+        } catch (Exception e) {
+            log.error("Failed to return {} released seat counts to trip availability, recount needed: {}",
+                    releases.size(), e.getMessage());
+        }
+        result.setSkipped(requested - result.getRefunded() - result.getCancelledWithoutRefund()
+                - result.getFailedTickets());
+        result.setDurationMs(System.currentTimeMillis() - start);
+
+        log.info("Refund run for {} finished in {} ms: {} refunded, {} cancelled without refund, {} skipped, {} failed chunks",
+                tripId != null ? "trip " + tripId : requested + " tickets", result.getDurationMs(),
+                result.getRefunded(), result.getCancelledWithoutRefund(), result.getSkipped(),
+                result.getFailedChunks().size());
+        return result;
+    }
+
+    /**
+     * Split tickets into chunks without splitting a booking, so payment and booking
+     * settlement for a booking happens in exactly one transaction
+     */
+    private List<List<TicketRef>> chunkByBooking(List<TicketRef> tickets) {
+        List<List<TicketRef>> chunks = new ArrayList<>();
+        List<TicketRef> current = new ArrayList<>();
+        UUID currentBooking = null;
+        for (TicketRef ticket : tickets) {
+            boolean bookingBoundary = ticket.bookingId() == null || !ticket.bookingId().equals(currentBooking);
+            if (current.size() >= chunkSize && bookingBoundary) {
+                chunks.add(current);
+                current = new ArrayList<>();
+            }
+            current.add(ticket);
+            currentBooking = ticket.bookingId();
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    private ChunkResult processChunkWithRetry(int chunkIndex, List<TicketRef> chunk, String reason) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return chunkTransaction.execute(tx -> processChunk(chunk, reason));
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    return ChunkResult.failed(chunkIndex, chunk, e);
+                }
+                log.warn("Refund chunk {} hit a lock conflict, retrying (attempt {})", chunkIndex, attempt);
+            } catch (Exception e) {
+                log.error("Refund chunk {} failed: {}", chunkIndex, e.getMessage());
+                return ChunkResult.failed(chunkIndex, chunk, e);
+            }
+        }
+    }
+
+    private ChunkResult processChunk(List<TicketRef> chunk, String reason) {
+        UUID[] ids = chunk.stream().map(TicketRef::id).toArray(UUID[]::new);
+
+        List<LockedTicket> locked = jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(LOCK_TICKETS_SQL);
+                    ps.setArray(1, con.createArrayOf("uuid", ids));
+                    return ps;
+                },
+                (rs, rowNum) -> new LockedTicket(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("ticket_ref"),
+                        rs.getObject("booking_id", UUID.class),
+                        rs.getBigDecimal("price"),
+                        rs.getString("currency"),
+                        rs.getBoolean("refundable"),
+                        rs.getString("refund_policy")));
+
+        ChunkResult result = new ChunkResult();
+        if (locked.isEmpty()) {
+            return result;
+        }
+
+        List<Object[]> refundRows = new ArrayList<>();
+        UUID[] ticketIds = new UUID[locked.size()];
+        String[] statuses = new String[locked.size()];
+        Set<UUID> bookingIds = new HashSet<>();
+        for (int i = 0; i < locked.size(); i++) {
+            LockedTicket ticket = locked.get(i);
+            BigDecimal amount = refundAmount(ticket);
+            ticketIds[i] = ticket.id();
+            if (amount.signum() > 0) {
+                statuses[i] = "refunded";
+                refundRows.add(new Object[]{ticket.id(), amount, ticket.currency(), reason});
+                result.refunded++;
+                result.amounts.merge(Objects.requireNonNullElse(ticket.currency(), "EUR"), amount, BigDecimal::add);
+            } else {
+                statuses[i] = "cancelled";
+                result.cancelledWithoutRefund++;
+            }
+            if (ticket.bookingId() != null) {
+                bookingIds.add(ticket.bookingId());
+            }
+            result.ticketRefs.add(ticket.ticketRef());
+        }
+
+        if (!refundRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO ticket_refunds (ticket_id, refunded_amount, currency, reason) VALUES (?, ?, ?, ?)",
+                    refundRows);
+        }
+
+        // Release first: the reservations are matched on the seat the update below clears
+        result.releases.addAll(tripAvailabilityService.releaseReservations(ticketIds));
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(UPDATE_TICKETS_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", ticketIds));
+            ps.setArray(2, con.createArrayOf("text", statuses));
+            return ps;
+        });
+
+        if (!bookingIds.isEmpty()) {
+            UUID[] bookings = bookingIds.toArray(UUID[]::new);
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(REFUND_PAYMENTS_SQL);
+                ps.setArray(1, con.createArrayOf("uuid", bookings));
+                return ps;
+            });
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(CANCEL_BOOKINGS_SQL);
+                ps.setArray(1, con.createArrayOf("uuid", bookings));
+                return ps;
+            });
+        }
+
+        // The gate must not accept these tickets from a stale cache entry. Only after commit:
+        // a scan in between would reload the still-valid row into the cache
+        List<String> ticketRefs = List.copyOf(result.ticketRefs);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ticketRefs.forEach(checkInService::invalidate);
+            }
+        });
+        return result;
+    }
+
+    private BigDecimal refundAmount(LockedTicket ticket) {
+        FareRefundPolicy policy = ticket.refundPolicy() != null
+                ? FareRefundPolicy.valueOf(ticket.refundPolicy())
+                : FareRefundPolicy.non_refundable;
+        if (!ticket.refundable() || policy == FareRefundPolicy.non_refundable) {
+            return BigDecimal.ZERO;
+        }
+        return switch (policy) {
+            case fully_refundable -> ticket.price();
+            case partially_refundable -> ticket.price().multiply(partialRatio).setScale(2, RoundingMode.HALF_EVEN);
+            case non_refundable -> BigDecimal.ZERO;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private record TicketRef(UUID id, UUID bookingId) {
+    }
+
+    private record LockedTicket(UUID id, String ticketRef, UUID bookingId, BigDecimal price, String currency,
+                                boolean refundable, String refundPolicy) {
+    }
+
+    /**
+     * Outcome of one chunk transaction
+     */
+    private static class ChunkResult {
+        int refunded;
+        int cancelledWithoutRefund;
+        final Map<String, BigDecimal> amounts = new HashMap<>();
+        final List<String> ticketRefs = new ArrayList<>();
+        final List<SeatRelease> releases = new ArrayList<>();
+        FailedChunk failure;
+
+        static ChunkResult failed(int chunkIndex, List<TicketRef> chunk, Exception e) {
+            ChunkResult result = new ChunkResult();
+            result.failure = new FailedChunk(chunkIndex, chunk.stream().map(TicketRef::id).toList(), e.getMessage());
+            return result;
+        }
+    }
+
+    public record FailedChunk(int chunk, List<UUID> ticketIds, String error) {
+    }
+
+    /**
+     * DTO summarising a refund run
+     */
+    @Data
+    public static class RefundRun {
+        private UUID tripId;
+        private int requested;
+        private int chunks;
+        private int refunded;
+        private int cancelledWithoutRefund;
+        private int skipped;
+        private Map<String, BigDecimal> refundedAmounts = new LinkedHashMap<>();
+        private List<FailedChunk> failedChunks = new ArrayList<>();
+        private long durationMs;
+
+        int getFailedTickets() {
+            return failedChunks.stream().mapToInt(chunk -> chunk.ticketIds().size()).sum();
+        }
+
+        void add(ChunkResult chunk) {
+            if (chunk.failure != null) {
+                failedChunks.add(chunk.failure);
+                return;
+            }
+            refunded += chunk.refunded;
+            cancelledWithoutRefund += chunk.cancelledWithoutRefund;
+            chunk.amounts.forEach((currency, amount) -> refundedAmounts.merge(currency, amount, BigDecimal::add));
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import io.bytebakehouse.train.company.orchestrator.service.JobStatusService.JobStatus;
+import io.bytebakehouse.train.company.orchestrator.service.TicketingReportJobService.ReportSubmission;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Submits many report periods as one batch.
+ *
+ * Reports are created concurrently on a small fixed pool, so a year of monthly reports
+ * does not wait on twelve sequential Job creations, while the Kubernetes API sees at most
+ * "parallelism" creates at a time. Every member is labelled with the batch id; member
+ * status events from the bus are folded into one aggregate status (jobName = batch id,
+ * executor "batch") that is published on the same topic as the individual jobs.
+ *
+ * Batch state lives on the replica that accepted the batch. Member events reach it from
+ * the leader through the event bus, and its aggregate events reach every replica.
+ */
+@Service
+@Slf4j
+public class ReportBatchService {
+
+    public static final String EXECUTOR = "batch";
+
+    private final TicketingReportJobService ticketingReportJobService;
+    private final JobStatusEventBus eventBus;
+    private final String namespace;
+    private final int maxPeriods;
+    private final long progressBroadcastIntervalMs;
+    private final long retentionMs;
+    private final ExecutorService submitPool;
+
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    // Member job name -> batch, to route status events
+    private final Map<String, Batch> batchesByJob = new ConcurrentHashMap<>();
+
+    public ReportBatchService(
+            TicketingReportJobService ticketingReportJobService,
+            JobStatusEventBus eventBus,
+            @Value("${kubernetes.namespace:train-orchestrator}") String namespace,
+            @Value("${report-batch.parallelism:4}") int parallelism,
+            @Value("${report-batch.max-periods:60}") int maxPeriods,
+            @Value("${report-batch.progress-broadcast-interval-ms:1000}") long progressBroadcastIntervalMs,
+            @Value("${report-batch.retention-ms:3600000}") long retentionMs) {
+        this.ticketingReportJobService = ticketingReportJobService;
+        this.eventBus = eventBus;
+        this.namespace = namespace;
+        this.maxPeriods = maxPeriods;
+        this.progressBroadcastIntervalMs = progressBroadcastIntervalMs;
+        this.retentionMs = retentionMs;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.submitPool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "report-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        eventBus.subscribe(this::onStatusEvent);
+    }
+
+    /**
+     * Plan the batch, queue every report for submission and return without waiting for
+     * the Jobs to be created
+     */
+    public BatchStatus submit(ReportBatchRequest request) {
+        String format = request.format() != null ? request.format() : "xlsx";
+        TicketingReportJobService.validateFormat(format);
+        return submitPeriods(resolvePeriods(request), format);
+    }
+
+    /**
+     * Submit already validated periods as one batch, e.g. the shards of a large report
+     */
+    public BatchStatus submitPeriods(List<Period> periods, String format) {
+        Batch batch = new Batch("batch-" + TicketingReportJobService.newReportId(), format);
+        for (Period period : periods) {
+            String reportId = TicketingReportJobService.newReportId();
+            Member member = new Member(TicketingReportJobService.reportJobName(reportId), reportId, period);
+            batch.members.put(member.jobName, member);
+            batchesByJob.put(member.jobName, batch);
+        }
+        batches.put(batch.id, batch);
+        log.info("Accepted report batch {} with {} periods ({})", batch.id, periods.size(), format);
+
+        publish(batch, true);
+        for (Member member : batch.members.values()) {
+            submitPool.execute(() -> submitMember(batch, member));
+        }
+        return snapshot(batch);
+    }
+
+    public Optional<BatchStatus> getBatch(String batchId) {
+        Batch batch = batches.get(batchId);
+        return batch != null ? Optional.of(snapshot(batch)) : Optional.empty();
+    }
+
+    /**
+     * Explicit periods, or every month of the given year up to today (the current month
+     * ends today)
+     */
+    private List<Period> resolvePeriods(ReportBatchRequest request) {
+        boolean hasPeriods = request.periods() != null && !request.periods().isEmpty();
+        if (hasPeriods == (request.year() != null)) {
+            throw new IllegalArgumentException("Specify either periods or year");
+        }
+
+        List<Period> periods = new ArrayList<>();
+        if (hasPeriods) {
+            for (Period period : request.periods()) {
+                if (period == null || period.startDate() == null || period.endDate() == null) {
+                    throw new IllegalArgumentException("Every period needs a startDate and an endDate");
+                }
+                if (period.endDate().isBefore(period.startDate())) {
+                    throw new IllegalArgumentException("Period ends before it starts: "
+                            + period.startDate() + " to " + period.endDate());
+                }
+                periods.add(period);
+            }
+        } else {
+            LocalDate today = LocalDate.now();
+            if (request.year() < 1 || request.year() > today.getYear()) {
+                throw new IllegalArgumentException("Year " + request.year() + " has no elapsed months");
+            }
+            for (int month = 1; month <= 12; month++) {
+                LocalDate start = LocalDate.of(request.year(), month, 1);
+                if (start.isAfter(today)) {
+                    break;
+                }
+                LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
+                periods.add(new Period(start, end.isAfter(today) ? today : end));
+            }
+        }
+
+        if (periods.size() > maxPeriods) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxPeriods + " periods");
+        }
+        return periods;
+    }
+
+    private void submitMember(Batch batch, Member member) {
+        try {
+            ReportSubmission submission = ticketingReportJobService.submitReport(member.reportId,
+                    member.period.startDate(), member.period.endDate(), batch.format, batch.id);
+            synchronized (batch) {
+                member.executor = submission.executor();
+                member.filename = submission.filename();
+                // Status events for the new job may already have arrived
+                if ("Submitting".equals(member.status)) {
+                    member.status = "Pending";
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to submit report {} of batch {}: {}", member.jobName, batch.id, e.getMessage());
+            synchronized (batch) {
+                member.status = "Failed";
+                member.error = e.getMessage();
+            }
+        }
+        publish(batch, true);
+    }
+
+    private void onStatusEvent(JobStatus status) {
+        if (EXECUTOR.equals(status.getExecutor())) {
+            return;
+        }
+        Batch batch = batchesByJob.get(status.getJobName());
+        if (batch == null || status.getStatus() == null) {
+            return;
+        }
+
+        boolean statusChanged;
+        synchronized (batch) {
+            Member member = batch.members.get(status.getJobName());
+            if (member == null || isFinished(member.status)) {
+                return;
+            }
+            statusChanged = !status.getStatus().equals(member.status);
+            member.status = status.getStatus();
+            if ("Succeeded".equals(member.status)) {
+                member.progressPercent = 100.0;
+            } else if (status.getProgressPercent() != null) {
+                member.progressPercent = status.getProgressPercent();
+            }
+            batch.lastActivityAtMillis = System.currentTimeMillis();
+        }
+        // Progress-only changes are rate limited; state changes always go out
+        publish(batch, statusChanged);
+    }
+
+    private void publish(Batch batch, boolean force) {
+        long now = System.currentTimeMillis();
+        synchronized (batch) {
+            if (!force && now - batch.lastBroadcastAtMillis < progressBroadcastIntervalMs) {
+                return;
+            }
+            batch.lastBroadcastAtMillis = now;
+        }
+        eventBus.publish(aggregate(batch));
+    }
+
+    /**
+     * Fold the members into one status: counts per state and the mean progress, with
+     * failed members counted as done
+     */
+    private JobStatus aggregate(Batch batch) {
+        BatchStatus snapshot = snapshot(batch);
+        JobStatus status = new JobStatus();
+        status.setJobName(batch.id);
+        status.setNamespace(namespace);
+        status.setExecutor(EXECUTOR);
+        status.setBatchId(batch.id);
+        status.setStatus(snapshot.status());
+        status.setActive(snapshot.running());
+        status.setSucceeded(snapshot.succeeded());
+        status.setFailed(snapshot.failed());
+        status.setCreationTimestamp(snapshot.createdAt());
+        status.setProgressPercent(snapshot.progressPercent());
+        status.setMonitoring(!isFinished(snapshot.status()));
+        if (isFinished(snapshot.status())) {
+            status.setCompletionTime(OffsetDateTime.now(ZoneOffset.UTC));
+        }
+        snapshot.reports().stream().map(BatchReport::startDate).min(Comparator.naturalOrder())
+                .ifPresent(start -> status.setStartDate(start.toString()));
+        snapshot.reports().stream().map(BatchReport::endDate).max(Comparator.naturalOrder())
+                .ifPresent(end -> status.setEndDate(end.toString()));
+        return status;
+    }
+
+    private BatchStatus snapshot(Batch batch) {
+        synchronized (batch) {
+            List<BatchReport> reports = new ArrayList<>(batch.members.size());
+            int succeeded = 0;
+            int failed = 0;
+            int running = 0;
+            double progress = 0;
+            for (Member member : batch.members.values()) {
+                switch (member.status) {
+                    case "Succeeded" -> succeeded++;
+                    case "Failed" -> failed++;
+                    case "Running", "Active" -> running++;
+                    default -> {
+                    }
+                }
+                progress += isFinished(member.status) ? 100.0
+                        : member.progressPercent != null ? member.progressPercent : 0.0;
+                reports.add(new BatchReport(member.jobName, member.period.startDate(), member.period.endDate(),
+                        member.executor, member.filename, member.status,
+                        member.progressPercent, member.error));
+            }
+
+            int total = reports.size();
+            String status;
+            if (succeeded + failed < total) {
+                status = running > 0 || succeeded + failed > 0 ? "Running" : "Pending";
+            } else {
+                status = failed > 0 ? "Failed" : "Succeeded";
+            }
+            return new BatchStatus(batch.id, batch.format, status, total, succeeded, failed, running,
+                    total > 0 ? progress / total : 100.0, batch.createdAt, reports);
+        }
+    }
+
+    private static boolean isFinished(String status) {
+        return "Succeeded".equals(status) || "Failed".equals(status);
+    }
+
+    /**
+     * Forget batches nothing has been heard about for the retention period, finished or not
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void removeExpiredBatches() {
+        long cutoff = System.currentTimeMillis() - retentionMs;
+        batches.values().removeIf(batch -> {
+            if (batch.lastActivityAtMillis >= cutoff) {
+                return false;
+            }
+            batch.members.keySet().forEach(batchesByJob::remove);
+            log.info("Forgetting report batch {}", batch.id);
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        submitPool.shutdownNow();
+    }
+
+    private static final class Batch {
+        final String id;
+        final String format;
+        final OffsetDateTime createdAt = OffsetDateTime.now(ZoneOffset.UTC);
+        // Insertion order = period order in the request
+        final Map<String, Member> members = new LinkedHashMap<>();
+        volatile long lastActivityAtMillis = System.currentTimeMillis();
+        long lastBroadcastAtMillis;
+
+        Batch(String id, String format) {
+            this.id = id;
+            this.format = format;
+        }
+    }
+
+    // Mutable fields are guarded by the owning batch
+    private static final class Member {
+        final String jobName;
+        final String reportId;
+        final Period period;
+        String status = "Submitting";
+        String executor;
+        String filename;
+        Double progressPercent;
+        String error;
+
+        Member(String jobName, String reportId, Period period) {
+            this.jobName = jobName;
+            this.reportId = reportId;
+            this.period = period;
+        }
+    }
+
+    /**
+     * Either explicit periods or a year (one report per month); format defaults to xlsx
+     */
+    public record ReportBatchRequest(
+            List<Period> periods,
+            Integer year,
+            String format) {
+    }
+
+    public record Period(
+            LocalDate startDate,
+            LocalDate endDate) {
+    }
+
+    public record BatchStatus(
+            String batchId,
+            String format,
+            String status,
+            int total,
+            int succeeded,
+            int failed,
+            int running,
+            double progressPercent,
+            OffsetDateTime createdAt,
+            List<BatchReport> reports) {
+    }
+
+    public record BatchReport(
+            String jobName,
+            LocalDate startDate,
+            LocalDate endDate,
+            String executor,
+            String filename,
+            String status,
+            Double progressPercent,
+            String error) {
+    }
+}
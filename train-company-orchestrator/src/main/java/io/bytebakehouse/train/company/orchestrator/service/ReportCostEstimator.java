@@ -0,0 +1,337 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.bytebakehouse.train.company.orchestrator.service.JobStatusService.JobStatus;
+import io.bytebakehouse.train.company.orchestrator.service.ReportBatchService.Period;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estimates a report's size before it is submitted and plans how to run it.
+ *
+ * The row count starts from the planner's EXPLAIN estimate and is corrected by how far
+ * off that estimate was for recent reports of the same format. Peak memory and duration
+ * come from the same history (bytes per row above a fixed baseline, rows per second),
+ * with configured defaults until enough reports have finished. OOM-killed reports count
+ * as needing more than the limit they had, so sizing grows after a kill.
+ *
+ * The plan is one of:
+ * - INLINE: small CSV reports are copied to the reports volume by the orchestrator itself
+ * - SINGLE_JOB: one Job (or warm pool worker) sized to the estimate
+ * - SHARDED: ranges too large for one Job are split into sub-periods run as a batch
+ */
+@Service
+@Slf4j
+public class ReportCostEstimator {
+
+    private static final long MIB = 1024L * 1024L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ReportTieringService reportTieringService;
+    private final ReportPodCache reportPodCache;
+    private final LeaderElectionService leaderElectionService;
+    private final int historySize;
+    private final long baseMemoryBytes;
+    private final long xlsxBytesPerRow;
+    private final long csvBytesPerRow;
+    private final double defaultRowsPerSecond;
+    private final double memoryHeadroom;
+    private final long minMemoryBytes;
+    private final long maxMemoryBytes;
+    private final int minCpuMillis;
+    private final int maxCpuMillis;
+    private final long inlineMaxRows;
+    private final long shardTargetRows;
+    private final int maxShards;
+
+    public ReportCostEstimator(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            ReportTieringService reportTieringService,
+            ReportPodCache reportPodCache,
+            LeaderElectionService leaderElectionService,
+            JobStatusEventBus eventBus,
+            @Value("${report-sizing.history-size:50}") int historySize,
+            @Value("${report-sizing.base-memory-bytes:134217728}") long baseMemoryBytes,
+            @Value("${report-sizing.xlsx-bytes-per-row:2048}") long xlsxBytesPerRow,
+            @Value("${report-sizing.csv-bytes-per-row:0}") long csvBytesPerRow,
+            @Value("${report-sizing.default-rows-per-second:5000}") double defaultRowsPerSecond,
+            @Value("${report-sizing.memory-headroom:1.25}") double memoryHeadroom,
+            @Value("${report-sizing.min-memory-bytes:134217728}") long minMemoryBytes,
+            @Value("${report-sizing.max-memory-bytes:2147483648}") long maxMemoryBytes,
+            @Value("${report-sizing.min-cpu-millis:100}") int minCpuMillis,
+            @Value("${report-sizing.max-cpu-millis:1000}") int maxCpuMillis,
+            @Value("${report-sizing.inline-max-rows:50000}") long inlineMaxRows,
+            @Value("${report-sizing.shard-target-rows:1000000}") long shardTargetRows,
+            @Value("${report-sizing.max-shards:12}") int maxShards) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.reportTieringService = reportTieringService;
+        this.reportPodCache = reportPodCache;
+        this.leaderElectionService = leaderElectionService;
+        this.historySize = historySize;
+        this.baseMemoryBytes = baseMemoryBytes;
+        this.xlsxBytesPerRow = xlsxBytesPerRow;
+        this.csvBytesPerRow = csvBytesPerRow;
+        this.defaultRowsPerSecond = defaultRowsPerSecond;
+        this.memoryHeadroom = memoryHeadroom;
+        this.minMemoryBytes = minMemoryBytes;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.minCpuMillis = minCpuMillis;
+        this.maxCpuMillis = maxCpuMillis;
+        this.inlineMaxRows = inlineMaxRows;
+        this.shardTargetRows = shardTargetRows;
+        this.maxShards = maxShards;
+
+        eventBus.subscribe(this::recordCompletion);
+    }
+
+    public enum ExecutionMode {
+        INLINE,
+        SINGLE_JOB,
+        SHARDED
+    }
+
+    /**
+     * Plan a report for the range
+     *
+     * @param allowSharding false for reports that are already one part of a batch
+     */
+    public ReportPlan plan(LocalDate startDate, LocalDate endDate, String format, boolean allowSharding) {
+        Long explainRows = explainRows(startDate, endDate);
+        if (explainRows == null) {
+            return fallbackPlan();
+        }
+
+        Calibration calibration = calibrate(format);
+        long rows = Math.round(explainRows * calibration.rowsCorrection());
+        long peakMemory = baseMemoryBytes + rows * calibration.bytesPerRow();
+        long estimatedSeconds = (long) Math.ceil(rows / calibration.rowsPerSecond());
+
+        ExecutionMode mode;
+        List<Period> shards = List.of();
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if ("csv".equals(format) && rows <= inlineMaxRows && reportTieringService.isAvailable()) {
+            mode = ExecutionMode.INLINE;
+        } else if (allowSharding && days > 1
+                && (rows > shardTargetRows || peakMemory * memoryHeadroom > maxMemoryBytes)) {
+            mode = ExecutionMode.SHARDED;
+            // Enough shards for each to fit the row target and memory ceiling, at most one per day
+            long byRows = ceilDiv(rows, shardTargetRows);
+            long byMemory = ceilDiv(Math.round(peakMemory * memoryHeadroom), maxMemoryBytes);
+            int count = (int) Math.min(Math.min(Math.max(byRows, byMemory), maxShards), days);
+            shards = split(startDate, endDate, count);
+            rows = ceilDiv(rows, count);
+            peakMemory = baseMemoryBytes + rows * calibration.bytesPerRow();
+            estimatedSeconds = ceilDiv(estimatedSeconds, count);
+        } else {
+            mode = ExecutionMode.SINGLE_JOB;
+        }
+
+        // Sizing is per Job: for a sharded plan it applies to each shard
+        long memoryRequest = clamp(Math.round(peakMemory * memoryHeadroom), minMemoryBytes, maxMemoryBytes);
+        long memoryLimit = clamp(Math.round(memoryRequest * 1.5), minMemoryBytes, maxMemoryBytes);
+        // Reporters are single-threaded; more rows mostly means longer, so CPU grows slowly
+        int cpuRequest = (int) clamp(minCpuMillis + rows / 5000, minCpuMillis, maxCpuMillis);
+        int cpuLimit = (int) clamp(Math.max(500, cpuRequest * 2L), cpuRequest, maxCpuMillis);
+
+        return new ReportPlan(mode, explainRows, Math.round(explainRows * calibration.rowsCorrection()),
+                peakMemory, memoryRequest, memoryLimit, cpuRequest, cpuLimit, estimatedSeconds,
+                calibration.samples(), shards);
+    }
+
+    /**
+     * The fixed sizing used before estimates existed, for when the database cannot be asked
+     */
+    private ReportPlan fallbackPlan() {
+        return new ReportPlan(ExecutionMode.SINGLE_JOB, null, null, null,
+                256 * MIB, 512 * MIB, 100, 500, null, 0, List.of());
+    }
+
+    private Long explainRows(LocalDate startDate, LocalDate endDate) {
+        try {
+            String plan = jdbcTemplate.queryForObject(
+                    TicketReportQuery.explainJsonSql(startDate, endDate), String.class);
+            JsonNode rows = objectMapper.readTree(plan).path(0).path("Plan").path("Plan Rows");
+            return rows.isNumber() ? rows.asLong() : null;
+        } catch (Exception e) {
+            log.warn("Could not estimate report size for {} to {}: {}", startDate, endDate, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Correction factors from recent finished reports of this format
+     */
+    private Calibration calibrate(String format) {
+        long defaultBytesPerRow = "csv".equals(format) ? csvBytesPerRow : xlsxBytesPerRow;
+        List<double[]> samples;
+        try {
+            samples = jdbcTemplate.query("""
+                    SELECT estimated_rows, actual_rows, duration_ms, peak_memory_bytes,
+                           memory_limit_bytes, oom_killed
+                      FROM report_job_history
+                     WHERE format = ? AND mode <> 'INLINE'
+                       AND (status = 'succeeded' OR oom_killed)
+                     ORDER BY finished_at DESC
+                     LIMIT ?
+                    """, (rs, rowNum) -> {
+                boolean oomKilled = rs.getBoolean("oom_killed");
+                long estimated = rs.getLong("estimated_rows");
+                long actual = rs.getLong("actual_rows");
+                if (rs.wasNull()) {
+                    actual = estimated;
+                }
+                long duration = rs.getLong("duration_ms");
+                // An OOM-killed report needed more than its limit; half again is a floor, not a guess
+                long peak = oomKilled ? Math.round(rs.getLong("memory_limit_bytes") * 1.5) : rs.getLong("peak_memory_bytes");
+                return new double[]{estimated, actual, oomKilled ? 0 : duration, peak};
+            }, format, historySize);
+        } catch (Exception e) {
+            log.warn("Could not read report job history: {}", e.getMessage());
+            samples = List.of();
+        }
+
+        List<Double> corrections = new ArrayList<>();
+        List<Double> rates = new ArrayList<>();
+        long bytesPerRow = defaultBytesPerRow;
+        boolean measuredMemory = false;
+        for (double[] sample : samples) {
+            double estimated = sample[0];
+            double actual = sample[1];
+            double durationMs = sample[2];
+            double peak = sample[3];
+            if (estimated > 0 && actual > 0) {
+                corrections.add(actual / estimated);
+            }
+            if (durationMs > 0 && actual > 0) {
+                rates.add(actual * 1000 / durationMs);
+            }
+            // Memory per row only means something once rows dominate the baseline
+            if (peak > baseMemoryBytes && actual >= 1000) {
+                long sampleBytesPerRow = (long) Math.ceil((peak - baseMemoryBytes) / actual);
+                bytesPerRow = measuredMemory ? Math.max(bytesPerRow, sampleBytesPerRow) : sampleBytesPerRow;
+                measuredMemory = true;
+            }
+        }
+
+        double correction = corrections.isEmpty() ? 1.0 : Math.max(0.1, Math.min(10.0, median(corrections)));
+        double rate = rates.isEmpty() ? defaultRowsPerSecond : median(rates);
+        return new Calibration(correction, bytesPerRow, rate, samples.size());
+    }
+
+    /**
+     * Remember the plan a report was submitted with, to compare against what it used
+     */
+    public void recordSubmission(String jobName, LocalDate startDate, LocalDate endDate, String format, ReportPlan plan) {
+        if (plan.estimatedRows() == null) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("""
+                    INSERT INTO report_job_history
+                        (job_name, format, mode, start_date, end_date, estimated_rows, memory_limit_bytes)
+                    VALUES (?, ?, ?, ?, ?, ?, ?)
+                    ON CONFLICT (job_name) DO NOTHING
+                    """, jobName, format, plan.mode().name(), Date.valueOf(startDate), Date.valueOf(endDate),
+                    plan.explainRows(), plan.mode() == ExecutionMode.INLINE ? null : plan.memoryLimitBytes());
+        } catch (Exception e) {
+            log.warn("Could not record report job history for {}: {}", jobName, e.getMessage());
+        }
+    }
+
+    /**
+     * Fill in what a report actually took once its final status is published (leader only;
+     * the conditional update makes repeated final events harmless)
+     */
+    private void recordCompletion(JobStatus status) {
+        boolean succeeded = "Succeeded".equals(status.getStatus());
+        if ((!succeeded && !"Failed".equals(status.getStatus()))
+                || ReportBatchService.EXECUTOR.equals(status.getExecutor())
+                || !leaderElectionService.isLeader()) {
+            return;
+        }
+
+        Long rows = status.getRowsWritten() != null && status.getRowsWritten() > 0
+                ? status.getRowsWritten() : status.getRowsFetched();
+        Long durationMs = status.getStartTime() != null && status.getCompletionTime() != null
+                ? Duration.between(status.getStartTime(), status.getCompletionTime()).toMillis() : null;
+        boolean oomKilled = reportPodCache.findByLabel("job-name", status.getJobName()).stream()
+                .anyMatch(ReportPodCache.CachedPod::oomKilled);
+        try {
+            jdbcTemplate.update("""
+                    UPDATE report_job_history
+                       SET status = ?, actual_rows = ?, duration_ms = ?, peak_memory_bytes = ?,
+                           oom_killed = ?, finished_at = now()
+                     WHERE job_name = ? AND status = 'submitted'
+                    """, succeeded ? "succeeded" : "failed", succeeded ? rows : null, durationMs,
+                    status.getPeakMemoryBytes(), oomKilled, status.getJobName());
+        } catch (Exception e) {
+            log.warn("Could not record report completion for {}: {}", status.getJobName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Split [startDate, endDate] into count consecutive periods of (nearly) equal days
+     */
+    private static List<Period> split(LocalDate startDate, LocalDate endDate, int count) {
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        List<Period> periods = new ArrayList<>(count);
+        LocalDate start = startDate;
+        for (int i = 0; i < count; i++) {
+            long length = days / count + (i < days % count ? 1 : 0);
+            LocalDate end = start.plusDays(length - 1);
+            periods.add(new Period(start, end));
+            start = end.plusDays(1);
+        }
+        return periods;
+    }
+
+    private static double median(List<Double> values) {
+        List<Double> sorted = values.stream().sorted().toList();
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return Math.max(1, (value + divisor - 1) / divisor);
+    }
+
+    private record Calibration(double rowsCorrection, long bytesPerRow, double rowsPerSecond, int samples) {
+    }
+
+    /**
+     * How a report will run. Row estimates cover the whole range (explainRows as planned,
+     * estimatedRows corrected by history); peak memory, sizing and estimatedSeconds are
+     * per Job, i.e. per shard when sharded. Estimates are null when the database could
+     * not be asked.
+     */
+    public record ReportPlan(
+            ExecutionMode mode,
+            Long explainRows,
+            Long estimatedRows,
+            Long estimatedPeakMemoryBytes,
+            long memoryRequestBytes,
+            long memoryLimitBytes,
+            int cpuRequestMillis,
+            int cpuLimitMillis,
+            Long estimatedSeconds,
+            int historySamples,
+            List<Period> shards) {
+    }
+}
@@ -0,0 +1,452 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local cache of the report pods (one-off Jobs and warm pool workers), kept current by
+ * a watch and indexed by label, so resolving a pod never costs an API call.
+ *
+ * One thread lists the pods once, then watches from the list's resourceVersion and
+ * applies ADDED/MODIFIED/DELETED events; it relists only when the server says the
+ * version is gone (410). Responses are decoded with a streaming parser that reads the
+ * few fields the cache keeps (including whether a container was OOM-killed) and skips
+ * everything else, so fields newer than the client models cannot break decoding.
+ */
+@Service
+@Slf4j
+public class ReportPodCache {
+
+    private static final String LABEL_SELECTOR = "app in (ticketing-report,ticketing-report-worker)";
+    private static final long INITIAL_BACKOFF_MS = 1000;
+
+    private final CoreV1Api coreV1Api;
+    private final JsonFactory jsonFactory;
+    private final String namespace;
+    private final int watchTimeoutSeconds;
+    private final long maxBackoffMs;
+
+    private final Map<String, CachedPod> pods = new ConcurrentHashMap<>();
+    // "key=value" -> names of the pods carrying that label
+    private final Map<String, Set<String>> podsByLabel = new ConcurrentHashMap<>();
+    private final Counter relists;
+    private volatile String resourceVersion;
+    private volatile boolean synced;
+    private volatile boolean running;
+    private volatile Call activeCall;
+    private Thread watchThread;
+
+    public ReportPodCache(
+            KubernetesApiGovernor kubernetesApiGovernor,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${kubernetes.namespace:train-orchestrator}") String namespace,
+            @Value("${report-pods.watch-timeout-seconds:300}") int watchTimeoutSeconds,
+            @Value("${report-pods.max-backoff-ms:30000}") long maxBackoffMs) throws IOException {
+        this.namespace = namespace;
+        this.watchTimeoutSeconds = watchTimeoutSeconds;
+        this.maxBackoffMs = maxBackoffMs;
+        this.jsonFactory = objectMapper.getFactory();
+
+        // A watch stays open for watchTimeoutSeconds, with bookmarks in between
+        ApiClient client = kubernetesApiGovernor.newApiClient();
+        client.setReadTimeout((watchTimeoutSeconds + 30) * 1000);
+        this.coreV1Api = new CoreV1Api(client);
+
+        Gauge.builder("report.pods.cached", pods, Map::size)
+                .description("Report pods held in the watch-backed cache")
+                .register(meterRegistry);
+        this.relists = Counter.builder("report.pods.relists")
+                .description("Full pod lists done by the report pod cache (startup and expired watches)")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        watchThread = new Thread(this::watchLoop, "report-pod-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /**
+     * Whether the cache has completed its initial list; until then lookups find nothing
+     */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * Cached pods carrying the label key=value
+     */
+    public List<CachedPod> findByLabel(String key, String value) {
+        Set<String> names = podsByLabel.get(key + "=" + value);
+        if (names == null) {
+            return List.of();
+        }
+        return names.stream()
+                .map(pods::get)
+                .filter(pod -> pod != null)
+                .toList();
+    }
+
+    private void watchLoop() {
+        long backoff = INITIAL_BACKOFF_MS;
+        while (running) {
+            try {
+                if (resourceVersion == null) {
+                    relist();
+                }
+                watch();
+                backoff = INITIAL_BACKOFF_MS;
+            } catch (ResourceVersionGoneException e) {
+                log.info("Report pod watch expired at resourceVersion {}, relisting", resourceVersion);
+                resourceVersion = null;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Report pod watch failed, retrying in {} ms: {}", backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(maxBackoffMs, backoff * 2);
+            }
+        }
+    }
+
+    /**
+     * Replace the cache contents with a full list and remember its resourceVersion
+     */
+    private void relist() throws Exception {
+        Call call = coreV1Api.listNamespacedPod(namespace)
+                .labelSelector(LABEL_SELECTOR)
+                .buildCall(null);
+        Set<String> listed = new HashSet<>();
+        String listVersion = null;
+
+        try (JsonParser parser = open(call)) {
+            expect(parser, JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("metadata".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String metadataField = parser.currentName();
+                        parser.nextToken();
+                        if ("resourceVersion".equals(metadataField)) {
+                            listVersion = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else if ("items".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        CachedPod pod = readObject(parser).pod();
+                        if (pod != null) {
+                            put(pod);
+                            listed.add(pod.name());
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        for (String name : Set.copyOf(pods.keySet())) {
+            if (!listed.contains(name)) {
+                remove(name);
+            }
+        }
+        resourceVersion = listVersion;
+        synced = true;
+        relists.increment();
+        log.info("Report pod cache listed {} pods at resourceVersion {}", listed.size(), listVersion);
+    }
+
+    /**
+     * Apply watch events until the server ends the watch
+     */
+    private void watch() throws Exception {
+        Call call = coreV1Api.listNamespacedPod(namespace)
+                .labelSelector(LABEL_SELECTOR)
+                .watch(true)
+                .allowWatchBookmarks(true)
+                .resourceVersion(resourceVersion)
+                .timeoutSeconds(watchTimeoutSeconds)
+                .buildCall(null);
+
+        try (JsonParser parser = open(call)) {
+            // The body is a stream of {"type": ..., "object": ...} documents
+            while (running && parser.nextToken() == JsonToken.START_OBJECT) {
+                String type = null;
+                DecodedObject object = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("type".equals(field)) {
+                        type = parser.getValueAsString();
+                    } else if ("object".equals(field) && value == JsonToken.START_OBJECT) {
+                        object = readObject(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                apply(type, object);
+            }
+        }
+    }
+
+    private void apply(String type, DecodedObject object) throws IOException {
+        if (type == null || object == null) {
+            return;
+        }
+        if ("ERROR".equals(type)) {
+            if (object.code() != null && object.code() == 410) {
+                throw new ResourceVersionGoneException();
+            }
+            throw new IOException("Watch error " + object.code() + ": " + object.message());
+        }
+
+        CachedPod pod = object.pod();
+        if (pod == null) {
+            return;
+        }
+        switch (type) {
+            case "ADDED", "MODIFIED" -> put(pod);
+            case "DELETED" -> remove(pod.name());
+            default -> {
+                // BOOKMARK only advances the resourceVersion
+            }
+        }
+        if (pod.resourceVersion() != null) {
+            resourceVersion = pod.resourceVersion();
+        }
+    }
+
+    private synchronized void put(CachedPod pod) {
+        CachedPod previous = pods.put(pod.name(), pod);
+        if (previous != null) {
+            unindex(previous);
+        }
+        pod.labels().forEach((key, value) ->
+                podsByLabel.computeIfAbsent(key + "=" + value, label -> ConcurrentHashMap.newKeySet()).add(pod.name()));
+    }
+
+    private synchronized void remove(String name) {
+        CachedPod previous = pods.remove(name);
+        if (previous != null) {
+            unindex(previous);
+        }
+    }
+
+    private void unindex(CachedPod pod) {
+        pod.labels().forEach((key, value) -> podsByLabel.computeIfPresent(key + "=" + value, (label, names) -> {
+            names.remove(pod.name());
+            return names.isEmpty() ? null : names;
+        }));
+    }
+
+    private JsonParser open(Call call) throws IOException {
+        activeCall = call;
+        Response response = call.execute();
+        ResponseBody body = response.body();
+        if (!response.isSuccessful() || body == null) {
+            int code = response.code();
+            response.close();
+            if (code == 410) {
+                throw new ResourceVersionGoneException();
+            }
+            throw new IOException("Pod list/watch returned HTTP " + code);
+        }
+        InputStream in = body.byteStream();
+        // Closing the parser closes the response body
+        return jsonFactory.createParser(in);
+    }
+
+    private static void expect(JsonParser parser, JsonToken token) throws IOException {
+        if (parser.nextToken() != token) {
+            throw new IOException("Unexpected JSON: " + parser.currentToken());
+        }
+    }
+
+    /**
+     * Decode a Pod, or the Status object of a watch ERROR event. The parser is on the
+     * object's START_OBJECT and is left on its END_OBJECT.
+     */
+    private static DecodedObject readObject(JsonParser parser) throws IOException {
+        String name = null;
+        String version = null;
+        OffsetDateTime created = null;
+        Map<String, String> labels = Map.of();
+        String phase = null;
+        boolean oomKilled = false;
+        Integer code = null;
+        String message = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "metadata" -> {
+                    if (value != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String metadataField = parser.currentName();
+                        JsonToken metadataValue = parser.nextToken();
+                        switch (metadataField) {
+                            case "name" -> name = parser.getValueAsString();
+                            case "resourceVersion" -> version = parser.getValueAsString();
+                            case "creationTimestamp" -> {
+                                String text = parser.getValueAsString();
+                                created = text != null ? OffsetDateTime.parse(text) : null;
+                            }
+                            case "labels" -> labels = metadataValue == JsonToken.START_OBJECT
+                                    ? readStringMap(parser) : Map.of();
+                            default -> parser.skipChildren();
+                        }
+                    }
+                }
+                // A Pod's status is an object; a Status object's status is a string
+                case "status" -> {
+                    if (value != JsonToken.START_OBJECT) {
+                        continue;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String statusField = parser.currentName();
+                        parser.nextToken();
+                        if ("phase".equals(statusField)) {
+                            phase = parser.getValueAsString();
+                        } else if ("containerStatuses".equals(statusField)
+                                && parser.currentToken() == JsonToken.START_ARRAY) {
+                            oomKilled = readOomKilled(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                case "code" -> code = value.isNumeric() ? parser.getIntValue() : null;
+                case "message" -> message = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+
+        CachedPod pod = name != null || version != null
+                ? new CachedPod(name, phase, labels, created, version, oomKilled)
+                : null;
+        return new DecodedObject(pod, code, message);
+    }
+
+    /**
+     * Whether any container's current or last termination was an OOM kill. The parser is
+     * on the containerStatuses START_ARRAY and is left on its END_ARRAY.
+     */
+    private static boolean readOomKilled(JsonParser parser) throws IOException {
+        boolean oomKilled = false;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (("state".equals(field) || "lastState".equals(field)) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String stateField = parser.currentName();
+                        JsonToken stateValue = parser.nextToken();
+                        if ("terminated".equals(stateField) && stateValue == JsonToken.START_OBJECT) {
+                            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                String terminatedField = parser.currentName();
+                                parser.nextToken();
+                                if ("reason".equals(terminatedField)) {
+                                    oomKilled |= "OOMKilled".equals(parser.getValueAsString());
+                                } else {
+                                    parser.skipChildren();
+                                }
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return oomKilled;
+    }
+
+    private static Map<String, String> readStringMap(JsonParser parser) throws IOException {
+        Map<String, String> map = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.currentName();
+            parser.nextToken();
+            map.put(key, parser.getValueAsString());
+            parser.skipChildren();
+        }
+        return Map.copyOf(map);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Call call = activeCall;
+        if (call != null) {
+            call.cancel();
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+    }
+
+    /**
+     * The fields of a pod the cache keeps
+     */
+    public record CachedPod(
+            String name,
+            String phase,
+            Map<String, String> labels,
+            OffsetDateTime creationTimestamp,
+            String resourceVersion,
+            // A container of the pod was OOM-killed (now or on an earlier restart)
+            boolean oomKilled) {
+    }
+
+    private record DecodedObject(CachedPod pod, Integer code, String message) {
+    }
+
+    private static class ResourceVersionGoneException extends IOException {
+        ResourceVersionGoneException() {
+            super("resourceVersion too old");
+        }
+    }
+}
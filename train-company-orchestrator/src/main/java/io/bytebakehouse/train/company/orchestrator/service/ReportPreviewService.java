@@ -0,0 +1,454 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import io.bytebakehouse.train.company.orchestrator.util.BoundedLruCache;
+import io.bytebakehouse.train.company.orchestrator.util.CsvStreamReader;
+import io.bytebakehouse.train.company.orchestrator.util.XlsxStreamReader;
+import io.bytebakehouse.train.company.orchestrator.util.XlsxStreamReader.SharedString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * First rows and column aggregates of a stored report, without sending the file.
+ *
+ * Reports are read forward-only (StAX for xlsx, a streaming parser for CSV): a preview
+ * stops after the requested rows and a summary is a single pass holding only per-column
+ * aggregates. Results are cached by a fingerprint of the stored file (not a full
+ * checksum, see {@link #sampleFingerprint}), so a regenerated report under the same name
+ * is not served stale, and concurrent requests for the same summary share one pass.
+ */
+@Service
+@Slf4j
+public class ReportPreviewService {
+
+    private static final int FINGERPRINT_SAMPLE_BYTES = 64 * 1024;
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private final ReportTieringService reportTieringService;
+    private final int maxPreviewRows;
+    private final int maxDistinctValues;
+    private final BoundedLruCache<String, ReportPreview> previews;
+    private final BoundedLruCache<String, ReportSummary> summaries;
+    private final Map<String, CompletableFuture<ReportSummary>> summariesInFlight = new ConcurrentHashMap<>();
+
+    public ReportPreviewService(
+            ReportTieringService reportTieringService,
+            @Value("${report-preview.max-rows:500}") int maxPreviewRows,
+            @Value("${report-preview.max-distinct-values:50}") int maxDistinctValues,
+            @Value("${report-preview.cache-size:256}") int cacheSize) {
+        this.reportTieringService = reportTieringService;
+        this.maxPreviewRows = maxPreviewRows;
+        this.maxDistinctValues = maxDistinctValues;
+        this.previews = new BoundedLruCache<>(cacheSize);
+        this.summaries = new BoundedLruCache<>(cacheSize);
+    }
+
+    /**
+     * Header and first rows of a report
+     *
+     * @return null when the report does not exist
+     */
+    public ReportPreview preview(String filename, int rows) throws IOException {
+        Path path = resolve(filename);
+        if (path == null) {
+            return null;
+        }
+        int limit = Math.max(1, Math.min(rows, maxPreviewRows));
+        String key = sampleFingerprint(path) + ":" + limit;
+        ReportPreview cached = previews.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Read one row past the limit to tell whether the report has more
+        List<List<Object>> read = new ArrayList<>(limit + 2);
+        try (RowSource source = open(path)) {
+            source.readRows(cells -> {
+                read.add(cells);
+                return read.size() < limit + 2;
+            });
+            Set<Integer> indices = new HashSet<>();
+            read.forEach(row -> row.forEach(cell -> {
+                if (cell instanceof SharedString shared) {
+                    indices.add(shared.index());
+                }
+            }));
+            Map<Integer, String> strings = source.resolveSharedStrings(indices);
+            read.forEach(row -> row.replaceAll(cell -> cell instanceof SharedString shared ? strings.get(shared.index()) : cell));
+        }
+
+        List<String> columns = read.isEmpty() ? List.of() : read.get(0).stream().map(ReportPreviewService::asText).toList();
+        List<List<Object>> body = read.size() > 1 ? read.subList(1, Math.min(read.size(), limit + 1)) : List.of();
+        ReportPreview preview = new ReportPreview(filename, columns, new ArrayList<>(body), read.size() > limit + 1);
+        previews.put(key, preview);
+        return preview;
+    }
+
+    /**
+     * Row count and per-column aggregates of a report, computed in one pass
+     *
+     * @return null when the report does not exist
+     */
+    public ReportSummary summarize(String filename) throws IOException {
+        Path path = resolve(filename);
+        if (path == null) {
+            return null;
+        }
+        String key = sampleFingerprint(path);
+        ReportSummary cached = summaries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<ReportSummary> mine = new CompletableFuture<>();
+        CompletableFuture<ReportSummary> running = summariesInFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+        }
+        try {
+            ReportSummary summary = computeSummary(filename, path);
+            summaries.put(key, summary);
+            mine.complete(summary);
+            return summary;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            summariesInFlight.remove(key, mine);
+        }
+    }
+
+    private ReportSummary computeSummary(String filename, Path path) throws IOException {
+        long start = System.currentTimeMillis();
+        List<Object> header = new ArrayList<>();
+        List<ColumnStats> stats = new ArrayList<>();
+        boolean[] headerRead = {false};
+        long[] rows = {0};
+
+        try (RowSource source = open(path)) {
+            source.readRows(cells -> {
+                if (!headerRead[0]) {
+                    headerRead[0] = true;
+                    header.addAll(cells);
+                    cells.forEach(cell -> stats.add(new ColumnStats(maxDistinctValues)));
+                    return true;
+                }
+                for (int i = 0; i < cells.size() && i < stats.size(); i++) {
+                    stats.get(i).accept(cells.get(i));
+                }
+                rows[0]++;
+                return true;
+            });
+
+            // Shared strings are only looked up for headers and low-cardinality columns
+            Set<Integer> indices = new HashSet<>();
+            header.forEach(cell -> {
+                if (cell instanceof SharedString shared) {
+                    indices.add(shared.index());
+                }
+            });
+            stats.forEach(column -> column.collectSharedStrings(indices));
+            Map<Integer, String> strings = source.resolveSharedStrings(indices);
+
+            List<ColumnSummary> columns = new ArrayList<>(stats.size());
+            for (int i = 0; i < stats.size(); i++) {
+                Object name = header.get(i);
+                String columnName = name instanceof SharedString shared ? strings.get(shared.index()) : asText(name);
+                columns.add(stats.get(i).toSummary(columnName, strings));
+            }
+
+            long duration = System.currentTimeMillis() - start;
+            log.info("Summarized report {} ({} rows, {} columns) in {} ms", filename, rows[0], columns.size(), duration);
+            return new ReportSummary(filename, rows[0], columns, duration);
+        }
+    }
+
+    private Path resolve(String filename) {
+        if (filename.contains("..") || filename.contains("/") || filename.contains("\\")
+                || !ReportTieringService.isReportFile(filename)) {
+            throw new IllegalArgumentException("Invalid filename");
+        }
+        if (!reportTieringService.isAvailable()) {
+            throw new IllegalStateException("Reports volume is not mounted in this container");
+        }
+        return reportTieringService.locate(filename);
+    }
+
+    private static String asText(Object cell) {
+        return cell == null ? null : cell.toString();
+    }
+
+    /**
+     * SHA-256 over the file's size, modification time and first and last 64 KiB. This is a
+     * sample, not a checksum of the content: it cannot tell apart two files that differ only
+     * in the middle. Reports are written once and renamed into place, which changes the
+     * modification time, so it is enough to key the caches without reading a
+     * multi-hundred-MB file on every request.
+     */
+    private static String sampleFingerprint(Path path) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size = file.length();
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            digest.update((size + ":" + modified).getBytes(StandardCharsets.US_ASCII));
+            byte[] head = new byte[(int) Math.min(FINGERPRINT_SAMPLE_BYTES, size)];
+            file.readFully(head);
+            digest.update(head);
+            if (size > FINGERPRINT_SAMPLE_BYTES) {
+                file.seek(Math.max(FINGERPRINT_SAMPLE_BYTES, size - FINGERPRINT_SAMPLE_BYTES));
+                byte[] tail = new byte[(int) (size - file.getFilePointer())];
+                file.readFully(tail);
+                digest.update(tail);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static RowSource open(Path path) throws IOException {
+        if (path.getFileName().toString().endsWith(".xlsx")) {
+            XlsxStreamReader reader = new XlsxStreamReader(path);
+            return new RowSource() {
+                @Override
+                public void readRows(RowHandler handler) throws IOException {
+                    reader.readRows((rowIndex, cells) -> handler.row(cells));
+                }
+
+                @Override
+                public Map<Integer, String> resolveSharedStrings(Set<Integer> indices) throws IOException {
+                    return reader.resolveSharedStrings(indices);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    reader.close();
+                }
+            };
+        }
+
+        InputStream in = Files.newInputStream(path);
+        if (ReportTieringService.isGzip(path)) {
+            in = new GZIPInputStream(in, READ_BUFFER_BYTES);
+        }
+        BufferedReader buffered = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_BYTES);
+        return new RowSource() {
+            @Override
+            public void readRows(RowHandler handler) throws IOException {
+                CsvStreamReader reader = new CsvStreamReader(buffered);
+                List<String> record;
+                while ((record = reader.next()) != null) {
+                    if (!handler.row(new ArrayList<>(record))) {
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            public Map<Integer, String> resolveSharedStrings(Set<Integer> indices) {
+                return Collections.emptyMap();
+            }
+
+            @Override
+            public void close() throws IOException {
+                buffered.close();
+            }
+        };
+    }
+
+    /**
+     * Rows of an xlsx or CSV (plain or gzip) report; xlsx text cells may be SharedString
+     */
+    private interface RowSource extends Closeable {
+
+        void readRows(RowHandler handler) throws IOException;
+
+        Map<Integer, String> resolveSharedStrings(Set<Integer> indices) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        /**
+         * @return false to stop reading
+         */
+        boolean row(List<Object> cells);
+    }
+
+    /**
+     * Running aggregates of one column. CSV cells arrive as text, so numbers and ISO
+     * dates are recognised by shape; xlsx cells arrive typed.
+     */
+    private static class ColumnStats {
+
+        private static final Pattern NUMBER = Pattern.compile("[-+]?\\d+(\\.\\d+)?");
+        private static final Pattern ISO_DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}([ T].*)?");
+
+        private final int maxDistinct;
+        private long nonEmpty;
+        private long numbers;
+        private long dates;
+        private BigDecimal sum = BigDecimal.ZERO;
+        private BigDecimal minNumber;
+        private BigDecimal maxNumber;
+        private String minDate;
+        private String maxDate;
+        private Map<Object, Long> distinct = new HashMap<>();
+
+        ColumnStats(int maxDistinct) {
+            this.maxDistinct = maxDistinct;
+        }
+
+        void accept(Object cell) {
+            if (cell == null) {
+                return;
+            }
+            nonEmpty++;
+            if (cell instanceof BigDecimal number) {
+                acceptNumber(number);
+            } else if (cell instanceof Temporal temporal) {
+                acceptDate(temporal.toString());
+            } else if (cell instanceof String text && NUMBER.matcher(text).matches()) {
+                acceptNumber(new BigDecimal(text));
+            } else if (cell instanceof String text && ISO_DATE.matcher(text).matches()) {
+                acceptDate(text);
+            } else {
+                countDistinct(cell instanceof SharedString ? cell : cell.toString());
+            }
+        }
+
+        private void acceptNumber(BigDecimal number) {
+            numbers++;
+            sum = sum.add(number);
+            minNumber = minNumber == null || number.compareTo(minNumber) < 0 ? number : minNumber;
+            maxNumber = maxNumber == null || number.compareTo(maxNumber) > 0 ? number : maxNumber;
+            countDistinct(number.toPlainString());
+        }
+
+        private void acceptDate(String iso) {
+            // ISO-8601 values of one type order the same as their text
+            dates++;
+            minDate = minDate == null || iso.compareTo(minDate) < 0 ? iso : minDate;
+            maxDate = maxDate == null || iso.compareTo(maxDate) > 0 ? iso : maxDate;
+        }
+
+        private void countDistinct(Object value) {
+            if (distinct == null) {
+                return;
+            }
+            distinct.merge(value, 1L, Long::sum);
+            if (distinct.size() > maxDistinct) {
+                // High-cardinality column (references, names): stop counting
+                distinct = null;
+            }
+        }
+
+        void collectSharedStrings(Set<Integer> indices) {
+            if (distinct != null) {
+                distinct.keySet().forEach(value -> {
+                    if (value instanceof SharedString shared) {
+                        indices.add(shared.index());
+                    }
+                });
+            }
+        }
+
+        ColumnSummary toSummary(String name, Map<Integer, String> strings) {
+            String type;
+            if (nonEmpty == 0) {
+                type = "empty";
+            } else if (numbers == nonEmpty) {
+                type = "number";
+            } else if (dates == nonEmpty) {
+                type = "date";
+            } else {
+                type = "text";
+            }
+
+            Map<String, Long> values = null;
+            if (distinct != null && !"date".equals(type)) {
+                values = new LinkedHashMap<>();
+                List<Map.Entry<Object, Long>> entries = new ArrayList<>(distinct.entrySet());
+                entries.sort(Map.Entry.<Object, Long>comparingByValue().reversed());
+                for (Map.Entry<Object, Long> entry : entries) {
+                    Object value = entry.getKey();
+                    values.put(value instanceof SharedString shared ? strings.get(shared.index()) : value.toString(),
+                            entry.getValue());
+                }
+            }
+
+            // A text column may hold a few numbers or dates; their range says nothing about it
+            return switch (type) {
+                case "number" -> new ColumnSummary(name, type, nonEmpty, sum, minNumber, maxNumber, values);
+                case "date" -> new ColumnSummary(name, type, nonEmpty, null, minDate, maxDate, values);
+                default -> new ColumnSummary(name, type, nonEmpty, null, null, null, values);
+            };
+        }
+    }
+
+    /**
+     * DTO for the first rows of a report; truncated is true when the report has more rows
+     */
+    public record ReportPreview(
+            String filename,
+            List<String> columns,
+            List<List<Object>> rows,
+            boolean truncated) {
+    }
+
+    /**
+     * Aggregates of one column. sum/min/max are set for numbers, min/max for dates.
+     * values counts each distinct value, or is null when the column has more than
+     * report-preview.max-distinct-values of them.
+     */
+    public record ColumnSummary(
+            String name,
+            String type,
+            long nonEmpty,
+            BigDecimal sum,
+            Object min,
+            Object max,
+            Map<String, Long> values) {
+    }
+
+    /**
+     * DTO for a report summary
+     */
+    public record ReportSummary(
+            String filename,
+            long rows,
+            List<ColumnSummary> columns,
+            long durationMs) {
+    }
+}
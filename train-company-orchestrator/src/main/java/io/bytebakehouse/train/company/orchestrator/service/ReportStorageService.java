@@ -1,58 +1,45 @@
 package io.bytebakehouse.train.company.orchestrator.service;
 
+import io.bytebakehouse.train.company.orchestrator.service.ReportPodCache.CachedPod;
 import io.kubernetes.client.Copy;
 import io.kubernetes.client.Exec;
-import io.kubernetes.client.openapi.ApiClient;
-import io.kubernetes.client.openapi.Configuration;
-import io.kubernetes.client.openapi.apis.CoreV1Api;
-import io.kubernetes.client.util.Config;
 
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
+// Copy and Exec below use the default client, which the governor installs; it must exist
+// before the first fallback call
 @Service
+@DependsOn("kubernetesApiGovernor")
 public class ReportStorageService {
 
-    private final CoreV1Api coreV1Api;
+    private final ReportTieringService reportTieringService;
+    private final ReportPodCache reportPodCache;
     private final String namespace = "train-orchestrator";
     private static final String REPORTS_PATH = "/reports";
 
-    public ReportStorageService() throws IOException {
-        ApiClient client = Configuration.getDefaultApiClient();
-        if (client == null) {
-            client = Config.defaultClient();
-            Configuration.setDefaultApiClient(client);
-        }
-        this.coreV1Api = new CoreV1Api(client);
+    public ReportStorageService(ReportTieringService reportTieringService,
+                                ReportPodCache reportPodCache) {
+        this.reportTieringService = reportTieringService;
+        this.reportPodCache = reportPodCache;
     }
 
     /**
      * List all report files by finding a ticketing-report job pod
      */
     public List<String> listReportFiles() throws Exception {
-        // First try to list files directly from the mounted PVC
+        // First try to list files directly from the mounted PVC (hot and cold tiers)
         try {
-            Path reportsDir = Path.of(REPORTS_PATH);
-            if (Files.exists(reportsDir) && Files.isDirectory(reportsDir)) {
-                return Files.list(reportsDir)
-                        .filter(Files::isRegularFile)
-                        .map(Path::getFileName)
-                        .map(Path::toString)
-                        .filter(name -> name.endsWith(".xlsx"))
-                        .sorted()
-                        .toList();
+            if (reportTieringService.isAvailable()) {
+                return reportTieringService.listReportFiles();
             }
         } catch (Exception e) {
             // If direct access fails, fall through to pod-based approach
@@ -74,7 +61,7 @@ public class ReportStorageService {
             if (output != null && !output.trim().isEmpty()) {
                 for (String line : output.split("\n")) {
                     String trimmed = line.trim();
-                    if (!trimmed.isEmpty() && trimmed.endsWith(".xlsx")) {
+                    if (!trimmed.isEmpty() && isReportFile(trimmed)) {
                         files.add(trimmed);
                     }
                 }
@@ -86,6 +73,20 @@ public class ReportStorageService {
         }
     }
 
+    /**
+     * Size, tier and quota usage of the reports volume
+     */
+    public ReportTieringService.StorageUsage getStorageUsage() {
+        if (!reportTieringService.isAvailable()) {
+            throw new IllegalStateException("Reports volume is not mounted in this container");
+        }
+        return reportTieringService.getUsage();
+    }
+
+    private static boolean isReportFile(String name) {
+        return ReportTieringService.isReportFile(name);
+    }
+
     /**
      * Download a specific report file using kubectl cp API
      */
@@ -95,12 +96,13 @@ public class ReportStorageService {
             throw new IllegalArgumentException("Invalid filename");
         }
         
-        // First try to read directly from the mounted PVC
+        // First try to read directly from the mounted PVC, whichever tier holds the report
         try {
-            Path reportFile = Path.of(REPORTS_PATH, filename);
-            if (Files.exists(reportFile) && Files.isRegularFile(reportFile)) {
-                byte[] content = Files.readAllBytes(reportFile);
-                return new ByteArrayResource(content);
+            if (reportTieringService.isAvailable()) {
+                Resource resource = reportTieringService.open(filename);
+                if (resource != null) {
+                    return resource;
+                }
             }
         } catch (Exception e) {
             // If direct access fails, fall through to pod-based approach
@@ -141,11 +143,9 @@ public class ReportStorageService {
             throw new IllegalArgumentException("Invalid filename");
         }
         
-        // Try to delete directly from the mounted PVC
+        // Try to delete directly from the mounted PVC (both tiers)
         try {
-            Path reportFile = Path.of(REPORTS_PATH, filename);
-            if (Files.exists(reportFile) && Files.isRegularFile(reportFile)) {
-                Files.delete(reportFile);
+            if (reportTieringService.isAvailable() && reportTieringService.delete(filename)) {
                 return true;
             }
         } catch (Exception e) {
@@ -168,72 +168,27 @@ public class ReportStorageService {
     }
 
     /**
-     * Find any running or completed ticketing-report job pod with PVC mounted
+     * Find a report pod with the PVC mounted from the watch-backed cache: running pods
+     * first (Jobs or warm pool workers), then completed Job pods
      */
-    private String findReportJobPod() throws Exception {
-        try {
-            var pods = coreV1Api.listNamespacedPod(namespace)
-                    .labelSelector("app=ticketing-report")
-                    .execute();
-
-            if (pods.getItems().isEmpty()) {
-                return null;
-            }
-
-            // Prefer running pods, fall back to succeeded/completed ones
-            for (var pod : pods.getItems()) {
-                String phase = pod.getStatus() != null && pod.getStatus().getPhase() != null
-                        ? pod.getStatus().getPhase()
-                        : "";
-
-                if ("Running".equals(phase) || "Succeeded".equals(phase)) {
-                    return pod.getMetadata().getName();
-                }
-            }
-
-            // If no running/succeeded pod, use the first one
-            return pods.getItems().get(0).getMetadata().getName();
-        } catch (Exception e) {
-            // Some clusters add fields that the client models don't recognize (e.g. observedGeneration).
-            // Fall back to calling kubectl and parsing JSON with a tolerant ObjectMapper.
-            try {
-                ProcessBuilder pb = new ProcessBuilder("kubectl", "get", "pods", "-n", namespace, "-l", "app=ticketing-report", "-o", "json");
-                pb.redirectErrorStream(true);
-                Process p = pb.start();
-                java.io.InputStream is = p.getInputStream();
-                String output;
-                try (java.util.Scanner s = new java.util.Scanner(is).useDelimiter("\\A")) {
-                    output = s.hasNext() ? s.next() : "";
-                }
-                p.waitFor();
-
-                if (output.isBlank()) {
-                    return null;
-                }
+    private String findReportJobPod() {
+        List<CachedPod> candidates = new ArrayList<>(reportPodCache.findByLabel("app", "ticketing-report"));
+        candidates.addAll(reportPodCache.findByLabel("app", "ticketing-report-worker"));
+        if (candidates.isEmpty()) {
+            return null;
+        }
 
-                ObjectMapper mapper = new ObjectMapper();
-                mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-                JsonNode root = mapper.readTree(output);
-                JsonNode items = root.path("items");
-                if (!items.isArray() || items.size() == 0) {
-                    return null;
+        // Prefer running pods, fall back to succeeded/completed ones
+        for (String phase : List.of("Running", "Succeeded")) {
+            for (CachedPod pod : candidates) {
+                if (phase.equals(pod.phase())) {
+                    return pod.name();
                 }
-
-                // Prefer Running or Succeeded
-                for (JsonNode item : items) {
-                    String phase = item.path("status").path("phase").asText("");
-                    if ("Running".equals(phase) || "Succeeded".equals(phase)) {
-                        return item.path("metadata").path("name").asText(null);
-                    }
-                }
-
-                // Fallback to first item
-                return items.get(0).path("metadata").path("name").asText(null);
-            } catch (Exception ex) {
-                // Give up and propagate original exception
-                throw e;
             }
         }
+
+        // If no running/succeeded pod, use the first one
+        return candidates.get(0).name();
     }
 
     private String execInPod(String podName, String[] command) throws Exception {
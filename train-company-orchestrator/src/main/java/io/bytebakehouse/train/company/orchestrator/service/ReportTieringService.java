@@ -0,0 +1,447 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the reports volume within a size quota.
+ *
+ * New reports land in the hot tier (the root of the volume, where Jobs and pool workers
+ * write them). Reports nobody has downloaded for a while move to the cold tier under
+ * cold/: CSV is gzip-compressed, XLSX is moved as-is since it is already a zip container.
+ * When the catalog exceeds the quota, or the volume runs low on free space, the least
+ * recently downloaded reports are deleted; reports created longer ago than the maximum age
+ * are always deleted, downloaded or not. Callers see one flat list of report names whatever tier a file is in.
+ */
+@Service
+@Slf4j
+public class ReportTieringService {
+
+    private static final String COLD_DIR = "cold";
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO report_files (filename, tier, size_bytes, stored_bytes, created_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (filename) DO UPDATE
+               SET tier = EXCLUDED.tier,
+                   stored_bytes = EXCLUDED.stored_bytes,
+                   size_bytes = CASE WHEN EXCLUDED.tier = 'hot' THEN EXCLUDED.size_bytes
+                                     ELSE report_files.size_bytes END
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LeaderElectionService leaderElectionService;
+    private final Path hotDir;
+    private final Path coldDir;
+    private final long quotaBytes;
+    private final long minFreeBytes;
+    private final Duration coldAfter;
+    private final Duration maxAge;
+    private final Duration minAge;
+    private final long maintenanceIntervalMs;
+
+    private final AtomicLong hotBytes = new AtomicLong();
+    private final AtomicLong coldBytes = new AtomicLong();
+    private volatile long reconciledAtMillis;
+
+    public ReportTieringService(
+            JdbcTemplate jdbcTemplate,
+            LeaderElectionService leaderElectionService,
+            MeterRegistry meterRegistry,
+            @Value("${reports.path:/reports}") String reportsPath,
+            @Value("${report-storage.quota-bytes:838860800}") long quotaBytes,
+            @Value("${report-storage.min-free-bytes:104857600}") long minFreeBytes,
+            @Value("${report-storage.cold-after-hours:24}") long coldAfterHours,
+            @Value("${report-storage.max-age-days:90}") long maxAgeDays,
+            @Value("${report-storage.min-age-minutes:15}") long minAgeMinutes,
+            @Value("${report-storage.maintenance-interval-ms:300000}") long maintenanceIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaderElectionService = leaderElectionService;
+        this.hotDir = Path.of(reportsPath);
+        this.coldDir = hotDir.resolve(COLD_DIR);
+        this.quotaBytes = quotaBytes;
+        this.minFreeBytes = minFreeBytes;
+        this.coldAfter = Duration.ofHours(coldAfterHours);
+        this.maxAge = Duration.ofDays(maxAgeDays);
+        this.minAge = Duration.ofMinutes(minAgeMinutes);
+        this.maintenanceIntervalMs = maintenanceIntervalMs;
+
+        Gauge.builder("report.storage.bytes", hotBytes, AtomicLong::get)
+                .description("Bytes stored on the reports volume")
+                .tag("tier", "hot")
+                .register(meterRegistry);
+        Gauge.builder("report.storage.bytes", coldBytes, AtomicLong::get)
+                .description("Bytes stored on the reports volume")
+                .tag("tier", "cold")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the reports volume is mounted in this container
+     */
+    public boolean isAvailable() {
+        return Files.isDirectory(hotDir);
+    }
+
+    public static boolean isReportFile(String name) {
+        return name.endsWith(".xlsx") || name.endsWith(".csv");
+    }
+
+    /**
+     * Report names across both tiers
+     */
+    public List<String> listReportFiles() throws IOException {
+        return new ArrayList<>(new TreeSet<>(scan().keySet()));
+    }
+
+    /**
+     * Open a report for download from whichever tier holds it and record the access
+     *
+     * @return null when the report is in neither tier
+     */
+    public Resource open(String filename) throws IOException {
+        Path path = locate(filename);
+        if (path == null) {
+            return null;
+        }
+        recordAccess(filename);
+        if (isGzip(path)) {
+            return new InputStreamResource(new GZIPInputStream(Files.newInputStream(path), BUFFER_SIZE));
+        }
+        return new FileSystemResource(path);
+    }
+
+    /**
+     * Path of a report in whichever tier holds it, without counting as a download.
+     * Cold CSVs are returned as their .gz file.
+     *
+     * @return null when the report is in neither tier
+     */
+    public Path locate(String filename) {
+        for (Path candidate : List.of(hotDir.resolve(filename), coldGzipPath(filename), coldDir.resolve(filename))) {
+            if (Files.isRegularFile(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    public static boolean isGzip(Path path) {
+        return path.getFileName().toString().endsWith(GZIP_SUFFIX);
+    }
+
+    /**
+     * Delete a report from both tiers and the catalog
+     */
+    public boolean delete(String filename) throws IOException {
+        boolean deleted = Files.deleteIfExists(hotDir.resolve(filename));
+        deleted |= Files.deleteIfExists(coldGzipPath(filename));
+        deleted |= Files.deleteIfExists(coldDir.resolve(filename));
+        forgetQuietly(filename);
+        return deleted;
+    }
+
+    /**
+     * Free space for a new report before it is started, so a full volume does not fail it.
+     * Only walks the volume when the cached byte counts are older than a maintenance interval,
+     * or show it over quota or low on space; otherwise a submission costs one statfs.
+     */
+    public void ensureCapacity() {
+        if (!isAvailable() || hasCapacity()) {
+            return;
+        }
+        synchronized (this) {
+            try {
+                reconcile();
+                evict();
+            } catch (Exception e) {
+                log.warn("Could not make room on the reports volume: {}", e.getMessage());
+            }
+        }
+    }
+
+    private boolean hasCapacity() {
+        if (System.currentTimeMillis() - reconciledAtMillis > maintenanceIntervalMs) {
+            return false;
+        }
+        long free = usableSpace();
+        return hotBytes.get() + coldBytes.get() <= quotaBytes && (free < 0 || free >= minFreeBytes);
+    }
+
+    /**
+     * Sync the catalog with the volume, move idle reports to the cold tier and enforce
+     * the quota (leader only, the volume is shared by all replicas)
+     */
+    @Scheduled(fixedDelayString = "${report-storage.maintenance-interval-ms:300000}", initialDelay = 60000)
+    public synchronized void maintain() {
+        if (!isAvailable() || !leaderElectionService.isLeader()) {
+            return;
+        }
+        try {
+            reconcile();
+            demoteIdleReports();
+            evict();
+        } catch (Exception e) {
+            log.error("Report storage maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    public StorageUsage getUsage() {
+        Map<String, Object> totals = jdbcTemplate.queryForMap("""
+                SELECT count(*) AS files,
+                       count(*) FILTER (WHERE tier = 'cold') AS cold_files,
+                       COALESCE(sum(size_bytes), 0) AS size_bytes,
+                       COALESCE(sum(stored_bytes), 0) AS stored_bytes
+                  FROM report_files
+                """);
+        return new StorageUsage(
+                ((Number) totals.get("files")).longValue(),
+                ((Number) totals.get("cold_files")).longValue(),
+                ((Number) totals.get("size_bytes")).longValue(),
+                ((Number) totals.get("stored_bytes")).longValue(),
+                hotBytes.get(),
+                coldBytes.get(),
+                quotaBytes,
+                usableSpace());
+    }
+
+    /**
+     * Walk both tiers. A report present in both (a demotion interrupted before the hot
+     * copy was removed) counts as hot.
+     */
+    private Map<String, StoredFile> scan() throws IOException {
+        Map<String, StoredFile> files = new HashMap<>();
+        if (Files.isDirectory(coldDir)) {
+            try (Stream<Path> cold = Files.list(coldDir)) {
+                for (Path path : (Iterable<Path>) cold::iterator) {
+                    String name = path.getFileName().toString();
+                    String report = name.endsWith(GZIP_SUFFIX) ? name.substring(0, name.length() - GZIP_SUFFIX.length()) : name;
+                    if (Files.isRegularFile(path) && isReportFile(report)) {
+                        files.put(report, StoredFile.of("cold", path));
+                    }
+                }
+            }
+        }
+        try (Stream<Path> hot = Files.list(hotDir)) {
+            for (Path path : (Iterable<Path>) hot::iterator) {
+                String name = path.getFileName().toString();
+                if (Files.isRegularFile(path) && isReportFile(name)) {
+                    files.put(name, StoredFile.of("hot", path));
+                }
+            }
+        }
+        return files;
+    }
+
+    private void reconcile() throws IOException {
+        Map<String, StoredFile> files = scan();
+        List<Object[]> rows = new ArrayList<>(files.size());
+        long hot = 0;
+        long cold = 0;
+        for (Map.Entry<String, StoredFile> entry : files.entrySet()) {
+            StoredFile file = entry.getValue();
+            rows.add(new Object[]{entry.getKey(), file.tier(), file.bytes(), file.bytes(),
+                    Timestamp.from(file.modified().toInstant())});
+            if ("hot".equals(file.tier())) {
+                hot += file.bytes();
+            } else {
+                cold += file.bytes();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        }
+        String[] names = files.keySet().toArray(String[]::new);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM report_files WHERE filename <> ALL(?)");
+            Array array = con.createArrayOf("text", names);
+            ps.setArray(1, array);
+            return ps;
+        });
+        hotBytes.set(hot);
+        coldBytes.set(cold);
+        reconciledAtMillis = System.currentTimeMillis();
+    }
+
+    private void demoteIdleReports() {
+        List<String> idle = jdbcTemplate.queryForList("""
+                SELECT filename FROM report_files
+                 WHERE tier = 'hot' AND COALESCE(last_accessed_at, created_at) < now() - make_interval(secs => ?)
+                 ORDER BY COALESCE(last_accessed_at, created_at)
+                """, String.class, coldAfter.toSeconds());
+        for (String filename : idle) {
+            try {
+                demote(filename);
+            } catch (Exception e) {
+                log.warn("Failed to move report {} to the cold tier: {}", filename, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Move one report to the cold tier: write a temporary file, rename it into place, and
+     * only then remove the hot copy, so a crash at any point leaves a readable report
+     */
+    private void demote(String filename) throws IOException {
+        Path hot = hotDir.resolve(filename);
+        if (!Files.isRegularFile(hot) || isRecentlyModified(hot)) {
+            return;
+        }
+        Files.createDirectories(coldDir);
+        boolean compress = filename.endsWith(".csv");
+        Path target = compress ? coldGzipPath(filename) : coldDir.resolve(filename);
+        Path partial = coldDir.resolve(target.getFileName() + ".partial");
+
+        try (InputStream in = Files.newInputStream(hot);
+             OutputStream out = compress
+                     ? new GZIPOutputStream(Files.newOutputStream(partial), BUFFER_SIZE)
+                     : Files.newOutputStream(partial)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        long hotSize = Files.size(hot);
+        long coldSize = Files.size(target);
+        Files.delete(hot);
+
+        jdbcTemplate.update("UPDATE report_files SET tier = 'cold', stored_bytes = ? WHERE filename = ?",
+                coldSize, filename);
+        hotBytes.addAndGet(-hotSize);
+        coldBytes.addAndGet(coldSize);
+        log.info("Moved report {} to the cold tier ({} -> {} bytes)", filename, hotSize, coldSize);
+    }
+
+    /**
+     * Delete reports created longer ago than the maximum age, then least recently used
+     * reports until the catalog fits the quota and the volume has the minimum free space
+     */
+    private void evict() throws IOException {
+        List<Map<String, Object>> candidates = jdbcTemplate.queryForList("""
+                SELECT filename, stored_bytes, expired
+                  FROM (SELECT filename, stored_bytes, last_accessed_at, created_at,
+                               created_at < now() - make_interval(secs => ?) AS expired
+                          FROM report_files
+                         WHERE created_at < now() - make_interval(secs => ?)) f
+                 ORDER BY expired DESC, COALESCE(last_accessed_at, created_at)
+                """, maxAge.toSeconds(), minAge.toSeconds());
+
+        long stored = hotBytes.get() + coldBytes.get();
+        long free = usableSpace();
+        List<String> evicted = new ArrayList<>();
+        for (Map<String, Object> candidate : candidates) {
+            boolean expired = Boolean.TRUE.equals(candidate.get("expired"));
+            boolean overQuota = stored > quotaBytes;
+            boolean lowOnSpace = free >= 0 && free < minFreeBytes;
+            if (!expired && !overQuota && !lowOnSpace) {
+                break;
+            }
+            String filename = (String) candidate.get("filename");
+            if (isRecentlyModified(hotDir.resolve(filename))) {
+                continue;
+            }
+            long bytes = ((Number) candidate.get("stored_bytes")).longValue();
+            delete(filename);
+            stored -= bytes;
+            free = free >= 0 ? free + bytes : free;
+            evicted.add(filename);
+        }
+        if (!evicted.isEmpty()) {
+            log.warn("Evicted {} reports from the reports volume: {}", evicted.size(), evicted);
+            reconcile();
+        }
+    }
+
+    private void recordAccess(String filename) {
+        try {
+            jdbcTemplate.update("""
+                    UPDATE report_files SET last_accessed_at = now(), download_count = download_count + 1
+                     WHERE filename = ?
+                    """, filename);
+        } catch (Exception e) {
+            log.debug("Could not record access to report {}: {}", filename, e.getMessage());
+        }
+    }
+
+    private void forgetQuietly(String filename) {
+        try {
+            jdbcTemplate.update("DELETE FROM report_files WHERE filename = ?", filename);
+        } catch (Exception e) {
+            log.debug("Could not remove report {} from the catalog: {}", filename, e.getMessage());
+        }
+    }
+
+    /**
+     * A report still being written must not be moved or evicted
+     */
+    private boolean isRecentlyModified(Path path) throws IOException {
+        return Files.exists(path)
+                && Files.getLastModifiedTime(path).toInstant().isAfter(Instant.now().minus(minAge));
+    }
+
+    private Path coldGzipPath(String filename) {
+        return coldDir.resolve(filename + GZIP_SUFFIX);
+    }
+
+    private long usableSpace() {
+        try {
+            return Files.getFileStore(hotDir).getUsableSpace();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private record StoredFile(String tier, long bytes, FileTime modified) {
+
+        static StoredFile of(String tier, Path path) throws IOException {
+            return new StoredFile(tier, Files.size(path), Files.getLastModifiedTime(path));
+        }
+    }
+
+    /**
+     * DTO for reports volume usage; sizeBytes is uncompressed, storedBytes what is on disk
+     */
+    public record StorageUsage(
+            long files,
+            long coldFiles,
+            long sizeBytes,
+            long storedBytes,
+            long hotBytes,
+            long coldBytes,
+            long quotaBytes,
+            long volumeFreeBytes) {
+    }
+}
@@ -0,0 +1,246 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.models.V1Scale;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dispatches reports to a pool of long-lived, pre-warmed report workers.
+ *
+ * Work goes through the report_tasks table: workers claim rows with FOR UPDATE SKIP LOCKED
+ * and are woken by NOTIFY report_tasks. A report is queued while the backlog is below
+ * max-queued-per-worker per worker with a fresh heartbeat; beyond that, or with no live
+ * worker, the caller falls back to a one-off Job. The leader mirrors task state into the
+ * job status stream, requeues tasks of workers that stopped heartbeating, and scales the
+ * worker Deployment with queue depth, so a standing backlog brings up more workers.
+ */
+@Service
+@Slf4j
+public class ReportWorkPoolService {
+
+    public static final String EXECUTOR = "warm-pool";
+    private static final String CHANNEL = "report_tasks";
+
+    // Run under ADMISSION_LOCK_SQL, otherwise concurrent dispatches all see the same backlog
+    private static final String DISPATCH_SQL = """
+            INSERT INTO report_tasks (job_name, start_date, end_date, format, output_path, progress_url)
+            SELECT ?, ?, ?, ?, ?, ?
+             WHERE (SELECT count(*) FROM report_tasks WHERE status = 'queued')
+                 < (SELECT count(*) FROM report_workers
+                     WHERE last_heartbeat_at > now() - make_interval(secs => ?)) * ?
+            """;
+
+    private static final String ADMISSION_LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext(?))";
+
+    private static final String REQUEUE_ORPHANS_SQL = """
+            UPDATE report_tasks
+               SET status = CASE WHEN attempts >= ? THEN 'failed' ELSE 'queued' END,
+                   error = CASE WHEN attempts >= ? THEN 'Worker stopped responding' ELSE error END,
+                   finished_at = CASE WHEN attempts >= ? THEN now() END,
+                   worker_id = NULL
+             WHERE status = 'running' AND heartbeat_at < now() - make_interval(secs => ?)
+            RETURNING status
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobStatusService jobStatusService;
+    private final LeaderElectionService leaderElectionService;
+    private final AppsV1Api appsV1Api;
+    private final boolean enabled;
+    private final String namespace;
+    private final String deploymentName;
+    private final int minWorkers;
+    private final int maxWorkers;
+    private final int minIdleWorkers;
+    private final int maxQueuedPerWorker;
+    private final int heartbeatTimeoutSeconds;
+    private final int maxAttempts;
+    private final long scaleDownDelayMs;
+
+    private long scaleDownWantedSinceMillis;
+
+    public ReportWorkPoolService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            JobStatusService jobStatusService,
+            LeaderElectionService leaderElectionService,
+            @Value("${report-pool.enabled:false}") boolean enabled,
+            @Value("${kubernetes.namespace:train-orchestrator}") String namespace,
+            @Value("${report-pool.deployment:ticketing-report-worker}") String deploymentName,
+            @Value("${report-pool.min-workers:1}") int minWorkers,
+            @Value("${report-pool.max-workers:4}") int maxWorkers,
+            @Value("${report-pool.min-idle-workers:1}") int minIdleWorkers,
+            @Value("${report-pool.max-queued-per-worker:2}") int maxQueuedPerWorker,
+            @Value("${report-pool.heartbeat-timeout-seconds:30}") int heartbeatTimeoutSeconds,
+            @Value("${report-pool.max-attempts:3}") int maxAttempts,
+            @Value("${report-pool.scale-down-delay-ms:300000}") long scaleDownDelayMs,
+            KubernetesApiGovernor kubernetesApiGovernor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobStatusService = jobStatusService;
+        this.leaderElectionService = leaderElectionService;
+        this.enabled = enabled;
+        this.namespace = namespace;
+        this.deploymentName = deploymentName;
+        this.minWorkers = minWorkers;
+        this.maxWorkers = maxWorkers;
+        this.minIdleWorkers = minIdleWorkers;
+        this.maxQueuedPerWorker = maxQueuedPerWorker;
+        this.heartbeatTimeoutSeconds = heartbeatTimeoutSeconds;
+        this.maxAttempts = maxAttempts;
+        this.scaleDownDelayMs = scaleDownDelayMs;
+        this.appsV1Api = new AppsV1Api(kubernetesApiGovernor.getApiClient());
+    }
+
+    /**
+     * Queue a report for the warm pool if its backlog has room
+     *
+     * @return false when the pool is disabled, has no live worker or its backlog is full
+     */
+    public boolean tryDispatch(String jobName, LocalDate startDate, LocalDate endDate, String format,
+                               String outputPath, String progressUrl) {
+        if (!enabled) {
+            return false;
+        }
+        try {
+            Boolean queued = transactionTemplate.execute(tx -> {
+                jdbcTemplate.queryForObject(ADMISSION_LOCK_SQL, String.class, CHANNEL);
+                int inserted = jdbcTemplate.update(DISPATCH_SQL, jobName, startDate, endDate, format,
+                        outputPath, progressUrl, heartbeatTimeoutSeconds, maxQueuedPerWorker);
+                if (inserted == 0) {
+                    return false;
+                }
+                // Delivered on commit, when the task is visible to the workers
+                jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class, CHANNEL, jobName);
+                return true;
+            });
+            if (!Boolean.TRUE.equals(queued)) {
+                return false;
+            }
+            log.info("Dispatched report {} to the warm worker pool", jobName);
+            return true;
+        } catch (Exception e) {
+            log.warn("Warm pool dispatch failed for {}, falling back to a Job: {}", jobName, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Mirror queue task state into the job status stream (leader only)
+     */
+    @Scheduled(fixedDelay = 2000)
+    public void syncTaskStatuses() {
+        if (!enabled || !leaderElectionService.isLeader()) {
+            return;
+        }
+        List<String> jobNames = jobStatusService.getExternalJobNames();
+        if (jobNames.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "SELECT job_name, status, started_at, finished_at FROM report_tasks WHERE job_name = ANY(?)");
+                Array names = con.createArrayOf("text", jobNames.toArray());
+                ps.setArray(1, names);
+                return ps;
+            }, rs -> {
+                jobStatusService.updateExternalJob(
+                        rs.getString("job_name"),
+                        rs.getString("status"),
+                        rs.getObject("started_at", OffsetDateTime.class),
+                        rs.getObject("finished_at", OffsetDateTime.class));
+            });
+        } catch (Exception e) {
+            log.error("Failed to sync warm pool task statuses: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Requeue tasks whose worker stopped heartbeating, failing them after maxAttempts (leader only)
+     */
+    @Scheduled(fixedDelay = 10000)
+    public void requeueOrphanedTasks() {
+        if (!enabled || !leaderElectionService.isLeader()) {
+            return;
+        }
+        try {
+            List<String> outcomes = jdbcTemplate.queryForList(REQUEUE_ORPHANS_SQL, String.class,
+                    maxAttempts, maxAttempts, maxAttempts, heartbeatTimeoutSeconds * 2);
+            if (!outcomes.isEmpty()) {
+                log.warn("Recovered {} report tasks from lost workers: {}", outcomes.size(), outcomes);
+                jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class, CHANNEL, "requeued");
+            }
+            jdbcTemplate.update("DELETE FROM report_workers WHERE last_heartbeat_at < now() - make_interval(secs => ?)",
+                    heartbeatTimeoutSeconds * 10);
+        } catch (Exception e) {
+            log.error("Failed to requeue orphaned report tasks: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Size the worker Deployment to busy + queued + spare workers, so every queued task gets
+     * a worker of its own up to max-workers. Scale-ups apply at once, scale-downs only after
+     * the lower size has been wanted for scale-down-delay-ms.
+     */
+    @Scheduled(fixedDelayString = "${report-pool.scale-interval-ms:15000}")
+    public void scalePool() {
+        if (!enabled || !leaderElectionService.isLeader()) {
+            return;
+        }
+        try {
+            Map<String, Object> depth = jdbcTemplate.queryForMap("""
+                    SELECT count(*) FILTER (WHERE status = 'queued') AS queued,
+                           count(*) FILTER (WHERE status = 'running') AS running
+                      FROM report_tasks WHERE status IN ('queued', 'running')
+                    """);
+            long queued = ((Number) depth.get("queued")).longValue();
+            long running = ((Number) depth.get("running")).longValue();
+            int desired = (int) Math.max(minWorkers, Math.min(maxWorkers, running + queued + minIdleWorkers));
+
+            V1Scale scale = appsV1Api.readNamespacedDeploymentScale(deploymentName, namespace).execute();
+            int current = scale.getSpec() != null && scale.getSpec().getReplicas() != null
+                    ? scale.getSpec().getReplicas() : 0;
+
+            if (desired >= current) {
+                scaleDownWantedSinceMillis = 0;
+                if (desired == current) {
+                    return;
+                }
+            } else {
+                long now = System.currentTimeMillis();
+                if (scaleDownWantedSinceMillis == 0) {
+                    scaleDownWantedSinceMillis = now;
+                }
+                if (now - scaleDownWantedSinceMillis < scaleDownDelayMs) {
+                    return;
+                }
+                scaleDownWantedSinceMillis = 0;
+            }
+
+            scale.getSpec().setReplicas(desired);
+            appsV1Api.replaceNamespacedDeploymentScale(deploymentName, namespace, scale).execute();
+            log.info("Scaled report worker pool from {} to {} (queued: {}, running: {})",
+                    current, desired, queued, running);
+        } catch (ApiException e) {
+            log.warn("Failed to scale report worker pool: {} {}", e.getCode(), e.getResponseBody());
+        } catch (Exception e) {
+            log.warn("Failed to scale report worker pool: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.bytebakehouse.train.company.orchestrator.entity.enums.SeatClass;
+import io.bytebakehouse.train.company.orchestrator.service.ChangeFeedService.RowChange;
+import io.bytebakehouse.train.company.orchestrator.util.BoundedLruCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compact seat maps for the booking UI.
+ *
+ * The layout of a train (carriages, seat numbers, class, position, accessibility) is built
+ * once with a single query, serialized and cached per train. Every seat gets an ordinal:
+ * its index in carriage order, then seat order. Per trip, occupancy is an overlay over those
+ * ordinals, sent as a bitmap (base64, bit i = ordinal i, least significant bit first) or as
+ * alternating free/occupied run lengths, whichever is shorter. Both payloads carry a strong
+ * ETag derived from their bytes, so polling clients get a 304 while nothing changed.
+ * With the change feed on, an overlay is dropped as soon as a hold or ticket of its trip changes.
+ */
+@Service
+@Slf4j
+public class SeatMapService {
+
+    private static final String TRAIN_OF_TRIP_SQL = "SELECT train_id FROM trips WHERE id = ?";
+
+    // Carriages without seats (dining, cargo) are kept so the layout matches the train
+    private static final String LAYOUT_SQL = """
+            SELECT c.carriage_number, c.carriage_type::text AS carriage_type,
+                   s.id AS seat_id, s.seat_number, s.seat_class::text AS seat_class,
+                   s.position, s.is_accessible
+              FROM carriages c
+              LEFT JOIN seats s ON s.carriage_id = c.id
+             WHERE c.train_id = ?
+             ORDER BY c.carriage_number, length(s.seat_number), s.seat_number
+            """;
+
+    // A reservation holds its seat while its ticket is live, or until its hold expires
+    private static final String OCCUPIED_SEATS_SQL = """
+            SELECT sr.seat_id
+              FROM seat_reservations sr
+              LEFT JOIN tickets t ON t.id = sr.ticket_id
+             WHERE sr.trip_id = ?
+               AND sr.status NOT IN ('released', 'cancelled', 'expired')
+               AND CASE WHEN t.id IS NOT NULL THEN t.status NOT IN ('cancelled', 'refunded')
+                        ELSE sr.reserved_until IS NULL OR sr.reserved_until > now() END
+            """;
+
+    private static final List<String> SEAT_CLASSES = Arrays.stream(SeatClass.values()).map(Enum::name).toList();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final long layoutTtlMs;
+    private final long occupancyTtlMs;
+    private final BoundedLruCache<UUID, TrainLayout> layouts;
+    private final BoundedLruCache<UUID, TripOccupancy> occupancies;
+
+    public SeatMapService(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            ChangeFeedService changeFeed,
+            @Value("${seat-map.layout-ttl-ms:300000}") long layoutTtlMs,
+            @Value("${seat-map.occupancy-ttl-ms:1000}") long occupancyTtlMs,
+            @Value("${seat-map.cache-size:512}") int cacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.layoutTtlMs = layoutTtlMs;
+        this.occupancyTtlMs = occupancyTtlMs;
+        this.layouts = new BoundedLruCache<>(cacheSize);
+        this.occupancies = new BoundedLruCache<>(cacheSize);
+        changeFeed.subscribe(Set.of("seat_reservations", "tickets"), this::onChanges, occupancies::clear);
+    }
+
+    /**
+     * Layout of a train
+     *
+     * @throws IllegalArgumentException if the train has no carriages
+     */
+    public Payload layout(UUID trainId) {
+        return trainLayout(trainId).payload();
+    }
+
+    /**
+     * Occupancy overlay of a trip, over the ordinals of its train's layout
+     *
+     * @throws IllegalArgumentException if the trip does not exist or has no train assigned
+     */
+    public Payload occupancy(UUID tripId) {
+        TripOccupancy cached = occupancies.get(tripId);
+        if (cached != null && !expired(cached.builtAt(), occupancyTtlMs)) {
+            return cached.payload();
+        }
+
+        List<UUID> trainIds = jdbcTemplate.queryForList(TRAIN_OF_TRIP_SQL, UUID.class, tripId);
+        if (trainIds.isEmpty()) {
+            throw new IllegalArgumentException("Trip not found: " + tripId);
+        }
+        UUID trainId = trainIds.getFirst();
+        if (trainId == null) {
+            throw new IllegalArgumentException("No train assigned to trip " + tripId);
+        }
+        TrainLayout layout = trainLayout(trainId);
+
+        BitSet occupied = new BitSet(layout.seatCount());
+        jdbcTemplate.query(OCCUPIED_SEATS_SQL, rs -> {
+            Integer ordinal = layout.ordinals().get(rs.getObject("seat_id", UUID.class));
+            if (ordinal != null) {
+                occupied.set(ordinal);
+            }
+        }, tripId);
+
+        String bitmap = Base64.getEncoder().encodeToString(occupied.toByteArray());
+        int[] runs = runLengths(occupied, layout.seatCount());
+        boolean useRuns = Arrays.toString(runs).length() < bitmap.length() + 2;
+        OccupancyOverlay overlay = new OccupancyOverlay(
+                tripId,
+                trainId,
+                layout.payload().etag(),
+                layout.seatCount(),
+                occupied.cardinality(),
+                useRuns ? "rle" : "bitmap",
+                useRuns ? null : bitmap,
+                useRuns ? runs : null);
+
+        TripOccupancy built = new TripOccupancy(serialize(overlay), System.currentTimeMillis());
+        occupancies.put(tripId, built);
+        return built.payload();
+    }
+
+    private TrainLayout trainLayout(UUID trainId) {
+        TrainLayout cached = layouts.get(trainId);
+        if (cached != null && !expired(cached.builtAt(), layoutTtlMs)) {
+            return cached;
+        }
+        TrainLayout built = buildLayout(trainId);
+        layouts.put(trainId, built);
+        return built;
+    }
+
+    private TrainLayout buildLayout(UUID trainId) {
+        Map<Integer, CarriageRows> carriages = new LinkedHashMap<>();
+        Map<UUID, Integer> ordinals = new HashMap<>();
+        List<String> positions = new ArrayList<>();
+
+        jdbcTemplate.query(LAYOUT_SQL, rs -> {
+            String carriageType = rs.getString("carriage_type");
+            CarriageRows carriage = carriages.computeIfAbsent(rs.getInt("carriage_number"),
+                    number -> new CarriageRows(number, carriageType));
+            UUID seatId = rs.getObject("seat_id", UUID.class);
+            if (seatId == null) {
+                return;
+            }
+            String position = rs.getString("position");
+            if (position != null && !positions.contains(position)) {
+                positions.add(position);
+            }
+            ordinals.put(seatId, ordinals.size());
+            carriage.seats.add(rs.getString("seat_number"));
+            carriage.classes.add(SEAT_CLASSES.indexOf(rs.getString("seat_class")));
+            carriage.positions.add(position != null ? positions.indexOf(position) : -1);
+            if (rs.getBoolean("is_accessible")) {
+                carriage.accessible.add(carriage.seats.size() - 1);
+            }
+        }, trainId);
+
+        if (carriages.isEmpty()) {
+            throw new IllegalArgumentException("No carriages found for train " + trainId);
+        }
+
+        List<CarriageLayout> carriageLayouts = new ArrayList<>(carriages.size());
+        int firstOrdinal = 0;
+        for (CarriageRows rows : carriages.values()) {
+            carriageLayouts.add(new CarriageLayout(
+                    rows.number,
+                    rows.type,
+                    firstOrdinal,
+                    rows.seats,
+                    rows.classes.stream().mapToInt(Integer::intValue).toArray(),
+                    rows.positions.stream().mapToInt(Integer::intValue).toArray(),
+                    rows.accessible.stream().mapToInt(Integer::intValue).toArray()));
+            firstOrdinal += rows.seats.size();
+        }
+
+        Payload payload = serialize(new SeatLayout(trainId, ordinals.size(), SEAT_CLASSES, positions, carriageLayouts));
+        log.debug("Built seat layout for train {}: {} carriages, {} seats, {} bytes",
+                trainId, carriageLayouts.size(), ordinals.size(), payload.body().length);
+        return new TrainLayout(payload, Map.copyOf(ordinals), ordinals.size(), System.currentTimeMillis());
+    }
+
+    /**
+     * Alternating run lengths over all ordinals, starting with a (possibly empty) free run
+     */
+    private static int[] runLengths(BitSet occupied, int seatCount) {
+        List<Integer> runs = new ArrayList<>();
+        int position = 0;
+        boolean inOccupied = false;
+        while (position < seatCount) {
+            int next = inOccupied ? occupied.nextClearBit(position) : occupied.nextSetBit(position);
+            int end = next < 0 ? seatCount : Math.min(next, seatCount);
+            runs.add(end - position);
+            position = end;
+            inOccupied = !inOccupied;
+        }
+        return runs.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private Payload serialize(Object value) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            return new Payload(body, etag(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize seat map", e);
+        }
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static boolean expired(long builtAt, long ttlMs) {
+        return System.currentTimeMillis() - builtAt > ttlMs;
+    }
+
+    /**
+     * Serialized JSON body and its strong ETag (quoted)
+     */
+    public record Payload(byte[] body, String etag) {
+    }
+
+    private record TrainLayout(Payload payload, Map<UUID, Integer> ordinals, int seatCount, long builtAt) {
+    }
+
+    /**
+     * Change feed: drop the overlay of every trip whose holds or tickets changed. A deleted
+     * row only carries its id, so the whole overlay cache goes.
+     */
+    private void onChanges(List<RowChange> changes) {
+        for (RowChange change : changes) {
+            UUID tripId = change.uuid("trip_id");
+            if (tripId != null) {
+                occupancies.remove(tripId);
+            } else {
+                occupancies.clear();
+                return;
+            }
+        }
+    }
+
+    private record TripOccupancy(Payload payload, long builtAt) {
+    }
+
+    private static final class CarriageRows {
+        private final int number;
+        private final String type;
+        private final List<String> seats = new ArrayList<>();
+        private final List<Integer> classes = new ArrayList<>();
+        private final List<Integer> positions = new ArrayList<>();
+        private final List<Integer> accessible = new ArrayList<>();
+
+        private CarriageRows(int number, String type) {
+            this.number = number;
+            this.type = type;
+        }
+    }
+
+    /**
+     * classes and positions are dictionaries; carriages refer to them by index (-1: no position)
+     */
+    public record SeatLayout(
+            UUID trainId,
+            int seatCount,
+            List<String> classes,
+            List<String> positions,
+            List<CarriageLayout> carriages) {
+    }
+
+    /**
+     * Seat i of the carriage has ordinal firstOrdinal + i; accessible lists seat indexes
+     */
+    public record CarriageLayout(
+            int number,
+            String type,
+            int firstOrdinal,
+            List<String> seats,
+            int[] classes,
+            int[] positions,
+            int[] accessible) {
+    }
+
+    /**
+     * Either bitmap or runs is set, depending on encoding
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record OccupancyOverlay(
+            UUID tripId,
+            UUID trainId,
+            String layoutEtag,
+            int seatCount,
+            int occupied,
+            String encoding,
+            String bitmap,
+            int[] runs) {
+    }
+}
@@ -0,0 +1,225 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import io.bytebakehouse.train.company.orchestrator.entity.enums.BookingStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Partial and fuzzy search over passengers (name, document number) and bookings (booking
+ * ref) for support staff, backed by the trigram GIN indexes of V10.
+ *
+ * A query first collects the exact document number or booking ref matches (btree lookups,
+ * always included) plus at most {@code search.max-candidates} rows that contain the text
+ * (ILIKE) or, for names, resemble it (word similarity, so typos still match). Only those
+ * candidates are ranked: exact matches first, then prefix matches, then by trigram
+ * similarity. The candidate cap keeps a query like "ann" bounded on a large table, at the
+ * price of ranking only within the first candidates found.
+ *
+ * The capped candidates are whichever rows the index scan reaches first, not a fixed set:
+ * when a query matches more than max-candidates rows, only the first page is stable, and
+ * later pages may repeat or skip hits between requests. Refine the query instead of paging deep.
+ */
+@Service
+public class SupportSearchService {
+
+    // The name expression must stay identical to idx_passengers_name_trgm, upper(doc_number) to idx_passengers_doc_number_upper
+    private static final String PASSENGERS_SQL = """
+            WITH candidates AS (
+                SELECT id, first_name, last_name, date_of_birth, doc_type, doc_number,
+                       (first_name || ' ' || last_name) AS full_name
+                  FROM passengers
+                 WHERE upper(doc_number) = upper(?)
+                UNION
+                (SELECT id, first_name, last_name, date_of_birth, doc_type, doc_number,
+                        (first_name || ' ' || last_name) AS full_name
+                   FROM passengers
+                  WHERE (first_name || ' ' || last_name) ILIKE ?
+                     OR ? <% (first_name || ' ' || last_name)
+                     OR doc_number ILIKE ?
+                  LIMIT ?)
+            )
+            SELECT id, first_name, last_name, date_of_birth, doc_type::text AS doc_type, doc_number,
+                   CASE WHEN upper(doc_number) = upper(?) THEN 2.0
+                        WHEN full_name ILIKE ? OR last_name ILIKE ? OR doc_number ILIKE ? THEN 1.0
+                        ELSE 0.0 END
+                   + greatest(word_similarity(?, full_name), similarity(coalesce(doc_number, ''), ?)) AS score
+              FROM candidates
+             ORDER BY score DESC, id
+             LIMIT ? OFFSET ?
+            """;
+
+    private static final String BOOKINGS_SQL = """
+            WITH candidates AS (
+                SELECT id, booking_ref, status, total_amount, currency, created_at, expires_at
+                  FROM bookings
+                 WHERE booking_ref IN (upper(?), upper(?))
+                UNION
+                (SELECT id, booking_ref, status, total_amount, currency, created_at, expires_at
+                   FROM bookings
+                  WHERE booking_ref ILIKE ?
+                  LIMIT ?)
+            )
+            SELECT id, booking_ref, status::text AS status, total_amount, currency, created_at, expires_at,
+                   CASE WHEN booking_ref IN (upper(?), upper(?)) THEN 2.0
+                        WHEN booking_ref ILIKE ? OR booking_ref ILIKE ? THEN 1.0
+                        ELSE 0.0 END
+                   + similarity(booking_ref, ?) AS score
+              FROM candidates
+             ORDER BY score DESC, created_at DESC, id
+             LIMIT ? OFFSET ?
+            """;
+
+    // Booking refs are issued upper case as BKG-<code>; a bare code matches the code part too
+    private static final String BOOKING_REF_PREFIX = "BKG-";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer passengerTimer;
+    private final Timer bookingTimer;
+    private final int minQueryLength;
+    private final int maxPageSize;
+    private final int maxCandidates;
+
+    public SupportSearchService(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${search.min-query-length:3}") int minQueryLength,
+            @Value("${search.max-page-size:100}") int maxPageSize,
+            @Value("${search.max-candidates:1000}") int maxCandidates) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passengerTimer = Timer.builder("support.search.latency")
+                .tag("entity", "passenger")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.bookingTimer = Timer.builder("support.search.latency")
+                .tag("entity", "booking")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        // Shorter queries yield no trigram and would scan the table
+        this.minQueryLength = Math.max(3, minQueryLength);
+        this.maxPageSize = maxPageSize;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Passengers whose "first last" name or document number contains or resembles the query
+     *
+     * @throws IllegalArgumentException if the query is too short or the page is out of range
+     */
+    public SearchPage<PassengerHit> searchPassengers(String query, int page, int size) {
+        String q = normalize(query);
+        validatePage(page, size);
+        String contains = "%" + escapeLike(q) + "%";
+        String prefix = escapeLike(q) + "%";
+
+        return passengerTimer.record(() -> {
+            List<PassengerHit> rows = jdbcTemplate.query(PASSENGERS_SQL,
+                    (rs, rowNum) -> new PassengerHit(
+                            rs.getObject("id", UUID.class),
+                            rs.getString("first_name"),
+                            rs.getString("last_name"),
+                            rs.getObject("date_of_birth", LocalDate.class),
+                            rs.getString("doc_type"),
+                            rs.getString("doc_number"),
+                            rs.getDouble("score")),
+                    q, contains, q, contains, maxCandidates,
+                    q, prefix, prefix, prefix, q, q,
+                    size + 1, page * size);
+            return SearchPage.of(rows, page, size);
+        });
+    }
+
+    /**
+     * Bookings whose ref contains the query, case-insensitively
+     *
+     * @throws IllegalArgumentException if the query is too short or the page is out of range
+     */
+    public SearchPage<BookingHit> searchBookings(String query, int page, int size) {
+        String q = normalize(query);
+        validatePage(page, size);
+        String contains = "%" + escapeLike(q) + "%";
+        String prefix = escapeLike(q) + "%";
+
+        return bookingTimer.record(() -> {
+            List<BookingHit> rows = jdbcTemplate.query(BOOKINGS_SQL,
+                    (rs, rowNum) -> new BookingHit(
+                            rs.getObject("id", UUID.class),
+                            rs.getString("booking_ref"),
+                            BookingStatus.valueOf(rs.getString("status")),
+                            rs.getBigDecimal("total_amount"),
+                            rs.getString("currency"),
+                            rs.getObject("created_at", OffsetDateTime.class),
+                            rs.getObject("expires_at", OffsetDateTime.class),
+                            rs.getDouble("score")),
+                    q, BOOKING_REF_PREFIX + q, contains, maxCandidates,
+                    q, BOOKING_REF_PREFIX + q, prefix, BOOKING_REF_PREFIX + prefix, q,
+                    size + 1, page * size);
+            return SearchPage.of(rows, page, size);
+        });
+    }
+
+    private String normalize(String query) {
+        String q = query == null ? "" : query.strip().replaceAll("\\s+", " ");
+        if (q.length() < minQueryLength) {
+            throw new IllegalArgumentException("Search text must have at least " + minQueryLength + " characters");
+        }
+        return q;
+    }
+
+    private void validatePage(int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("size must be between 1 and " + maxPageSize);
+        }
+        if ((long) page * size >= maxCandidates) {
+            throw new IllegalArgumentException("Only the first " + maxCandidates + " matches can be paged, refine the search");
+        }
+    }
+
+    // Backslash is the default LIKE escape character
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * One page of ranked hits; hasMore tells whether another page follows
+     */
+    public record SearchPage<T>(List<T> items, int page, int size, boolean hasMore) {
+
+        static <T> SearchPage<T> of(List<T> rows, int page, int size) {
+            boolean hasMore = rows.size() > size;
+            return new SearchPage<>(hasMore ? rows.subList(0, size) : rows, page, size, hasMore);
+        }
+    }
+
+    public record PassengerHit(
+            UUID id,
+            String firstName,
+            String lastName,
+            LocalDate dateOfBirth,
+            String docType,
+            String docNumber,
+            double score) {
+    }
+
+    public record BookingHit(
+            UUID id,
+            String bookingRef,
+            BookingStatus status,
+            BigDecimal totalAmount,
+            String currency,
+            OffsetDateTime createdAt,
+            OffsetDateTime expiresAt,
+            double score) {
+    }
+}
@@ -0,0 +1,309 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams the ticketing report join straight from a database cursor to the client.
+ *
+ * The query runs on a read-only connection with autocommit off, so PgJDBC fetches
+ * {@code export.fetch-size} rows at a time instead of materialising the result.
+ * Each row is written as soon as it is read and the output is flushed after every
+ * fetch batch, so heap use does not depend on the size of the range and a client
+ * disconnect surfaces as a write failure that cancels the running statement.
+ */
+@Service
+@Slf4j
+public class TicketExportService {
+
+    private static final int OUTPUT_BUFFER_BYTES = 64 * 1024;
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final Semaphore exportSlots;
+    private final String reportsPath;
+    private final ReportTieringService reportTieringService;
+
+    public TicketExportService(
+            DataSource dataSource,
+            ObjectMapper objectMapper,
+            ReportTieringService reportTieringService,
+            @Value("${export.fetch-size:2000}") int fetchSize,
+            @Value("${export.max-concurrent:4}") int maxConcurrent,
+            @Value("${reports.path:/reports}") String reportsPath) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.exportSlots = new Semaphore(maxConcurrent);
+        this.reportsPath = reportsPath;
+        this.reportTieringService = reportTieringService;
+    }
+
+    public enum ExportFormat {
+        NDJSON,
+        CSV,
+        /** CSV rendered by Postgres through COPY TO STDOUT */
+        COPY_CSV
+    }
+
+    /**
+     * Reserve one of the bounded export slots; each running export holds a pooled connection
+     */
+    public boolean tryAcquireSlot() {
+        return exportSlots.tryAcquire();
+    }
+
+    public void releaseSlot() {
+        exportSlots.release();
+    }
+
+    /**
+     * Write all tickets issued in [startDate, endDate] to the output stream
+     */
+    public long export(LocalDate startDate, LocalDate endDate, ExportFormat format, OutputStream out) throws IOException {
+        if (format == ExportFormat.COPY_CSV) {
+            return copyCsv(startDate, endDate, out);
+        }
+
+        long start = System.currentTimeMillis();
+        long rows = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    TicketReportQuery.SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                statement.setDate(1, Date.valueOf(startDate));
+                statement.setDate(2, Date.valueOf(endDate));
+
+                try (ResultSet rs = statement.executeQuery()) {
+                    OutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_BYTES);
+                    rows = format == ExportFormat.CSV
+                            ? writeCsv(rs, buffered)
+                            : writeNdjson(rs, buffered);
+                    buffered.flush();
+                } catch (IOException e) {
+                    // Client went away: stop the backend from producing rows nobody will read
+                    cancelQuietly(statement);
+                    log.info("Ticket export {} to {} aborted by client after {} ms",
+                            startDate, endDate, System.currentTimeMillis() - start);
+                    throw e;
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            throw new IOException("Ticket export query failed: " + e.getMessage(), e);
+        }
+
+        log.info("Exported {} tickets ({} to {}) as {} in {} ms",
+                rows, startDate, endDate, format, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    /**
+     * Fast CSV path: Postgres renders the CSV and COPY TO STDOUT hands over raw bytes,
+     * which are written through without decoding rows into Java objects. PgJDBC cancels
+     * the COPY when writing to the output fails.
+     */
+    public long copyCsv(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        long rows;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            OutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_BYTES);
+            rows = copyManager.copyOut(TicketReportQuery.copyCsvSql(startDate, endDate), buffered);
+            buffered.flush();
+        } catch (SQLException e) {
+            throw new IOException("Ticket COPY export failed: " + e.getMessage(), e);
+        }
+
+        log.info("Copied {} tickets ({} to {}) as CSV in {} ms",
+                rows, startDate, endDate, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    /**
+     * Write the COPY CSV for a range to the reports volume, next to the xlsx reports.
+     * The file only appears under its final name once complete.
+     */
+    public ReportFile copyCsvToStorage(LocalDate startDate, LocalDate endDate) throws IOException {
+        return copyCsvToStorage(startDate, endDate, "ticketing-report-" + startDate + "-to-" + endDate + "-"
+                + TicketingReportJobService.newReportId() + ".csv");
+    }
+
+    public ReportFile copyCsvToStorage(LocalDate startDate, LocalDate endDate, String filename) throws IOException {
+        reportTieringService.ensureCapacity();
+        Path target = Path.of(reportsPath, filename);
+        Path partial = Path.of(reportsPath, filename + ".partial");
+
+        long rows;
+        try (OutputStream out = Files.newOutputStream(partial)) {
+            rows = copyCsv(startDate, endDate, out);
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        return new ReportFile(filename, rows, Files.size(target));
+    }
+
+    public record ReportFile(String filename, long rows, long sizeBytes) {
+    }
+
+    private long writeNdjson(ResultSet rs, OutputStream out) throws SQLException, IOException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        String[] names = new String[columnCount];
+        int[] types = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            names[i] = metaData.getColumnLabel(i + 1);
+            types[i] = metaData.getColumnType(i + 1);
+        }
+
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setRootValueSeparator(null);
+            while (rs.next()) {
+                generator.writeStartObject();
+                for (int i = 0; i < columnCount; i++) {
+                    generator.writeFieldName(names[i]);
+                    writeJsonValue(generator, rs, i + 1, types[i]);
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                if (++rows % fetchSize == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static void writeJsonValue(JsonGenerator generator, ResultSet rs, int column, int type)
+            throws SQLException, IOException {
+        switch (type) {
+            case Types.NUMERIC, Types.DECIMAL -> {
+                BigDecimal value = rs.getBigDecimal(column);
+                if (value == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            }
+            case Types.INTEGER, Types.SMALLINT, Types.BIGINT -> {
+                long value = rs.getLong(column);
+                if (rs.wasNull()) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            }
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> {
+                OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+                generator.writeString(value != null ? value.toString() : null);
+            }
+            default -> generator.writeString(rs.getString(column));
+        }
+    }
+
+    private long writeCsv(ResultSet rs, OutputStream out) throws SQLException, IOException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        int[] types = new int[columnCount];
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+
+        for (int i = 0; i < columnCount; i++) {
+            types[i] = metaData.getColumnType(i + 1);
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvField(writer, metaData.getColumnLabel(i + 1));
+        }
+        writer.write("\r\n");
+
+        long rows = 0;
+        while (rs.next()) {
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                String value = (types[i] == Types.TIMESTAMP || types[i] == Types.TIMESTAMP_WITH_TIMEZONE)
+                        ? String.valueOf(rs.getObject(i + 1, OffsetDateTime.class))
+                        : rs.getString(i + 1);
+                if (!rs.wasNull()) {
+                    writeCsvField(writer, value);
+                }
+            }
+            writer.write("\r\n");
+            if (++rows % fetchSize == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * RFC 4180 quoting: quote fields containing separators, quotes or line breaks
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static void cancelQuietly(PreparedStatement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            log.warn("Failed to cancel ticket export query: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import java.time.LocalDate;
+
+/**
+ * The ticketing report join, kept in step with REPORT_SQL in the Python reporter
+ * (train_company_ticketing_report/report_service.py) so exports and xlsx reports agree.
+ *
+ * Parameters are the inclusive start date and inclusive end date of the issue range.
+ * The range is expressed on issued_at itself rather than issued_at::date so the
+ * planner can use an index on issued_at.
+ */
+public final class TicketReportQuery {
+
+    public static final String SQL = """
+            WITH payment_summary AS (
+                SELECT booking_id,
+                       SUM(amount) AS paid_amount,
+                       MAX(status) AS latest_payment_status
+                FROM payments
+                GROUP BY booking_id
+            )
+            SELECT
+                t.ticket_ref,
+                t.status::text AS ticket_status,
+                t.price AS ticket_price,
+                t.currency AS ticket_currency,
+                t.issued_at,
+                b.booking_ref,
+                b.status::text AS booking_status,
+                b.total_amount AS booking_total_amount,
+                b.currency AS booking_currency,
+                pay.paid_amount,
+                pay.latest_payment_status::text AS latest_payment_status,
+                p.first_name AS passenger_first_name,
+                p.last_name AS passenger_last_name,
+                p.doc_type::text AS passenger_doc_type,
+                trip.service_date,
+                trip.departure_time,
+                trip.arrival_time,
+                dep.code AS departure_station_code,
+                arr.code AS arrival_station_code,
+                route.code AS route_code,
+                fare.code AS fare_code,
+                fare.seat_class::text AS fare_seat_class,
+                seat.seat_number,
+                carriage.carriage_number,
+                train.registration AS train_registration
+            FROM tickets t
+            JOIN trips trip ON trip.id = t.trip_id
+            JOIN routes route ON route.id = trip.route_id
+            JOIN stations dep ON dep.id = trip.departure_station_id
+            JOIN stations arr ON arr.id = trip.arrival_station_id
+            LEFT JOIN bookings b ON b.id = t.booking_id
+            LEFT JOIN passengers p ON p.id = t.passenger_id
+            LEFT JOIN fares fare ON fare.id = t.fare_id
+            LEFT JOIN seats seat ON seat.id = t.seat_id
+            LEFT JOIN carriages carriage ON carriage.id = seat.carriage_id
+            LEFT JOIN trains train ON train.id = trip.train_id
+            LEFT JOIN payment_summary pay ON pay.booking_id = b.id
+            WHERE t.issued_at >= ?::date AND t.issued_at < ?::date + 1
+            ORDER BY trip.service_date, trip.departure_time, t.ticket_ref
+            """;
+
+    /**
+     * COPY form of the report query rendering CSV with a header row. COPY does not accept
+     * bind parameters, so the dates are inlined.
+     */
+    public static String copyCsvSql(LocalDate startDate, LocalDate endDate) {
+        return "COPY (" + withDates(startDate, endDate) + ") TO STDOUT WITH (FORMAT csv, HEADER)";
+    }
+
+    /**
+     * EXPLAIN form of the report query; the top plan node's "Plan Rows" is the planner's
+     * estimate of the report's row count
+     */
+    public static String explainJsonSql(LocalDate startDate, LocalDate endDate) {
+        return "EXPLAIN (FORMAT JSON) " + withDates(startDate, endDate);
+    }
+
+    // LocalDate renders as a plain ISO date, so inlining it is safe
+    private static String withDates(LocalDate startDate, LocalDate endDate) {
+        return SQL
+                .replaceFirst("\\?::date", "'" + startDate + "'::date")
+                .replaceFirst("\\?::date", "'" + endDate + "'::date");
+    }
+
+    private TicketReportQuery() {
+    }
+}
@@ -1,55 +1,193 @@
 package io.bytebakehouse.train.company.orchestrator.service;
 
+import io.bytebakehouse.train.company.orchestrator.service.ReportBatchService.BatchStatus;
+import io.bytebakehouse.train.company.orchestrator.service.ReportCostEstimator.ExecutionMode;
+import io.bytebakehouse.train.company.orchestrator.service.ReportCostEstimator.ReportPlan;
+import io.bytebakehouse.train.company.orchestrator.service.TicketExportService.ReportFile;
 import io.kubernetes.client.custom.Quantity;
-import io.kubernetes.client.openapi.ApiClient;
-import io.kubernetes.client.openapi.Configuration;
 import io.kubernetes.client.openapi.apis.BatchV1Api;
 import io.kubernetes.client.openapi.models.*;
-import io.kubernetes.client.util.Config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class TicketingReportJobService {
 
     private final BatchV1Api batchV1Api;
     private final JobStatusService jobStatusService;
+    private final String progressCallbackBaseUrl;
+    private final ReportWorkPoolService workPoolService;
+    private final ReportTieringService reportTieringService;
+    private final ReportCostEstimator costEstimator;
+    private final TicketExportService ticketExportService;
+    // Batches submit their members through this service, so it is looked up lazily
+    private final ObjectProvider<ReportBatchService> reportBatchService;
+    private final long warmPoolMaxMemoryBytes;
     private final String namespace = "train-orchestrator";
     private static final String IMAGE = "train-company-ticketing-report:latest";
     private static final String PVC_NAME = "ticketing-reports-pvc";
     private static final String REPORTS_PATH = "/reports";
+    private static final long MIB = 1024L * 1024L;
+    public static final String INLINE_EXECUTOR = "inline";
 
-    public TicketingReportJobService(JobStatusService jobStatusService) throws IOException {
+    public TicketingReportJobService(
+            JobStatusService jobStatusService,
+            ReportWorkPoolService workPoolService,
+            ReportTieringService reportTieringService,
+            ReportCostEstimator costEstimator,
+            TicketExportService ticketExportService,
+            ObjectProvider<ReportBatchService> reportBatchService,
+            KubernetesApiGovernor kubernetesApiGovernor,
+            @Value("${job-status.progress-callback-base-url:http://train-orchestrator-svc:8080}") String progressCallbackBaseUrl,
+            @Value("${report-sizing.warm-pool-max-memory-bytes:536870912}") long warmPoolMaxMemoryBytes) {
         this.jobStatusService = jobStatusService;
-        ApiClient client = Configuration.getDefaultApiClient();
-        if (client == null) {
-            client = Config.defaultClient();
-            Configuration.setDefaultApiClient(client);
+        this.progressCallbackBaseUrl = progressCallbackBaseUrl;
+        this.workPoolService = workPoolService;
+        this.reportTieringService = reportTieringService;
+        this.costEstimator = costEstimator;
+        this.ticketExportService = ticketExportService;
+        this.reportBatchService = reportBatchService;
+        this.warmPoolMaxMemoryBytes = warmPoolMaxMemoryBytes;
+        this.batchV1Api = new BatchV1Api(kubernetesApiGovernor.getApiClient());
+    }
+
+    /**
+     * The cost estimate and execution mode a report would get if submitted now
+     */
+    public ReportPlan planReport(LocalDate startDate, LocalDate endDate, String format) {
+        validateFormat(format);
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date is before start date");
         }
-        this.batchV1Api = new BatchV1Api();
+        return costEstimator.plan(startDate, endDate, format, true);
     }
 
-    public V1Job createTicketingReportJob(LocalDate startDate, LocalDate endDate) throws Exception {
-        String timestamp = String.valueOf(System.currentTimeMillis() % 100000);
-        String name = "ticketing-report-" + timestamp;
-        
+    /**
+     * Run a report the way its cost estimate calls for: inline for small CSVs, sharded
+     * into a batch for ranges too large for one Job, otherwise on the warm worker pool
+     * if it fits a worker, or as a one-off Job sized to the estimate
+     */
+    public ReportSubmission submitReport(LocalDate startDate, LocalDate endDate, String format) throws Exception {
+        return submitReport(newReportId(), startDate, endDate, format, null);
+    }
+
+    /**
+     * Run a report under an id chosen by the caller, optionally as a member of a batch.
+     * Batch members are never sharded again.
+     *
+     * @param reportId from {@link #newReportId()}; the Job is named {@link #reportJobName(String)}
+     * @param batchId labels the Job and tags its status events; null for a standalone report
+     */
+    public ReportSubmission submitReport(String reportId, LocalDate startDate, LocalDate endDate,
+                                         String format, String batchId) throws Exception {
+        validateFormat(format);
+        ReportPlan plan = costEstimator.plan(startDate, endDate, format, batchId == null);
+        if (plan.mode() == ExecutionMode.SHARDED) {
+            BatchStatus batch = reportBatchService.getObject().submitPeriods(plan.shards(), format);
+            return new ReportSubmission(batch.batchId(), namespace, ReportBatchService.EXECUTOR,
+                    null, batch.createdAt());
+        }
+
+        reportTieringService.ensureCapacity();
+        String name = reportJobName(reportId);
+        String filename = reportFilename(startDate, endDate, reportId, format);
+        costEstimator.recordSubmission(name, startDate, endDate, format, plan);
+
+        if (plan.mode() == ExecutionMode.INLINE) {
+            OffsetDateTime startedAt = OffsetDateTime.now();
+            ReportFile file;
+            try {
+                file = ticketExportService.copyCsvToStorage(startDate, endDate, filename);
+            } catch (Exception e) {
+                // Nothing watches an inline report, so its failure is announced here
+                jobStatusService.publishFailed(name, INLINE_EXECUTOR, startDate.toString(), endDate.toString(),
+                        batchId, startedAt);
+                throw e;
+            }
+            jobStatusService.publishCompleted(name, INLINE_EXECUTOR, startDate.toString(), endDate.toString(),
+                    batchId, file.rows(), startedAt);
+            return new ReportSubmission(name, namespace, INLINE_EXECUTOR, filename, startedAt);
+        }
+
+        // Pool workers have fixed resources, so only reports that fit them go there
+        if (plan.memoryLimitBytes() <= warmPoolMaxMemoryBytes
+                && workPoolService.tryDispatch(name, startDate, endDate, format,
+                        REPORTS_PATH + "/" + filename, progressUrl(name))) {
+            jobStatusService.startMonitoringExternal(name, startDate.toString(), endDate.toString(), batchId);
+            return new ReportSubmission(name, namespace, ReportWorkPoolService.EXECUTOR,
+                    filename, OffsetDateTime.now());
+        }
+
+        V1Job job = createJob(name, filename, startDate, endDate, format, batchId, plan);
+        return new ReportSubmission(name, namespace, "job", filename, job.getMetadata().getCreationTimestamp());
+    }
+
+    public ReportSubmission submitReportForCurrentMonth() throws Exception {
+        LocalDate today = LocalDate.now();
+        return submitReport(today.withDayOfMonth(1), today, "xlsx");
+    }
+
+    public ReportSubmission submitReportForPreviousMonth() throws Exception {
+        LocalDate lastDayOfPreviousMonth = LocalDate.now().withDayOfMonth(1).minusDays(1);
+        return submitReport(lastDayOfPreviousMonth.withDayOfMonth(1), lastDayOfPreviousMonth, "xlsx");
+    }
+
+    static void validateFormat(String format) {
+        if (!"xlsx".equals(format) && !"csv".equals(format)) {
+            throw new IllegalArgumentException("Unsupported report format: " + format);
+        }
+    }
+
+    /**
+     * Suffix for report Job and file names: the clock in milliseconds plus 20 random bits,
+     * both base 36, so concurrent submissions on any replica do not collide. Lowercase
+     * alphanumerics keep it valid in Job names and label values.
+     */
+    public static String newReportId() {
+        String random = Long.toString(ThreadLocalRandom.current().nextLong(1L << 20), 36);
+        return Long.toString(System.currentTimeMillis(), 36) + "0".repeat(4 - random.length()) + random;
+    }
+
+    public static String reportJobName(String reportId) {
+        return "ticketing-report-" + reportId;
+    }
+
+    // Filename carries the report id to avoid conflicts
+    private static String reportFilename(LocalDate startDate, LocalDate endDate, String reportId, String format) {
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
+        return "ticketing-report-" + startDate.format(formatter) + "-to-" + endDate.format(formatter)
+                + "-" + reportId + "." + format;
+    }
+
+    private String progressUrl(String jobName) {
+        return progressCallbackBaseUrl + "/api/k8s/jobs/" + jobName + "/progress";
+    }
+
+    private V1Job createJob(String name, String filename, LocalDate startDate, LocalDate endDate,
+                            String format, String batchId, ReportPlan plan) throws Exception {
         DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
         String startDateStr = startDate.format(formatter);
         String endDateStr = endDate.format(formatter);
-        
-        // Generate filename with timestamp to avoid conflicts
-        String filename = "ticketing-report-" + startDateStr + "-to-" + endDateStr + "-" + timestamp + ".xlsx";
 
         // Environment variables
         V1EnvVar dbHost = new V1EnvVar().name("DB_HOST").value("postgres-svc");
         V1EnvVar dbPort = new V1EnvVar().name("DB_PORT").value("5432");
         V1EnvVar dbName = new V1EnvVar().name("DB_NAME").value("traindb");
+
+        // The worker posts row-level progress here
+        V1EnvVar progressUrl = new V1EnvVar()
+                .name("PROGRESS_URL")
+                .value(progressUrl(name));
         
         // DB credentials from secret (if available)
         V1EnvVar dbUser = new V1EnvVar()
@@ -73,25 +211,27 @@ public class TicketingReportJobService {
                 .name("report-generator")
                 .image(IMAGE)
                 .imagePullPolicy("IfNotPresent")
-                .env(Arrays.asList(dbHost, dbPort, dbName, dbUser, dbPassword))
+                .env(Arrays.asList(dbHost, dbPort, dbName, dbUser, dbPassword, progressUrl))
                 .args(Arrays.asList(
                         "--start-date", startDateStr,
                         "--end-date", endDateStr,
-                        "--output", REPORTS_PATH + "/" + filename
+                        "--output", REPORTS_PATH + "/" + filename,
+                        "--format", format
                 ))
                 .volumeMounts(Arrays.asList(
                         new V1VolumeMount()
                                 .name("report-output")
                                 .mountPath(REPORTS_PATH)
                 ))
+                // Sized from the report's cost estimate
                 .resources(new V1ResourceRequirements()
                         .requests(Map.of(
-                                "memory", new Quantity("256Mi"),
-                                "cpu", new Quantity("100m")
+                                "memory", mebibytes(plan.memoryRequestBytes()),
+                                "cpu", new Quantity(plan.cpuRequestMillis() + "m")
                         ))
                         .limits(Map.of(
-                                "memory", new Quantity("512Mi"),
-                                "cpu", new Quantity("500m")
+                                "memory", mebibytes(plan.memoryLimitBytes()),
+                                "cpu", new Quantity(plan.cpuLimitMillis() + "m")
                         ))
                 );
 
@@ -119,37 +259,56 @@ public class TicketingReportJobService {
                 .backoffLimit(3)
                 .ttlSecondsAfterFinished(86400); // Clean up after 1 day
 
+        // Job labels carry the period (read back by the status poller) and the batch, if any
+        Map<String, String> labels = new HashMap<>();
+        labels.put("app", "ticketing-report");
+        labels.put("start-date", startDateStr);
+        labels.put("end-date", endDateStr);
+        if (batchId != null) {
+            labels.put("report-batch", batchId);
+        }
+
         // Job
         V1Job job = new V1Job()
                 .apiVersion("batch/v1")
                 .kind("Job")
                 .metadata(new V1ObjectMeta()
                         .name(name)
-                        .labels(Map.of("app", "ticketing-report"))
-                        .annotations(Map.of("report-filename", filename)))
+                        .labels(labels)
+                        .annotations(annotations(filename, plan)))
                 .spec(jobSpec);
 
         // Create the Job in the namespace
         V1Job createdJob = batchV1Api.createNamespacedJob(namespace, job).execute();
         
         // Start monitoring the job for real-time status updates
-        jobStatusService.startMonitoring(name);
+        jobStatusService.startMonitoring(name, batchId);
         
         return createdJob;
     }
 
-    public V1Job createTicketingReportJobForCurrentMonth() throws Exception {
-        LocalDate today = LocalDate.now();
-        LocalDate startDate = today.withDayOfMonth(1);
-        LocalDate endDate = today;
-        return createTicketingReportJob(startDate, endDate);
+    private static Quantity mebibytes(long bytes) {
+        return new Quantity(((bytes + MIB - 1) / MIB) + "Mi");
     }
 
-    public V1Job createTicketingReportJobForPreviousMonth() throws Exception {
-        LocalDate today = LocalDate.now();
-        LocalDate firstDayOfCurrentMonth = today.withDayOfMonth(1);
-        LocalDate lastDayOfPreviousMonth = firstDayOfCurrentMonth.minusDays(1);
-        LocalDate firstDayOfPreviousMonth = lastDayOfPreviousMonth.withDayOfMonth(1);
-        return createTicketingReportJob(firstDayOfPreviousMonth, lastDayOfPreviousMonth);
+    private static Map<String, String> annotations(String filename, ReportPlan plan) {
+        Map<String, String> annotations = new HashMap<>();
+        annotations.put("report-filename", filename);
+        if (plan.estimatedRows() != null) {
+            annotations.put("report-estimated-rows", String.valueOf(plan.estimatedRows()));
+        }
+        return annotations;
+    }
+
+    /**
+     * Where a report went: a warm pool worker, a one-off Job, inline in the orchestrator,
+     * or a batch of shards (jobName is then the batch id and there is no single filename)
+     */
+    public record ReportSubmission(
+            String jobName,
+            String namespace,
+            String executor,
+            String filename,
+            OffsetDateTime creationTimestamp) {
     }
 }
@@ -0,0 +1,298 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import io.bytebakehouse.train.company.orchestrator.entity.enums.SeatClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Seats left per (trip, seat class), kept in trip_availability.
+ *
+ * The counters are changed by the paths that hold and free seats, inside their own
+ * transaction: {@link #reserve} when seats are held, {@link #releaseTicketSeats} when
+ * tickets are cancelled or refunded. Bulk refunds split this into {@link #releaseReservations}
+ * per batch and one {@link #returnSeats} at the end. A search over a date range is then one range scan
+ * on idx_trip_availability_date instead of counting seats and reservations per trip.
+ * {@link #recount} rebuilds the counters from seats and reservations; a trip created
+ * after the last recount gets its counter the first time {@link #reserve} needs it.
+ */
+@Service
+@Slf4j
+public class TripAvailabilityService {
+
+    private static final String SEARCH_SQL = """
+            SELECT a.trip_id, t.route_id, a.service_date, t.departure_time, t.arrival_time,
+                   a.seat_class::text AS seat_class, a.total_seats, a.available_seats
+              FROM trip_availability a
+              JOIN trips t ON t.id = a.trip_id
+             WHERE a.service_date BETWEEN ? AND ?
+               AND (?::text IS NULL OR a.seat_class = ?::seat_class)
+               AND a.available_seats >= ?
+               AND t.status <> 'cancelled'
+             ORDER BY a.service_date, t.departure_time, a.trip_id, a.seat_class
+            """;
+
+    private static final String RESERVE_SQL = """
+            UPDATE trip_availability
+               SET available_seats = available_seats - ?, updated_at = now()
+             WHERE trip_id = ? AND seat_class = ?::seat_class AND available_seats >= ?
+            RETURNING total_seats, available_seats
+            """;
+
+    private static final String COUNTER_EXISTS_SQL = """
+            SELECT 1 FROM trip_availability WHERE trip_id = ? AND seat_class = ?::seat_class
+            """;
+
+    // One trip's counter for one class, counted like RECOUNT_SQL; the caller's own uncommitted holds count as held
+    private static final String INIT_COUNTER_SQL = """
+            INSERT INTO trip_availability (trip_id, seat_class, service_date, total_seats, available_seats)
+            SELECT t.id, s.seat_class, t.service_date, count(*), count(*) - count(held.id)
+              FROM trips t
+              JOIN carriages c ON c.train_id = t.train_id
+              JOIN seats s ON s.carriage_id = c.id
+              LEFT JOIN LATERAL (
+                    SELECT sr.id
+                      FROM seat_reservations sr
+                      LEFT JOIN tickets tk ON tk.id = sr.ticket_id
+                     WHERE sr.trip_id = t.id AND sr.seat_id = s.id
+                       AND sr.status NOT IN ('released', 'cancelled', 'expired')
+                       AND (tk.id IS NULL OR tk.status NOT IN ('cancelled', 'refunded'))
+                   ) held ON true
+             WHERE t.id = ? AND s.seat_class = ?::seat_class
+             GROUP BY t.id, s.seat_class, t.service_date
+            ON CONFLICT (trip_id, seat_class) DO NOTHING
+            RETURNING total_seats, available_seats
+            """;
+
+    // Frees the reservations behind the tickets and reports the seats freed per (trip, class)
+    private static final String RELEASE_RESERVATIONS_SQL = """
+            WITH released AS (
+                UPDATE seat_reservations sr
+                   SET status = 'released'
+                  FROM tickets t
+                 WHERE t.id = ANY(?)
+                   AND sr.trip_id = t.trip_id AND sr.seat_id = t.seat_id
+                   AND (sr.ticket_id = t.id OR (sr.ticket_id IS NULL AND sr.reserved_by_booking = t.booking_id))
+                   AND sr.status NOT IN ('released', 'cancelled', 'expired')
+                RETURNING sr.trip_id, sr.seat_id
+            )
+            SELECT rel.trip_id, s.seat_class::text AS seat_class, count(*) AS seats
+              FROM released rel
+              JOIN seats s ON s.id = rel.seat_id
+             GROUP BY rel.trip_id, s.seat_class
+            """;
+
+    // Counters are locked in key order first, so two callers touching the same counters cannot deadlock
+    private static final String RETURN_SEATS_SQL = """
+            WITH freed AS (
+                SELECT f.trip_id, f.seat_class::seat_class AS seat_class, sum(f.seats)::int AS seats
+                  FROM unnest(?::uuid[], ?::text[], ?::int[]) AS f(trip_id, seat_class, seats)
+                 GROUP BY f.trip_id, f.seat_class
+            ), locked AS (
+                SELECT a.trip_id, a.seat_class
+                  FROM trip_availability a
+                  JOIN freed f ON f.trip_id = a.trip_id AND f.seat_class = a.seat_class
+                 ORDER BY a.trip_id, a.seat_class
+                   FOR UPDATE OF a
+            )
+            UPDATE trip_availability a
+               SET available_seats = LEAST(a.total_seats, a.available_seats + f.seats), updated_at = now()
+              FROM freed f
+              JOIN locked l ON l.trip_id = f.trip_id AND l.seat_class = f.seat_class
+             WHERE a.trip_id = f.trip_id AND a.seat_class = f.seat_class
+            """;
+
+    // Same rule as the V8 backfill: a reservation holds its seat until released, or its ticket is cancelled/refunded
+    private static final String RECOUNT_SQL = """
+            INSERT INTO trip_availability (trip_id, seat_class, service_date, total_seats, available_seats)
+            SELECT t.id, s.seat_class, t.service_date, count(*), count(*) - count(held.id)
+              FROM trips t
+              JOIN carriages c ON c.train_id = t.train_id
+              JOIN seats s ON s.carriage_id = c.id
+              LEFT JOIN LATERAL (
+                    SELECT sr.id
+                      FROM seat_reservations sr
+                      LEFT JOIN tickets tk ON tk.id = sr.ticket_id
+                     WHERE sr.trip_id = t.id AND sr.seat_id = s.id
+                       AND sr.status NOT IN ('released', 'cancelled', 'expired')
+                       AND (tk.id IS NULL OR tk.status NOT IN ('cancelled', 'refunded'))
+                   ) held ON true
+             WHERE t.service_date BETWEEN ? AND ?
+             GROUP BY t.id, s.seat_class, t.service_date
+            ON CONFLICT (trip_id, seat_class) DO UPDATE
+               SET service_date = EXCLUDED.service_date,
+                   total_seats = EXCLUDED.total_seats,
+                   available_seats = EXCLUDED.available_seats,
+                   updated_at = now()
+            """;
+
+    private static final RowMapper<SeatCounter> SEAT_COUNTER_MAPPER =
+            (rs, rowNum) -> new SeatCounter(rs.getInt("total_seats"), rs.getInt("available_seats"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxRangeDays;
+
+    public TripAvailabilityService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${availability.max-range-days:31}") int maxRangeDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxRangeDays = maxRangeDays;
+    }
+
+    /**
+     * Trips in a service date range with at least minSeats left, per seat class
+     *
+     * @param seatClass only this class, or every class when null
+     */
+    public List<TripAvailability> search(LocalDate from, LocalDate to, SeatClass seatClass, int minSeats) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Both from and to are required");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("Date range must not exceed " + maxRangeDays + " days");
+        }
+        String seatClassName = seatClass != null ? seatClass.name() : null;
+        return jdbcTemplate.query(SEARCH_SQL,
+                (rs, rowNum) -> new TripAvailability(
+                        rs.getObject("trip_id", UUID.class),
+                        rs.getObject("route_id", UUID.class),
+                        rs.getObject("service_date", LocalDate.class),
+                        rs.getObject("departure_time", LocalTime.class),
+                        rs.getObject("arrival_time", LocalTime.class),
+                        SeatClass.valueOf(rs.getString("seat_class")),
+                        rs.getInt("total_seats"),
+                        rs.getInt("available_seats")),
+                from, to, seatClassName, seatClassName, Math.max(minSeats, 0));
+    }
+
+    /**
+     * Take seats from a trip's counter; call inside the transaction that inserts the reservations,
+     * after they were written
+     *
+     * @return the counter after the change, or empty when fewer seats are left (the counter is then unchanged)
+     */
+    public Optional<SeatCounter> reserve(UUID tripId, SeatClass seatClass, int seats) {
+        Optional<SeatCounter> counter = take(tripId, seatClass, seats);
+        if (counter.isPresent()) {
+            return counter;
+        }
+        // Too few seats on an existing row is the common case on a sold-out trip; only a
+        // missing row needs the seat count below
+        if (counterExists(tripId, seatClass)) {
+            return Optional.empty();
+        }
+        // A missing row is created from the reservations, this transaction's included, so
+        // it already reflects the seats just held
+        List<SeatCounter> created = jdbcTemplate.query(INIT_COUNTER_SQL, SEAT_COUNTER_MAPPER, tripId, seatClass.name());
+        if (!created.isEmpty()) {
+            log.info("Created availability counter for trip {} {}", tripId, seatClass);
+            return created.stream().findFirst();
+        }
+        // A concurrent booking just created the row without seeing our holds, or the trip has no such seats
+        return take(tripId, seatClass, seats);
+    }
+
+    private boolean counterExists(UUID tripId, SeatClass seatClass) {
+        return !jdbcTemplate.queryForList(COUNTER_EXISTS_SQL, Integer.class, tripId, seatClass.name()).isEmpty();
+    }
+
+    private Optional<SeatCounter> take(UUID tripId, SeatClass seatClass, int seats) {
+        return jdbcTemplate.query(RESERVE_SQL, SEAT_COUNTER_MAPPER, seats, tripId, seatClass.name(), seats)
+                .stream().findFirst();
+    }
+
+    /**
+     * Release the seat reservations of cancelled or refunded tickets and give the seats back;
+     * call inside the transaction that changes the ticket status
+     *
+     * @return number of (trip, seat class) counters updated
+     */
+    public int releaseTicketSeats(UUID[] ticketIds) {
+        return returnSeats(releaseReservations(ticketIds));
+    }
+
+    /**
+     * Release the seat reservations of cancelled or refunded tickets without touching the
+     * counters; call inside the transaction that changes the ticket status, before it clears
+     * their seats. The caller hands the result to {@link #returnSeats} once that transaction
+     * committed, so batches of the same trip do not queue on its counter rows.
+     *
+     * @return seats freed per (trip, seat class)
+     */
+    public List<SeatRelease> releaseReservations(UUID[] ticketIds) {
+        return jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(RELEASE_RESERVATIONS_SQL);
+                    ps.setArray(1, con.createArrayOf("uuid", ticketIds));
+                    return ps;
+                },
+                (rs, rowNum) -> new SeatRelease(
+                        rs.getObject("trip_id", UUID.class),
+                        SeatClass.valueOf(rs.getString("seat_class")),
+                        rs.getInt("seats")));
+    }
+
+    /**
+     * Give released seats back to their counters in one statement; releases of the same
+     * (trip, seat class) are added up
+     *
+     * @return number of (trip, seat class) counters updated
+     */
+    public int returnSeats(Collection<SeatRelease> releases) {
+        if (releases.isEmpty()) {
+            return 0;
+        }
+        UUID[] tripIds = releases.stream().map(SeatRelease::tripId).toArray(UUID[]::new);
+        String[] seatClasses = releases.stream().map(release -> release.seatClass().name()).toArray(String[]::new);
+        Integer[] seats = releases.stream().map(SeatRelease::seats).toArray(Integer[]::new);
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(RETURN_SEATS_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", tripIds));
+            ps.setArray(2, con.createArrayOf("text", seatClasses));
+            ps.setArray(3, con.createArrayOf("integer", seats));
+            return ps;
+        });
+    }
+
+    /**
+     * Rebuild the counters of trips in a service date range from seats and reservations,
+     * e.g. after trips or seats were loaded outside the reservation paths
+     *
+     * @return number of counters written
+     */
+    public int recount(LocalDate from, LocalDate to) {
+        int counters = jdbcTemplate.update(RECOUNT_SQL, from, to);
+        log.info("Recounted availability for trips from {} to {}: {} counters", from, to, counters);
+        return counters;
+    }
+
+    public record SeatCounter(int totalSeats, int availableSeats) {
+    }
+
+    public record SeatRelease(UUID tripId, SeatClass seatClass, int seats) {
+    }
+
+    public record TripAvailability(
+            UUID tripId,
+            UUID routeId,
+            LocalDate serviceDate,
+            LocalTime departureTime,
+            LocalTime arrivalTime,
+            SeatClass seatClass,
+            int totalSeats,
+            int availableSeats) {
+    }
+}
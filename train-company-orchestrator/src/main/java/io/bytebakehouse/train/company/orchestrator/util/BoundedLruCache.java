@@ -0,0 +1,51 @@
+package io.bytebakehouse.train.company.orchestrator.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Small thread-safe LRU cache with a fixed maximum number of entries.
+ * All operations, including {@link #compute}, are atomic with respect to each other.
+ */
+public class BoundedLruCache<K, V> {
+
+    private final Map<K, V> entries;
+
+    public BoundedLruCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    public synchronized V putIfAbsent(K key, V value) {
+        return entries.putIfAbsent(key, value);
+    }
+
+    public synchronized V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        return entries.compute(key, remapping);
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
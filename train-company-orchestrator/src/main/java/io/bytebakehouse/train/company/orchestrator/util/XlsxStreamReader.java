@@ -0,0 +1,306 @@
+package io.bytebakehouse.train.company.orchestrator.util;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Forward-only reader for the first worksheet of an .xlsx workbook using StAX, so rows
+ * are visited one at a time without building the workbook in memory and reading can
+ * stop after any row.
+ *
+ * Shared strings are not loaded up front (the table can be as large as the sheet):
+ * cells referencing it come back as {@link SharedString} and callers resolve just the
+ * indices they keep with {@link #resolveSharedStrings}. Other cells come back as String,
+ * BigDecimal, Boolean, or LocalDate/LocalDateTime/LocalTime when the cell style is a
+ * date format. Empty cells are null.
+ */
+public class XlsxStreamReader implements Closeable {
+
+    private static final String SHEET_PREFIX = "xl/worksheets/sheet";
+    private static final LocalDateTime EXCEL_EPOCH = LocalDateTime.of(1899, 12, 30, 0, 0);
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final ZipFile zip;
+    private final XMLInputFactory xmlInputFactory;
+    private Set<Integer> dateStyles;
+
+    public XlsxStreamReader(Path path) throws IOException {
+        this.zip = new ZipFile(path.toFile());
+        this.xmlInputFactory = XMLInputFactory.newFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * A cell whose text lives in the shared strings table
+     */
+    public record SharedString(int index) {
+    }
+
+    @FunctionalInterface
+    public interface RowHandler {
+        /**
+         * @param rowIndex zero-based row number in the sheet
+         * @return false to stop reading
+         */
+        boolean row(int rowIndex, List<Object> cells);
+    }
+
+    /**
+     * Visit the rows of the first worksheet in order until the handler returns false
+     */
+    public void readRows(RowHandler handler) throws IOException {
+        if (dateStyles == null) {
+            dateStyles = readDateStyles();
+        }
+        ZipEntry sheet = firstSheet();
+        try (InputStream in = zip.getInputStream(sheet)) {
+            XMLStreamReader xml = xmlInputFactory.createXMLStreamReader(in);
+            try {
+                readSheet(xml, handler);
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed worksheet: " + e.getMessage(), e);
+        }
+    }
+
+    private void readSheet(XMLStreamReader xml, RowHandler handler) throws XMLStreamException {
+        List<Object> cells = null;
+        int rowIndex = -1;
+        int column = -1;
+        String type = null;
+        int style = 0;
+        String value = null;
+        StringBuilder inline = null;
+
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (xml.getLocalName()) {
+                    case "row" -> {
+                        cells = new ArrayList<>();
+                        String r = xml.getAttributeValue(null, "r");
+                        rowIndex = r != null ? Integer.parseInt(r) - 1 : rowIndex + 1;
+                        column = -1;
+                    }
+                    case "c" -> {
+                        String ref = xml.getAttributeValue(null, "r");
+                        column = ref != null ? columnIndex(ref) : column + 1;
+                        type = xml.getAttributeValue(null, "t");
+                        String s = xml.getAttributeValue(null, "s");
+                        style = s != null ? Integer.parseInt(s) : 0;
+                        value = null;
+                        inline = null;
+                    }
+                    case "v" -> value = xml.getElementText();
+                    case "is" -> inline = new StringBuilder();
+                    case "t" -> {
+                        if (inline != null) {
+                            inline.append(xml.getElementText());
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                switch (xml.getLocalName()) {
+                    case "c" -> {
+                        while (cells.size() < column) {
+                            cells.add(null);
+                        }
+                        cells.add(toCellValue(type, style, value, inline));
+                    }
+                    case "row" -> {
+                        if (!handler.row(rowIndex, cells)) {
+                            return;
+                        }
+                    }
+                    case "sheetData" -> {
+                        return;
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+
+    private Object toCellValue(String type, int style, String value, StringBuilder inline) {
+        if ("inlineStr".equals(type)) {
+            return inline != null && !inline.isEmpty() ? inline.toString() : null;
+        }
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        if (type == null || "n".equals(type)) {
+            return dateStyles.contains(style) ? fromSerial(Double.parseDouble(value)) : new BigDecimal(value);
+        }
+        return switch (type) {
+            case "s" -> new SharedString(Integer.parseInt(value));
+            case "b" -> "1".equals(value);
+            default -> value;
+        };
+    }
+
+    /**
+     * Convert an Excel serial date (days since 1899-12-30, fraction = time of day)
+     */
+    private static Object fromSerial(double serial) {
+        long millis = Math.round(serial * MILLIS_PER_DAY);
+        if (serial < 1) {
+            return LocalTime.ofNanoOfDay(Math.floorMod(millis, MILLIS_PER_DAY) * 1_000_000L);
+        }
+        LocalDateTime dateTime = EXCEL_EPOCH.plusNanos(millis * 1_000_000L);
+        return millis % MILLIS_PER_DAY == 0 ? dateTime.toLocalDate() : dateTime;
+    }
+
+    /**
+     * Resolve shared string indices, reading the table only up to the highest one needed
+     */
+    public Map<Integer, String> resolveSharedStrings(Set<Integer> indices) throws IOException {
+        ZipEntry entry = zip.getEntry("xl/sharedStrings.xml");
+        if (entry == null || indices.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        int last = Collections.max(indices);
+        Map<Integer, String> resolved = new HashMap<>(indices.size() * 2);
+        try (InputStream in = zip.getInputStream(entry)) {
+            XMLStreamReader xml = xmlInputFactory.createXMLStreamReader(in);
+            try {
+                int index = -1;
+                StringBuilder text = null;
+                while (xml.hasNext() && index <= last) {
+                    int event = xml.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        if ("si".equals(xml.getLocalName())) {
+                            index++;
+                            text = indices.contains(index) ? new StringBuilder() : null;
+                        } else if ("t".equals(xml.getLocalName()) && text != null) {
+                            text.append(xml.getElementText());
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT
+                            && "si".equals(xml.getLocalName()) && text != null) {
+                        resolved.put(index, text.toString());
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed shared strings table: " + e.getMessage(), e);
+        }
+        return resolved;
+    }
+
+    /**
+     * Indices of cell formats (cellXfs) whose number format displays a date or time
+     */
+    private Set<Integer> readDateStyles() throws IOException {
+        Set<Integer> styles = new HashSet<>();
+        ZipEntry entry = zip.getEntry("xl/styles.xml");
+        if (entry == null) {
+            return styles;
+        }
+        try (InputStream in = zip.getInputStream(entry)) {
+            XMLStreamReader xml = xmlInputFactory.createXMLStreamReader(in);
+            try {
+                Set<Integer> customDateFormats = new HashSet<>();
+                boolean inCellXfs = false;
+                int xfIndex = 0;
+                while (xml.hasNext()) {
+                    int event = xml.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        switch (xml.getLocalName()) {
+                            case "numFmt" -> {
+                                if (isDateFormat(xml.getAttributeValue(null, "formatCode"))) {
+                                    customDateFormats.add(Integer.parseInt(xml.getAttributeValue(null, "numFmtId")));
+                                }
+                            }
+                            case "cellXfs" -> inCellXfs = true;
+                            case "xf" -> {
+                                if (inCellXfs) {
+                                    String id = xml.getAttributeValue(null, "numFmtId");
+                                    int numFmtId = id != null ? Integer.parseInt(id) : 0;
+                                    if (isBuiltInDateFormat(numFmtId) || customDateFormats.contains(numFmtId)) {
+                                        styles.add(xfIndex);
+                                    }
+                                    xfIndex++;
+                                }
+                            }
+                            default -> {
+                            }
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT && "cellXfs".equals(xml.getLocalName())) {
+                        break;
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed styles: " + e.getMessage(), e);
+        }
+        return styles;
+    }
+
+    private static boolean isBuiltInDateFormat(int numFmtId) {
+        return (numFmtId >= 14 && numFmtId <= 22) || (numFmtId >= 45 && numFmtId <= 47);
+    }
+
+    private static boolean isDateFormat(String formatCode) {
+        if (formatCode == null) {
+            return false;
+        }
+        // Ignore literal text and [...] sections such as colours and currency symbols
+        String stripped = formatCode.replaceAll("\"[^\"]*\"", "").replaceAll("\\[[^]]*]", "");
+        return stripped.matches("(?i).*[ymdhs].*");
+    }
+
+    private ZipEntry firstSheet() throws IOException {
+        ZipEntry sheet = zip.getEntry(SHEET_PREFIX + "1.xml");
+        if (sheet != null) {
+            return sheet;
+        }
+        return zip.stream()
+                .filter(entry -> entry.getName().startsWith(SHEET_PREFIX) && entry.getName().endsWith(".xml"))
+                .findFirst()
+                .orElseThrow(() -> new IOException("Workbook has no worksheet"));
+    }
+
+    /**
+     * Zero-based column of a cell reference such as "AB12"
+     */
+    private static int columnIndex(String ref) {
+        int column = 0;
+        for (int i = 0; i < ref.length() && Character.isLetter(ref.charAt(i)); i++) {
+            column = column * 26 + (Character.toUpperCase(ref.charAt(i)) - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        zip.close();
+    }
+}
@@ -0,0 +1,17 @@
+-------------------------
+-- SUPPORT SEARCH
+-- Trigram GIN indexes for partial and fuzzy lookups by staff. gin_trgm_ops serves
+-- ILIKE '%x%' and 'x%' patterns (3+ characters) as well as word similarity (<%), so
+-- no separate text_pattern_ops prefix index is needed. Names are indexed as one
+-- "first last" expression, which the search query repeats verbatim.
+-------------------------
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_passengers_name_trgm
+    ON passengers USING gin ((first_name || ' ' || last_name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_passengers_doc_number_trgm
+    ON passengers USING gin (doc_number gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_ref_trgm
+    ON bookings USING gin (booking_ref gin_trgm_ops);
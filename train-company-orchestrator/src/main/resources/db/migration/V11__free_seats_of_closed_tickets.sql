@@ -0,0 +1,9 @@
+-------------------------
+-- FREE SEATS OF CLOSED TICKETS
+-- ux_trip_seat covers tickets of every status, so a cancelled or refunded ticket that
+-- still carries its seat_id blocks the seat from being sold again. Closing a ticket now
+-- clears seat_id; this clears it on tickets closed before.
+-------------------------
+UPDATE tickets
+   SET seat_id = NULL
+ WHERE status IN ('cancelled', 'refunded') AND seat_id IS NOT NULL;
@@ -0,0 +1,8 @@
+-------------------------
+-- SUPPORT SEARCH: EXACT DOCUMENT NUMBER
+-- Case-insensitive equality lookup for the exact-match branch of the passenger search,
+-- which the trigram index of V10 cannot serve as a plain index probe. Booking refs
+-- already have the btree of their UNIQUE constraint.
+-------------------------
+CREATE INDEX IF NOT EXISTS idx_passengers_doc_number_upper
+    ON passengers (upper(doc_number));
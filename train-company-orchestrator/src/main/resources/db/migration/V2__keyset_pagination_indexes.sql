@@ -0,0 +1,14 @@
+-------------------------
+-- KEYSET PAGINATION INDEXES
+-- Composite (filter, id) indexes so each "WHERE filter = ? AND id > ? ORDER BY id LIMIT n"
+-- page is a single index range scan. They supersede the single-column indexes below.
+-------------------------
+CREATE INDEX IF NOT EXISTS idx_tickets_status_id ON tickets(status, id);
+CREATE INDEX IF NOT EXISTS idx_tickets_trip_id ON tickets(trip_id, id);
+DROP INDEX IF EXISTS idx_tickets_trip;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_status_id ON bookings(status, id);
+DROP INDEX IF EXISTS idx_bookings_status;
+
+CREATE INDEX IF NOT EXISTS idx_seat_res_trip_id ON seat_reservations(trip_id, id);
+DROP INDEX IF EXISTS idx_seat_res_trip;
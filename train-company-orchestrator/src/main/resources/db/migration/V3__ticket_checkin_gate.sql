@@ -0,0 +1,4 @@
+-------------------------
+-- GATE CHECK-IN
+-------------------------
+ALTER TABLE tickets ADD COLUMN IF NOT EXISTS checked_in_gate text;
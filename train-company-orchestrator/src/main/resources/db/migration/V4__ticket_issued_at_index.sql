@@ -0,0 +1,5 @@
+-------------------------
+-- REPORT RANGE INDEX
+-- Ticket exports and reports select by issue date range
+-------------------------
+CREATE INDEX IF NOT EXISTS idx_tickets_issued_at ON tickets(issued_at);
@@ -0,0 +1,32 @@
+-------------------------
+-- REPORT WORK QUEUE
+-- Reports dispatched to the warm worker pool instead of a one-off Job.
+-- Workers claim tasks with FOR UPDATE SKIP LOCKED and are woken by NOTIFY report_tasks.
+-------------------------
+CREATE TABLE IF NOT EXISTS report_tasks (
+    id bigserial PRIMARY KEY,
+    job_name text NOT NULL UNIQUE,
+    start_date date NOT NULL,
+    end_date date NOT NULL,
+    format text NOT NULL DEFAULT 'xlsx',
+    output_path text NOT NULL,
+    progress_url text,
+    status text NOT NULL DEFAULT 'queued',
+    worker_id text,
+    attempts int NOT NULL DEFAULT 0,
+    error text,
+    enqueued_at timestamptz NOT NULL DEFAULT now(),
+    started_at timestamptz,
+    heartbeat_at timestamptz,
+    finished_at timestamptz
+);
+
+CREATE INDEX IF NOT EXISTS idx_report_tasks_queued ON report_tasks(id) WHERE status = 'queued';
+CREATE INDEX IF NOT EXISTS idx_report_tasks_running ON report_tasks(heartbeat_at) WHERE status = 'running';
+
+CREATE TABLE IF NOT EXISTS report_workers (
+    worker_id text PRIMARY KEY,
+    state text NOT NULL DEFAULT 'idle',
+    started_at timestamptz NOT NULL DEFAULT now(),
+    last_heartbeat_at timestamptz NOT NULL DEFAULT now()
+);
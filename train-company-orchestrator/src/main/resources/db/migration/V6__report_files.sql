@@ -0,0 +1,18 @@
+-------------------------
+-- REPORT FILE CATALOG
+-- One row per report on the reports volume, kept in sync by the storage manager.
+-- Access stats drive eviction (least recently downloaded first) and cold-tier moves.
+-------------------------
+CREATE TABLE IF NOT EXISTS report_files (
+    filename text PRIMARY KEY,
+    tier text NOT NULL DEFAULT 'hot',
+    size_bytes bigint NOT NULL,
+    stored_bytes bigint NOT NULL,
+    created_at timestamptz NOT NULL DEFAULT now(),
+    last_accessed_at timestamptz,
+    download_count int NOT NULL DEFAULT 0,
+    CONSTRAINT chk_report_files_tier CHECK (tier IN ('hot', 'cold'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_report_files_last_used
+    ON report_files ((COALESCE(last_accessed_at, created_at)));
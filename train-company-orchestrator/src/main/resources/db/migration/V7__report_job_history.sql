@@ -0,0 +1,27 @@
+-------------------------
+-- REPORT JOB HISTORY
+-- One row per submitted report: the estimate and sizing chosen at submission, then the
+-- actual rows, duration and peak memory once it finishes. Recent rows calibrate the
+-- report cost estimator.
+-------------------------
+CREATE TABLE IF NOT EXISTS report_job_history (
+    job_name text PRIMARY KEY,
+    format text NOT NULL,
+    mode text NOT NULL,
+    start_date date NOT NULL,
+    end_date date NOT NULL,
+    estimated_rows bigint NOT NULL,
+    memory_limit_bytes bigint,
+    status text NOT NULL DEFAULT 'submitted',
+    actual_rows bigint,
+    duration_ms bigint,
+    peak_memory_bytes bigint,
+    oom_killed boolean NOT NULL DEFAULT false,
+    submitted_at timestamptz NOT NULL DEFAULT now(),
+    finished_at timestamptz,
+    CONSTRAINT chk_report_job_history_status CHECK (status IN ('submitted', 'succeeded', 'failed'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_report_job_history_finished
+    ON report_job_history (format, finished_at DESC)
+    WHERE status <> 'submitted';
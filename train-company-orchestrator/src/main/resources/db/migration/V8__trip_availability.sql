@@ -0,0 +1,35 @@
+-------------------------
+-- TRIP AVAILABILITY
+-- Seats left per (trip, seat class), maintained in the same transaction as the
+-- reservations and refunds that change them, so availability search reads these
+-- rows instead of counting seats and reservations per trip.
+-------------------------
+CREATE TABLE IF NOT EXISTS trip_availability (
+    trip_id uuid NOT NULL REFERENCES trips(id) ON DELETE CASCADE,
+    seat_class seat_class NOT NULL,
+    service_date date NOT NULL,
+    total_seats int NOT NULL,
+    available_seats int NOT NULL CHECK (available_seats >= 0),
+    updated_at timestamptz NOT NULL DEFAULT now(),
+    PRIMARY KEY (trip_id, seat_class)
+);
+
+CREATE INDEX IF NOT EXISTS idx_trip_availability_date
+    ON trip_availability(service_date, seat_class) INCLUDE (trip_id, available_seats, total_seats);
+
+-- A reservation holds its seat until it is released, cancelled or expired, or its ticket is cancelled/refunded
+INSERT INTO trip_availability (trip_id, seat_class, service_date, total_seats, available_seats)
+SELECT t.id, s.seat_class, t.service_date, count(*), count(*) - count(held.id)
+  FROM trips t
+  JOIN carriages c ON c.train_id = t.train_id
+  JOIN seats s ON s.carriage_id = c.id
+  LEFT JOIN LATERAL (
+        SELECT sr.id
+          FROM seat_reservations sr
+          LEFT JOIN tickets tk ON tk.id = sr.ticket_id
+         WHERE sr.trip_id = t.id AND sr.seat_id = s.id
+           AND sr.status NOT IN ('released', 'cancelled', 'expired')
+           AND (tk.id IS NULL OR tk.status NOT IN ('cancelled', 'refunded'))
+       ) held ON true
+ GROUP BY t.id, s.seat_class, t.service_date
+ON CONFLICT (trip_id, seat_class) DO NOTHING;
@@ -0,0 +1,14 @@
+-------------------------
+-- EXPIRY SWEEP INDEXES
+-- Partial indexes holding only rows that can still expire, so each sweep reads the
+-- expired rows and nothing else: pending bookings by expiry, seat holds by hold end,
+-- and the holds of a booking (to release them when the booking expires).
+-------------------------
+CREATE INDEX IF NOT EXISTS idx_bookings_pending_expiry
+    ON bookings(expires_at) WHERE status = 'pending';
+
+CREATE INDEX IF NOT EXISTS idx_seat_res_hold_expiry
+    ON seat_reservations(reserved_until) WHERE status = 'reserved';
+
+CREATE INDEX IF NOT EXISTS idx_seat_res_booking_held
+    ON seat_reservations(reserved_by_booking) WHERE status = 'reserved';
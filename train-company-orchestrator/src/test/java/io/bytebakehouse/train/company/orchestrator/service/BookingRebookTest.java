@@ -0,0 +1,72 @@
+package io.bytebakehouse.train.company.orchestrator.service;
+
+import io.bytebakehouse.train.company.orchestrator.service.BookingService.BookedTicket;
+import io.bytebakehouse.train.company.orchestrator.service.BookingService.BookingRequest;
+import io.bytebakehouse.train.company.orchestrator.service.BookingService.BookingResult;
+import io.bytebakehouse.train.company.orchestrator.service.BookingService.PassengerSeat;
+import io.bytebakehouse.train.company.orchestrator.service.RefundService.RefundRun;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Book a seat, cancel it, book the same seat again.
+ *
+ * Runs against a real Postgres given by TEST_DATABASE_URL (the application cleans and
+ * seeds that database on start, so point it at a throwaway one); skipped otherwise.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${TEST_DATABASE_URL}",
+        "spring.datasource.username=${TEST_DATABASE_USERNAME:postgres}",
+        "spring.datasource.password=${TEST_DATABASE_PASSWORD:mysecretpassword}",
+        "expiry.enabled=false"
+})
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class BookingRebookTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RefundService refundService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cancelledSeatCanBeBookedAgain() {
+        // Latest seeded trip, so it has not departed yet
+        UUID tripId = jdbcTemplate.queryForObject(
+                "SELECT id FROM trips ORDER BY service_date DESC, departure_time DESC LIMIT 1", UUID.class);
+        UUID fareId = jdbcTemplate.queryForObject("SELECT id FROM fares WHERE code = 'ECON-FLEX'", UUID.class);
+
+        BookedTicket first = book(tripId, fareId, null);
+        UUID seatId = first.seatId();
+
+        RefundRun refund = refundService.refundTickets(List.of(first.ticketId()), "rebook test");
+        assertThat(refund.getFailedChunks()).isEmpty();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT seat_id FROM tickets WHERE id = ?", UUID.class, first.ticketId())).isNull();
+
+        BookedTicket again = book(tripId, fareId, seatId);
+        assertThat(again.seatId()).isEqualTo(seatId);
+
+        // Unassigned bookings must not keep picking a seat an old ticket still blocks
+        BookedTicket other = book(tripId, fareId, null);
+        assertThat(other.seatId()).isNotEqualTo(seatId);
+    }
+
+    private BookedTicket book(UUID tripId, UUID fareId, UUID seatId) {
+        BookingResult result = bookingService.createBooking(new BookingRequest(null, tripId, fareId, null, "card",
+                List.of(new PassengerSeat(null, "Rebook", "Tester", null, null, null, seatId))));
+        assertThat(result.tickets()).hasSize(1);
+        return result.tickets().getFirst();
+    }
+}
@@ -6,7 +6,9 @@ from datetime import date
 from pathlib import Path
 
 from train_company_ticketing_report.config import DatabaseSettings
-from train_company_ticketing_report.report_service import fetch_ticket_report
+from train_company_ticketing_report.progress import ProgressReporter
+from train_company_ticketing_report.report_service import copy_ticket_report_csv, fetch_ticket_report
+from train_company_ticketing_report.worker import run_worker
 
 
 def parse_iso_date(value: str, arg_name: str) -> date:
@@ -22,24 +24,45 @@ def default_start_date() -> date:
 
 
 def parse_args(argv: list[str] | None = None) -> argparse.Namespace:
-    parser = argparse.ArgumentParser(description="Generate the train ticketing Excel report.")
+    parser = argparse.ArgumentParser(description="Generate the train ticketing report (Excel or CSV).")
     parser.add_argument("--start-date", help="Inclusive start date (YYYY-MM-DD)")
     parser.add_argument("--end-date", help="Inclusive end date (YYYY-MM-DD)")
-    parser.add_argument("--output", default="ticketing-report.xlsx", help="Path to the Excel file to write")
+    parser.add_argument("--output", default=None, help="Path to the report file to write")
+    parser.add_argument(
+        "--format",
+        choices=["xlsx", "csv"],
+        default="xlsx",
+        help="xlsx builds an Excel workbook; csv streams the query with COPY TO STDOUT (much faster for large ranges)",
+    )
+    parser.add_argument(
+        "--worker",
+        action="store_true",
+        help="Run as a long-lived warm pool worker that takes reports from the orchestrator's queue",
+    )
     return parser.parse_args(argv)
 
 
 def main(argv: list[str] | None = None) -> int:
     args = parse_args(argv)
+    if args.worker:
+        return run_worker()
 
     start_date = parse_iso_date(args.start_date, "--start-date") if args.start_date else default_start_date()
     end_date = parse_iso_date(args.end_date, "--end-date") if args.end_date else date.today()
 
     settings = DatabaseSettings.from_env()
-    report = fetch_ticket_report(settings=settings, start_date=start_date, end_date=end_date)
-
-    output_path = Path(args.output)
-    report.to_excel(output_path)
+    progress = ProgressReporter.from_env()
+    output_path = Path(args.output or f"ticketing-report.{args.format}")
+
+    if args.format == "csv":
+        rows = copy_ticket_report_csv(
+            settings=settings, start_date=start_date, end_date=end_date, path=output_path, progress=progress
+        )
+        print(f"Exported {rows} rows to {output_path.resolve()}")
+        return 0
+
+    report = fetch_ticket_report(settings=settings, start_date=start_date, end_date=end_date, progress=progress)
+    report.to_excel(output_path, progress=progress)
 
     print(f"Exported {len(report.dataframe)} rows to {output_path.resolve()}")
     return 0
@@ -2,5 +2,7 @@
 
 __all__ = [
     "config",
+    "progress",
     "report_service",
+    "worker",
 ]
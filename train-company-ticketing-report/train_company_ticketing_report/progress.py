@@ -0,0 +1,78 @@
+from __future__ import annotations
+
+import json
+import os
+import resource
+import sys
+import time
+import urllib.request
+
+
+class ProgressReporter:
+    """Posts row-level progress to the orchestrator's progress callback.
+
+    Reporting is best effort: updates are throttled to one per ``min_interval`` seconds
+    (phase changes and forced updates always go out) and failures never stop the report.
+    Without a ``PROGRESS_URL`` every call is a no-op.
+    """
+
+    def __init__(self, url: str | None, min_interval: float = 1.0, timeout: float = 2.0) -> None:
+        self.url = url
+        self.min_interval = min_interval
+        self.timeout = timeout
+        self._state: dict[str, object] = {}
+        self._last_sent = 0.0
+        self._warned = False
+
+    @classmethod
+    def from_env(cls) -> "ProgressReporter":
+        return cls(os.getenv("PROGRESS_URL") or None)
+
+    @property
+    def enabled(self) -> bool:
+        return bool(self.url)
+
+    def update(self, force: bool = False, **fields: object) -> None:
+        if not self.url:
+            return
+
+        phase_changed = "phase" in fields and fields["phase"] != self._state.get("phase")
+        self._state.update({key: value for key, value in fields.items() if value is not None})
+
+        now = time.monotonic()
+        if not (force or phase_changed or now - self._last_sent >= self.min_interval):
+            return
+        self._last_sent = now
+        self._send()
+
+    def _send(self) -> None:
+        payload = {
+            "phase": self._state.get("phase"),
+            "rowsTotal": self._state.get("rows_total"),
+            "rowsFetched": self._state.get("rows_fetched"),
+            "rowsWritten": self._state.get("rows_written"),
+            "bytesWritten": self._state.get("bytes_written"),
+            "peakMemoryBytes": peak_memory_bytes(),
+        }
+        request = urllib.request.Request(
+            self.url,
+            data=json.dumps(payload).encode("utf-8"),
+            headers={"Content-Type": "application/json"},
+            method="POST",
+        )
+        try:
+            with urllib.request.urlopen(request, timeout=self.timeout):
+                pass
+        except Exception as exc:  # pragma: no cover - network failures are non-fatal
+            if not self._warned:
+                print(f"Progress reporting failed, continuing without it: {exc}", file=sys.stderr)
+                self._warned = True
+
+
+def peak_memory_bytes() -> int:
+    """Peak resident memory of this process so far (ru_maxrss is in KiB on Linux).
+
+    The orchestrator records it per report to size future Jobs. In warm worker mode it
+    is the peak over the worker's lifetime, which only ever overstates a report's need.
+    """
+    return resource.getrusage(resource.RUSAGE_SELF).ru_maxrss * 1024
@@ -1,5 +1,6 @@
 from __future__ import annotations
 
+import json
 from dataclasses import dataclass
 from datetime import date
 from pathlib import Path
@@ -7,8 +8,13 @@ from typing import Iterable
 
 import pandas as pd
 import psycopg
+from openpyxl import Workbook
 
 from .config import DatabaseSettings
+from .progress import ProgressReporter
+
+FETCH_BATCH_ROWS = 5000
+WRITE_PROGRESS_EVERY = 5000
 
 REPORT_SQL = """
 WITH payment_summary AS (
@@ -60,12 +66,15 @@ WHERE t.issued_at::date BETWEEN %(start_date)s AND %(end_date)s
 ORDER BY trip.service_date, trip.departure_time, t.ticket_ref
 """
 
+# COPY cannot take server-side parameters; psycopg binds them client-side for copy()
+COPY_CSV_SQL = f"COPY ({REPORT_SQL}) TO STDOUT WITH (FORMAT csv, HEADER)"
+
 
 @dataclass
 class TicketingReport:
     dataframe: pd.DataFrame
 
-    def to_excel(self, path: Path | str) -> Path:
+    def to_excel(self, path: Path | str, progress: ProgressReporter | None = None) -> Path:
         target = Path(path)
         target.parent.mkdir(parents=True, exist_ok=True)
         
@@ -74,26 +83,121 @@ class TicketingReport:
         for col in df.select_dtypes(include=['datetimetz']).columns:
             df[col] = df[col].dt.tz_localize(None)
         
-        with pd.ExcelWriter(target, engine="openpyxl") as writer:
-            df.to_excel(writer, sheet_name="TicketingReport", index=False)
+        # from_env() always returns a reporter; without a PROGRESS_URL take the fast path
+        if progress is None or not progress.enabled:
+            with pd.ExcelWriter(target, engine="openpyxl") as writer:
+                df.to_excel(writer, sheet_name="TicketingReport", index=False)
+            return target
+
+        # Write row by row with a write-only workbook so progress can be reported as rows land
+        workbook = Workbook(write_only=True)
+        sheet = workbook.create_sheet("TicketingReport")
+        sheet.append(list(df.columns))
+        values = df.astype(object).where(df.notna(), None)
+        written = 0
+        progress.update(phase="writing", rows_written=0, force=True)
+        for row in values.itertuples(index=False, name=None):
+            sheet.append(list(row))
+            written += 1
+            if written % WRITE_PROGRESS_EVERY == 0:
+                progress.update(rows_written=written)
+        workbook.save(target)
+        progress.update(phase="done", rows_written=written, bytes_written=target.stat().st_size, force=True)
         return target
 
 
+def estimate_report_rows(conn: psycopg.Connection, params: dict) -> int | None:
+    """The planner's row estimate for the report query, from EXPLAIN (no rows are read)."""
+    try:
+        with conn.cursor() as cur:
+            cur.execute("EXPLAIN (FORMAT JSON) " + REPORT_SQL, params)
+            plan = cur.fetchone()[0]
+        if isinstance(plan, str):
+            plan = json.loads(plan)
+        return int(plan[0]["Plan"]["Plan Rows"])
+    except Exception:  # pragma: no cover - the estimate is informational only
+        conn.rollback()
+        return None
+
+
 def fetch_ticket_report(
     settings: DatabaseSettings,
     start_date: date,
     end_date: date,
+    progress: ProgressReporter | None = None,
 ) -> TicketingReport:
-    """Execute the report query and return a pandas dataframe wrapper."""
+    """Execute the report query and return a pandas dataframe wrapper.
+
+    With an enabled progress reporter the rows are read through a server-side cursor in batches
+    of FETCH_BATCH_ROWS so fetch progress can be reported as they arrive.
+    """
 
     if start_date > end_date:
         raise ValueError("start_date cannot be after end_date")
 
+    params = {"start_date": start_date, "end_date": end_date}
     with psycopg.connect(**settings.connection_kwargs()) as conn:
-        with conn.cursor() as cur:
-            cur.execute(REPORT_SQL, {"start_date": start_date, "end_date": end_date})
-            rows: Iterable[tuple] = cur.fetchall()
-            columns = [desc[0] for desc in cur.description]
+        if progress is None or not progress.enabled:
+            with conn.cursor() as cur:
+                cur.execute(REPORT_SQL, params)
+                rows: Iterable[tuple] = cur.fetchall()
+                columns = [desc[0] for desc in cur.description]
+        else:
+            progress.update(phase="querying", rows_total=estimate_report_rows(conn, params), force=True)
+            rows = []
+            with conn.cursor(name="ticketing_report") as cur:
+                cur.execute(REPORT_SQL, params)
+                while batch := cur.fetchmany(FETCH_BATCH_ROWS):
+                    rows.extend(batch)
+                    progress.update(phase="fetching", rows_fetched=len(rows))
+                columns = [desc[0] for desc in cur.description]
 
     dataframe = pd.DataFrame(rows, columns=columns)
     return TicketingReport(dataframe=dataframe)
+
+
+def copy_ticket_report_csv(
+    settings: DatabaseSettings,
+    start_date: date,
+    end_date: date,
+    path: Path | str,
+    progress: ProgressReporter | None = None,
+) -> int:
+    """Stream the report query to a CSV file with COPY TO STDOUT.
+
+    Postgres renders the CSV itself and the bytes go straight to disk block by block,
+    so no rows are decoded into Python objects. The file is written under a temporary
+    name and renamed when complete, so readers never see a partial report.
+    Returns the number of rows written.
+    """
+    if start_date > end_date:
+        raise ValueError("start_date cannot be after end_date")
+
+    target = Path(path)
+    target.parent.mkdir(parents=True, exist_ok=True)
+    partial = target.with_name(target.name + ".partial")
+
+    params = {"start_date": start_date, "end_date": end_date}
+    with psycopg.connect(**settings.connection_kwargs()) as conn:
+        track = progress is not None and progress.enabled
+        if track:
+            progress.update(phase="querying", rows_total=estimate_report_rows(conn, params), force=True)
+        with conn.cursor() as cur:
+            with partial.open("wb") as output:
+                with cur.copy(COPY_CSV_SQL, params) as copy:
+                    # Rows are counted from line breaks (minus the header); quoted
+                    # newlines make this approximate, cur.rowcount below is exact
+                    lines = 0
+                    written = 0
+                    for block in copy:
+                        output.write(block)
+                        if track:
+                            lines += bytes(block).count(b"\n")
+                            written += len(block)
+                            progress.update(phase="writing", rows_written=max(lines - 1, 0), bytes_written=written)
+            rows = cur.rowcount
+
+    partial.replace(target)
+    if track:
+        progress.update(phase="done", rows_written=rows, bytes_written=target.stat().st_size, force=True)
+    return rows
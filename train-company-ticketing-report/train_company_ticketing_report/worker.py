@@ -0,0 +1,144 @@
+"""Long-running report worker for the orchestrator's warm pool.
+
+The worker imports pandas/openpyxl and connects once, then claims queued rows from
+``report_tasks`` (FOR UPDATE SKIP LOCKED) until it is stopped. It sleeps on
+``LISTEN report_tasks`` between tasks, so a dispatched report starts without any pod,
+interpreter or import start-up cost.
+"""
+from __future__ import annotations
+
+import os
+import signal
+import socket
+import threading
+import time
+import traceback
+
+import psycopg
+
+from .config import DatabaseSettings
+from .progress import ProgressReporter
+from .report_service import copy_ticket_report_csv, fetch_ticket_report
+
+CHANNEL = "report_tasks"
+HEARTBEAT_SECONDS = 10
+IDLE_WAIT_SECONDS = 5
+
+CLAIM_SQL = """
+UPDATE report_tasks
+   SET status = 'running', worker_id = %(worker_id)s, attempts = attempts + 1,
+       started_at = now(), heartbeat_at = now()
+ WHERE id = (
+       SELECT id FROM report_tasks
+        WHERE status = 'queued'
+        ORDER BY id
+        FOR UPDATE SKIP LOCKED
+        LIMIT 1)
+RETURNING id, job_name, start_date, end_date, format, output_path, progress_url
+"""
+
+
+class ReportWorker:
+    def __init__(self, settings: DatabaseSettings, worker_id: str | None = None) -> None:
+        self.settings = settings
+        self.worker_id = worker_id or os.getenv("HOSTNAME") or socket.gethostname()
+        self.current_task: int | None = None
+        self._stopping = threading.Event()
+
+    def stop(self, *_: object) -> None:
+        self._stopping.set()
+
+    def run(self) -> int:
+        signal.signal(signal.SIGTERM, self.stop)
+        signal.signal(signal.SIGINT, self.stop)
+
+        heartbeat = threading.Thread(target=self._heartbeat_loop, name="heartbeat", daemon=True)
+        heartbeat.start()
+        print(f"Report worker {self.worker_id} ready")
+
+        with psycopg.connect(**self.settings.connection_kwargs(), autocommit=True) as conn:
+            self._set_state(conn, "idle")
+            conn.execute(f"LISTEN {CHANNEL}")
+            while not self._stopping.is_set():
+                task = self._claim(conn)
+                if task is None:
+                    # Wake on NOTIFY, or poll again after a short wait in case one was missed
+                    for _ in conn.notifies(timeout=IDLE_WAIT_SECONDS, stop_after=1):
+                        pass
+                    continue
+                self._set_state(conn, "busy")
+                self._run_task(conn, task)
+                self._set_state(conn, "idle")
+            conn.execute("DELETE FROM report_workers WHERE worker_id = %s", (self.worker_id,))
+
+        print(f"Report worker {self.worker_id} stopped")
+        return 0
+
+    def _claim(self, conn: psycopg.Connection) -> dict | None:
+        with conn.cursor() as cur:
+            cur.execute(CLAIM_SQL, {"worker_id": self.worker_id})
+            row = cur.fetchone()
+            if row is None:
+                return None
+            columns = [desc[0] for desc in cur.description]
+            return dict(zip(columns, row))
+
+    def _run_task(self, conn: psycopg.Connection, task: dict) -> None:
+        self.current_task = task["id"]
+        started = time.monotonic()
+        progress = ProgressReporter(task["progress_url"])
+        try:
+            if task["format"] == "csv":
+                rows = copy_ticket_report_csv(
+                    self.settings, task["start_date"], task["end_date"], task["output_path"], progress=progress
+                )
+            else:
+                report = fetch_ticket_report(self.settings, task["start_date"], task["end_date"], progress=progress)
+                report.to_excel(task["output_path"], progress=progress)
+                rows = len(report.dataframe)
+            conn.execute(
+                "UPDATE report_tasks SET status = 'succeeded', finished_at = now() WHERE id = %s",
+                (task["id"],),
+            )
+            print(f"{task['job_name']}: exported {rows} rows to {task['output_path']} "
+                  f"in {time.monotonic() - started:.1f}s")
+        except Exception as exc:
+            traceback.print_exc()
+            conn.execute(
+                "UPDATE report_tasks SET status = 'failed', finished_at = now(), error = %s WHERE id = %s",
+                (str(exc)[:2000], task["id"]),
+            )
+        finally:
+            self.current_task = None
+
+    def _set_state(self, conn: psycopg.Connection, state: str) -> None:
+        conn.execute(
+            """
+            INSERT INTO report_workers (worker_id, state, last_heartbeat_at) VALUES (%s, %s, now())
+            ON CONFLICT (worker_id) DO UPDATE SET state = EXCLUDED.state, last_heartbeat_at = now()
+            """,
+            (self.worker_id, state),
+        )
+
+    def _heartbeat_loop(self) -> None:
+        """Separate connection so heartbeats continue while a long report query runs."""
+        while not self._stopping.is_set():
+            try:
+                with psycopg.connect(**self.settings.connection_kwargs(), autocommit=True) as conn:
+                    while not self._stopping.wait(HEARTBEAT_SECONDS):
+                        conn.execute(
+                            "UPDATE report_workers SET last_heartbeat_at = now() WHERE worker_id = %s",
+                            (self.worker_id,),
+                        )
+                        if self.current_task is not None:
+                            conn.execute(
+                                "UPDATE report_tasks SET heartbeat_at = now() WHERE id = %s",
+                                (self.current_task,),
+                            )
+            except Exception as exc:  # pragma: no cover - reconnect on database hiccups
+                print(f"Heartbeat connection failed, retrying: {exc}")
+                self._stopping.wait(HEARTBEAT_SECONDS)
+
+
+def run_worker() -> int:
+    return ReportWorker(DatabaseSettings.from_env()).run()